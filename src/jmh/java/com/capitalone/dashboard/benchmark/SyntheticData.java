@@ -0,0 +1,543 @@
+package com.capitalone.dashboard.benchmark;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.Application;
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.BuildStage;
+import com.capitalone.dashboard.model.Cmdb;
+import com.capitalone.dashboard.model.CodeQuality;
+import com.capitalone.dashboard.model.CodeQualityMetric;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorItemConfigHistory;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.CommitStatus;
+import com.capitalone.dashboard.model.CommitType;
+import com.capitalone.dashboard.model.Component;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.GitRequest;
+import com.capitalone.dashboard.model.RepoBranch;
+import com.capitalone.dashboard.model.Review;
+import com.capitalone.dashboard.model.TestCapability;
+import com.capitalone.dashboard.model.TestCase;
+import com.capitalone.dashboard.model.TestCaseStatus;
+import com.capitalone.dashboard.model.TestResult;
+import com.capitalone.dashboard.model.TestSuite;
+import com.capitalone.dashboard.model.TestSuiteType;
+import com.capitalone.dashboard.model.Widget;
+import org.bson.types.ObjectId;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates the repository content the audit benchmarks run against: repositories with commits and merged pull
+ * requests, code quality scans, builds, test results with tagged test cases, stories, and a CMDB hierarchy of one
+ * executive owning lines of business, applications and components, each component with its team dashboard.
+ *
+ * All values come from a fixed seed, so two runs with the same seed and sizes see the same data.
+ */
+public class SyntheticData {
+
+    public static final long SEED = 42L;
+    public static final String EXECUTIVE = "executive0";
+    public static final String PEER_REVIEW_CONTEXT = "approvals/lgtmeow";
+    public static final String STORY_PREFIX = "STORY-";
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final int AUTHORS = 50;
+    private static final String CHANGE_DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+
+    private final Random random;
+    private final long beginDate;
+    private final long endDate;
+    private int revisions;
+
+    public SyntheticData(long seed, long beginDate, long endDate) {
+        this.random = new Random(seed);
+        this.beginDate = beginDate;
+        this.endDate = endDate;
+    }
+
+    /**
+     * Audit window of the given number of days ending at a fixed date
+     */
+    public static SyntheticData ofDays(int days) {
+        long endDate = 1609459200000L;
+        return new SyntheticData(SEED, endDate - days * DAY, endDate);
+    }
+
+    /**
+     * Settings the generated data is shaped for: its peer review context, story statuses, story tags and deploy
+     * stage names
+     */
+    public static ApiSettings settings() {
+        ApiSettings settings = new ApiSettings();
+        settings.setPeerReviewContexts(PEER_REVIEW_CONTEXT);
+        settings.setCommitLogIgnoreAuditRegEx("(.)*(increment version tag|\\[maven-release-plugin\\])(.)*");
+        settings.setValidStoryStatus(Arrays.asList("DONE"));
+        settings.setFeatureIDPattern("[A-Z]+-\\d+");
+        settings.setBuildStageRegEx(Arrays.asList("deploy"));
+        settings.setTestResultSuccessPriority("Low");
+        settings.setTestResultFailurePriority("High");
+        settings.setTestResultSkippedPriority("High");
+        settings.setTestResultThreshold(95.0);
+        settings.setTraceabilityThreshold(80.0);
+        settings.setMaxDaysRangeForQuery(365);
+        settings.setEvaluatorThreadPoolSize(4);
+        settings.setEvaluatorTimeoutSeconds(120);
+        return settings;
+    }
+
+    public long getBeginDate() {
+        return beginDate;
+    }
+
+    public long getEndDate() {
+        return endDate;
+    }
+
+    public CollectorItem repoItem(String name) {
+        CollectorItem item = collectorItem();
+        item.getOptions().put("url", "https://github.com/synthetic/" + name);
+        item.getOptions().put("branch", "master");
+        return item;
+    }
+
+    public CollectorItem codeQualityItem(String name) {
+        CollectorItem item = collectorItem();
+        item.getOptions().put("projectId", name);
+        item.getOptions().put("projectName", name);
+        item.getOptions().put("instanceUrl", "https://sonar.synthetic");
+        return item;
+    }
+
+    public CollectorItem buildItem(String name) {
+        CollectorItem item = collectorItem();
+        item.getOptions().put("jobName", name);
+        item.getOptions().put("jobUrl", "https://jenkins.synthetic/job/" + name);
+        item.getOptions().put("instanceUrl", "https://jenkins.synthetic");
+        return item;
+    }
+
+    public CollectorItem testItem(String name, String testType) {
+        CollectorItem item = collectorItem();
+        item.getOptions().put("jobName", name);
+        item.getOptions().put("testType", testType);
+        return item;
+    }
+
+    /**
+     * Commits of the repository spread over the window, a few of them empty
+     */
+    public List<Commit> commits(CollectorItem repoItem, int count) {
+        List<Commit> commits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Commit commit = commit(repoItem, timestamp());
+            commit.setNumberOfChanges(random.nextInt(20) == 0 ? 0 : 1 + random.nextInt(10));
+            commits.add(commit);
+        }
+        return commits;
+    }
+
+    /**
+     * Merged pull requests built from the given commits. Each pull request takes a few of them and adds its merge
+     * commit to the list. Most are approved by another author, some through a commit status, the others are not
+     * reviewed.
+     */
+    public List<GitRequest> pullRequests(CollectorItem repoItem, List<Commit> commits, int count) {
+        List<GitRequest> pullRequests = new ArrayList<>(count);
+        int available = commits.size();
+        for (int i = 0; i < count && available > 0; i++) {
+            String number = String.valueOf(i + 1);
+            String author = author();
+            long mergedAt = timestamp();
+
+            GitRequest pr = new GitRequest();
+            pr.setId(ObjectId.get());
+            pr.setCollectorItemId(repoItem.getId());
+            pr.setNumber(number);
+            pr.setState("merged");
+            pr.setUserId(author);
+            pr.setScmAuthor(author);
+            pr.setMergeAuthor(author());
+            pr.setCreatedAt(mergedAt - DAY);
+            pr.setUpdatedAt(mergedAt);
+            pr.setMergedAt(mergedAt);
+            pr.setScmUrl((String) repoItem.getOptions().get("url"));
+            pr.setScmBranch((String) repoItem.getOptions().get("branch"));
+            pr.setReviews(new ArrayList<>());
+            pr.setCommitStatuses(new ArrayList<>());
+            pr.setComments(new ArrayList<>());
+
+            List<Commit> prCommits = new ArrayList<>();
+            int size = 1 + random.nextInt(4);
+            for (int j = 0; j < size; j++) {
+                Commit commit = commits.get(random.nextInt(available));
+                commit.setScmCommitTimestamp(Math.min(commit.getScmCommitTimestamp(), mergedAt - 1));
+                prCommits.add(commit);
+            }
+            pr.setCommits(prCommits);
+
+            Commit merge = commit(repoItem, mergedAt);
+            merge.setType(CommitType.Merge);
+            merge.setPullNumber(number);
+            merge.setNumberOfChanges(1);
+            commits.add(merge);
+            pr.setScmRevisionNumber(merge.getScmRevisionNumber());
+
+            int review = random.nextInt(10);
+            if (review < 7) {
+                Review approval = new Review();
+                approval.setState("APPROVED");
+                approval.setAuthor(author());
+                approval.setCreatedAt(mergedAt - 1);
+                approval.setUpdatedAt(mergedAt - 1);
+                pr.getReviews().add(approval);
+            } else if (review < 9) {
+                CommitStatus status = new CommitStatus();
+                status.setContext(PEER_REVIEW_CONTEXT);
+                status.setState("success");
+                pr.getCommitStatuses().add(status);
+            }
+            pullRequests.add(pr);
+        }
+        return pullRequests;
+    }
+
+    /**
+     * Scans of a code quality project over the window, latest first, with coverage and sonar 6.7 style quality gate
+     * details
+     */
+    public List<CodeQuality> codeQualities(CollectorItem codeQualityItem, int count) {
+        List<CodeQuality> scans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CodeQuality scan = new CodeQuality();
+            scan.setId(ObjectId.get());
+            scan.setCollectorItemId(codeQualityItem.getId());
+            scan.setTimestamp(endDate - i * (endDate - beginDate) / count);
+            scan.setUrl("https://sonar.synthetic/dashboard/" + codeQualityItem.getOptions().get("projectId"));
+            double coverage = 50 + random.nextInt(500) / 10.0;
+            CodeQualityMetric coverageMetric = new CodeQualityMetric("coverage");
+            coverageMetric.setValue(String.valueOf(coverage));
+            scan.getMetrics().add(coverageMetric);
+            CodeQualityMetric gate = new CodeQualityMetric("quality_gate_details");
+            gate.setValue("{\"level\":\"" + (coverage >= 80 ? "OK" : "ERROR") + "\",\"conditions\":["
+                    + "{\"metric\":\"coverage\",\"op\":\"LT\",\"error\":\"80\",\"actual\":\"" + coverage + "\",\"level\":\"" + (coverage >= 80 ? "OK" : "ERROR") + "\"},"
+                    + "{\"metric\":\"blocker_violations\",\"op\":\"GT\",\"error\":\"0\",\"actual\":\"0\",\"level\":\"OK\"}]}");
+            scan.getMetrics().add(gate);
+            scans.add(scan);
+        }
+        return scans;
+    }
+
+    /**
+     * Configuration changes of a collector item, made by the same authors as the commits
+     */
+    public List<CollectorItemConfigHistory> configHistory(CollectorItem item, int count) {
+        List<CollectorItemConfigHistory> changes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            CollectorItemConfigHistory change = new CollectorItemConfigHistory();
+            change.setCollectorItemId(item.getId());
+            change.setTimestamp(timestamp());
+            change.setUserID(author());
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    public Build build(CollectorItem buildItem, CollectorItem repoItem) {
+        Build build = new Build();
+        build.setId(ObjectId.get());
+        build.setCollectorItemId(buildItem.getId());
+        build.setTimestamp(timestamp());
+        build.setCodeRepos(new ArrayList<>(Collections.singletonList(new RepoBranch((String) repoItem.getOptions().get("url"),
+                (String) repoItem.getOptions().get("branch"), RepoBranch.RepoType.GIT))));
+        List<BuildStage> stages = new ArrayList<>();
+        for (String name : new String[]{"checkout", "compile", "test", "deploy"}) {
+            BuildStage stage = new BuildStage();
+            stage.setName(name);
+            stage.setStatus(random.nextInt(10) == 0 ? "failed" : "success");
+            stages.add(stage);
+        }
+        build.setStages(stages);
+        return build;
+    }
+
+    /**
+     * Stories of a team changed during the window, most of them done
+     */
+    public List<Feature> stories(String teamId, int first, int count) {
+        SimpleDateFormat sdf = new SimpleDateFormat(CHANGE_DATE_PATTERN);
+        List<Feature> stories = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            Feature story = new Feature();
+            story.setId(ObjectId.get());
+            story.setsNumber(STORY_PREFIX + i);
+            story.setsTeamID(teamId);
+            story.setsStatus(random.nextInt(5) == 0 ? "In Progress" : "Done");
+            story.setChangeDate(sdf.format(new Date(timestamp())));
+            stories.add(story);
+        }
+        return stories;
+    }
+
+    /**
+     * Latest result of a test job, its test cases tagged with some of the given stories
+     */
+    public TestResult testResult(CollectorItem testItem, TestSuiteType type, int testCases, List<Feature> stories) {
+        TestResult result = new TestResult();
+        result.setId(ObjectId.get());
+        result.setCollectorItemId(testItem.getId());
+        result.setType(type);
+        result.setTimestamp(endDate - random.nextInt((int) Math.max(1, (endDate - beginDate) / 1000)) * 1000L);
+
+        TestCapability capability = new TestCapability();
+        int success = 0;
+        int failed = 0;
+        int skipped = 0;
+        int perSuite = Math.max(1, testCases / 4);
+        for (int created = 0; created < testCases; ) {
+            TestSuite suite = new TestSuite();
+            List<TestCase> cases = new ArrayList<>();
+            int suiteSuccess = 0;
+            int suiteFailed = 0;
+            int suiteSkipped = 0;
+            for (int i = 0; i < perSuite && created < testCases; i++, created++) {
+                TestCase testCase = new TestCase();
+                testCase.setId(String.valueOf(created));
+                testCase.setDescription("test case " + created);
+                int outcome = random.nextInt(50);
+                testCase.setStatus(outcome == 0 ? TestCaseStatus.Failure : outcome == 1 ? TestCaseStatus.Skipped : TestCaseStatus.Success);
+                if (outcome == 0) { suiteFailed++; } else if (outcome == 1) { suiteSkipped++; } else { suiteSuccess++; }
+                Set<String> tags = new HashSet<>();
+                if (!stories.isEmpty() && random.nextInt(3) > 0) {
+                    tags.add(stories.get(random.nextInt(stories.size())).getsNumber());
+                }
+                testCase.setTags(tags);
+                cases.add(testCase);
+            }
+            suite.setTestCases(cases);
+            suite.setSuccessTestCaseCount(suiteSuccess);
+            suite.setFailedTestCaseCount(suiteFailed);
+            suite.setSkippedTestCaseCount(suiteSkipped);
+            suite.setTotalTestCaseCount(cases.size());
+            capability.getTestSuites().add(suite);
+            success += suiteSuccess;
+            failed += suiteFailed;
+            skipped += suiteSkipped;
+        }
+        result.getTestCapabilities().add(capability);
+        result.setSuccessCount(success);
+        result.setFailureCount(failed);
+        result.setSkippedCount(skipped);
+        result.setTotalCount(testCases);
+        return result;
+    }
+
+    /**
+     * CMDB hierarchy of {@link #EXECUTIVE} with the given number of lines of business, applications per line of
+     * business and components per application. Every component has a team dashboard with a repository, a code
+     * quality project, a build job and a functional test job, and the data collected for them.
+     */
+    public Portfolio portfolio(int linesOfBusiness, int applicationsPerLob, int componentsPerApplication,
+                               int commitsPerRepo, int pullRequestsPerRepo, int testCasesPerJob) {
+        Portfolio portfolio = new Portfolio();
+        int story = 0;
+        for (int l = 0; l < linesOfBusiness; l++) {
+            String lob = "lob" + l;
+            portfolio.linesOfBusiness.add(lob);
+            List<Cmdb> applications = new ArrayList<>();
+            for (int a = 0; a < applicationsPerLob; a++) {
+                String appName = "app" + l + "-" + a;
+                Cmdb application = new Cmdb();
+                application.setConfigurationItem(appName);
+                application.setCommonName(appName);
+                application.setItemType("app");
+                application.setOwnerDept(lob);
+                application.setBusinessOwner(EXECUTIVE);
+                application.setValidConfigItem(true);
+                List<String> componentNames = new ArrayList<>();
+                for (int c = 0; c < componentsPerApplication; c++) {
+                    String name = appName + "-" + c;
+                    componentNames.add(name);
+                    int stories = Math.max(1, testCasesPerJob / 4);
+                    addComponent(portfolio, appName, name, commitsPerRepo, pullRequestsPerRepo, testCasesPerJob, story, stories);
+                    story += stories;
+                }
+                application.setComponents(componentNames);
+                applications.add(application);
+            }
+            portfolio.applicationsByLob.put(lob, applications);
+        }
+        return portfolio;
+    }
+
+    private void addComponent(Portfolio portfolio, String appName, String name, int commitsPerRepo, int pullRequestsPerRepo,
+                              int testCasesPerJob, int firstStory, int storyCount) {
+        CollectorItem repoItem = repoItem(name);
+        CollectorItem codeQualityItem = codeQualityItem(name);
+        CollectorItem buildItem = buildItem(name);
+        CollectorItem testItem = testItem(name + "-regression", "Functional");
+        String teamId = "team-" + name;
+
+        Component component = new Component(name);
+        component.setId(ObjectId.get());
+        component.addCollectorItem(CollectorType.SCM, repoItem);
+        component.addCollectorItem(CollectorType.CodeQuality, codeQualityItem);
+        component.addCollectorItem(CollectorType.Build, buildItem);
+        component.addCollectorItem(CollectorType.Test, testItem);
+
+        Dashboard dashboard = new Dashboard("Template1", name, new Application(appName, component), null, DashboardType.Team,
+                appName, name, null, false, null);
+        dashboard.setId(ObjectId.get());
+        for (String widgetName : new String[]{"repo", "codeanalysis", "build", "feature"}) {
+            Widget widget = new Widget();
+            widget.setName(widgetName);
+            widget.setComponentId(component.getId());
+            if ("feature".equals(widgetName)) {
+                widget.getOptions().put("teamId", teamId);
+            }
+            dashboard.getWidgets().add(widget);
+        }
+
+        List<Commit> commits = commits(repoItem, commitsPerRepo);
+        List<GitRequest> pullRequests = pullRequests(repoItem, commits, pullRequestsPerRepo);
+        List<Feature> stories = stories(teamId, firstStory, storyCount);
+
+        portfolio.dashboards.put(name, dashboard);
+        portfolio.components.put(component.getId(), component);
+        for (CollectorItem item : new CollectorItem[]{repoItem, codeQualityItem, buildItem, testItem}) {
+            portfolio.collectorItems.put(item.getId(), item);
+        }
+        portfolio.commits.put(repoItem.getId(), commits);
+        portfolio.pullRequests.put(repoItem.getId(), pullRequests);
+        portfolio.codeQualities.put(codeQualityItem.getId(), codeQualities(codeQualityItem, 10));
+        portfolio.configHistory.put(codeQualityItem.getId(), configHistory(codeQualityItem, 3));
+        portfolio.configHistory.put(buildItem.getId(), configHistory(buildItem, 3));
+        portfolio.builds.put(buildItem.getId(), build(buildItem, repoItem));
+        portfolio.testResults.put(testItem.getId(), Collections.singletonList(testResult(testItem, TestSuiteType.Functional, testCasesPerJob, stories)));
+        portfolio.storiesByTeam.put(teamId, stories);
+        stories.forEach(s -> portfolio.storiesByNumber.computeIfAbsent(s.getsNumber(), k -> new ArrayList<>()).add(s));
+    }
+
+    private CollectorItem collectorItem() {
+        CollectorItem item = new CollectorItem();
+        item.setId(ObjectId.get());
+        item.setLastUpdated(endDate);
+        return item;
+    }
+
+    private Commit commit(CollectorItem repoItem, long timestamp) {
+        Commit commit = new Commit();
+        commit.setId(ObjectId.get());
+        commit.setCollectorItemId(repoItem.getId());
+        commit.setScmRevisionNumber(String.format("%08x%032x", revisions++, random.nextLong() & Long.MAX_VALUE));
+        String author = author();
+        commit.setScmAuthor(author);
+        commit.setScmAuthorLogin(author);
+        commit.setScmCommitLog("change " + revisions);
+        commit.setScmCommitTimestamp(timestamp);
+        commit.setTimestamp(timestamp);
+        commit.setType(CommitType.New);
+        return commit;
+    }
+
+    private String author() {
+        return "author" + random.nextInt(AUTHORS);
+    }
+
+    private long timestamp() {
+        return beginDate + (long) (random.nextDouble() * (endDate - beginDate));
+    }
+
+    /**
+     * Generated CMDB hierarchy and the data collected for its components, keyed the way the repositories look
+     * them up
+     */
+    public static class Portfolio {
+        private final List<String> linesOfBusiness = new ArrayList<>();
+        private final Map<String, List<Cmdb>> applicationsByLob = new LinkedHashMap<>();
+        private final Map<String, Dashboard> dashboards = new LinkedHashMap<>();
+        private final Map<ObjectId, Component> components = new HashMap<>();
+        private final Map<ObjectId, CollectorItem> collectorItems = new HashMap<>();
+        private final Map<ObjectId, List<Commit>> commits = new HashMap<>();
+        private final Map<ObjectId, List<GitRequest>> pullRequests = new HashMap<>();
+        private final Map<ObjectId, List<CodeQuality>> codeQualities = new HashMap<>();
+        private final Map<ObjectId, List<CollectorItemConfigHistory>> configHistory = new HashMap<>();
+        private final Map<ObjectId, Build> builds = new HashMap<>();
+        private final Map<ObjectId, List<TestResult>> testResults = new HashMap<>();
+        private final Map<String, List<Feature>> storiesByTeam = new HashMap<>();
+        private final Map<String, List<Feature>> storiesByNumber = new HashMap<>();
+
+        public List<String> getLinesOfBusiness() {
+            return linesOfBusiness;
+        }
+
+        public List<Cmdb> getApplications(String lob) {
+            return applicationsByLob.getOrDefault(lob, Collections.emptyList());
+        }
+
+        public List<Cmdb> getApplications() {
+            List<Cmdb> applications = new ArrayList<>();
+            applicationsByLob.values().forEach(applications::addAll);
+            return applications;
+        }
+
+        public Map<String, Dashboard> getDashboards() {
+            return dashboards;
+        }
+
+        public Map<ObjectId, Component> getComponents() {
+            return components;
+        }
+
+        public Map<ObjectId, CollectorItem> getCollectorItems() {
+            return collectorItems;
+        }
+
+        public Map<ObjectId, List<Commit>> getCommits() {
+            return commits;
+        }
+
+        public Map<ObjectId, List<GitRequest>> getPullRequests() {
+            return pullRequests;
+        }
+
+        public Map<ObjectId, List<CodeQuality>> getCodeQualities() {
+            return codeQualities;
+        }
+
+        public Map<ObjectId, List<CollectorItemConfigHistory>> getConfigHistory() {
+            return configHistory;
+        }
+
+        public Map<ObjectId, Build> getBuilds() {
+            return builds;
+        }
+
+        public Map<ObjectId, List<TestResult>> getTestResults() {
+            return testResults;
+        }
+
+        public Map<String, List<Feature>> getStoriesByTeam() {
+            return storiesByTeam;
+        }
+
+        public Map<String, List<Feature>> getStoriesByNumber() {
+            return storiesByNumber;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.capitalone.dashboard.benchmark;
+
+import com.capitalone.dashboard.model.Build;
+import com.capitalone.dashboard.model.CodeQuality;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.TestCapability;
+import com.capitalone.dashboard.model.TestResult;
+import com.capitalone.dashboard.repository.BuildRepository;
+import com.capitalone.dashboard.repository.CmdbRepository;
+import com.capitalone.dashboard.repository.CodeQualityRepository;
+import com.capitalone.dashboard.repository.CollItemConfigHistoryRepository;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.CommitRepository;
+import com.capitalone.dashboard.repository.ComponentRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.FeatureRepository;
+import com.capitalone.dashboard.repository.GitRequestRepository;
+import com.capitalone.dashboard.repository.LatestRecordQuery;
+import com.capitalone.dashboard.repository.TestResultRepository;
+import com.querydsl.core.types.Predicate;
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Repositories answering the queries of the audit evaluators and services from a {@link SyntheticData.Portfolio}.
+ * Each query is answered by filtering the generated data in memory, the way the database would.
+ */
+public class SyntheticRepositories {
+
+    private final DashboardRepository dashboardRepository = mock(DashboardRepository.class);
+    private final ComponentRepository componentRepository = mock(ComponentRepository.class);
+    private final CollectorItemRepository collectorItemRepository = mock(CollectorItemRepository.class);
+    private final CmdbRepository cmdbRepository = mock(CmdbRepository.class);
+    private final CommitRepository commitRepository = mock(CommitRepository.class);
+    private final GitRequestRepository gitRequestRepository = mock(GitRequestRepository.class);
+    private final CodeQualityRepository codeQualityRepository = mock(CodeQualityRepository.class);
+    private final CollItemConfigHistoryRepository collItemConfigHistoryRepository = mock(CollItemConfigHistoryRepository.class);
+    private final BuildRepository buildRepository = mock(BuildRepository.class);
+    private final TestResultRepository testResultRepository = mock(TestResultRepository.class);
+    private final FeatureRepository featureRepository = mock(FeatureRepository.class);
+    private final LatestRecordQuery latestRecordQuery = mock(LatestRecordQuery.class);
+
+    public SyntheticRepositories(SyntheticData.Portfolio portfolio) {
+        when(dashboardRepository.findByTitleAndType(anyString(), any(DashboardType.class)))
+                .thenAnswer(i -> portfolio.getDashboards().get(i.<String>getArgument(0)));
+        when(componentRepository.findById(any(ObjectId.class)))
+                .thenAnswer(i -> Optional.ofNullable(portfolio.getComponents().get(i.<ObjectId>getArgument(0))));
+        when(collectorItemRepository.findAllById(any()))
+                .thenAnswer(i -> StreamSupport.stream(i.<Iterable<ObjectId>>getArgument(0).spliterator(), false)
+                        .map(portfolio.getCollectorItems()::get).filter(Objects::nonNull).collect(Collectors.toList()));
+
+        when(cmdbRepository.findByItemTypeAndOwnerDeptAndValidConfigItem(eq("app"), anyString(), anyBoolean()))
+                .thenAnswer(i -> portfolio.getApplications(i.getArgument(1)));
+        when(cmdbRepository.findByBusinessOwnerAndItemTypeAndValidConfigItem(anyString(), eq("app"), anyBoolean()))
+                .thenAnswer(i -> SyntheticData.EXECUTIVE.equals(i.getArgument(0)) ? portfolio.getApplications() : Collections.emptyList());
+
+        when(commitRepository.findByCollectorItemIdAndScmCommitTimestampIsBetween(any(ObjectId.class), anyLong(), anyLong()))
+                .thenAnswer(i -> filter(portfolio.getCommits().get(i.<ObjectId>getArgument(0)),
+                        c -> between(c.getScmCommitTimestamp(), i.getArgument(1), i.getArgument(2))));
+        when(commitRepository.findAllByCollectorItemIdAndScmRevisionNumberOrderByTimestampDesc(any(ObjectId.class), anyString()))
+                .thenAnswer(i -> filter(portfolio.getCommits().get(i.<ObjectId>getArgument(0)),
+                        c -> i.getArgument(1).equals(c.getScmRevisionNumber())));
+        // merged pull request lookups across repositories find nothing
+        when(commitRepository.findAll(any(Predicate.class))).thenReturn(Collections.emptyList());
+        when(gitRequestRepository.findAll(any(Predicate.class))).thenReturn(Collections.emptyList());
+        when(gitRequestRepository.findByCollectorItemIdAndMergedAtIsBetween(any(ObjectId.class), anyLong(), anyLong()))
+                .thenAnswer(i -> filter(portfolio.getPullRequests().get(i.<ObjectId>getArgument(0)),
+                        pr -> between(pr.getMergedAt(), i.getArgument(1), i.getArgument(2))));
+
+        when(codeQualityRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(any(ObjectId.class), anyLong(), anyLong()))
+                .thenAnswer(i -> filter(portfolio.getCodeQualities().get(i.<ObjectId>getArgument(0)),
+                        cq -> between(cq.getTimestamp(), i.getArgument(1), i.getArgument(2))));
+        when(codeQualityRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(any(ObjectId.class)))
+                .thenAnswer(i -> first(portfolio.getCodeQualities().get(i.<ObjectId>getArgument(0))));
+        when(collItemConfigHistoryRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(any(ObjectId.class), anyLong(), anyLong()))
+                .thenAnswer(i -> filter(portfolio.getConfigHistory().get(i.<ObjectId>getArgument(0)),
+                        h -> between(h.getTimestamp(), i.getArgument(1), i.getArgument(2))));
+        when(buildRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(any(ObjectId.class)))
+                .thenAnswer(i -> portfolio.getBuilds().get(i.<ObjectId>getArgument(0)));
+        when(testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(any(ObjectId.class), anyLong(), anyLong()))
+                .thenAnswer(i -> filter(portfolio.getTestResults().get(i.<ObjectId>getArgument(0)),
+                        t -> between(t.getTimestamp(), i.getArgument(1), i.getArgument(2))).stream()
+                        .map(SyntheticRepositories::read).collect(Collectors.toList()));
+        when(testResultRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(any(ObjectId.class)))
+                .thenAnswer(i -> read(first(portfolio.getTestResults().get(i.<ObjectId>getArgument(0)))));
+        when(latestRecordQuery.findLatest(any(), anyCollection(), anyString()))
+                .thenAnswer(i -> latest(portfolio, i.getArgument(0), i.getArgument(1)));
+        when(latestRecordQuery.findLatest(any(), anyCollection())).thenCallRealMethod();
+        when(featureRepository.getStoryByTeamID(anyString()))
+                .thenAnswer(i -> copy(portfolio.getStoriesByTeam().get(i.<String>getArgument(0))));
+        when(featureRepository.getStoryByNumber(anyString()))
+                .thenAnswer(i -> copy(portfolio.getStoriesByNumber().get(i.<String>getArgument(0))));
+    }
+
+    /**
+     * Latest records of the collector items, answered with what the findTop1 queries of each type answer
+     */
+    private static Map<ObjectId, Object> latest(SyntheticData.Portfolio portfolio, Class<?> type, Collection<ObjectId> collectorItemIds) {
+        Function<ObjectId, Object> latest;
+        if (Build.class.equals(type)) {
+            latest = portfolio.getBuilds()::get;
+        } else if (CodeQuality.class.equals(type)) {
+            latest = id -> first(portfolio.getCodeQualities().get(id));
+        } else if (TestResult.class.equals(type)) {
+            latest = id -> read(first(portfolio.getTestResults().get(id)));
+        } else {
+            return new HashMap<>();
+        }
+        Map<ObjectId, Object> records = new HashMap<>();
+        collectorItemIds.forEach(id -> Optional.ofNullable(latest.apply(id)).ifPresent(record -> records.put(id, record)));
+        return records;
+    }
+
+    private static boolean between(long value, long begin, long end) {
+        return value > begin && value < end;
+    }
+
+    private static <T> List<T> filter(Collection<T> values, java.util.function.Predicate<T> filter) {
+        return values == null ? new ArrayList<>() : values.stream().filter(filter).collect(Collectors.toList());
+    }
+
+    private static <T> T first(List<T> values) {
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * The test result evaluator clears the test suites of what it reads, so every query gets its own capabilities
+     * the way a fresh read from the database would
+     */
+    private static TestResult read(TestResult stored) {
+        if (stored == null) { return null; }
+        TestResult result = new TestResult();
+        result.setId(stored.getId());
+        result.setCollectorItemId(stored.getCollectorItemId());
+        result.setType(stored.getType());
+        result.setTimestamp(stored.getTimestamp());
+        result.setSuccessCount(stored.getSuccessCount());
+        result.setFailureCount(stored.getFailureCount());
+        result.setSkippedCount(stored.getSkippedCount());
+        result.setTotalCount(stored.getTotalCount());
+        for (TestCapability storedCapability : stored.getTestCapabilities()) {
+            TestCapability capability = new TestCapability();
+            capability.setTestSuites(new ArrayList<>(storedCapability.getTestSuites()));
+            result.getTestCapabilities().add(capability);
+        }
+        return result;
+    }
+
+    private static <T> List<T> copy(List<T> values) {
+        return values == null ? new ArrayList<>() : new ArrayList<>(values);
+    }
+
+    public DashboardRepository getDashboardRepository() {
+        return dashboardRepository;
+    }
+
+    public ComponentRepository getComponentRepository() {
+        return componentRepository;
+    }
+
+    public CollectorItemRepository getCollectorItemRepository() {
+        return collectorItemRepository;
+    }
+
+    public CmdbRepository getCmdbRepository() {
+        return cmdbRepository;
+    }
+
+    public CommitRepository getCommitRepository() {
+        return commitRepository;
+    }
+
+    public GitRequestRepository getGitRequestRepository() {
+        return gitRequestRepository;
+    }
+
+    public CodeQualityRepository getCodeQualityRepository() {
+        return codeQualityRepository;
+    }
+
+    public CollItemConfigHistoryRepository getCollItemConfigHistoryRepository() {
+        return collItemConfigHistoryRepository;
+    }
+
+    public BuildRepository getBuildRepository() {
+        return buildRepository;
+    }
+
+    public TestResultRepository getTestResultRepository() {
+        return testResultRepository;
+    }
+
+    public FeatureRepository getFeatureRepository() {
+        return featureRepository;
+    }
+
+    public LatestRecordQuery getLatestRecordQuery() {
+        return latestRecordQuery;
+    }
+}
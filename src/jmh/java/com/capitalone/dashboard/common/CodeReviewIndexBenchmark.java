@@ -0,0 +1,134 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.GitRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matching pass of the code review audit over one repository window: finding the merge commit of every pull
+ * request, collecting the pull request commits, filtering direct commits and the auto merge correction for pull
+ * requests without peer review. The linear benchmark reproduces the list scans, the indexed one uses
+ * {@link CodeReviewIndex}. Windows are generated from a fixed seed.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CodeReviewIndexBenchmark -p pullRequests=1000 -p commits=5000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CodeReviewIndexBenchmark {
+
+    private static final int COMMITS_PER_PR = 3;
+
+    @Param({"10000"})
+    private int pullRequests;
+
+    @Param({"50000"})
+    private int commits;
+
+    private List<Commit> windowCommits;
+    private List<GitRequest> windowPullRequests;
+    private Set<GitRequest> peerReviewed;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42L);
+        windowCommits = new ArrayList<>(commits);
+        for (int i = 0; i < commits; i++) {
+            windowCommits.add(makeCommit(String.format("%040x", random.nextLong() & Long.MAX_VALUE), i));
+        }
+        windowPullRequests = new ArrayList<>(pullRequests);
+        peerReviewed = new HashSet<>();
+        for (int i = 0; i < pullRequests; i++) {
+            GitRequest pr = new GitRequest();
+            pr.setNumber(String.valueOf(i));
+            pr.setCreatedAt(i);
+            // most merge commits are in the window, some were made before it
+            pr.setScmRevisionNumber(random.nextInt(10) == 0 ? "missing" + i : windowCommits.get(random.nextInt(commits)).getScmRevisionNumber());
+            List<Commit> prCommits = new ArrayList<>();
+            for (int j = 0; j < COMMITS_PER_PR; j++) {
+                prCommits.add(windowCommits.get(random.nextInt(commits)));
+            }
+            pr.setCommits(prCommits);
+            windowPullRequests.add(pr);
+            if (random.nextInt(10) != 0) {
+                peerReviewed.add(pr);
+            }
+        }
+    }
+
+    @Benchmark
+    public void linear(Blackhole bh) {
+        List<String> allPrCommitShas = new ArrayList<>();
+        for (GitRequest pr : windowPullRequests) {
+            Commit mergeCommit = windowCommits.stream()
+                    .filter(c -> Objects.equals(c.getScmRevisionNumber(), pr.getScmRevisionNumber()))
+                    .findFirst().orElse(null);
+            bh.consume(mergeCommit);
+            pr.getCommits().forEach(c -> allPrCommitShas.add(c.getScmRevisionNumber()));
+        }
+        windowCommits.stream().filter(c -> !allPrCommitShas.contains(c.getScmRevisionNumber())).forEach(bh::consume);
+        for (GitRequest noPR : windowPullRequests) {
+            if (peerReviewed.contains(noPR)) { continue; }
+            String lastSha = noPR.getCommits().get(COMMITS_PER_PR - 1).getScmRevisionNumber();
+            boolean found = false;
+            for (GitRequest yesPR : windowPullRequests) {
+                if (!peerReviewed.contains(yesPR) || yesPR.getCreatedAt() < noPR.getCreatedAt()) { continue; }
+                for (Commit commit : yesPR.getCommits()) {
+                    if (lastSha.equalsIgnoreCase(commit.getScmRevisionNumber())) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (found) { break; }
+            }
+            bh.consume(found);
+        }
+    }
+
+    @Benchmark
+    public void indexed(Blackhole bh) {
+        CodeReviewIndex index = CodeReviewIndex.of(windowCommits, windowPullRequests);
+        Set<String> allPrCommitShas = new HashSet<>();
+        for (GitRequest pr : windowPullRequests) {
+            bh.consume(index.getCommit(pr.getScmRevisionNumber()));
+            pr.getCommits().forEach(c -> allPrCommitShas.add(c.getScmRevisionNumber()));
+        }
+        windowCommits.stream().filter(c -> !allPrCommitShas.contains(c.getScmRevisionNumber())).forEach(bh::consume);
+        for (GitRequest noPR : windowPullRequests) {
+            if (peerReviewed.contains(noPR)) { continue; }
+            String lastSha = noPR.getCommits().get(COMMITS_PER_PR - 1).getScmRevisionNumber();
+            bh.consume(index.getPullRequestsContaining(lastSha).stream()
+                    .anyMatch(yesPR -> peerReviewed.contains(yesPR) && yesPR.getCreatedAt() >= noPR.getCreatedAt()));
+        }
+    }
+
+    private static Commit makeCommit(String sha, long timestamp) {
+        Commit commit = new Commit();
+        commit.setScmRevisionNumber(sha);
+        commit.setScmCommitTimestamp(timestamp);
+        commit.setNumberOfChanges(1);
+        return commit;
+    }
+}
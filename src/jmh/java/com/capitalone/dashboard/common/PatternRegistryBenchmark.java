@@ -0,0 +1,111 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.evaluator.CodeReviewEvaluator;
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.GitRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Per commit cost of the commit log checks done by the code review audit: the increment version tag check and
+ * the merge commit from target branch check. The compile benchmarks reproduce compiling the configured
+ * expressions on every call, the registry benchmarks run the audit code backed by {@link PatternRegistry}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternRegistryBenchmark {
+
+    private ApiSettings settings;
+    private PatternRegistry patternRegistry;
+    private Commit[] commits;
+    private GitRequest pr;
+    private CodeReviewEvaluator codeReviewEvaluator;
+
+    @Setup
+    public void setup() {
+        settings = new ApiSettings();
+        settings.setCommitLogIgnoreAuditRegEx("(.)*(increment version tag|\\[maven-release-plugin\\])(.)*");
+        settings.setMergeCommitFromTargetBranchRegEx(Arrays.asList(
+                "(.*merge branch.*')(.*)('.*into.*)",
+                "(.*merge.*'.*\\/)(.*)('.*into.*)",
+                "(.*merge.)(https.*)(.into.*)",
+                "(.*merge.*\\/)(.*)(.into.*)",
+                "(.*merge.)(.*)(.into.*)",
+                "(.*merge branch.*')(.*)('.*of.*)",
+                "(.*merge.*'.*\\/)(.*)('.*of.*)"));
+
+        String[] logs = {
+                "Fix null check in the deploy evaluator",
+                "Merge branch 'master' into feature/audit",
+                "[maven-release-plugin] prepare for next development iteration",
+                "Merge remote-tracking branch 'origin/master' into hotfix",
+                "Add service account file patterns"};
+        commits = new Commit[logs.length];
+        for (int i = 0; i < logs.length; i++) {
+            commits[i] = new Commit();
+            commits[i].setScmCommitLog(logs[i]);
+        }
+        pr = new GitRequest();
+        pr.setScmBranch("master");
+        pr.setScmUrl("https://github.com/org/repo");
+        patternRegistry = new PatternRegistry(settings);
+        codeReviewEvaluator = new CodeReviewEvaluator(null, null, null, null, settings, null, null, patternRegistry);
+    }
+
+    @Benchmark
+    public void incrementVersionTagCompileEachCall(Blackhole bh) {
+        for (Commit commit : commits) {
+            bh.consume(Pattern.compile(settings.getCommitLogIgnoreAuditRegEx()).matcher(commit.getScmCommitLog()).matches());
+        }
+    }
+
+    @Benchmark
+    public void incrementVersionTagRegistry(Blackhole bh) {
+        for (Commit commit : commits) {
+            bh.consume(CommonCodeReview.matchIncrementVersionTag(commit.getScmCommitLog(), patternRegistry));
+        }
+    }
+
+    @Benchmark
+    public void mergeCommitCompileEachCall(Blackhole bh) {
+        for (Commit commit : commits) {
+            boolean match = false;
+            for (String regex : settings.getMergeCommitFromTargetBranchRegEx()) {
+                Matcher matcher = Pattern.compile(regex, Pattern.CASE_INSENSITIVE).matcher(commit.getScmCommitLog());
+                if (matcher.matches() && (StringUtils.equalsIgnoreCase(pr.getScmBranch(), matcher.group(2))
+                        || StringUtils.equalsIgnoreCase(pr.getScmUrl(), matcher.group(2)))) {
+                    match = true;
+                    break;
+                }
+            }
+            bh.consume(match);
+        }
+    }
+
+    @Benchmark
+    public void mergeCommitRegistry(Blackhole bh) {
+        for (Commit commit : commits) {
+            bh.consume(codeReviewEvaluator.isMergeCommitFromTargetBranch(commit, pr));
+        }
+    }
+}
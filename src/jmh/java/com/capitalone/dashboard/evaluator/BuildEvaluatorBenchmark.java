@@ -0,0 +1,65 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.benchmark.SyntheticData;
+import com.capitalone.dashboard.benchmark.SyntheticRepositories;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
+import com.capitalone.dashboard.response.BuildAuditResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Build audit of one job: matching the repositories of the latest build and comparing the job configuration
+ * authors with the authors of the repository commits. Repository content comes from {@link SyntheticData}.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="BuildEvaluatorBenchmark -p commits=20000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class BuildEvaluatorBenchmark {
+
+    @Param({"2000"})
+    private int commits;
+
+    private SyntheticData data;
+    private CollectorItem buildItem;
+    private Map<String, List<CollectorItem>> repos;
+    private BuildEvaluator evaluator;
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.ofDays(90);
+        SyntheticData.Portfolio portfolio = data.portfolio(1, 1, 1, commits, commits / 4, 0);
+        SyntheticRepositories repositories = new SyntheticRepositories(portfolio);
+        Component component = portfolio.getComponents().values().iterator().next();
+        buildItem = component.getCollectorItems(CollectorType.Build).get(0);
+        repos = Collections.singletonMap("repos", component.getCollectorItems(CollectorType.SCM));
+
+        evaluator = new BuildEvaluator(repositories.getBuildRepository(), repositories.getCollItemConfigHistoryRepository(),
+                repositories.getCommitRepository(), repositories.getLatestRecordQuery());
+    }
+
+    @Benchmark
+    public BuildAuditResponse evaluate() {
+        return evaluator.evaluate(buildItem, data.getBeginDate(), data.getEndDate(), repos);
+    }
+}
@@ -0,0 +1,65 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.benchmark.SyntheticData;
+import com.capitalone.dashboard.benchmark.SyntheticRepositories;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
+import com.capitalone.dashboard.response.CodeQualityAuditResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Code quality audit of one project: quality gate parsing of the latest scan and the quality profile check against
+ * the authors of the repository commits. Repository content comes from {@link SyntheticData}.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CodeQualityEvaluatorBenchmark -p commits=20000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CodeQualityEvaluatorBenchmark {
+
+    @Param({"2000"})
+    private int commits;
+
+    private SyntheticData data;
+    private CollectorItem codeQualityItem;
+    private Map<String, List<CollectorItem>> repos;
+    private CodeQualityEvaluator evaluator;
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.ofDays(90);
+        SyntheticData.Portfolio portfolio = data.portfolio(1, 1, 1, commits, commits / 4, 0);
+        SyntheticRepositories repositories = new SyntheticRepositories(portfolio);
+        Component component = portfolio.getComponents().values().iterator().next();
+        codeQualityItem = component.getCollectorItems(CollectorType.CodeQuality).get(0);
+        repos = Collections.singletonMap("repos", component.getCollectorItems(CollectorType.SCM));
+
+        evaluator = new CodeQualityEvaluator(repositories.getCodeQualityRepository(), repositories.getCommitRepository(),
+                repositories.getCollItemConfigHistoryRepository(), repositories.getLatestRecordQuery());
+    }
+
+    @Benchmark
+    public CodeQualityAuditResponse evaluate() {
+        return evaluator.evaluate(codeQualityItem, data.getBeginDate(), data.getEndDate(), repos);
+    }
+}
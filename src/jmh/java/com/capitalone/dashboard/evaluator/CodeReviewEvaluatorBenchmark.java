@@ -0,0 +1,71 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.benchmark.SyntheticData;
+import com.capitalone.dashboard.benchmark.SyntheticRepositories;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.common.ServiceAccountSnapshot;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.response.CodeReviewAuditResponseV2;
+import com.capitalone.dashboard.service.ServiceAccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Code review audit of one repository: fetching the window, peer review of every merged pull request, the auto
+ * merge correction and the direct commit checks. Repository content comes from {@link SyntheticData}.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="CodeReviewEvaluatorBenchmark -p pullRequests=2000 -p commits=10000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CodeReviewEvaluatorBenchmark {
+
+    @Param({"500"})
+    private int pullRequests;
+
+    @Param({"2000"})
+    private int commits;
+
+    private SyntheticData data;
+    private CollectorItem repoItem;
+    private CodeReviewEvaluator evaluator;
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.ofDays(90);
+        SyntheticData.Portfolio portfolio = data.portfolio(1, 1, 1, commits, pullRequests, 0);
+        SyntheticRepositories repositories = new SyntheticRepositories(portfolio);
+        repoItem = portfolio.getCollectorItems().get(portfolio.getCommits().keySet().iterator().next());
+
+        ServiceAccountService serviceAccountService = mock(ServiceAccountService.class);
+        when(serviceAccountService.getServiceAccounts()).thenReturn(ServiceAccountSnapshot.of(Collections.emptyMap()));
+        ApiSettings settings = SyntheticData.settings();
+        evaluator = new CodeReviewEvaluator(repositories.getCommitRepository(), repositories.getGitRequestRepository(),
+                null, serviceAccountService, settings, null, null, new PatternRegistry(settings));
+    }
+
+    @Benchmark
+    public CodeReviewAuditResponseV2 evaluate() {
+        return evaluator.evaluate(repoItem, data.getBeginDate(), data.getEndDate(), null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.benchmark.SyntheticData;
+import com.capitalone.dashboard.benchmark.SyntheticRepositories;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.model.AuditException;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.response.TestResultsAuditResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression test audit of one team dashboard: test case counts of the latest result and the traceability of the
+ * team stories through the test case tags. Repository content comes from {@link SyntheticData}.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="RegressionTestResultEvaluatorBenchmark -p testCases=10000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class RegressionTestResultEvaluatorBenchmark {
+
+    @Param({"1000"})
+    private int testCases;
+
+    private SyntheticData data;
+    private Dashboard dashboard;
+    private RegressionTestResultEvaluator evaluator;
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.ofDays(90);
+        SyntheticData.Portfolio portfolio = data.portfolio(1, 1, 1, 0, 0, testCases);
+        SyntheticRepositories repositories = new SyntheticRepositories(portfolio);
+        dashboard = portfolio.getDashboards().values().iterator().next();
+
+        ApiSettings settings = SyntheticData.settings();
+        evaluator = new RegressionTestResultEvaluator(repositories.getTestResultRepository(), repositories.getFeatureRepository(),
+                new PatternRegistry(settings));
+        evaluator.setSettings(settings);
+        ReflectionTestUtils.setField(evaluator, "dashboardRepository", repositories.getDashboardRepository());
+        ReflectionTestUtils.setField(evaluator, "componentRepository", repositories.getComponentRepository());
+        ReflectionTestUtils.setField(evaluator, "collectorItemRepository", repositories.getCollectorItemRepository());
+    }
+
+    @Benchmark
+    public Collection<TestResultsAuditResponse> evaluate() throws AuditException {
+        return evaluator.evaluate(dashboard, data.getBeginDate(), data.getEndDate(), null, null, null);
+    }
+}
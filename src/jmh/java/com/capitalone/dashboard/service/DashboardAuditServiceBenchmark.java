@@ -0,0 +1,122 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.benchmark.SyntheticData;
+import com.capitalone.dashboard.benchmark.SyntheticRepositories;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.common.ServiceAccountSnapshot;
+import com.capitalone.dashboard.evaluator.ArtifactEvaluator;
+import com.capitalone.dashboard.evaluator.AutoDiscoverEvaluator;
+import com.capitalone.dashboard.evaluator.BuildEvaluator;
+import com.capitalone.dashboard.evaluator.CodeQualityEvaluator;
+import com.capitalone.dashboard.evaluator.CodeReviewEvaluator;
+import com.capitalone.dashboard.evaluator.DeployEvaluator;
+import com.capitalone.dashboard.evaluator.Evaluator;
+import com.capitalone.dashboard.evaluator.FeatureTestResultEvaluator;
+import com.capitalone.dashboard.evaluator.InfrastructureEvaluator;
+import com.capitalone.dashboard.evaluator.LibraryPolicyEvaluator;
+import com.capitalone.dashboard.evaluator.PerformanceTestResultEvaluator;
+import com.capitalone.dashboard.evaluator.RegressionTestResultEvaluator;
+import com.capitalone.dashboard.evaluator.StaticSecurityAnalysisEvaluator;
+import com.capitalone.dashboard.model.AuditException;
+import com.capitalone.dashboard.model.AuditType;
+import com.capitalone.dashboard.model.DashboardAuditModel;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.repository.AuditReportRepository;
+import com.capitalone.dashboard.repository.AuditReportVersionRepository;
+import com.capitalone.dashboard.response.DashboardReviewResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dashboard review of one team dashboard running the code review, code quality, build and test result evaluators
+ * on the evaluator pool. Repository content comes from {@link SyntheticData}.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="DashboardAuditServiceBenchmark -p pullRequests=2000 -p commits=10000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class DashboardAuditServiceBenchmark {
+
+    @Param({"500"})
+    private int pullRequests;
+
+    @Param({"2000"})
+    private int commits;
+
+    @Param({"1000"})
+    private int testCases;
+
+    private SyntheticData data;
+    private String title;
+    private DashboardAuditServiceImpl service;
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.ofDays(90);
+        SyntheticData.Portfolio portfolio = data.portfolio(1, 1, 1, commits, pullRequests, testCases);
+        SyntheticRepositories repositories = new SyntheticRepositories(portfolio);
+        title = portfolio.getDashboards().keySet().iterator().next();
+        ApiSettings settings = SyntheticData.settings();
+        PatternRegistry patternRegistry = new PatternRegistry(settings);
+
+        ServiceAccountService serviceAccountService = mock(ServiceAccountService.class);
+        when(serviceAccountService.getServiceAccounts()).thenReturn(ServiceAccountSnapshot.of(Collections.emptyMap()));
+        CodeReviewEvaluator codeReviewEvaluator = new CodeReviewEvaluator(repositories.getCommitRepository(),
+                repositories.getGitRequestRepository(), null, serviceAccountService, settings, null, null, patternRegistry);
+        BuildEvaluator buildEvaluator = new BuildEvaluator(repositories.getBuildRepository(),
+                repositories.getCollItemConfigHistoryRepository(), repositories.getCommitRepository(), repositories.getLatestRecordQuery());
+        CodeQualityEvaluator codeQualityEvaluator = new CodeQualityEvaluator(repositories.getCodeQualityRepository(),
+                repositories.getCommitRepository(), repositories.getCollItemConfigHistoryRepository(), repositories.getLatestRecordQuery());
+        RegressionTestResultEvaluator regressionTestResultEvaluator = new RegressionTestResultEvaluator(
+                repositories.getTestResultRepository(), repositories.getFeatureRepository(), patternRegistry);
+        regressionTestResultEvaluator.setSettings(settings);
+        for (Evaluator evaluator : new Evaluator[]{codeReviewEvaluator, buildEvaluator, codeQualityEvaluator, regressionTestResultEvaluator}) {
+            ReflectionTestUtils.setField(evaluator, "dashboardRepository", repositories.getDashboardRepository());
+            ReflectionTestUtils.setField(evaluator, "componentRepository", repositories.getComponentRepository());
+            ReflectionTestUtils.setField(evaluator, "collectorItemRepository", repositories.getCollectorItemRepository());
+        }
+
+        DashboardAuditModel auditModel = new DashboardAuditModel(codeReviewEvaluator, buildEvaluator, codeQualityEvaluator,
+                regressionTestResultEvaluator, mock(PerformanceTestResultEvaluator.class), mock(StaticSecurityAnalysisEvaluator.class),
+                mock(LibraryPolicyEvaluator.class), mock(ArtifactEvaluator.class), mock(DeployEvaluator.class),
+                mock(AutoDiscoverEvaluator.class), mock(InfrastructureEvaluator.class), mock(FeatureTestResultEvaluator.class));
+        service = new DashboardAuditServiceImpl(repositories.getDashboardRepository(), repositories.getCmdbRepository(),
+                auditModel, repositories.getCollectorItemRepository(), mock(AuditReportRepository.class),
+                mock(AuditReportVersionRepository.class), settings);
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public DashboardReviewResponse review() throws AuditException {
+        return service.getDashboardReviewResponse(title, DashboardType.Team, null, null, data.getBeginDate(), data.getEndDate(),
+                EnumSet.of(AuditType.CODE_REVIEW, AuditType.CODE_QUALITY, AuditType.BUILD_REVIEW, AuditType.TEST_RESULT),
+                null, null, null, null);
+    }
+}
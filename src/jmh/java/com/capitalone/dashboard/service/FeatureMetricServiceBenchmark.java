@@ -0,0 +1,90 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.benchmark.SyntheticData;
+import com.capitalone.dashboard.benchmark.SyntheticRepositories;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.model.ExecutiveFeatureMetrics;
+import com.capitalone.dashboard.model.LobFeatureMetrics;
+import com.capitalone.dashboard.repository.FeatureMetricRollupRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Feature metrics of a line of business and of an executive, walking the CMDB hierarchy down to the latest code
+ * quality, test and build data of every component. Repository content comes from {@link SyntheticData}.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="FeatureMetricServiceBenchmark -p linesOfBusiness=10 -p applications=20"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class FeatureMetricServiceBenchmark {
+
+    private static final String CODE_COVERAGE = "CODE_COVERAGE";
+
+    @Param({"4"})
+    private int linesOfBusiness;
+
+    @Param({"10"})
+    private int applications;
+
+    @Param({"3"})
+    private int components;
+
+    @Param({"200"})
+    private int testCases;
+
+    @Param({"0", "8"})
+    private int threads;
+
+    private String lob;
+    private FeatureMetricServiceImpl service;
+
+    @Setup
+    public void setup() {
+        SyntheticData.Portfolio portfolio = SyntheticData.ofDays(90).portfolio(linesOfBusiness, applications, components, 0, 0, testCases);
+        SyntheticRepositories repositories = new SyntheticRepositories(portfolio);
+        lob = portfolio.getLinesOfBusiness().get(0);
+
+        ApiSettings settings = SyntheticData.settings();
+        settings.setFeatureMetricsThreadPoolSize(threads);
+        settings.setFeatureMetricsApplicationConcurrency(4);
+        settings.setFeatureMetricsComponentConcurrency(4);
+        service = new FeatureMetricServiceImpl(repositories.getDashboardRepository(), repositories.getComponentRepository(),
+                repositories.getCmdbRepository(), repositories.getFeatureRepository(), mock(FeatureMetricRollupRepository.class),
+                repositories.getLatestRecordQuery(), settings, new PatternRegistry(settings));
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Benchmark
+    public LobFeatureMetrics lobCoverage() {
+        return service.getLobFeatureMetricsByType(lob, CODE_COVERAGE, true);
+    }
+
+    @Benchmark
+    public ExecutiveFeatureMetrics executive() {
+        return service.getExecutiveFeatureMetrics(SyntheticData.EXECUTIVE, true);
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 @ConfigurationProperties
@@ -74,6 +73,108 @@ public class ApiSettings {
     @Value("${enrichCommits:false}")
     private boolean enrichCommits;
 
+    @Value("${evaluatorThreadPoolSize:12}")
+    private int evaluatorThreadPoolSize;
+
+    @Value("${evaluatorTimeoutSeconds:120}")
+    private long evaluatorTimeoutSeconds;
+
+    @Value("${featureMetricsThreadPoolSize:8}")
+    private int featureMetricsThreadPoolSize;
+
+    @Value("${featureMetricsApplicationConcurrency:4}")
+    private int featureMetricsApplicationConcurrency;
+
+    @Value("${featureMetricsComponentConcurrency:4}")
+    private int featureMetricsComponentConcurrency;
+
+    @Value("${featureMetricsTimeoutSeconds:60}")
+    private long featureMetricsTimeoutSeconds;
+
+    @Value("${featureMetricRollupRefreshIntervalSeconds:0}")
+    private long featureMetricRollupRefreshIntervalSeconds;
+
+    @Value("${featureMetricRollupMaxAgeSeconds:86400}")
+    private long featureMetricRollupMaxAgeSeconds;
+
+    @Value("${auditResultMaxPageSize:1000}")
+    private int auditResultMaxPageSize;
+
+    @Value("${auditResponseCacheMaxBytes:33554432}")
+    private long auditResponseCacheMaxBytes;
+
+    @Value("${auditResultSummaryCacheTtlSeconds:60}")
+    private long auditResultSummaryCacheTtlSeconds;
+
+    @Value("${auditResultSummaryCacheMaxSize:1000}")
+    private long auditResultSummaryCacheMaxSize;
+
+    @Value("${serviceAccountCacheTtlSeconds:300}")
+    private long serviceAccountCacheTtlSeconds;
+
+    @Value("${serviceAccountRefreshIntervalSeconds:0}")
+    private long serviceAccountRefreshIntervalSeconds;
+
+    @Value("${codeReviewAuditSnapshots:false}")
+    private boolean codeReviewAuditSnapshots;
+
+    @Value("${requestLogQueueCapacity:10000}")
+    private int requestLogQueueCapacity;
+
+    @Value("${requestLogBatchSize:500}")
+    private int requestLogBatchSize;
+
+    @Value("${requestLogFlushIntervalMillis:1000}")
+    private long requestLogFlushIntervalMillis;
+
+    @Value("${requestLogBlockWhenFull:false}")
+    private boolean requestLogBlockWhenFull;
+
+    @Value("${requestLogBlockTimeoutMillis:100}")
+    private long requestLogBlockTimeoutMillis;
+
+    @Value("${ldapDnCacheTtlSeconds:3600}")
+    private long ldapDnCacheTtlSeconds;
+
+    @Value("${ldapDnNegativeCacheTtlSeconds:300}")
+    private long ldapDnNegativeCacheTtlSeconds;
+
+    @Value("${ldapDnCacheMaxSize:10000}")
+    private long ldapDnCacheMaxSize;
+
+    @Value("${ldapSearchBatchSize:50}")
+    private int ldapSearchBatchSize;
+
+    @Value("${ldapSearchThreadPoolSize:4}")
+    private int ldapSearchThreadPoolSize;
+
+    @Value("${apiTokenCacheTtlSeconds:60}")
+    private long apiTokenCacheTtlSeconds;
+
+    @Value("${apiTokenCacheMaxSize:1000}")
+    private long apiTokenCacheMaxSize;
+
+    @Value("${apiTokenCacheStatsLogIntervalSeconds:300}")
+    private long apiTokenCacheStatsLogIntervalSeconds;
+
+    @Value("${requestLogSampleRate:1.0}")
+    private double requestLogSampleRate;
+
+    private List<String> requestLogRouteSampleRates = new ArrayList<>();
+    private List<String> requestLogApiUserSampleRates = new ArrayList<>();
+
+    @Value("${requestLogSlowThresholdMillis:5000}")
+    private long requestLogSlowThresholdMillis;
+
+    @Value("${requestBodyLogLimit:65536}")
+    private int requestBodyLogLimit;
+
+    @Value("${logResponseBody:false}")
+    private boolean logResponseBody;
+
+    @Value("${responseBodyLogLimit:8192}")
+    private int responseBodyLogLimit;
+
     public String getKey() {
         return key;
     }
@@ -277,14 +378,13 @@ public class ApiSettings {
 
     public boolean checkIgnoreEndPoint(String endPointURI) {
         if(CollectionUtils.isEmpty(this.ignoreEndPoints)) return false;
-        List<String> matchingElements  = ignoreEndPoints.parallelStream().filter (str -> StringUtils.contains(endPointURI.toLowerCase(), str)).collect(Collectors.toList());
-        return CollectionUtils.isNotEmpty(matchingElements);
+        String uri = endPointURI.toLowerCase();
+        return ignoreEndPoints.stream().anyMatch(str -> StringUtils.contains(uri, str));
     }
 
     public boolean checkIgnoreApiUser(String apiUser) {
         if(CollectionUtils.isEmpty(this.ignoreApiUsers)) return false;
-        List<String> matchingElements  = ignoreApiUsers.parallelStream().filter (str -> StringUtils.equalsIgnoreCase(apiUser, str)).collect(Collectors.toList());
-        return CollectionUtils.isNotEmpty(matchingElements);
+        return ignoreApiUsers.stream().anyMatch(str -> StringUtils.equalsIgnoreCase(apiUser, str));
     }
 
     public List<String> getMergeCommitFromTargetBranchRegEx() { return mergeCommitFromTargetBranchRegEx; }
@@ -342,4 +442,284 @@ public class ApiSettings {
     public void setFeatureTestResultThreshold(String featureTestResultThreshold) {
         this.featureTestResultThreshold = featureTestResultThreshold;
     }
+
+    public int getEvaluatorThreadPoolSize() {
+        return evaluatorThreadPoolSize;
+    }
+
+    public void setEvaluatorThreadPoolSize(int evaluatorThreadPoolSize) {
+        this.evaluatorThreadPoolSize = evaluatorThreadPoolSize;
+    }
+
+    public long getEvaluatorTimeoutSeconds() {
+        return evaluatorTimeoutSeconds;
+    }
+
+    public void setEvaluatorTimeoutSeconds(long evaluatorTimeoutSeconds) {
+        this.evaluatorTimeoutSeconds = evaluatorTimeoutSeconds;
+    }
+
+    public long getServiceAccountCacheTtlSeconds() {
+        return serviceAccountCacheTtlSeconds;
+    }
+
+    public void setServiceAccountCacheTtlSeconds(long serviceAccountCacheTtlSeconds) {
+        this.serviceAccountCacheTtlSeconds = serviceAccountCacheTtlSeconds;
+    }
+
+    public long getServiceAccountRefreshIntervalSeconds() {
+        return serviceAccountRefreshIntervalSeconds;
+    }
+
+    public void setServiceAccountRefreshIntervalSeconds(long serviceAccountRefreshIntervalSeconds) {
+        this.serviceAccountRefreshIntervalSeconds = serviceAccountRefreshIntervalSeconds;
+    }
+
+    public boolean isCodeReviewAuditSnapshots() {
+        return codeReviewAuditSnapshots;
+    }
+
+    public void setCodeReviewAuditSnapshots(boolean codeReviewAuditSnapshots) {
+        this.codeReviewAuditSnapshots = codeReviewAuditSnapshots;
+    }
+
+    public int getRequestLogQueueCapacity() {
+        return requestLogQueueCapacity;
+    }
+
+    public void setRequestLogQueueCapacity(int requestLogQueueCapacity) {
+        this.requestLogQueueCapacity = requestLogQueueCapacity;
+    }
+
+    public int getRequestLogBatchSize() {
+        return requestLogBatchSize;
+    }
+
+    public void setRequestLogBatchSize(int requestLogBatchSize) {
+        this.requestLogBatchSize = requestLogBatchSize;
+    }
+
+    public long getRequestLogFlushIntervalMillis() {
+        return requestLogFlushIntervalMillis;
+    }
+
+    public void setRequestLogFlushIntervalMillis(long requestLogFlushIntervalMillis) {
+        this.requestLogFlushIntervalMillis = requestLogFlushIntervalMillis;
+    }
+
+    public boolean isRequestLogBlockWhenFull() {
+        return requestLogBlockWhenFull;
+    }
+
+    public void setRequestLogBlockWhenFull(boolean requestLogBlockWhenFull) {
+        this.requestLogBlockWhenFull = requestLogBlockWhenFull;
+    }
+
+    public long getRequestLogBlockTimeoutMillis() {
+        return requestLogBlockTimeoutMillis;
+    }
+
+    public void setRequestLogBlockTimeoutMillis(long requestLogBlockTimeoutMillis) {
+        this.requestLogBlockTimeoutMillis = requestLogBlockTimeoutMillis;
+    }
+
+    public boolean isLogResponseBody() {
+        return logResponseBody;
+    }
+
+    public void setLogResponseBody(boolean logResponseBody) {
+        this.logResponseBody = logResponseBody;
+    }
+
+    public int getResponseBodyLogLimit() {
+        return responseBodyLogLimit;
+    }
+
+    public void setResponseBodyLogLimit(int responseBodyLogLimit) {
+        this.responseBodyLogLimit = responseBodyLogLimit;
+    }
+
+    public int getRequestBodyLogLimit() {
+        return requestBodyLogLimit;
+    }
+
+    public void setRequestBodyLogLimit(int requestBodyLogLimit) {
+        this.requestBodyLogLimit = requestBodyLogLimit;
+    }
+
+    public double getRequestLogSampleRate() {
+        return requestLogSampleRate;
+    }
+
+    public void setRequestLogSampleRate(double requestLogSampleRate) {
+        this.requestLogSampleRate = requestLogSampleRate;
+    }
+
+    public List<String> getRequestLogRouteSampleRates() {
+        return requestLogRouteSampleRates;
+    }
+
+    public void setRequestLogRouteSampleRates(List<String> requestLogRouteSampleRates) {
+        this.requestLogRouteSampleRates = requestLogRouteSampleRates;
+    }
+
+    public List<String> getRequestLogApiUserSampleRates() {
+        return requestLogApiUserSampleRates;
+    }
+
+    public void setRequestLogApiUserSampleRates(List<String> requestLogApiUserSampleRates) {
+        this.requestLogApiUserSampleRates = requestLogApiUserSampleRates;
+    }
+
+    public long getRequestLogSlowThresholdMillis() {
+        return requestLogSlowThresholdMillis;
+    }
+
+    public void setRequestLogSlowThresholdMillis(long requestLogSlowThresholdMillis) {
+        this.requestLogSlowThresholdMillis = requestLogSlowThresholdMillis;
+    }
+
+    public long getApiTokenCacheTtlSeconds() {
+        return apiTokenCacheTtlSeconds;
+    }
+
+    public void setApiTokenCacheTtlSeconds(long apiTokenCacheTtlSeconds) {
+        this.apiTokenCacheTtlSeconds = apiTokenCacheTtlSeconds;
+    }
+
+    public long getApiTokenCacheMaxSize() {
+        return apiTokenCacheMaxSize;
+    }
+
+    public void setApiTokenCacheMaxSize(long apiTokenCacheMaxSize) {
+        this.apiTokenCacheMaxSize = apiTokenCacheMaxSize;
+    }
+
+    public long getApiTokenCacheStatsLogIntervalSeconds() {
+        return apiTokenCacheStatsLogIntervalSeconds;
+    }
+
+    public void setApiTokenCacheStatsLogIntervalSeconds(long apiTokenCacheStatsLogIntervalSeconds) {
+        this.apiTokenCacheStatsLogIntervalSeconds = apiTokenCacheStatsLogIntervalSeconds;
+    }
+
+    public long getLdapDnCacheTtlSeconds() {
+        return ldapDnCacheTtlSeconds;
+    }
+
+    public void setLdapDnCacheTtlSeconds(long ldapDnCacheTtlSeconds) {
+        this.ldapDnCacheTtlSeconds = ldapDnCacheTtlSeconds;
+    }
+
+    public long getLdapDnNegativeCacheTtlSeconds() {
+        return ldapDnNegativeCacheTtlSeconds;
+    }
+
+    public void setLdapDnNegativeCacheTtlSeconds(long ldapDnNegativeCacheTtlSeconds) {
+        this.ldapDnNegativeCacheTtlSeconds = ldapDnNegativeCacheTtlSeconds;
+    }
+
+    public long getLdapDnCacheMaxSize() {
+        return ldapDnCacheMaxSize;
+    }
+
+    public void setLdapDnCacheMaxSize(long ldapDnCacheMaxSize) {
+        this.ldapDnCacheMaxSize = ldapDnCacheMaxSize;
+    }
+
+    public int getLdapSearchBatchSize() {
+        return ldapSearchBatchSize;
+    }
+
+    public void setLdapSearchBatchSize(int ldapSearchBatchSize) {
+        this.ldapSearchBatchSize = ldapSearchBatchSize;
+    }
+
+    public int getLdapSearchThreadPoolSize() {
+        return ldapSearchThreadPoolSize;
+    }
+
+    public void setLdapSearchThreadPoolSize(int ldapSearchThreadPoolSize) {
+        this.ldapSearchThreadPoolSize = ldapSearchThreadPoolSize;
+    }
+
+    public int getFeatureMetricsThreadPoolSize() {
+        return featureMetricsThreadPoolSize;
+    }
+
+    public void setFeatureMetricsThreadPoolSize(int featureMetricsThreadPoolSize) {
+        this.featureMetricsThreadPoolSize = featureMetricsThreadPoolSize;
+    }
+
+    public int getFeatureMetricsApplicationConcurrency() {
+        return featureMetricsApplicationConcurrency;
+    }
+
+    public void setFeatureMetricsApplicationConcurrency(int featureMetricsApplicationConcurrency) {
+        this.featureMetricsApplicationConcurrency = featureMetricsApplicationConcurrency;
+    }
+
+    public int getFeatureMetricsComponentConcurrency() {
+        return featureMetricsComponentConcurrency;
+    }
+
+    public void setFeatureMetricsComponentConcurrency(int featureMetricsComponentConcurrency) {
+        this.featureMetricsComponentConcurrency = featureMetricsComponentConcurrency;
+    }
+
+    public long getFeatureMetricsTimeoutSeconds() {
+        return featureMetricsTimeoutSeconds;
+    }
+
+    public void setFeatureMetricsTimeoutSeconds(long featureMetricsTimeoutSeconds) {
+        this.featureMetricsTimeoutSeconds = featureMetricsTimeoutSeconds;
+    }
+
+    public long getFeatureMetricRollupRefreshIntervalSeconds() {
+        return featureMetricRollupRefreshIntervalSeconds;
+    }
+
+    public void setFeatureMetricRollupRefreshIntervalSeconds(long featureMetricRollupRefreshIntervalSeconds) {
+        this.featureMetricRollupRefreshIntervalSeconds = featureMetricRollupRefreshIntervalSeconds;
+    }
+
+    public long getFeatureMetricRollupMaxAgeSeconds() {
+        return featureMetricRollupMaxAgeSeconds;
+    }
+
+    public void setFeatureMetricRollupMaxAgeSeconds(long featureMetricRollupMaxAgeSeconds) {
+        this.featureMetricRollupMaxAgeSeconds = featureMetricRollupMaxAgeSeconds;
+    }
+
+    public int getAuditResultMaxPageSize() {
+        return auditResultMaxPageSize;
+    }
+
+    public void setAuditResultMaxPageSize(int auditResultMaxPageSize) {
+        this.auditResultMaxPageSize = auditResultMaxPageSize;
+    }
+
+    public long getAuditResponseCacheMaxBytes() {
+        return auditResponseCacheMaxBytes;
+    }
+
+    public void setAuditResponseCacheMaxBytes(long auditResponseCacheMaxBytes) {
+        this.auditResponseCacheMaxBytes = auditResponseCacheMaxBytes;
+    }
+
+    public long getAuditResultSummaryCacheTtlSeconds() {
+        return auditResultSummaryCacheTtlSeconds;
+    }
+
+    public void setAuditResultSummaryCacheTtlSeconds(long auditResultSummaryCacheTtlSeconds) {
+        this.auditResultSummaryCacheTtlSeconds = auditResultSummaryCacheTtlSeconds;
+    }
+
+    public long getAuditResultSummaryCacheMaxSize() {
+        return auditResultSummaryCacheMaxSize;
+    }
+
+    public void setAuditResultSummaryCacheMaxSize(long auditResultSummaryCacheMaxSize) {
+        this.auditResultSummaryCacheMaxSize = auditResultSummaryCacheMaxSize;
+    }
 }
\ No newline at end of file
@@ -27,8 +27,11 @@ import static springfox.documentation.builders.PathSelectors.regex;
 @EnableSwagger2
 @EnableEncryptableProperties
 public class Application extends SpringBootServletInitializer {
+    private static final String LDAP_POOL_PROTOCOL = "com.sun.jndi.ldap.connect.pool.protocol";
+
     @Override
     protected SpringApplicationBuilder configure(SpringApplicationBuilder application) {
+        poolLdapSslConnections();
         return application.sources(Application.class, RestApiAppConfig.class, WebMVCConfig.class,
         		MongoConfig.class);
     }
@@ -37,6 +40,16 @@ public class Application extends SpringBootServletInitializer {
         new Application().configure(new SpringApplicationBuilder(Application.class)).run(args);
     }
 
+    /**
+     * JNDI only pools plain LDAP connections unless told otherwise, and contextProtocol defaults to ssl. It reads the
+     * property once, before the first pooled connection, so it is set at startup unless given on the command line.
+     */
+    private static void poolLdapSslConnections() {
+        if (System.getProperty(LDAP_POOL_PROTOCOL) == null) {
+            System.setProperty(LDAP_POOL_PROTOCOL, "plain ssl");
+        }
+    }
+
     @Bean
     public Docket documentation() {
         return new Docket(DocumentationType.SWAGGER_2)
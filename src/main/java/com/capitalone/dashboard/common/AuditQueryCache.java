@@ -0,0 +1,119 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.model.AuditException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes repository reads for the duration of a single audit. Evaluators running for the same dashboard review
+ * share one instance, so a query with the same arguments hits Mongo at most once per audit even when several
+ * evaluators ask for it at the same time.
+ *
+ * The cache is bound to the thread running an audit task through {@link #call(AuditTask)}. Reads made outside of a
+ * bound task (single evaluator endpoints, tests) go straight to the repository.
+ */
+public class AuditQueryCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditQueryCache.class);
+    private static final ThreadLocal<AuditQueryCache> CURRENT = new ThreadLocal<>();
+
+    private final ConcurrentMap<List<Object>, Future<Object>> results = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    @FunctionalInterface
+    public interface AuditTask<T> {
+        T call() throws AuditException;
+    }
+
+    /**
+     * Runs the task with this cache bound to the current thread
+     */
+    public <T> T call(AuditTask<T> task) throws AuditException {
+        AuditQueryCache previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the result of the query from the cache bound to the current thread, loading it on first use.
+     * Without a bound cache the loader is invoked directly.
+     *
+     * @param query  name of the repository query, part of the cache key
+     * @param loader runs the query
+     * @param args   query arguments, part of the cache key
+     */
+    public static <T> T fetch(String query, Supplier<T> loader, Object... args) {
+        AuditQueryCache cache = CURRENT.get();
+        return (cache == null) ? loader.get() : cache.get(query, loader, args);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String query, Supplier<T> loader, Object... args) {
+        List<Object> key = new ArrayList<>(args.length + 1);
+        key.add(query);
+        key.addAll(Arrays.asList(args));
+
+        Future<Object> result = results.get(key);
+        if (result == null) {
+            FutureTask<Object> task = new FutureTask<>(loader::get);
+            result = results.putIfAbsent(key, task);
+            if (result == null) {
+                misses.incrementAndGet();
+                result = task;
+                task.run();
+            } else {
+                hits.incrementAndGet();
+            }
+        } else {
+            hits.incrementAndGet();
+        }
+
+        try {
+            return (T) result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for " + query);
+        } catch (ExecutionException e) {
+            // do not keep failures around, the next caller retries the query
+            results.remove(key, result);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    public void logStatistics(String auditName) {
+        LOGGER.debug("Audit query cache for " + auditName + " :: hits=" + hits.get() + " misses=" + misses.get());
+    }
+}
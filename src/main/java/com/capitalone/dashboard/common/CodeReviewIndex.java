@@ -0,0 +1,87 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.GitRequest;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Lookups over the commits and pull requests of one repository window, built once per evaluation so that
+ * matching commits to pull requests does not rescan the lists for every commit.
+ *
+ * Lists keep the order of the input, so the first element is the one a linear scan would have found.
+ */
+public class CodeReviewIndex {
+
+    private final List<Commit> commits;
+    private final List<GitRequest> pullRequests;
+    private final Map<String, List<Commit>> commitsBySha = new HashMap<>();
+    private final Map<String, List<GitRequest>> pullRequestsByNumber = new HashMap<>();
+    private final Map<String, List<GitRequest>> pullRequestsByCommitSha = new HashMap<>();
+
+    private CodeReviewIndex(List<Commit> commits, List<GitRequest> pullRequests) {
+        this.commits = commits;
+        this.pullRequests = pullRequests;
+    }
+
+    public static CodeReviewIndex of(List<Commit> commits, List<GitRequest> pullRequests) {
+        CodeReviewIndex index = new CodeReviewIndex(Optional.ofNullable(commits).orElseGet(Collections::emptyList),
+                Optional.ofNullable(pullRequests).orElseGet(Collections::emptyList));
+        index.commits.forEach(commit -> index.commitsBySha.computeIfAbsent(commit.getScmRevisionNumber(), k -> new ArrayList<>()).add(commit));
+        for (GitRequest pr : index.pullRequests) {
+            index.pullRequestsByNumber.computeIfAbsent(pr.getNumber(), k -> new ArrayList<>()).add(pr);
+            Set<String> prShas = new LinkedHashSet<>();
+            Optional.ofNullable(pr.getCommits()).orElseGet(Collections::emptyList).stream()
+                    .map(Commit::getScmRevisionNumber).filter(StringUtils::isNotEmpty)
+                    .forEach(sha -> prShas.add(sha.toLowerCase()));
+            prShas.forEach(sha -> index.pullRequestsByCommitSha.computeIfAbsent(sha, k -> new ArrayList<>()).add(pr));
+        }
+        return index;
+    }
+
+    public List<Commit> getCommits() {
+        return commits;
+    }
+
+    public List<GitRequest> getPullRequests() {
+        return pullRequests;
+    }
+
+    /**
+     * @return first commit of the window with the revision number, or null
+     */
+    public Commit getCommit(String sha) {
+        List<Commit> matches = commitsBySha.get(sha);
+        return (matches == null) ? null : matches.get(0);
+    }
+
+    /**
+     * @return all commits of the window with the revision number
+     */
+    public List<Commit> getCommits(String sha) {
+        return commitsBySha.getOrDefault(sha, Collections.emptyList());
+    }
+
+    /**
+     * @return pull requests of the window with the number
+     */
+    public List<GitRequest> getPullRequests(String number) {
+        return pullRequestsByNumber.getOrDefault(number, Collections.emptyList());
+    }
+
+    /**
+     * @return pull requests of the window having a commit with the revision number, ignoring case
+     */
+    public List<GitRequest> getPullRequestsContaining(String sha) {
+        return StringUtils.isEmpty(sha) ? Collections.emptyList()
+                : pullRequestsByCommitSha.getOrDefault(sha.toLowerCase(), Collections.emptyList());
+    }
+}
@@ -10,9 +10,7 @@ import com.capitalone.dashboard.model.CommitStatus;
 import com.capitalone.dashboard.model.GitRequest;
 import com.capitalone.dashboard.model.Review;
 import com.capitalone.dashboard.model.SCM;
-import com.capitalone.dashboard.model.ServiceAccount;
 import com.capitalone.dashboard.repository.CommitRepository;
-import com.capitalone.dashboard.repository.ServiceAccountRepository;
 import com.capitalone.dashboard.response.AuditReviewResponse;
 import com.capitalone.dashboard.response.CodeReviewAuditResponse;
 import com.capitalone.dashboard.response.CodeReviewAuditResponseV2;
@@ -20,8 +18,8 @@ import com.capitalone.dashboard.status.CodeReviewAuditStatus;
 import com.capitalone.dashboard.util.GitHubParsedUrl;
 import com.google.common.collect.Sets;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +34,6 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
@@ -56,16 +53,29 @@ public class CommonCodeReview {
     public static boolean computePeerReviewStatus(GitRequest pr, ApiSettings settings,
                                                   AuditReviewResponse<CodeReviewAuditStatus> auditReviewResponse,
                                                   List<Commit> commits,
-                                                  CommitRepository commitRepository, ServiceAccountRepository serviceAccountRepository) {
+                                                  CommitRepository commitRepository, ServiceAccountSnapshot accounts) {
+        return computePeerReviewStatus(pr, settings, auditReviewResponse, CodeReviewIndex.of(commits, null), commitRepository, accounts);
+    }
+
+    /**
+     * Calculates the peer review status for a given pull request, looking up the commits of the evaluation window
+     * by revision number
+     *
+     * @param pr                  - pull request
+     * @param auditReviewResponse - audit review response
+     * @param index               - commits of the evaluation window
+     * @return boolean fail or pass
+     */
+    public static boolean computePeerReviewStatus(GitRequest pr, ApiSettings settings,
+                                                  AuditReviewResponse<CodeReviewAuditStatus> auditReviewResponse,
+                                                  CodeReviewIndex index,
+                                                  CommitRepository commitRepository, ServiceAccountSnapshot accounts) {
         List<Review> reviews = pr.getReviews();
 
         List<CommitStatus> statuses = pr.getCommitStatuses();
 
         Map<String, String> actors = getActors(pr);
 
-        List<ServiceAccount> serviceAccounts = (List<ServiceAccount>) serviceAccountRepository.findAll();
-        Map<String,String> accounts =  serviceAccounts.stream().collect(Collectors.toMap(ServiceAccount :: getServiceAccountName, ServiceAccount::getFileNames));
-
         /**
          * Native Github Reviews take Higher priority so check for GHR, if not found check for LGTM.
          */
@@ -79,7 +89,7 @@ public class CommonCodeReview {
                     //review done using GitHub Review workflow
                     auditReviewResponse.addAuditStatus(CodeReviewAuditStatus.PEER_REVIEW_GHR);
                     if (!CollectionUtils.isEmpty(auditReviewResponse.getAuditStatuses()) &&
-                            !isPRReviewedInTimeScale(pr, auditReviewResponse, commits, commitRepository)) {
+                            !isPRReviewedInTimeScale(pr, auditReviewResponse, index, commitRepository)) {
                         auditReviewResponse.addAuditStatus(CodeReviewAuditStatus.PEER_REVIEW_GHR_SELF_APPROVAL);
                         return Boolean.FALSE;
                     }
@@ -137,7 +147,7 @@ public class CommonCodeReview {
             if (lgtmAttempted) {
                 //if lgtm self-review, then no peer-review was done unless someone else looked at it
                 if (!CollectionUtils.isEmpty(auditReviewResponse.getAuditStatuses()) &&
-                        !isPRReviewedInTimeScale(pr, auditReviewResponse, commits, commitRepository)) {
+                        !isPRReviewedInTimeScale(pr, auditReviewResponse, index, commitRepository)) {
                     auditReviewResponse.addAuditStatus(CodeReviewAuditStatus.PEER_REVIEW_LGTM_SELF_APPROVAL);
                     return false;
                 }
@@ -157,11 +167,11 @@ public class CommonCodeReview {
      * @param settings
      * @return
      */
-    public static boolean checkForServiceAccount(String userLdapDN, ApiSettings settings,Map<String,String> allowedUsers,String author,List<String> commitFiles,boolean isCommit,AuditReviewResponse auditReviewResponse) {
+    public static boolean checkForServiceAccount(String userLdapDN, ApiSettings settings,ServiceAccountSnapshot allowedUsers,String author,List<String> commitFiles,boolean isCommit,AuditReviewResponse auditReviewResponse) {
         List<String> serviceAccountOU = settings.getServiceAccountOU();
         boolean isValid = false;
-        if(!MapUtils.isEmpty(allowedUsers) && isCommit){
-            isValid = isValidServiceAccount(author,allowedUsers,commitFiles);
+        if(allowedUsers != null && !allowedUsers.isEmpty() && isCommit){
+            isValid = allowedUsers.isAllowed(author,commitFiles);
             if(isValid){
                 auditReviewResponse.addAuditStatus(CodeReviewAuditStatus.DIRECT_COMMIT_CHANGE_WHITELISTED_ACCOUNT);
             }
@@ -181,31 +191,6 @@ public class CommonCodeReview {
         return isValid;
     }
 
-    private static boolean isValidServiceAccount(String author, Map<String,String> allowedServiceAccounts,List<String> commitFiles) {
-
-        boolean isValidServiceAccount = false;
-        if (MapUtils.isEmpty(allowedServiceAccounts)) return Boolean.FALSE;
-        for (String serviceAccount:allowedServiceAccounts.keySet()) {
-            String fileNames = allowedServiceAccounts.get(serviceAccount);
-            for (String s : fileNames.split(",")) {
-                if (serviceAccount.equalsIgnoreCase(author) && findFileMatch(s, commitFiles)){
-                    isValidServiceAccount = true;
-                }
-            }
-        }
-        return isValidServiceAccount;
-    }
-
-    private static boolean findFileMatch(String fileName, List<String> files){
-      if(fileName.contains("*")){
-          Optional<String> extension = getExtensionByStringHandling(fileName);
-            String EXT_PATTERN = "([^\\s]+(\\.(?i)("+extension.get()+"))$)";
-            java.util.function.Predicate<String> fileFilter = Pattern.compile(EXT_PATTERN).asPredicate();
-            List<String> filesFound = files.stream().filter(fileFilter).collect(Collectors.toList());
-            return filesFound.size()>0;
-        }else return files.parallelStream().anyMatch(file -> file.contains(fileName));
-    }
-
     public static Optional<String> getExtensionByStringHandling(String filename) {
         return Optional.ofNullable(filename)
                 .filter(f -> f.contains("."))
@@ -254,11 +239,10 @@ public class CommonCodeReview {
 
     private static boolean isPRReviewedInTimeScale(GitRequest pr,
                                                    AuditReviewResponse<CodeReviewAuditStatus> auditReviewResponse,
-                                                   List<Commit> commits, CommitRepository commitRepository) {
+                                                   CodeReviewIndex index, CommitRepository commitRepository) {
         List<Commit> filteredPrCommits = new ArrayList<>();
         pr.getCommits().forEach(prC -> {
-            Optional<Commit> cOptionalCommit = commits.stream().filter(c -> Objects.equals(c.getScmRevisionNumber(), prC.getScmRevisionNumber())).findFirst();
-            Commit cCommit = cOptionalCommit.orElse(null);
+            Commit cCommit = index.getCommit(prC.getScmRevisionNumber());
 
             //If not found in the list, it must be a commit in the PR from time beyond the evaluation time window.
             //In this case, look up from repository.
@@ -335,16 +319,26 @@ public class CommonCodeReview {
             String scmBranch = (String) repoItem.getOptions().get("branch");
             GitHubParsedUrl gitHubParsed = new GitHubParsedUrl(scmUrl);
             String parsedUrl = gitHubParsed.getUrl(); //making sure we have a goot url?
-            List<Commit> commits = commitRepository.findByCollectorItemIdAndScmCommitTimestampIsBetween(repoItem.getId(), beginDate - 1, endDate + 1);
+            List<Commit> commits = getCommits(repoItem.getId(), beginDate - 1, endDate + 1, commitRepository);
             authors.addAll(commits.stream().map(SCM::getScmAuthor).collect(Collectors.toCollection(HashSet::new)));
         });
         return authors;
     }
 
-    public static boolean matchIncrementVersionTag(String commitMessage,ApiSettings settings) {
-        if (StringUtils.isEmpty(settings.getCommitLogIgnoreAuditRegEx())) return false;
-        Pattern pattern = Pattern.compile(settings.getCommitLogIgnoreAuditRegEx());
-        return pattern.matcher(commitMessage).matches();
+    /**
+     * Commits of a repository within the time range, shared through the audit query cache by the code review audit
+     * and by {@link #getCodeAuthors}. The list is unmodifiable and its commits are shared with other evaluators, so
+     * they must not be modified either.
+     */
+    public static List<Commit> getCommits(ObjectId collectorItemId, long beginDate, long endDate, CommitRepository commitRepository) {
+        return AuditQueryCache.fetch("commitRepository.findByCollectorItemIdAndScmCommitTimestampIsBetween",
+                () -> Collections.unmodifiableList(commitRepository.findByCollectorItemIdAndScmCommitTimestampIsBetween(collectorItemId, beginDate, endDate)),
+                collectorItemId, beginDate, endDate);
+    }
+
+    public static boolean matchIncrementVersionTag(String commitMessage, PatternRegistry patternRegistry) {
+        Pattern pattern = patternRegistry.commitLogIgnoreAudit();
+        return (pattern != null) && pattern.matcher(commitMessage).matches();
     }
 
 
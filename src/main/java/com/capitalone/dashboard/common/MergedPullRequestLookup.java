@@ -0,0 +1,111 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.GitRequest;
+import com.capitalone.dashboard.model.QCommit;
+import com.capitalone.dashboard.model.QGitRequest;
+import com.capitalone.dashboard.repository.CommitRepository;
+import com.capitalone.dashboard.repository.GitRequestRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Answers whether a commit is associated with a merged pull request on any repository.
+ * Github Default : Commit is auto merged with no PR association if it is previously merged with another PR
+ *
+ * All commits of an evaluation are resolved up front with one query on commits and one on pull requests,
+ * the answers are then served from memory. Commits that were not part of the initial batch are resolved on first use.
+ */
+public class MergedPullRequestLookup {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergedPullRequestLookup.class);
+
+    private final CommitRepository commitRepository;
+    private final GitRequestRepository gitRequestRepository;
+    private final Map<List<Object>, Boolean> hasMergedPullRequest = new HashMap<>();
+
+    private MergedPullRequestLookup(CommitRepository commitRepository, GitRequestRepository gitRequestRepository) {
+        this.commitRepository = commitRepository;
+        this.gitRequestRepository = gitRequestRepository;
+    }
+
+    public static MergedPullRequestLookup resolve(Collection<Commit> commits, CommitRepository commitRepository,
+                                                  GitRequestRepository gitRequestRepository) {
+        MergedPullRequestLookup lookup = new MergedPullRequestLookup(commitRepository, gitRequestRepository);
+        lookup.load(commits);
+        return lookup;
+    }
+
+    public boolean hasMergedPullRequest(Commit commit) {
+        if (Objects.isNull(commit)) { return false; }
+        List<Object> key = commitKey(commit);
+        if (!hasMergedPullRequest.containsKey(key)) {
+            load(Collections.singletonList(commit));
+        }
+        return hasMergedPullRequest.get(key);
+    }
+
+    private void load(Collection<Commit> commits) {
+        Set<List<Object>> keys = commits.stream().filter(Objects::nonNull).map(MergedPullRequestLookup::commitKey)
+                .filter(key -> !hasMergedPullRequest.containsKey(key)).collect(Collectors.toSet());
+        if (keys.isEmpty()) { return; }
+
+        Set<String> revisionNumbers = keys.stream().map(key -> (String) key.get(0)).filter(Objects::nonNull).collect(Collectors.toSet());
+        keys.forEach(key -> hasMergedPullRequest.put(key, Boolean.FALSE));
+        if (revisionNumbers.isEmpty()) { return; }
+
+        // same commit recorded against a pull request, on this or any other repository
+        QCommit qCommit = QCommit.commit;
+        List<Commit> commitsWithPullNumber = new ArrayList<>();
+        commitRepository.findAll(qCommit.scmRevisionNumber.in(revisionNumbers).and(qCommit.pullNumber.isNotNull()))
+                .forEach(c -> {
+                    if (StringUtils.isNotEmpty(c.getPullNumber()) && keys.contains(commitKey(c))) {
+                        commitsWithPullNumber.add(c);
+                    }
+                });
+        if (commitsWithPullNumber.isEmpty()) { return; }
+
+        Set<ObjectId> collectorItemIds = commitsWithPullNumber.stream().map(Commit::getCollectorItemId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> pullNumbers = commitsWithPullNumber.stream().map(Commit::getPullNumber).collect(Collectors.toSet());
+
+        // latest pull request per collector item and number, handles non-unique results
+        QGitRequest qGitRequest = QGitRequest.gitRequest;
+        Map<List<Object>, GitRequest> latestPullRequests = new HashMap<>();
+        gitRequestRepository.findAll(qGitRequest.collectorItemId.in(collectorItemIds).and(qGitRequest.number.in(pullNumbers)))
+                .forEach(pr -> latestPullRequests.merge(Arrays.asList(pr.getCollectorItemId(), pr.getNumber()), pr,
+                        (current, candidate) -> candidate.getTimestamp() > current.getTimestamp() ? candidate : current));
+
+        Set<List<Object>> merged = new HashSet<>();
+        commitsWithPullNumber.forEach(c -> {
+            GitRequest pr = latestPullRequests.get(Arrays.asList(c.getCollectorItemId(), c.getPullNumber()));
+            if (Objects.nonNull(pr) && "merged".equalsIgnoreCase(pr.getState())) {
+                merged.add(commitKey(c));
+            }
+        });
+        merged.forEach(key -> hasMergedPullRequest.put(key, Boolean.TRUE));
+
+        LOGGER.debug("Resolved merged pull requests for " + keys.size() + " commit(s) :: " + merged.size() + " already merged");
+    }
+
+    /**
+     * Commits are the same when revision number, author (ignoring case), commit log and commit timestamp match
+     */
+    private static List<Object> commitKey(Commit commit) {
+        return Arrays.asList(commit.getScmRevisionNumber(), StringUtils.lowerCase(commit.getScmAuthor()),
+                commit.getScmCommitLog(), commit.getScmCommitTimestamp());
+    }
+}
@@ -0,0 +1,117 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.ApiSettings;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Compiled forms of the regular expressions configured in {@link ApiSettings}.
+ * Each pattern is compiled on first use and kept until the configured value changes, so evaluators no longer
+ * compile the same expression for every commit, stage or test case.
+ */
+@Component
+public class PatternRegistry {
+
+    private final ApiSettings settings;
+    private final CompiledSetting<String, Pattern> commitLogIgnoreAudit = new CompiledSetting<>(Pattern::compile);
+    private final CompiledSetting<String, Pattern> featureId = new CompiledSetting<>(Pattern::compile);
+    private final CompiledSetting<String, Pattern> thirdParty = new CompiledSetting<>(Pattern::compile);
+    private final CompiledSetting<List<String>, List<Pattern>> mergeCommitFromTargetBranch
+            = new CompiledSetting<>(regexes -> compileAll(regexes, Pattern.CASE_INSENSITIVE));
+    private final CompiledSetting<List<String>, List<Pattern>> buildStage
+            = new CompiledSetting<>(regexes -> compileAll(regexes, 0));
+
+    @Autowired
+    public PatternRegistry(ApiSettings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @return compiled commitLogIgnoreAuditRegEx, or null when not configured
+     */
+    public Pattern commitLogIgnoreAudit() {
+        return StringUtils.isEmpty(settings.getCommitLogIgnoreAuditRegEx()) ? null : commitLogIgnoreAudit.get(settings.getCommitLogIgnoreAuditRegEx());
+    }
+
+    /**
+     * @return compiled featureIDPattern, or null when not configured
+     */
+    public Pattern featureId() {
+        return StringUtils.isEmpty(settings.getFeatureIDPattern()) ? null : featureId.get(settings.getFeatureIDPattern());
+    }
+
+    /**
+     * @return compiled thirdPartyRegex, or null when not configured
+     */
+    public Pattern thirdParty() {
+        return StringUtils.isEmpty(settings.getThirdPartyRegex()) ? null : thirdParty.get(settings.getThirdPartyRegex());
+    }
+
+    /**
+     * @return compiled mergeCommitFromTargetBranchRegEx, case insensitive, in configured order
+     */
+    public List<Pattern> mergeCommitFromTargetBranch() {
+        return CollectionUtils.isEmpty(settings.getMergeCommitFromTargetBranchRegEx()) ? Collections.emptyList()
+                : mergeCommitFromTargetBranch.get(settings.getMergeCommitFromTargetBranchRegEx());
+    }
+
+    /**
+     * @return compiled buildStageRegEx, in configured order
+     */
+    public List<Pattern> buildStage() {
+        return CollectionUtils.isEmpty(settings.getBuildStageRegEx()) ? Collections.emptyList()
+                : buildStage.get(settings.getBuildStageRegEx());
+    }
+
+    private static List<Pattern> compileAll(List<String> regexes, int flags) {
+        return Collections.unmodifiableList(regexes.stream().map(regex -> Pattern.compile(regex, flags)).collect(Collectors.toList()));
+    }
+
+    /**
+     * Holds the last configured value with its compiled form. A different value, including a list changed in place,
+     * replaces both.
+     */
+    private static final class CompiledSetting<S, C> {
+        private final Function<S, C> compiler;
+        private volatile Compiled<S, C> current;
+
+        CompiledSetting(Function<S, C> compiler) {
+            this.compiler = compiler;
+        }
+
+        C get(S source) {
+            Compiled<S, C> compiled = current;
+            if (compiled == null || !Objects.equals(compiled.source, source)) {
+                S copy = (source instanceof List) ? copyOf(source) : source;
+                compiled = new Compiled<>(copy, compiler.apply(copy));
+                current = compiled;
+            }
+            return compiled.value;
+        }
+
+        @SuppressWarnings("unchecked")
+        private S copyOf(S source) {
+            return (S) Collections.unmodifiableList(new ArrayList<>((List<?>) source));
+        }
+    }
+
+    private static final class Compiled<S, C> {
+        private final S source;
+        private final C value;
+
+        Compiled(S source, C value) {
+            this.source = source;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.model.ServiceAccount;
+import com.capitalone.dashboard.repository.ServiceAccountRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable view of the service accounts allowed to make direct commits, with the files each account may change.
+ * The comma separated file names are split and wildcard extensions compiled once when the snapshot is built.
+ */
+public class ServiceAccountSnapshot {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceAccountSnapshot.class);
+
+    private final Map<String, List<Predicate<String>>> allowedFiles;
+    private final long loadedAt;
+    private final long loadDuration;
+
+    private ServiceAccountSnapshot(Map<String, List<Predicate<String>>> allowedFiles, long loadedAt, long loadDuration) {
+        this.allowedFiles = Collections.unmodifiableMap(allowedFiles);
+        this.loadedAt = loadedAt;
+        this.loadDuration = loadDuration;
+    }
+
+    public static ServiceAccountSnapshot load(ServiceAccountRepository serviceAccountRepository) {
+        long start = System.currentTimeMillis();
+        Map<String, List<Predicate<String>>> allowedFiles = new HashMap<>();
+        serviceAccountRepository.findAll().forEach(sa -> addAccount(allowedFiles, sa.getServiceAccountName(), sa.getFileNames()));
+        long end = System.currentTimeMillis();
+        return new ServiceAccountSnapshot(allowedFiles, end, end - start);
+    }
+
+    /**
+     * @param accounts service account name to comma separated file names, as stored on {@link ServiceAccount}
+     */
+    public static ServiceAccountSnapshot of(Map<String, String> accounts) {
+        Map<String, List<Predicate<String>>> allowedFiles = new HashMap<>();
+        Optional.ofNullable(accounts).orElse(Collections.emptyMap()).forEach((name, fileNames) -> addAccount(allowedFiles, name, fileNames));
+        return new ServiceAccountSnapshot(allowedFiles, System.currentTimeMillis(), 0);
+    }
+
+    private static void addAccount(Map<String, List<Predicate<String>>> allowedFiles, String name, String fileNames) {
+        if (StringUtils.isEmpty(name)) { return; }
+        List<Predicate<String>> matchers = allowedFiles.computeIfAbsent(name.toLowerCase(Locale.ROOT), k -> new ArrayList<>());
+        if (StringUtils.isEmpty(fileNames)) { return; }
+        for (String fileName : fileNames.split(",")) {
+            Predicate<String> matcher = fileMatcher(fileName);
+            if (matcher != null) {
+                matchers.add(matcher);
+            }
+        }
+    }
+
+    private static Predicate<String> fileMatcher(String fileName) {
+        if (!fileName.contains("*")) {
+            return file -> file.contains(fileName);
+        }
+        Optional<String> extension = CommonCodeReview.getExtensionByStringHandling(fileName);
+        if (!extension.isPresent()) {
+            LOGGER.warn("Ignoring service account file pattern without extension: " + fileName);
+            return null;
+        }
+        try {
+            return Pattern.compile("([^\\s]+(\\.(?i)(" + extension.get() + "))$)").asPredicate();
+        } catch (PatternSyntaxException e) {
+            LOGGER.warn("Ignoring invalid service account file pattern: " + fileName);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether the author is a service account allowed to change any of the files
+     */
+    public boolean isAllowed(String author, List<String> files) {
+        if (author == null || files == null) { return false; }
+        List<Predicate<String>> matchers = allowedFiles.get(author.toLowerCase(Locale.ROOT));
+        if (matchers == null) { return false; }
+        return matchers.stream().anyMatch(matcher -> files.stream().anyMatch(matcher));
+    }
+
+    public boolean isEmpty() {
+        return allowedFiles.isEmpty();
+    }
+
+    public int size() {
+        return allowedFiles.size();
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+
+    public long getLoadDuration() {
+        return loadDuration;
+    }
+}
@@ -1,12 +1,17 @@
 package com.capitalone.dashboard.config;
 
+import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.mapper.CustomObjectMapper;
 import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.converter.ByteArrayHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.DefaultServletHandlerConfigurer;
@@ -14,12 +19,21 @@ import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
+import java.util.Collections;
 import java.util.List;
 
 @Configuration
 @EnableWebMvc
 @ComponentScan(basePackages = "com.capitalone.dashboard.rest")
 public class WebMVCConfig extends WebMvcConfigurerAdapter {
+
+    private final ApiSettings apiSettings;
+
+    @Autowired
+    public WebMVCConfig(ApiSettings apiSettings) {
+        this.apiSettings = apiSettings;
+    }
+
     @Override
     public void configureDefaultServletHandling(DefaultServletHandlerConfigurer configurer) {
         configurer.enable("apiaudit");
@@ -29,19 +43,34 @@ public class WebMVCConfig extends WebMvcConfigurerAdapter {
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         MappingJackson2HttpMessageConverter jackson = new MappingJackson2HttpMessageConverter();
 
-        jackson.setObjectMapper(new CustomObjectMapper());
-        jackson.getObjectMapper()
-                .disable(SerializationFeature.WRITE_NULL_MAP_VALUES)
-                .enable(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
-                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        jackson.setObjectMapper(objectMapper());
 
+        // serialized responses of ConditionalResponseUtility
+        converters.add(new ByteArrayHttpMessageConverter());
         converters.add(jackson);
     }
 
+    /**
+     * Object mapper of the JSON responses, also for responses written straight to the output stream
+     */
+    public static ObjectMapper objectMapper() {
+        ObjectMapper objectMapper = new CustomObjectMapper();
+        Jackson2ObjectMapperBuilder.json()
+                // only the modules of CustomObjectMapper, and unknown properties still fail as before
+                .modules(Collections.emptyList())
+                .failOnUnknownProperties(true)
+                .featuresToDisable(SerializationFeature.WRITE_NULL_MAP_VALUES)
+                .featuresToEnable(SerializationFeature.WRITE_ENUMS_USING_TO_STRING)
+                .defaultViewInclusion(false)
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .configure(objectMapper);
+        return objectMapper;
+    }
+
     @Override
     public void addArgumentResolvers(List<HandlerMethodArgumentResolver> argumentResolvers) {
         PageableHandlerMethodArgumentResolver resolver = new PageableHandlerMethodArgumentResolver();
-        resolver.setMaxPageSize(Integer.MAX_VALUE);
+        resolver.setMaxPageSize((apiSettings.getAuditResultMaxPageSize() > 0) ? apiSettings.getAuditResultMaxPageSize() : Integer.MAX_VALUE);
         argumentResolvers.add(resolver);
     }
 
@@ -1,9 +1,11 @@
 package com.capitalone.dashboard.config;
 
+import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.auth.AuthenticationResultHandler;
 import com.capitalone.dashboard.auth.apitoken.ApiTokenAuthenticationProvider;
 import com.capitalone.dashboard.auth.apitoken.ApiTokenRequestFilter;
 import com.capitalone.dashboard.settings.AuthProperties;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 //import org.springframework.boot.autoconfigure.security.Http401AuthenticationEntryPoint;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
@@ -14,12 +16,19 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.ldap.core.LdapTemplate;
 import org.springframework.ldap.core.support.LdapContextSource;
+import org.springframework.ldap.core.support.SimpleDirContextAuthenticationStrategy;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.ClassUtils;
+
+import javax.naming.Context;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
@@ -36,6 +45,9 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private AuthProperties authProperties;
 
+    @Autowired
+    private ApiSettings apiSettings;
+
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.headers().cacheControl();
@@ -68,17 +80,42 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
     }
 
     @Bean
-    public LdapContextSource contextSource() {
+    public LdapContextSource contextSource() throws ClassNotFoundException {
         LdapContextSource contextSource = new LdapContextSource();
+        contextSource.setContextFactory(ClassUtils.forName(apiSettings.getContextFactory(), getClass().getClassLoader()));
         contextSource.setUrl(authProperties.getAdUrl());
-        contextSource.setUserDn(authProperties.getLdapBindUser());
+        // bind with the user principal name, as the DN lookups of LdapServiceImpl always did
+        contextSource.setUserDn(StringUtils.isEmpty(authProperties.getAdDomain()) ? authProperties.getLdapBindUser()
+                : authProperties.getLdapBindUser() + "@" + authProperties.getAdDomain());
         contextSource.setPassword(authProperties.getLdapBindPass());
+        String securityAuthentication = apiSettings.getContextSecurityAuthentication();
+        contextSource.setAuthenticationStrategy(new SimpleDirContextAuthenticationStrategy() {
+            @Override
+            public void setupEnvironment(Hashtable<String, Object> env, String userDn, String password) {
+                super.setupEnvironment(env, userDn, password);
+                if (StringUtils.isNotEmpty(securityAuthentication)) {
+                    env.put(Context.SECURITY_AUTHENTICATION, securityAuthentication);
+                }
+            }
+        });
+        // JNDI connection pooling, see com.sun.jndi.ldap.connect.pool.* system properties for its limits and
+        // Application for the pooled protocols
+        contextSource.setPooled(true);
+        Map<String, Object> environment = new HashMap<>();
+        if (StringUtils.isNotEmpty(apiSettings.getContextProtocol())) {
+            environment.put(Context.SECURITY_PROTOCOL, apiSettings.getContextProtocol());
+        }
+        environment.put("com.sun.jndi.ldap.connect.timeout", apiSettings.getContextConnectTimeout());
+        contextSource.setBaseEnvironmentProperties(environment);
         return contextSource;
     }
 
     @Bean
-    public LdapTemplate ldapTemplate() {
-        return new LdapTemplate(contextSource());
+    public LdapTemplate ldapTemplate() throws ClassNotFoundException {
+        LdapTemplate ldapTemplate = new LdapTemplate(contextSource());
+        // Active Directory answers subtree searches with referrals
+        ldapTemplate.setIgnorePartialResultException(true);
+        return ldapTemplate;
     }
 
 }
@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
 import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.BinaryArtifact;
 import com.capitalone.dashboard.model.CollectorItem;
@@ -25,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,15 +34,17 @@ public class ArtifactEvaluator extends Evaluator<ArtifactAuditResponse> {
 
     private final BinaryArtifactRepository binaryArtifactRepository;
     private final ApiSettings apiSettings;
+    private final PatternRegistry patternRegistry;
     private final static String DOCKER = "docker";
     private final static String ARTIFACT_NAME = "artifactName";
     private final static String PATH = "path";
     private final static String REPO_NAME = "repoName";
 
     @Autowired
-    public ArtifactEvaluator(BinaryArtifactRepository binaryArtifactRepository, ApiSettings apiSettings) {
+    public ArtifactEvaluator(BinaryArtifactRepository binaryArtifactRepository, ApiSettings apiSettings, PatternRegistry patternRegistry) {
         this.binaryArtifactRepository = binaryArtifactRepository;
         this.apiSettings = apiSettings;
+        this.patternRegistry = patternRegistry;
     }
 
     @Override
@@ -183,7 +185,7 @@ public class ArtifactEvaluator extends Evaluator<ArtifactAuditResponse> {
 
     private boolean isThirdParty(String repoName) {
         if(StringUtils.isEmpty(apiSettings.getThirdPartyRegex()) || StringUtils.isEmpty(repoName)) return false;
-        return Pattern.compile(apiSettings.getThirdPartyRegex()).matcher(repoName).matches();
+        return patternRegistry.thirdParty().matcher(repoName).matches();
     }
 
     private ArtifactAuditResponse getErrorResponse(CollectorItem collectorItem, ArtifactAuditResponse errorAuditResponse, ArtifactAuditStatus artifactAuditStatus) {
@@ -12,17 +12,19 @@ import com.capitalone.dashboard.model.RepoBranch;
 import com.capitalone.dashboard.repository.BuildRepository;
 import com.capitalone.dashboard.repository.CollItemConfigHistoryRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
+import com.capitalone.dashboard.repository.LatestRecordQuery;
 import com.capitalone.dashboard.request.ArtifactAuditRequest;
 import com.capitalone.dashboard.response.BuildAuditResponse;
 import com.capitalone.dashboard.status.BuildAuditStatus;
 import com.capitalone.dashboard.util.GitHubParsedUrl;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -35,12 +37,14 @@ public class BuildEvaluator extends Evaluator<BuildAuditResponse> {
     private final BuildRepository buildRepository;
     private final CollItemConfigHistoryRepository collItemConfigHistoryRepository;
     private final CommitRepository commitRepository;
+    private final LatestRecordQuery latestRecordQuery;
 
     @Autowired
-    public BuildEvaluator(BuildRepository buildRepository, CollItemConfigHistoryRepository collItemConfigHistoryRepository, CommitRepository commitRepository) {
+    public BuildEvaluator(BuildRepository buildRepository, CollItemConfigHistoryRepository collItemConfigHistoryRepository, CommitRepository commitRepository, LatestRecordQuery latestRecordQuery) {
         this.buildRepository = buildRepository;
         this.collItemConfigHistoryRepository = collItemConfigHistoryRepository;
         this.commitRepository = commitRepository;
+        this.latestRecordQuery = latestRecordQuery;
     }
 
 
@@ -54,9 +58,10 @@ public class BuildEvaluator extends Evaluator<BuildAuditResponse> {
             throw new AuditException("No code repository configured", AuditException.NO_COLLECTOR_ITEM_CONFIGURED);
         }
 
-        Map<String, List<CollectorItem>> repoData = new HashMap<>();
-        repoData.put("repos", repoItems);
-        return buildItems.stream().map(item -> evaluate(item, beginDate, endDate, repoData)).collect(Collectors.toList());
+        // the latest builds of all jobs are read together, they are only compared against the configured repos
+        Map<ObjectId, Build> latestBuilds = CollectionUtils.isEmpty(repoItems) ? Collections.emptyMap()
+                : latestRecordQuery.findLatest(Build.class, buildItems.stream().map(CollectorItem::getId).collect(Collectors.toList()));
+        return buildItems.stream().map(item -> getBuildJobAuditResponse(item, beginDate, endDate, repoItems, latestBuilds.get(item.getId()))).collect(Collectors.toList());
     }
 
     @Override
@@ -68,7 +73,8 @@ public class BuildEvaluator extends Evaluator<BuildAuditResponse> {
     @Override
     public BuildAuditResponse evaluate(CollectorItem collectorItem, long beginDate, long endDate, Map<?, ?> data) {
         List<CollectorItem> repoItems = (List<CollectorItem>) data.get("repos");
-        return getBuildJobAuditResponse(collectorItem, beginDate, endDate, repoItems);
+        Build build = CollectionUtils.isEmpty(repoItems) ? null : buildRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(collectorItem.getId());
+        return getBuildJobAuditResponse(collectorItem, beginDate, endDate, repoItems, build);
     }
 
     private class ParsedRepo {
@@ -116,9 +122,10 @@ public class BuildEvaluator extends Evaluator<BuildAuditResponse> {
      *
      * @param beginDate
      * @param endDate
+     * @param build latest build of the job, only read when repos are configured
      * @return BuildAuditResponse for the build job for a given dashboard, begin and end date
      */
-    private BuildAuditResponse getBuildJobAuditResponse(CollectorItem buildItem, long beginDate, long endDate, List<CollectorItem> repoItems) {
+    private BuildAuditResponse getBuildJobAuditResponse(CollectorItem buildItem, long beginDate, long endDate, List<CollectorItem> repoItems, Build build) {
 
 
         BuildAuditResponse buildAuditResponse = new BuildAuditResponse();
@@ -131,7 +138,6 @@ public class BuildEvaluator extends Evaluator<BuildAuditResponse> {
 
 
         if (!CollectionUtils.isEmpty(repoItems)) {
-            Build build = buildRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(buildItem.getId());
             if (build != null) {
                 List<RepoBranch> repoBranches = build.getCodeRepos();
 
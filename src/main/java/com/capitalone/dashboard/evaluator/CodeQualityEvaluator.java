@@ -13,14 +13,18 @@ import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.repository.CodeQualityRepository;
 import com.capitalone.dashboard.repository.CollItemConfigHistoryRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
+import com.capitalone.dashboard.repository.LatestRecordQuery;
 import com.capitalone.dashboard.request.ArtifactAuditRequest;
 import com.capitalone.dashboard.response.CodeQualityAuditResponse;
 import com.capitalone.dashboard.status.CodeQualityAuditStatus;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
@@ -40,6 +44,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Component
@@ -48,13 +53,15 @@ public class CodeQualityEvaluator extends Evaluator<CodeQualityAuditResponse> {
     private final CodeQualityRepository codeQualityRepository;
     private final CommitRepository commitRepository;
     private final CollItemConfigHistoryRepository collItemConfigHistoryRepository;
+    private final LatestRecordQuery latestRecordQuery;
     private static final Logger LOGGER = LoggerFactory.getLogger(CodeQualityEvaluator.class);
 
     @Autowired
-    public CodeQualityEvaluator(CodeQualityRepository codeQualityRepository, CommitRepository commitRepository, CollItemConfigHistoryRepository collItemConfigHistoryRepository) {
+    public CodeQualityEvaluator(CodeQualityRepository codeQualityRepository, CommitRepository commitRepository, CollItemConfigHistoryRepository collItemConfigHistoryRepository, LatestRecordQuery latestRecordQuery) {
         this.codeQualityRepository = codeQualityRepository;
         this.commitRepository = commitRepository;
         this.collItemConfigHistoryRepository = collItemConfigHistoryRepository;
+        this.latestRecordQuery = latestRecordQuery;
     }
 
     @Override
@@ -67,12 +74,13 @@ public class CodeQualityEvaluator extends Evaluator<CodeQualityAuditResponse> {
         }
 
         List<CollectorItem> repoItems = getCollectorItemsByAltIdentifier(dashboard, CollectorType.SCM,altIdentifier);
+        List<CollectorItem> repos = CollectionUtils.isEmpty(repoItems) ? new ArrayList<>() : repoItems;
 
+        // the first job without code quality in the period reads the latest analysis of all jobs at once
+        List<ObjectId> codeQualityItemIds = codeQualityItems.stream().map(CollectorItem::getId).collect(Collectors.toList());
+        Supplier<Map<ObjectId, CodeQuality>> latestCodeQualities = Suppliers.memoize(() -> latestRecordQuery.findLatest(CodeQuality.class, codeQualityItemIds));
 
-        Map<String, List<CollectorItem>> repoData = new HashMap<>();
-        repoData.put("repos", repoItems);
-
-        return codeQualityItems.stream().map(item -> evaluate(item, beginDate, endDate, repoData)).collect(Collectors.toList());
+        return codeQualityItems.stream().map(item -> getStaticAnalysisResponse(item, repos, beginDate, endDate, id -> latestCodeQualities.get().get(id))).collect(Collectors.toList());
     }
 
     @Override
@@ -94,7 +102,7 @@ public class CodeQualityEvaluator extends Evaluator<CodeQualityAuditResponse> {
         } else {
             repoItems = new ArrayList<>();
         }
-        return getStaticAnalysisResponse(collectorItem, repoItems, beginDate, endDate);
+        return getStaticAnalysisResponse(collectorItem, repoItems, beginDate, endDate, codeQualityRepository::findTop1ByCollectorItemIdOrderByTimestampDesc);
     }
 
     /**
@@ -102,7 +110,8 @@ public class CodeQualityEvaluator extends Evaluator<CodeQualityAuditResponse> {
      *
      * @return CodeQualityAuditResponse
      */
-    private CodeQualityAuditResponse getStaticAnalysisResponse(CollectorItem collectorItem, List<CollectorItem> repoItems, long beginDate, long endDate) {
+    private CodeQualityAuditResponse getStaticAnalysisResponse(CollectorItem collectorItem, List<CollectorItem> repoItems, long beginDate, long endDate,
+                                                               Function<ObjectId, CodeQuality> latestCodeQuality) {
         CodeQualityAuditResponse codeQualityAuditResponse = new CodeQualityAuditResponse();
         if (collectorItem == null) return getNotConfigured();
         if (!isProjectIdValid(collectorItem)) return getErrorResponse(collectorItem);
@@ -111,7 +120,7 @@ public class CodeQualityEvaluator extends Evaluator<CodeQualityAuditResponse> {
 
         if (CollectionUtils.isEmpty(codeQualities)) {
 
-            return codeQualityDetailsForMissingStatus(collectorItem);
+            return codeQualityDetailsForMissingStatus(collectorItem, latestCodeQuality);
         } else {
             codeQualityAuditResponse.addAuditStatus(CodeQualityAuditStatus.CODE_QUALITY_CHECK_IS_CURRENT);
         }
@@ -210,13 +219,12 @@ public class CodeQualityEvaluator extends Evaluator<CodeQualityAuditResponse> {
      * @param codeQualityCollectorItem
      * @return missing details audit-resoonse.
      */
-    private CodeQualityAuditResponse codeQualityDetailsForMissingStatus(CollectorItem codeQualityCollectorItem ){
+    private CodeQualityAuditResponse codeQualityDetailsForMissingStatus(CollectorItem codeQualityCollectorItem, Function<ObjectId, CodeQuality> latestCodeQuality){
         CodeQualityAuditResponse detailsMissing =new CodeQualityAuditResponse();
         detailsMissing.addAuditStatus(CodeQualityAuditStatus.CODE_QUALITY_DETAIL_MISSING);
         detailsMissing.setLastUpdated(codeQualityCollectorItem.getLastUpdated());
         detailsMissing.setAuditEntity(codeQualityCollectorItem.getOptions());
-        Optional<CodeQuality> codeQualityOpt = Optional.ofNullable(
-                codeQualityRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(codeQualityCollectorItem.getId()));
+        Optional<CodeQuality> codeQualityOpt = Optional.ofNullable(latestCodeQuality.apply(codeQualityCollectorItem.getId()));
         if (codeQualityOpt.isPresent()) {
             CodeQuality codeQuality = codeQualityOpt.get();
             detailsMissing.setUrl(codeQuality.getUrl());
@@ -1,7 +1,11 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.CodeReviewIndex;
 import com.capitalone.dashboard.common.CommonCodeReview;
+import com.capitalone.dashboard.common.MergedPullRequestLookup;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.common.ServiceAccountSnapshot;
 import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.CollectionError;
 import com.capitalone.dashboard.model.Collector;
@@ -13,14 +17,14 @@ import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.model.GitRequest;
 import com.capitalone.dashboard.model.Review;
 import com.capitalone.dashboard.model.SCM;
-import com.capitalone.dashboard.model.ServiceAccount;
 import com.capitalone.dashboard.repository.CollectorRepository;
 import com.capitalone.dashboard.repository.CommitRepository;
 import com.capitalone.dashboard.repository.GitRequestRepository;
-import com.capitalone.dashboard.repository.ServiceAccountRepository;
+import com.capitalone.dashboard.repository.PullRequestAuditSnapshotRepository;
 import com.capitalone.dashboard.request.ArtifactAuditRequest;
 import com.capitalone.dashboard.response.CodeReviewAuditResponseV2;
 import com.capitalone.dashboard.service.LdapService;
+import com.capitalone.dashboard.service.ServiceAccountService;
 import com.capitalone.dashboard.status.CodeReviewAuditStatus;
 import com.capitalone.dashboard.util.GitHubParsedUrl;
 import org.apache.commons.collections.CollectionUtils;
@@ -28,13 +32,18 @@ import org.apache.commons.lang3.StringUtils;
 import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -50,7 +59,9 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         private final CommitRepository commitRepository;
         private final GitRequestRepository gitRequestRepository;
         private final CollectorRepository collectorRepository;
-        private final ServiceAccountRepository serviceAccountRepository;
+        private final ServiceAccountService serviceAccountService;
+        private final PullRequestAuditSnapshotRepository pullRequestAuditSnapshotRepository;
+        private final PatternRegistry patternRegistry;
         private static final Logger LOGGER = LoggerFactory.getLogger(CodeReviewEvaluator.class);
     private final LdapService ldapService;
 
@@ -60,14 +71,18 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
 
     @Autowired
     public CodeReviewEvaluator(CommitRepository commitRepository, GitRequestRepository gitRequestRepository,
-                               CollectorRepository collectorRepository, ServiceAccountRepository serviceAccountRepository,
-                               ApiSettings settings, LdapService ldapService) {
+                               CollectorRepository collectorRepository, ServiceAccountService serviceAccountService,
+                               ApiSettings settings, LdapService ldapService,
+                               PullRequestAuditSnapshotRepository pullRequestAuditSnapshotRepository,
+                               PatternRegistry patternRegistry) {
         this.commitRepository = commitRepository;
         this.gitRequestRepository = gitRequestRepository;
         this.collectorRepository = collectorRepository;
         this.settings = settings;
-        this.serviceAccountRepository = serviceAccountRepository;
+        this.serviceAccountService = serviceAccountService;
         this.ldapService = ldapService;
+        this.pullRequestAuditSnapshotRepository = pullRequestAuditSnapshotRepository;
+        this.patternRegistry = patternRegistry;
     }
 
 
@@ -183,9 +198,12 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         }
 
         List<GitRequest> pullRequests = gitRequestRepository.findByCollectorItemIdAndMergedAtIsBetween(repoItem.getId(), beginDt-1, endDt+1);
-        List<Commit> allCommits = commitRepository.findByCollectorItemIdAndScmCommitTimestampIsBetween(repoItem.getId(), beginDt-1, endDt+1);
+        List<Commit> allCommits = CommonCodeReview.getCommits(repoItem.getId(), beginDt-1, endDt+1, commitRepository);
         //Filter empty and auto merged commits
-        List<Commit> commits = allCommits.stream().filter(commit -> isNeitherEmptyNorAutoMerged(commit)).collect(Collectors.toList());
+        MergedPullRequestLookup mergedPullRequests = MergedPullRequestLookup.resolve(allCommits.stream()
+                .filter(commit -> commit.getNumberOfChanges() > 0 && StringUtils.isEmpty(commit.getPullNumber()))
+                .collect(Collectors.toList()), commitRepository, gitRequestRepository);
+        List<Commit> commits = allCommits.stream().filter(commit -> isNeitherEmptyNorAutoMerged(commit, mergedPullRequests)).collect(Collectors.toList());
         commits.sort(Comparator.comparing(Commit::getScmCommitTimestamp).reversed());
         if (settings.isEnrichCommits()) {
             commits = enrichCommits(commits);
@@ -210,14 +228,20 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         reviewAuditResponseV2.setLastUpdated(repoItem.getLastUpdated());
 
         // make list of PR'd and nonPR'd to fix false Automerge not-peer-reviewed warnings
-        List<String> allPrCommitShas = new ArrayList<>();
+        Set<String> allPrCommitShas = new HashSet<>();
         List<GitRequest> notPeerReviewed = new ArrayList<>();
-        List<GitRequest> peerReviewed = new ArrayList<>();
-
-        pullRequests.stream().filter(pr -> "merged".equalsIgnoreCase(pr.getState())).forEach(pr -> {
-            Boolean isPeerReviewed = auditPullRequest(repoItem, pr, inputCommits, allPrCommitShas, reviewAuditResponseV2);
+        Set<GitRequest> peerReviewed = new HashSet<>();
+        CodeReviewIndex index = CodeReviewIndex.of(inputCommits, pullRequests);
+        List<GitRequest> mergedPrs = pullRequests.stream().filter(pr -> "merged".equalsIgnoreCase(pr.getState())).collect(Collectors.toList());
+        PullRequestAuditSnapshots snapshots = settings.isCodeReviewAuditSnapshots()
+                ? PullRequestAuditSnapshots.load(repoItem, mergedPrs, settings, pullRequestAuditSnapshotRepository)
+                : PullRequestAuditSnapshots.disabled();
+
+        mergedPrs.forEach(pr -> {
+            Boolean isPeerReviewed = auditPullRequest(repoItem, pr, index, snapshots, allPrCommitShas, reviewAuditResponseV2);
             boolean isPRd = isPeerReviewed ? peerReviewed.add(pr) : notPeerReviewed.add(pr);
         });
+        snapshots.save();
 
 
         Long startTime = System.currentTimeMillis();
@@ -225,10 +249,14 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
             LOGGER.info(String.format("AutoMerge Check :: Reviewing %d Pull Request(s) with no peer review", notPeerReviewed.size()));
         }
 
+        // audits by pull request, so a corrected PR is found without scanning the response
+        Map<GitRequest, CodeReviewAuditResponseV2.PullRequestAudit> auditsByPr = new HashMap<>();
+        if (!notPeerReviewed.isEmpty()) {
+            reviewAuditResponseV2.getPullRequests().forEach(prAudit -> auditsByPr.putIfAbsent(prAudit.getPullRequest(), prAudit));
+        }
+
         // iterate though the gitRequests that failed the PR audit and check if the PR was auto merged
         for(GitRequest noPR: notPeerReviewed){
-            boolean foundCommit = false;
-
             // if for some reason the PR has no commit, ignore and move on
             if (noPR.getCommits().isEmpty()){continue;}
 
@@ -236,36 +264,27 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
             noPR.getCommits().sort(Comparator.comparing(Commit::getScmCommitTimestamp));
             Commit lastCommit = noPR.getCommits().get(noPR.getCommits().size()-1);
 
-            // iterate through the peerReviewed and their commits to see if the failed PR's commit exists in there
-            for (GitRequest yesPR: peerReviewed.stream().filter(pr -> pr.getCreatedAt() >= noPR.getCreatedAt()).collect(Collectors.toList())) {
-                for (Commit commit: yesPR.getCommits()) {
-                    if (lastCommit.getScmRevisionNumber().equalsIgnoreCase(commit.getScmRevisionNumber())){
-
-                        foundCommit = true;
+            // look up the peerReviewed PRs containing the failed PR's commit
+            boolean foundCommit = index.getPullRequestsContaining(lastCommit.getScmRevisionNumber()).stream()
+                    .anyMatch(yesPR -> peerReviewed.contains(yesPR) && yesPR.getCreatedAt() >= noPR.getCreatedAt());
+            if (!foundCommit) { continue; }
 
-                        // get the PR that has the Peer review fail
-                        CodeReviewAuditResponseV2.PullRequestAudit prAudit = reviewAuditResponseV2.getPullRequests()
-                                .stream().filter(pr -> pr.getPullRequest().equals(noPR)).findFirst().orElse(null);
+            // get the PR that has the Peer review fail
+            CodeReviewAuditResponseV2.PullRequestAudit prAudit = auditsByPr.get(noPR);
 
-                        // Remove the old PR in the audit response
-                        reviewAuditResponseV2.getPullRequests().remove(prAudit);
+            // Remove the old PR in the audit response
+            reviewAuditResponseV2.getPullRequests().remove(prAudit);
 
-                        // get audit status, remove NOT_PEER_REVIEWED, set audit status for PR
-                        Set<CodeReviewAuditStatus> auditStatuses = prAudit.getAuditStatuses();
-                        auditStatuses.remove(CodeReviewAuditStatus.PULLREQ_NOT_PEER_REVIEWED);
-                        auditStatuses.add(CodeReviewAuditStatus.PULLREQ_REVIEWED_BY_PEER);
-                        prAudit.setAuditStatus(auditStatuses);
+            // get audit status, remove NOT_PEER_REVIEWED, set audit status for PR
+            Set<CodeReviewAuditStatus> auditStatuses = prAudit.getAuditStatuses();
+            auditStatuses.remove(CodeReviewAuditStatus.PULLREQ_NOT_PEER_REVIEWED);
+            auditStatuses.add(CodeReviewAuditStatus.PULLREQ_REVIEWED_BY_PEER);
+            prAudit.setAuditStatus(auditStatuses);
 
-                        // add PR audit back to the auditResponse
-                        reviewAuditResponseV2.addPullRequest(prAudit);
+            // add PR audit back to the auditResponse
+            reviewAuditResponseV2.addPullRequest(prAudit);
 
-                        LOGGER.info(String.format("AutoMerge Check :: Correcting auto merged PR's status (ObjectID: %s)", noPR.getId().toString()));
-
-                        break;      // exit loop because the commit was verified in another PR
-                    }
-                }
-                if(foundCommit){break;}     // stop iterating through PRs if commit was verified
-            }
+            LOGGER.info(String.format("AutoMerge Check :: Correcting auto merged PR's status (ObjectID: %s)", noPR.getId().toString()));
         }
 
         if(notPeerReviewed.size() > 0) {
@@ -276,41 +295,49 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
 
         //check any commits not directly tied to pr
         List<Commit> commitsNotDirectlyTiedToPr = new ArrayList<>();
+        SiblingBranchApprovals siblingApprovals = repoItem.isPushed()
+                ? new SiblingBranchApprovals(collectorItemList, beginDt, endDt, commitRepository, gitRequestRepository) : null;
         commits.forEach(commit -> {
             // flag any commits made by an LDAP unauthenticated user
             checkCommitByLDAPUnauthUser(reviewAuditResponseV2, commit);
 
             if (!checkPrCommitsAndCommitType(allPrCommitShas, commit)) { return; }
 
-            if ( isCommitEligibleForDirectCommitsForPushedRepo(repoItem, commit, collectorItemList, beginDt, endDt)
+            if ( isCommitEligibleForDirectCommitsForPushedRepo(repoItem, commit, siblingApprovals)
                     || isCommitEligibleForDirectCommitsForPulledRepo(repoItem, commit) ) {
                 commitsNotDirectlyTiedToPr.add(commit);
                 // check for service account and increment version tag for service account on direct commits.
-                auditDirectCommits(reviewAuditResponseV2, commit);
+                auditDirectCommits(reviewAuditResponseV2, commit, mergedPullRequests);
             }
         });
+        if (siblingApprovals != null) {
+            siblingApprovals.logSummary(parsedUrl, scmBranch);
+        }
 
         return reviewAuditResponseV2;
     }
 
     private List<Commit> enrichCommits(List<Commit> commits) {
         if (CollectionUtils.isEmpty(commits)) return commits;
-        List<Commit> result = new ArrayList<>();
-        for (Commit commit : commits) {
-            if (StringUtils.isEmpty(commit.getScmAuthorLDAPDN())) {
-                String loginKey = commit.getScmAuthorLogin();
-                commit.setScmAuthorLDAPDN(ldapService.getLdapDN(loginKey));
-            }
-            result.add(commit);
-        }
-        return result;
+        // every author is resolved once, however many commits they made
+        Set<String> loginKeys = commits.stream().filter(commit -> StringUtils.isEmpty(commit.getScmAuthorLDAPDN()))
+                .map(Commit::getScmAuthorLogin).filter(StringUtils::isNotEmpty).collect(Collectors.toSet());
+        Map<String, String> ldapDNs = loginKeys.isEmpty() ? Collections.emptyMap() : ldapService.getLdapDNs(loginKeys);
+        // the cached commits are shared with other evaluators, the enriched ones are copies
+        return commits.stream().map(commit -> {
+            if (StringUtils.isNotEmpty(commit.getScmAuthorLDAPDN())) { return commit; }
+            Commit enriched = new Commit();
+            BeanUtils.copyProperties(commit, enriched);
+            enriched.setScmAuthorLDAPDN(ldapDNs.getOrDefault(commit.getScmAuthorLogin(), ""));
+            return enriched;
+        }).collect(Collectors.toList());
     }
 
 
     // Check if commit is neither empty nor auto merged
-    protected boolean isNeitherEmptyNorAutoMerged(Commit commit) {
+    protected boolean isNeitherEmptyNorAutoMerged(Commit commit, MergedPullRequestLookup mergedPullRequests) {
         String pullNumber = commit.getPullNumber();
-        return (commit.getNumberOfChanges()>0 && (StringUtils.isNotEmpty(pullNumber) || (StringUtils.isEmpty(pullNumber) && !isCommitHasMergedPR(commit))));
+        return (commit.getNumberOfChanges()>0 && (StringUtils.isNotEmpty(pullNumber) || (StringUtils.isEmpty(pullNumber) && !mergedPullRequests.hasMergedPullRequest(commit))));
     }
 
     private boolean hasValidRepoError(CollectorItem repoItem, List<GitRequest> pullRequests, List<Commit> commits, long beginDt, long endDt) {
@@ -334,42 +361,35 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
             return;
         }
         if (StringUtils.isEmpty(commit.getScmAuthorLDAPDN()) &&
-                !CommonCodeReview.matchIncrementVersionTag(commit.getScmCommitLog(), settings)) {
+                !CommonCodeReview.matchIncrementVersionTag(commit.getScmCommitLog(), patternRegistry)) {
             reviewAuditResponseV2.addAuditStatus(CodeReviewAuditStatus.SCM_AUTHOR_LOGIN_INVALID);
             // add commit made by unauth user to commitsByLDAPUnauthUsers list
             reviewAuditResponseV2.addCommitByLDAPUnauthUser(commit);
         }
     }
 
-    private boolean checkPrCommitsAndCommitType(List<String> allPrCommitShas, Commit commit) {
+    private boolean checkPrCommitsAndCommitType(Set<String> allPrCommitShas, Commit commit) {
         if (Objects.isNull(commit)) return false;
         if (CollectionUtils.isEmpty(allPrCommitShas)) return true;
         return (commit.getType() == CommitType.New) && !allPrCommitShas.contains(commit.getScmRevisionNumber());
     }
 
     private boolean isCommitEligibleForDirectCommitsForPushedRepo(CollectorItem repoItem, Commit commit,
-                                                                  List<CollectorItem> collectorItemList,
-                                                                  long beginDt, long endDt) {
+                                                                  SiblingBranchApprovals siblingApprovals) {
         return repoItem.isPushed()
-                && !existsApprovedPROnAnotherBranch(repoItem, commit, collectorItemList, beginDt, endDt);
+                && !existsApprovedPROnAnotherBranch(repoItem, commit, siblingApprovals);
     }
 
     private boolean isCommitEligibleForDirectCommitsForPulledRepo(CollectorItem repoItem, Commit commit) {
         return !repoItem.isPushed() && StringUtils.isEmpty(commit.getPullNumber());
     }
 
-    protected Boolean auditPullRequest(CollectorItem repoItem, GitRequest pr, List<Commit> commits,
-                                    List<String> allPrCommitShas, CodeReviewAuditResponseV2 reviewAuditResponseV2) {
-        Commit mergeCommit = Optional.ofNullable(commits)
-                                .orElseGet(Collections::emptyList).stream()
-                                .filter(c -> Objects.equals(c.getScmRevisionNumber(), pr.getScmRevisionNumber()))
-                                .findFirst().orElse(null);
+    protected Boolean auditPullRequest(CollectorItem repoItem, GitRequest pr, CodeReviewIndex index, PullRequestAuditSnapshots snapshots,
+                                    Set<String> allPrCommitShas, CodeReviewAuditResponseV2 reviewAuditResponseV2) {
+        Commit mergeCommit = index.getCommit(pr.getScmRevisionNumber());
 
         if (mergeCommit == null) {
-            mergeCommit = Optional.ofNullable(commits)
-                            .orElseGet(Collections::emptyList).stream()
-                            .filter(c -> Objects.equals(c.getScmRevisionNumber(), pr.getScmMergeEventRevisionNumber()))
-                            .findFirst().orElse(null);
+            mergeCommit = index.getCommit(pr.getScmMergeEventRevisionNumber());
         }
 
         CodeReviewAuditResponseV2.PullRequestAudit pullRequestAudit = new CodeReviewAuditResponseV2.PullRequestAudit();
@@ -391,7 +411,8 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         allPrCommitShas.addAll(commitsRelatedToPr.stream().map(SCM::getScmRevisionNumber).collect(Collectors.toList()));
 
         // Check peer reviews
-        boolean peerReviewed = CommonCodeReview.computePeerReviewStatus(pr, settings, pullRequestAudit, commits, commitRepository, serviceAccountRepository);
+        boolean peerReviewed = snapshots.peerReview(repoItem, pr, peerReviewInputs(pr, index), pullRequestAudit,
+                () -> CommonCodeReview.computePeerReviewStatus(pr, settings, pullRequestAudit, index, commitRepository, getAllServiceAccounts()));
         pullRequestAudit.addAuditStatus(peerReviewed ? CodeReviewAuditStatus.PULLREQ_REVIEWED_BY_PEER : CodeReviewAuditStatus.PULLREQ_NOT_PEER_REVIEWED);
         String sourceRepo = pr.getSourceRepo();
         String targetRepo = pr.getTargetRepo();
@@ -403,6 +424,21 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         return peerReviewed ?  Boolean.TRUE:  Boolean.FALSE;    // to track which PR's need further examining
     }
 
+    /**
+     * What the peer review of the pull request reads besides the pull request and the settings: the commits of the
+     * window it looks up, with the LDAP DNs they were enriched with
+     */
+    private static List<Object> peerReviewInputs(GitRequest pr, CodeReviewIndex index) {
+        List<Object> inputs = new ArrayList<>();
+        pr.getCommits().forEach(prCommit -> {
+            Commit commit = index.getCommit(prCommit.getScmRevisionNumber());
+            if (commit != null) {
+                inputs.add(Arrays.asList(commit.getScmRevisionNumber(), commit.getScmParentRevisionNumbers(), commit.getScmAuthorLDAPDN()));
+            }
+        });
+        return inputs;
+    }
+
     /**
      * Flag commit(s) made after pull request merge as violation
      * Adds COMMIT_AFTER_PR_MERGE status at both PR and Code Review level
@@ -453,9 +489,7 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
     public boolean isMergeCommitFromTargetBranch(Commit commit, GitRequest pr) {
         if(commit == null || pr == null) return false;
         String commitLog = commit.getScmCommitLog();
-        List<String> mergeCommitFromTargetBranchRegEx = settings.getMergeCommitFromTargetBranchRegEx();
-        for (String mergeCommitRegex : mergeCommitFromTargetBranchRegEx) {
-            Pattern pattern = Pattern.compile(mergeCommitRegex, Pattern.CASE_INSENSITIVE);
+        for (Pattern pattern : patternRegistry.mergeCommitFromTargetBranch()) {
             Matcher matcher = pattern.matcher(commitLog);
             if (matcher.matches() && (StringUtils.equalsIgnoreCase(pr.getScmBranch(), matcher.group(2))
                     || StringUtils.equalsIgnoreCase(pr.getScmUrl(), matcher.group(2)))) {
@@ -466,45 +500,50 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         return false;
     }
 
-    protected boolean existsApprovedPROnAnotherBranch(CollectorItem repoItem, Commit commit, List<CollectorItem> collectorItemList,
-                                                      long beginDt, long endDt) {
-        CollectorItem collectorItem = Optional.ofNullable(collectorItemList)
-                                        .orElseGet(Collections::emptyList).stream()
-                                        .filter(ci -> existsApprovedPRForCollectorItem(repoItem, commit, ci, beginDt, endDt))
+    protected boolean existsApprovedPROnAnotherBranch(CollectorItem repoItem, Commit commit, SiblingBranchApprovals siblingApprovals) {
+        CollectorItem collectorItem = siblingApprovals.getSiblings().stream()
+                                        .filter(ci -> existsApprovedPRForCollectorItem(repoItem, commit, ci, siblingApprovals))
                                         .findFirst().orElse(null);
         return (collectorItem != null);
     }
 
     protected boolean existsApprovedPRForCollectorItem(CollectorItem repoItem, Commit commit, CollectorItem collectorItem,
-                                                       long beginDt, long endDt) {
-        List<GitRequest> mergedPullRequests
-                = gitRequestRepository.findByCollectorItemIdAndMergedAtIsBetween(collectorItem.getId(), beginDt-1, endDt+1);
-
-        List<Commit> commits
-                = commitRepository.findByCollectorItemIdAndScmCommitTimestampIsBetween(collectorItem.getId(), beginDt-1, endDt+1);
+                                                       SiblingBranchApprovals siblingApprovals) {
+        CodeReviewIndex index = siblingApprovals.getIndex(collectorItem);
 
         GitRequest mergedPullRequestFound
-                = Optional.ofNullable(mergedPullRequests)
-                .orElseGet(Collections::emptyList).stream()
-                .filter(mergedPullRequest -> evaluateMergedPullRequest(repoItem, mergedPullRequest, commit, commits))
+                = candidatePullRequests(index, commit).stream()
+                .filter(mergedPullRequest -> siblingApprovals.isApproved(mergedPullRequest, commit,
+                        () -> evaluateMergedPullRequest(repoItem, mergedPullRequest, commit, index, siblingApprovals)))
                 .findFirst().orElse(null);
 
         return (mergedPullRequestFound != null);
     }
 
+    /**
+     * Pull requests that can hold a match for the commit: the ones containing it, and the one it was squashed or
+     * rebased from. A commit without revision number could match any pull request.
+     */
+    private Collection<GitRequest> candidatePullRequests(CodeReviewIndex index, Commit commit) {
+        if (StringUtils.isEmpty(commit.getScmRevisionNumber())) { return index.getPullRequests(); }
+        Set<GitRequest> candidates = new LinkedHashSet<>(index.getPullRequestsContaining(commit.getScmRevisionNumber()));
+        candidates.addAll(index.getPullRequests(commit.getPullNumber()));
+        return candidates;
+    }
+
     private boolean evaluateMergedPullRequest (CollectorItem repoItem, GitRequest mergedPullRequest,
-                                               Commit commit, List<Commit> commits) {
-        Commit matchingCommit = findAMatchingCommit(mergedPullRequest, commit, commits);
+                                               Commit commit, CodeReviewIndex index, SiblingBranchApprovals siblingApprovals) {
+        Commit matchingCommit = findAMatchingCommit(mergedPullRequest, commit, index);
         if (matchingCommit == null) { return false; }
 
-        List<String> allPrCommitShas = new ArrayList<>();
-        CodeReviewAuditResponseV2 reviewAuditResponseV2 = new CodeReviewAuditResponseV2();
-
         // Matching commit found, now make sure the PR for the matching commit passes all the audit checks
-        auditPullRequest(repoItem, mergedPullRequest, commits, allPrCommitShas, reviewAuditResponseV2);
-        CodeReviewAuditResponseV2.PullRequestAudit pullRequestAudit = reviewAuditResponseV2.getPullRequests().get(0);
-
-        return (pullRequestAudit != null) && codeReviewAuditResponseCheck(pullRequestAudit);
+        return siblingApprovals.passesAudit(mergedPullRequest, () -> {
+            Set<String> allPrCommitShas = new HashSet<>();
+            CodeReviewAuditResponseV2 reviewAuditResponseV2 = new CodeReviewAuditResponseV2();
+            auditPullRequest(repoItem, mergedPullRequest, index, PullRequestAuditSnapshots.disabled(), allPrCommitShas, reviewAuditResponseV2);
+            CodeReviewAuditResponseV2.PullRequestAudit pullRequestAudit = reviewAuditResponseV2.getPullRequests().get(0);
+            return (pullRequestAudit != null) && codeReviewAuditResponseCheck(pullRequestAudit);
+        });
     }
 
     protected boolean codeReviewAuditResponseCheck(CodeReviewAuditResponseV2.PullRequestAudit pullRequestAudit) {
@@ -517,7 +556,7 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         return true;
     }
 
-    protected Commit findAMatchingCommit(GitRequest mergedPullRequest, Commit commitToBeFound, List<Commit> commitsOnTheRepo) {
+    protected Commit findAMatchingCommit(GitRequest mergedPullRequest, Commit commitToBeFound, CodeReviewIndex commitsOnTheRepo) {
         List<Commit> commitsRelatedToPr = mergedPullRequest.getCommits();
 
         // So, will find the matching commit based on the criteria below for "Merge Only" case.
@@ -533,8 +572,7 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
         if (matchingCommit == null) {
             String pullNumber = mergedPullRequest.getNumber();
             matchingCommit
-                    = Optional.ofNullable(commitsOnTheRepo)
-                        .orElseGet(Collections::emptyList).stream()
+                    = commitsOnTheRepo.getCommits(commitToBeFound.getScmRevisionNumber()).stream()
                         .filter(commitOnRepo -> Objects.equals(pullNumber, commitToBeFound.getPullNumber())
                             && checkIfCommitsMatch(commitOnRepo, commitToBeFound))
                         .findFirst().orElse(null);
@@ -550,65 +588,40 @@ public class CodeReviewEvaluator extends Evaluator<CodeReviewAuditResponseV2> {
                 && Objects.equals(commit1.getScmCommitLog(), commit2.getScmCommitLog());
     }
 
-    protected void auditDirectCommits(CodeReviewAuditResponseV2 reviewAuditResponseV2, Commit commit) {
+    protected void auditDirectCommits(CodeReviewAuditResponseV2 reviewAuditResponseV2, Commit commit, MergedPullRequestLookup mergedPullRequests) {
         Stream<String> combinedStream
                 = Stream.of(commit.getFilesAdded(), commit.getFilesModified(),commit.getFilesRemoved()).filter(Objects::nonNull).flatMap(Collection::stream);
         Collection<String> collectionCombined = combinedStream.collect(Collectors.toList());
        if (CommonCodeReview.checkForServiceAccount(commit.getScmAuthorLDAPDN(), settings,getAllServiceAccounts(),commit.getScmAuthor(),collectionCombined.stream().collect(Collectors.toList()),true,reviewAuditResponseV2)) {
             reviewAuditResponseV2.addAuditStatus(CodeReviewAuditStatus.COMMITAUTHOR_EQ_SERVICEACCOUNT);
-            auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_SERVICE_ACCOUNT);
+            auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_SERVICE_ACCOUNT, mergedPullRequests);
         } else  if (StringUtils.isBlank(commit.getScmAuthorLDAPDN())) {
-           auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE);
+           auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE, mergedPullRequests);
         }else {
-            auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_USER_ACCOUNT);
+            auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_USER_ACCOUNT, mergedPullRequests);
         }
     }
 
-    protected void auditIncrementVersionTag(CodeReviewAuditResponseV2 reviewAuditResponseV2, Commit commit, CodeReviewAuditStatus directCommitIncrementVersionTagStatus) {
-        if (CommonCodeReview.matchIncrementVersionTag(commit.getScmCommitLog(), settings)) {
+    protected void auditIncrementVersionTag(CodeReviewAuditResponseV2 reviewAuditResponseV2, Commit commit, CodeReviewAuditStatus directCommitIncrementVersionTagStatus,
+                                            MergedPullRequestLookup mergedPullRequests) {
+        if (CommonCodeReview.matchIncrementVersionTag(commit.getScmCommitLog(), patternRegistry)) {
             reviewAuditResponseV2.addAuditStatus(directCommitIncrementVersionTagStatus);
         } else {
-           addDirectCommitsToBase(reviewAuditResponseV2,commit);
+           addDirectCommitsToBase(reviewAuditResponseV2, commit, mergedPullRequests);
         }
     }
 
-    private void addDirectCommitsToBase(CodeReviewAuditResponseV2 reviewAuditResponseV2,Commit commit){
+    private void addDirectCommitsToBase(CodeReviewAuditResponseV2 reviewAuditResponseV2, Commit commit, MergedPullRequestLookup mergedPullRequests){
         if(commit.isFirstEverCommit()){
             reviewAuditResponseV2.addAuditStatus(CodeReviewAuditStatus.DIRECT_COMMITS_TO_BASE_FIRST_COMMIT );
-        }else if(StringUtils.isEmpty(commit.getPullNumber()) && !isCommitHasMergedPR(commit)){
+        }else if(StringUtils.isEmpty(commit.getPullNumber()) && !mergedPullRequests.hasMergedPullRequest(commit)){
                 reviewAuditResponseV2.addAuditStatus(CodeReviewAuditStatus.DIRECT_COMMITS_TO_BASE);
                 reviewAuditResponseV2.addDirectCommitsToBase(commit);
         }
    }
 
-    /**
-     * Checks whether a commit is associated with any merged pull request
-     * Github Default : Commit is auto merged with no PR association if it is previously merged with another PR
-     * Additional check for Direct Commit
-     */
-    private boolean isCommitHasMergedPR(Commit commit) {
-        if (Objects.nonNull(commit)) {
-            List<Commit> commits = commitRepository.findAllByScmRevisionNumberAndScmAuthorIgnoreCaseAndScmCommitLogAndScmCommitTimestamp(
-                    commit.getScmRevisionNumber(), commit.getScmAuthor(), commit.getScmCommitLog(), commit.getScmCommitTimestamp());
-
-            if(CollectionUtils.isNotEmpty(commits)) {
-                return commits.stream().filter(c1 -> StringUtils.isNotEmpty(c1.getPullNumber())).anyMatch(c2 -> {
-                    // handled non-unique result
-                    List<GitRequest> pullRequests = gitRequestRepository.findAllByCollectorItemIdAndNumberOrderByTimestampDesc(c2.getCollectorItemId(), c2.getPullNumber());
-                    if (CollectionUtils.isNotEmpty(pullRequests)) {
-                        GitRequest pr = pullRequests.get(0);
-                        return (Objects.nonNull(pr) && "merged".equalsIgnoreCase(pr.getState()));
-                    }
-                    return false;
-                });
-            }
-        }
-        return false;
-    }
-
-    public Map<String,String> getAllServiceAccounts(){
-        List<ServiceAccount> serviceAccounts = (List<ServiceAccount>) serviceAccountRepository.findAll();
-        return serviceAccounts.stream().collect(Collectors.toMap(ServiceAccount :: getServiceAccountName, ServiceAccount::getFileNames));
+    public ServiceAccountSnapshot getAllServiceAccounts(){
+        return serviceAccountService.getServiceAccounts();
     }
 
 }
@@ -2,16 +2,17 @@ package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.common.CommonCodeReview;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.common.ServiceAccountSnapshot;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.Commit;
 import com.capitalone.dashboard.model.CommitType;
 import com.capitalone.dashboard.model.GitRequest;
 import com.capitalone.dashboard.model.SCM;
-import com.capitalone.dashboard.model.ServiceAccount;
 import com.capitalone.dashboard.repository.CommitRepository;
 import com.capitalone.dashboard.repository.GitRequestRepository;
-import com.capitalone.dashboard.repository.ServiceAccountRepository;
 import com.capitalone.dashboard.response.CodeReviewAuditResponse;
+import com.capitalone.dashboard.service.ServiceAccountService;
 import com.capitalone.dashboard.status.CodeReviewAuditStatus;
 import com.capitalone.dashboard.util.GitHubParsedUrl;
 import org.apache.commons.collections.CollectionUtils;
@@ -23,7 +24,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -37,14 +37,17 @@ public class CodeReviewEvaluatorLegacy extends LegacyEvaluator {
     private final CommitRepository commitRepository;
     private final GitRequestRepository gitRequestRepository;
     protected final ApiSettings settings;
-    private final ServiceAccountRepository serviceAccountRepository;
+    private final ServiceAccountService serviceAccountService;
+    private final PatternRegistry patternRegistry;
 
     @Autowired
-    public CodeReviewEvaluatorLegacy(CommitRepository commitRepository, GitRequestRepository gitRequestRepository, ServiceAccountRepository serviceAccountRepository, ApiSettings settings) {
+    public CodeReviewEvaluatorLegacy(CommitRepository commitRepository, GitRequestRepository gitRequestRepository, ServiceAccountService serviceAccountService, ApiSettings settings,
+                                     PatternRegistry patternRegistry) {
         this.commitRepository = commitRepository;
         this.gitRequestRepository = gitRequestRepository;
         this.settings = settings;
-        this.serviceAccountRepository = serviceAccountRepository;
+        this.serviceAccountService = serviceAccountService;
+        this.patternRegistry = patternRegistry;
     }
 
     @Override
@@ -246,7 +249,7 @@ public class CodeReviewEvaluatorLegacy extends LegacyEvaluator {
 
         allPrCommitShas.addAll(commitsRelatedToPr.stream().map(SCM::getScmRevisionNumber).collect(Collectors.toList()));
 
-        boolean peerReviewed = CommonCodeReview.computePeerReviewStatus(pr, settings, codeReviewAuditResponse, commits, commitRepository, serviceAccountRepository);
+        boolean peerReviewed = CommonCodeReview.computePeerReviewStatus(pr, settings, codeReviewAuditResponse, commits, commitRepository, getAllServiceAccounts());
         codeReviewAuditResponse.addAuditStatus(peerReviewed ? CodeReviewAuditStatus.PULLREQ_REVIEWED_BY_PEER : CodeReviewAuditStatus.PULLREQ_NOT_PEER_REVIEWED);
         String sourceRepo = pr.getSourceRepo();
         String targetRepo = pr.getTargetRepo();
@@ -376,15 +379,14 @@ public class CodeReviewEvaluatorLegacy extends LegacyEvaluator {
     }
 
     private void auditIncrementVersionTag(CodeReviewAuditResponse codeReviewAuditResponse, Commit commit, CodeReviewAuditStatus directCommitIncrementVersionTagStatus) {
-        if (CommonCodeReview.matchIncrementVersionTag(commit.getScmCommitLog(), settings)) {
+        if (CommonCodeReview.matchIncrementVersionTag(commit.getScmCommitLog(), patternRegistry)) {
             codeReviewAuditResponse.addAuditStatus(directCommitIncrementVersionTagStatus);
         } else {
             codeReviewAuditResponse.addAuditStatus(commit.isFirstEverCommit() ? CodeReviewAuditStatus.DIRECT_COMMITS_TO_BASE_FIRST_COMMIT : CodeReviewAuditStatus.DIRECT_COMMITS_TO_BASE);
         }
     }
 
-    public Map<String,String> getAllServiceAccounts(){
-        List<ServiceAccount> serviceAccounts = (List<ServiceAccount>) serviceAccountRepository.findAll();
-        return serviceAccounts.stream().collect(Collectors.toMap(ServiceAccount :: getServiceAccountName, ServiceAccount::getFileNames));
+    public ServiceAccountSnapshot getAllServiceAccounts(){
+        return serviceAccountService.getServiceAccounts();
     }
 }
@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
 import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.Build;
 import com.capitalone.dashboard.model.BuildStage;
@@ -40,17 +41,20 @@ public class DeployEvaluator extends Evaluator<DeployAuditResponse> {
     private final CollectorRepository collectorRepository;
     private final CollectorItemRepository collectorItemRepository;
     private final ApiSettings apiSettings;
+    private final PatternRegistry patternRegistry;
     private static final String SUCCESS = "success";
     private static final String FAILED = "failed";
     private static final String BUILD_COLLECTOR = "Hudson";
 
     @Autowired
     public DeployEvaluator(BuildRepository buildRepository, CollectorRepository collectorRepository,
-                           CollectorItemRepository collectorItemRepository, ApiSettings apiSettings) {
+                           CollectorItemRepository collectorItemRepository, ApiSettings apiSettings,
+                           PatternRegistry patternRegistry) {
         this.buildRepository = buildRepository;
         this.collectorRepository = collectorRepository;
         this.collectorItemRepository = collectorItemRepository;
         this.apiSettings = apiSettings;
+        this.patternRegistry = patternRegistry;
     }
 
 
@@ -135,8 +139,8 @@ public class DeployEvaluator extends Evaluator<DeployAuditResponse> {
     public boolean matchStage(List<BuildStage> stages, String status, ApiSettings settings) {
         boolean isMatch = false;
         if (CollectionUtils.isEmpty(settings.getBuildStageRegEx()) || CollectionUtils.isEmpty(stages)) return false;
-        for (String pattern : settings.getBuildStageRegEx()) {
-            if (stages.stream().filter(s -> Pattern.compile(pattern).matcher(s.getName()).find() && s.getStatus().equalsIgnoreCase(status)).findAny().isPresent()) {
+        for (Pattern pattern : patternRegistry.buildStage()) {
+            if (stages.stream().filter(s -> pattern.matcher(s.getName()).find() && s.getStatus().equalsIgnoreCase(status)).findAny().isPresent()) {
                 isMatch = true;
             }
         }
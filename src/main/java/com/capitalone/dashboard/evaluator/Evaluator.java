@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.AuditQueryCache;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.model.AuditException;
@@ -56,11 +57,11 @@ public abstract class Evaluator<T> {
      */
     List<CollectorItem> getCollectorItems(Dashboard dashboard, CollectorType collectorType ) {
         Optional<ObjectId> componentIdOpt = dashboard.getWidgets().stream().findFirst().map(Widget::getComponentId);
-        Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(componentRepository.findById(componentIdOpt.get()).get()) : Optional.empty();
+        Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(findComponent(componentIdOpt.get()).get()) : Optional.empty();
         // This collector items from component is stale. So, need the id's to look up current state of collector items.
         List<ObjectId> collectorItemIds = componentOpt.map(component ->
                 component.getCollectorItems(collectorType).stream().map(CollectorItem::getId).collect(Collectors.toList())).orElse(Collections.emptyList());
-        return CollectionUtils.isNotEmpty(collectorItemIds) ? IterableUtils.toList(collectorItemRepository.findAllById(collectorItemIds)) : Collections.emptyList();
+        return CollectionUtils.isNotEmpty(collectorItemIds) ? findCollectorItems(collectorItemIds) : Collections.emptyList();
     }
 
 
@@ -68,10 +69,10 @@ public abstract class Evaluator<T> {
 
         if(StringUtils.isNotEmpty(altIdentifier)) {
             Optional<ObjectId> componentIdOpt = dashboard.getWidgets().stream().findFirst().map(Widget::getComponentId);
-            Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(componentRepository.findById(componentIdOpt.get()).get()) : Optional.empty();
+            Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(findComponent(componentIdOpt.get()).get()) : Optional.empty();
             List<ObjectId> collectorItemIds = componentOpt.map(component ->
                     component.getCollectorItems(collectorType).stream().filter(c -> isEqualsAltIdentifier(c, altIdentifier)).map(CollectorItem::getId).collect(Collectors.toList())).orElse(Collections.emptyList());
-            return CollectionUtils.isNotEmpty(collectorItemIds) ? IterableUtils.toList(collectorItemRepository.findAllById(collectorItemIds)) : getCollectorItems(dashboard,collectorType);
+            return CollectionUtils.isNotEmpty(collectorItemIds) ? findCollectorItems(collectorItemIds) : getCollectorItems(dashboard,collectorType);
         }
         else{
             return getCollectorItems(dashboard,collectorType);
@@ -81,10 +82,10 @@ public abstract class Evaluator<T> {
     List<CollectorItem> getCollectorItemsByIdentifierName(Dashboard dashboard, CollectorType collectorType, String altIdentifier, String identifierName) {
         if (StringUtils.isNotEmpty(identifierName)) {
             Optional<ObjectId> componentIdOpt = dashboard.getWidgets().stream().findFirst().map(Widget::getComponentId);
-            Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(componentRepository.findById(componentIdOpt.get()).get()) : Optional.empty();
+            Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(findComponent(componentIdOpt.get()).get()) : Optional.empty();
             List<ObjectId> collectorItemIds = componentOpt.map(component ->
                     component.getCollectorItems(collectorType).stream().filter(c -> isEqualsIdentifierName(c, identifierName)).map(CollectorItem::getId).collect(Collectors.toList())).orElse(Collections.emptyList());
-            return CollectionUtils.isNotEmpty(collectorItemIds) ? IterableUtils.toList(collectorItemRepository.findAllById(collectorItemIds)) : getCollectorItemsByAltIdentifier(dashboard, collectorType, altIdentifier);
+            return CollectionUtils.isNotEmpty(collectorItemIds) ? findCollectorItems(collectorItemIds) : getCollectorItemsByAltIdentifier(dashboard, collectorType, altIdentifier);
         } else if (StringUtils.isNotEmpty(altIdentifier)) {
             return getCollectorItemsByAltIdentifier(dashboard, collectorType, altIdentifier);
         } else {
@@ -96,11 +97,11 @@ public abstract class Evaluator<T> {
 
     List<CollectorItem> getCollectorItems(Dashboard dashboard, CollectorType collectorType, String testType) {
         Optional<ObjectId> componentIdOpt = dashboard.getWidgets().stream().findFirst().map(Widget::getComponentId);
-        Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(componentRepository.findById(componentIdOpt.get()).get()) : Optional.empty();
+        Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(findComponent(componentIdOpt.get()).get()) : Optional.empty();
         // This collector items from component is stale. So, need the id's to look up current state of collector items.
         List<ObjectId> collectorItemIds = componentOpt.map(component ->
                 component.getCollectorItems(collectorType).stream().filter(c -> isEqualsTestType(c,testType)).map(CollectorItem::getId).collect(Collectors.toList())).orElse(Collections.emptyList());
-        return CollectionUtils.isNotEmpty(collectorItemIds) ? IterableUtils.toList(collectorItemRepository.findAllById(collectorItemIds)) : Collections.emptyList();
+        return CollectionUtils.isNotEmpty(collectorItemIds) ? findCollectorItems(collectorItemIds) : Collections.emptyList();
     }
 
     private boolean isEqualsTestType(CollectorItem c,String testType) {
@@ -117,6 +118,19 @@ public abstract class Evaluator<T> {
         return (Objects.nonNull(identifierName) && Objects.nonNull(c.getOptions())) ? identifierName.equalsIgnoreCase((String)c.getOptions().get(ARTIFACT_NAME)) : false;
     }
 
+    /**
+     * Component and collector item lookups are shared by most evaluators of a dashboard review, so they go through
+     * the audit query cache. The cached lists are shared by evaluators running in parallel, so they are unmodifiable.
+     */
+    Optional<Component> findComponent(ObjectId componentId) {
+        return AuditQueryCache.fetch("componentRepository.findById", () -> componentRepository.findById(componentId), componentId);
+    }
+
+    List<CollectorItem> findCollectorItems(List<ObjectId> collectorItemIds) {
+        return AuditQueryCache.fetch("collectorItemRepository.findAllById",
+                () -> Collections.unmodifiableList(IterableUtils.toList(collectorItemRepository.findAllById(collectorItemIds))), collectorItemIds);
+    }
+
     public Dashboard getDashboard(String businessService, String businessComponent) {
         Iterable<Dashboard> dashboards = dashboardRepository.findAllByConfigurationItemBusServNameAndConfigurationItemBusAppName(businessService, businessComponent);
         if (!IterableUtils.isEmpty(dashboards)) {
@@ -127,11 +141,11 @@ public abstract class Evaluator<T> {
 
     List<CollectorItem> getCollectorItemsNextGen(Dashboard dashboard, CollectorType collectorType) {
         Optional<ObjectId> componentIdOpt = dashboard.getApplication().getComponents().stream().findFirst().map(Component::getId);
-        Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(componentRepository.findById(componentIdOpt.get()).get()) : Optional.empty();
+        Optional<Component> componentOpt = componentIdOpt.isPresent() ? Optional.ofNullable(findComponent(componentIdOpt.get()).get()) : Optional.empty();
         // This collector items from component is stale. So, need the id's to look up current state of collector items.
         List<ObjectId> collectorItemIds = componentOpt.map(component ->
                 component.getCollectorItems(collectorType).stream().map(CollectorItem::getId).collect(Collectors.toList())).orElse(Collections.emptyList());
-        return CollectionUtils.isNotEmpty(collectorItemIds) ? IterableUtils.toList(collectorItemRepository.findAllById(collectorItemIds)) : Collections.emptyList();
+        return CollectionUtils.isNotEmpty(collectorItemIds) ? findCollectorItems(collectorItemIds) : Collections.emptyList();
     }
 
 }
@@ -243,7 +243,7 @@ public class FeatureTestResultEvaluator extends Evaluator<TestResultsAuditRespon
      * @return testCollectorItem
      */
     protected CollectorItem getCollectorItemForIdentifierVersion(Dashboard dashboard, Map<String, Object> collItemOptions) {
-        List<CollectorItem> testItems = getCollectorItems(dashboard, CollectorType.Test, FUNCTIONAL);
+        List<CollectorItem> testItems = new ArrayList<>(getCollectorItems(dashboard, CollectorType.Test, FUNCTIONAL));
         // Sort so that the most recent results are audited
         testItems.sort(Comparator.comparing(CollectorItem::getUpsertTime).reversed());
         for(CollectorItem testItem : testItems){
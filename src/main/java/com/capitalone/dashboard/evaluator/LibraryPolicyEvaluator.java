@@ -10,6 +10,7 @@ import com.capitalone.dashboard.model.LibraryPolicyThreatDisposition;
 import com.capitalone.dashboard.model.LibraryPolicyThreatLevel;
 import com.capitalone.dashboard.model.LibraryPolicyType;
 import com.capitalone.dashboard.model.ScanState;
+import com.capitalone.dashboard.repository.LatestRecordQuery;
 import com.capitalone.dashboard.repository.LibraryPolicyResultsRepository;
 import com.capitalone.dashboard.request.ArtifactAuditRequest;
 import com.capitalone.dashboard.response.LibraryPolicyAuditResponse;
@@ -18,6 +19,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
 import org.apache.commons.collections.SetUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
@@ -33,11 +35,15 @@ import java.util.stream.Collectors;
 @Component
 public class LibraryPolicyEvaluator extends Evaluator<LibraryPolicyAuditResponse> {
 
+    private static final String EVALUATION_TIMESTAMP = "evaluationTimestamp";
+
     private final LibraryPolicyResultsRepository libraryPolicyResultsRepository;
+    private final LatestRecordQuery latestRecordQuery;
 
     @Autowired
-    public LibraryPolicyEvaluator(LibraryPolicyResultsRepository libraryPolicyResultsRepository) {
+    public LibraryPolicyEvaluator(LibraryPolicyResultsRepository libraryPolicyResultsRepository, LatestRecordQuery latestRecordQuery) {
         this.libraryPolicyResultsRepository = libraryPolicyResultsRepository;
+        this.latestRecordQuery = latestRecordQuery;
     }
 
     @Override
@@ -48,7 +54,9 @@ public class LibraryPolicyEvaluator extends Evaluator<LibraryPolicyAuditResponse
             throw new AuditException("No library policy project configured", AuditException.NO_COLLECTOR_ITEM_CONFIGURED);
         }
 
-        return libraryPolicyItems.stream().map(item -> evaluate(item, beginDate, endDate, null)).collect(Collectors.toList());
+        Map<ObjectId, LibraryPolicyResult> latestResults = latestRecordQuery.findLatest(LibraryPolicyResult.class,
+                libraryPolicyItems.stream().map(CollectorItem::getId).collect(Collectors.toList()), EVALUATION_TIMESTAMP);
+        return libraryPolicyItems.stream().map(item -> getLibraryPolicyAuditResponse(item, latestResults.get(item.getId()))).collect(Collectors.toList());
     }
 
     @Override
@@ -59,17 +67,17 @@ public class LibraryPolicyEvaluator extends Evaluator<LibraryPolicyAuditResponse
 
     @Override
     public LibraryPolicyAuditResponse evaluate(CollectorItem collectorItem, long beginDate, long endDate, Map<?, ?> data) {
-        return getLibraryPolicyAuditResponse(collectorItem);
+        return getLibraryPolicyAuditResponse(collectorItem, libraryPolicyResultsRepository.findTopByCollectorItemIdOrderByEvaluationTimestampDesc(collectorItem.getId()));
     }
 
     /**
      * Reusable method for constructing the LibraryPolicyAuditResponse object
      *
      * @param collectorItem Collector item
+     * @param returnPolicyResult latest evaluated policy result of the collector item
      * @return SecurityReviewAuditResponse
      */
-    private LibraryPolicyAuditResponse getLibraryPolicyAuditResponse(CollectorItem collectorItem) {
-        LibraryPolicyResult returnPolicyResult = libraryPolicyResultsRepository.findTopByCollectorItemIdOrderByEvaluationTimestampDesc(collectorItem.getId());
+    private LibraryPolicyAuditResponse getLibraryPolicyAuditResponse(CollectorItem collectorItem, LibraryPolicyResult returnPolicyResult) {
 
         LibraryPolicyAuditResponse libraryPolicyAuditResponse = new LibraryPolicyAuditResponse();
         libraryPolicyAuditResponse.setAuditEntity(collectorItem.getOptions());
@@ -0,0 +1,167 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.CodeAction;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.GitRequest;
+import com.capitalone.dashboard.model.PullRequestAuditSnapshot;
+import com.capitalone.dashboard.repository.PullRequestAuditSnapshotRepository;
+import com.capitalone.dashboard.response.CodeReviewAuditResponseV2;
+import com.capitalone.dashboard.status.CodeReviewAuditStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Peer review verdicts of the merged pull requests of one repository, loaded from
+ * {@link PullRequestAuditSnapshotRepository} with one query when the evaluation starts. A stored verdict is reused
+ * when the pull request was not updated since, and the peer review settings and the other inputs of the review, such
+ * as the LDAP DNs commits are enriched with, are the same. Other pull requests are reviewed and their verdicts saved
+ * at the end of the evaluation.
+ *
+ * Holds the state of a single evaluation, it is not shared between threads.
+ */
+class PullRequestAuditSnapshots {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PullRequestAuditSnapshots.class);
+    // bump when the peer review computation changes so stored verdicts are recomputed
+    private static final String VERSION = "3";
+
+    private final PullRequestAuditSnapshotRepository repository;
+    private final String settingsValues;
+    private final Map<String, PullRequestAuditSnapshot> stored;
+    private final List<PullRequestAuditSnapshot> changed = new ArrayList<>();
+    private int reused;
+
+    private PullRequestAuditSnapshots(PullRequestAuditSnapshotRepository repository, String settingsValues,
+                                      Map<String, PullRequestAuditSnapshot> stored) {
+        this.repository = repository;
+        this.settingsValues = settingsValues;
+        this.stored = stored;
+    }
+
+    /**
+     * Always reviews, nothing is read or saved
+     */
+    static PullRequestAuditSnapshots disabled() {
+        return new PullRequestAuditSnapshots(null, null, new HashMap<>());
+    }
+
+    static PullRequestAuditSnapshots load(CollectorItem repoItem, Collection<GitRequest> pullRequests, ApiSettings settings,
+                                          PullRequestAuditSnapshotRepository repository) {
+        List<String> ids = pullRequests.stream().filter(pr -> pr.getId() != null)
+                .map(pr -> PullRequestAuditSnapshot.idOf(repoItem.getId(), pr.getId())).collect(Collectors.toList());
+        Map<String, PullRequestAuditSnapshot> stored = new HashMap<>();
+        if (!ids.isEmpty()) {
+            repository.findAllById(ids).forEach(snapshot -> stored.put(snapshot.getId(), snapshot));
+        }
+        return new PullRequestAuditSnapshots(repository, settingsValues(settings), stored);
+    }
+
+    /**
+     * Digest of the settings and of the inputs besides the pull request the peer review verdict depends on
+     */
+    static String fingerprint(ApiSettings settings, List<?> inputs) {
+        return fingerprint(settingsValues(settings), inputs);
+    }
+
+    private static String fingerprint(String settingsValues, List<?> inputs) {
+        return DigestUtils.md5DigestAsHex((settingsValues + inputs).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String settingsValues(ApiSettings settings) {
+        return Arrays.asList(VERSION, settings.getPeerReviewContexts(), settings.getPeerReviewApprovalText(),
+                settings.getServiceAccountOU(), settings.isEnrichCommits()).toString();
+    }
+
+    /**
+     * Adds the peer review statuses and code actions of the pull request to the audit and returns the verdict, from
+     * the stored snapshot when it is current, else from the review which is then kept for saving
+     *
+     * @param inputs what the review reads besides the pull request, which can change while updatedAt does not
+     */
+    boolean peerReview(CollectorItem repoItem, GitRequest pr, List<?> inputs,
+                       CodeReviewAuditResponseV2.PullRequestAudit pullRequestAudit, BooleanSupplier review) {
+        if (repository == null || pr.getId() == null) {
+            return review.getAsBoolean();
+        }
+        String id = PullRequestAuditSnapshot.idOf(repoItem.getId(), pr.getId());
+        String fingerprint = fingerprint(settingsValues, inputs);
+        PullRequestAuditSnapshot snapshot = stored.get(id);
+        if (snapshot != null && snapshot.getPullRequestUpdatedAt() == pr.getUpdatedAt()
+                && Objects.equals(snapshot.getFingerprint(), fingerprint)) {
+            reused++;
+            snapshot.getAuditStatuses().forEach(pullRequestAudit::addAuditStatus);
+            pullRequestAudit.setCodeActions(copyOf(snapshot.getCodeActions()));
+            return snapshot.isPeerReviewed();
+        }
+
+        Set<CodeReviewAuditStatus> before = copyOf(pullRequestAudit.getAuditStatuses());
+        boolean peerReviewed = review.getAsBoolean();
+        Set<CodeReviewAuditStatus> added = copyOf(pullRequestAudit.getAuditStatuses());
+        added.removeAll(before);
+
+        PullRequestAuditSnapshot updated = new PullRequestAuditSnapshot();
+        updated.setId(id);
+        updated.setCollectorItemId(repoItem.getId());
+        updated.setPullRequestId(pr.getId());
+        updated.setPullRequestUpdatedAt(pr.getUpdatedAt());
+        updated.setFingerprint(fingerprint);
+        updated.setPeerReviewed(peerReviewed);
+        updated.setAuditStatuses(added);
+        updated.setCodeActions(copyOf(pullRequestAudit.getCodeActions()));
+        updated.setTimestamp(System.currentTimeMillis());
+        stored.put(id, updated);
+        changed.add(updated);
+        return peerReviewed;
+    }
+
+    /**
+     * Saves the verdicts reviewed during the evaluation. Failing to save only costs a review next time.
+     */
+    void save() {
+        if (repository == null) { return; }
+        if (!changed.isEmpty()) {
+            try {
+                repository.saveAll(changed);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Unable to save pull request audit snapshots: " + e.getMessage());
+            }
+        }
+        LOGGER.debug("Pull request audit snapshots :: reused=" + reused + " reviewed=" + changed.size());
+    }
+
+    int getReused() {
+        return reused;
+    }
+
+    int getReviewed() {
+        return changed.size();
+    }
+
+    // the audit response and the snapshot each get their own code actions
+    private static List<CodeAction> copyOf(List<CodeAction> codeActions) {
+        return (codeActions == null) ? null : codeActions.stream().map(CodeAction::new).collect(Collectors.toList());
+    }
+
+    private static Set<CodeReviewAuditStatus> copyOf(Set<CodeReviewAuditStatus> statuses) {
+        Set<CodeReviewAuditStatus> copy = EnumSet.noneOf(CodeReviewAuditStatus.class);
+        if (statuses != null) {
+            copy.addAll(statuses);
+        }
+        return copy;
+    }
+}
@@ -1,6 +1,8 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.AuditQueryCache;
+import com.capitalone.dashboard.common.PatternRegistry;
 import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.CollectorType;
@@ -48,10 +50,8 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
 
     private final TestResultRepository testResultRepository;
     private final FeatureRepository featureRepository;
+    private final PatternRegistry patternRegistry;
     private static final Logger LOGGER = LoggerFactory.getLogger(RegressionTestResultEvaluator.class);
-    private long beginDate;
-    private long endDate;
-    private Dashboard dashboard;
     private static final String WIDGET_FEATURE = "feature";
     private static final String STR_TEAM_ID = "teamId";
     private static final String STR_UNDERSCORE = "_";
@@ -70,22 +70,23 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
     public static final String FUNCTIONAL = "Functional";
 
     @Autowired
-    public RegressionTestResultEvaluator(TestResultRepository testResultRepository, FeatureRepository featureRepository) {
+    public RegressionTestResultEvaluator(TestResultRepository testResultRepository, FeatureRepository featureRepository,
+                                         PatternRegistry patternRegistry) {
         this.testResultRepository = testResultRepository;
         this.featureRepository = featureRepository;
+        this.patternRegistry = patternRegistry;
     }
 
     @Override
     public Collection<TestResultsAuditResponse> evaluate(Dashboard dashboard, long beginDate, long endDate, Map<?, ?> dummy,  String altIdentifier, String identifierName) throws AuditException {
-        this.beginDate = beginDate-1;
-        this.endDate = endDate+1;
-        this.dashboard = getDashboard(dashboard.getTitle(), DashboardType.Team);
-        List<CollectorItem> testItems = getCollectorItems(this.dashboard, CollectorType.Test, FUNCTIONAL);
+        EvaluationContext context = new EvaluationContext(dashboard, beginDate-1, endDate+1);
+        Dashboard teamDashboard = getDashboard(dashboard.getTitle(), DashboardType.Team);
+        List<CollectorItem> testItems = getCollectorItems(teamDashboard, CollectorType.Test, FUNCTIONAL);
         Collection<TestResultsAuditResponse> testResultsAuditResponse = new ArrayList<>();
         if (CollectionUtils.isEmpty(testItems)) {
             throw new AuditException("No tests configured", AuditException.NO_COLLECTOR_ITEM_CONFIGURED);
         }
-        testItems.forEach(testItem -> testResultsAuditResponse.add(getRegressionTestResultAudit(dashboard, testItem)));
+        testItems.forEach(testItem -> testResultsAuditResponse.add(getRegressionTestResultAudit(context, testItem)));
         return testResultsAuditResponse;
     }
 
@@ -102,12 +103,13 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
 
     /**
      * Gets the json response from test_results collection with story information based on tags.
+     * @param context
      * @param testItem
      * @return
      */
-    protected TestResultsAuditResponse getRegressionTestResultAudit(Dashboard dashboard, CollectorItem testItem) {
-        List<TestResult> testResults = testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(testItem.getId(), beginDate, endDate);
-        return performTestResultAudit(dashboard, testItem, testResults);
+    protected TestResultsAuditResponse getRegressionTestResultAudit(EvaluationContext context, CollectorItem testItem) {
+        List<TestResult> testResults = testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(testItem.getId(), context.getBeginDate(), context.getEndDate());
+        return performTestResultAudit(context, testItem, testResults);
     }
 
     /**
@@ -117,7 +119,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
      * @param testResults
      * @return testResultsAuditResponse
      */
-    private TestResultsAuditResponse performTestResultAudit(Dashboard dashboard, CollectorItem testItem, List<TestResult> testResults) {
+    private TestResultsAuditResponse performTestResultAudit(EvaluationContext context, CollectorItem testItem, List<TestResult> testResults) {
 
         TestResultsAuditResponse testResultsAuditResponse = new TestResultsAuditResponse();
         testResultsAuditResponse.setAuditEntity(testItem.getOptions());
@@ -131,7 +133,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
         testResultsAuditResponse.setLastExecutionTime(testResult.getStartTime());
         testResultsAuditResponse.setType(testResult.getType().toString());
         testResultsAuditResponse.setFeatureTestResult(getFeatureTestResult(testResult));
-        testResultsAuditResponse = updateTraceabilityDetails(dashboard, testResult, testResultsAuditResponse);
+        testResultsAuditResponse = updateTraceabilityDetails(context, testResult, testResultsAuditResponse);
 
         List<TestCapability> testCapabilities = testResult.getTestCapabilities().stream().collect(Collectors.toList());
         testResultsAuditResponse = updateTestResultAuditStatuses(testCapabilities, testResultsAuditResponse);
@@ -150,7 +152,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
      * @param testResult,testResultsAuditResponse
      * @return testResultsAuditResponse
      */
-    private TestResultsAuditResponse updateTraceabilityDetails(Dashboard dashboard, TestResult testResult, TestResultsAuditResponse testResultsAuditResponse) {
+    private TestResultsAuditResponse updateTraceabilityDetails(EvaluationContext context, TestResult testResult, TestResultsAuditResponse testResultsAuditResponse) {
 
         Traceability traceability = new Traceability();
         List<String> totalStoriesList = new ArrayList<>();
@@ -158,7 +160,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
         List<HashMap> totalStories = new ArrayList<>();
         double traceabilityThreshold = settings.getTraceabilityThreshold();
 
-        Widget featureWidget = getFeatureWidget(dashboard);
+        Widget featureWidget = getFeatureWidget(context.getDashboard());
         Optional<Object> teamIdOpt = Optional.ofNullable(featureWidget.getOptions().get(STR_TEAM_ID));
         String teamId = teamIdOpt.isPresent() ? teamIdOpt.get().toString() : "";
         List<Feature> featureList = featureRepository.getStoryByTeamID(teamId);
@@ -167,7 +169,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
             HashMap<String, String> storyAuditStatusMap = new HashMap<>();
             totalStoriesList.add(feature.getsNumber());
 
-            if(isValidChangeDate(feature)) {
+            if(isValidChangeDate(context, feature)) {
                 if(this.isValidStoryStatus(feature.getsStatus())){
                     totalCompletedStories.add(feature.getsNumber());
                     storyAuditStatusMap.put(feature.getsNumber(), TestResultAuditStatus.TEST_RESULTS_TRACEABILITY_STORY_MATCH.name());
@@ -180,7 +182,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
             totalStories.add(storyAuditStatusMap);
         });
         if (totalCompletedStories.size() > NumberUtils.INTEGER_ZERO) {
-            int totalStoryIndicatorCount = getTotalStoryIndicators(testResult).size();
+            int totalStoryIndicatorCount = getTotalStoryIndicators(context, testResult).size();
             double percentage = (totalStoryIndicatorCount * 100) / totalCompletedStories.size();
             traceability.setPercentage(percentage);
 
@@ -203,12 +205,13 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
 
     /**
      * Get story indicators by matching test case tags with feature stories
+     * @param context
      * @param testResult
      * @return
      */
-    private  List<StoryIndicator> getTotalStoryIndicators(TestResult testResult) {
+    private  List<StoryIndicator> getTotalStoryIndicators(EvaluationContext context, TestResult testResult) {
 
-        Pattern featureIdPattern = Pattern.compile(settings.getFeatureIDPattern());
+        Pattern featureIdPattern = patternRegistry.featureId();
         List<StoryIndicator> totalStoryIndicatorList = new ArrayList<>();
         testResult.getTestCapabilities().stream()
                 .map(TestCapability::getTestSuites).flatMap(Collection::stream)
@@ -219,7 +222,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
                         if (featureIdPattern.matcher(getValidFeatureId(tag)).find()) {
                             List<Feature> features = featureRepository.getStoryByNumber(tag);
                             features.forEach(feature -> {
-                                if (isValidChangeDate(feature) && isValidStoryStatus(feature.getsStatus())) {
+                                if (isValidChangeDate(context, feature) && isValidStoryStatus(feature.getsStatus())) {
                                     StoryIndicator storyIndicator = new StoryIndicator();
                                     storyIndicator.setStoryId(feature.getsId());
                                     storyIndicator.setStoryType(feature.getsTypeName());
@@ -285,11 +288,13 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
 
     /**
      * Check whether the feature date is valid
+     * @param context
      * @param feature
      * @return
      */
-    private boolean isValidChangeDate(Feature feature){
-        return (this.getEpochChangeDate(feature) >= beginDate && this.getEpochChangeDate(feature) <= endDate);
+    private boolean isValidChangeDate(EvaluationContext context, Feature feature){
+        long changeDate = this.getEpochChangeDate(feature);
+        return (changeDate >= context.getBeginDate() && changeDate <= context.getEndDate());
     }
 
     /**
@@ -299,7 +304,7 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
      * @return
      */
     private Dashboard getDashboard(String title, DashboardType dashboardType) {
-        return dashboardRepository.findByTitleAndType(title, dashboardType);
+        return AuditQueryCache.fetch("dashboardRepository.findByTitleAndType", () -> dashboardRepository.findByTitleAndType(title, dashboardType), title, dashboardType);
     }
 
     /**
@@ -428,4 +433,32 @@ public class RegressionTestResultEvaluator extends Evaluator<TestResultsAuditRes
         }
         return false;
     }
+
+    /**
+     * Per-invocation state of a regression test audit. The evaluator is a singleton shared by concurrent
+     * requests, so the requested dashboard and date window travel with the call instead of living on the bean.
+     */
+    protected static class EvaluationContext {
+        private final Dashboard dashboard;
+        private final long beginDate;
+        private final long endDate;
+
+        protected EvaluationContext(Dashboard dashboard, long beginDate, long endDate) {
+            this.dashboard = dashboard;
+            this.beginDate = beginDate;
+            this.endDate = endDate;
+        }
+
+        public Dashboard getDashboard() {
+            return dashboard;
+        }
+
+        public long getBeginDate() {
+            return beginDate;
+        }
+
+        public long getEndDate() {
+            return endDate;
+        }
+    }
 }
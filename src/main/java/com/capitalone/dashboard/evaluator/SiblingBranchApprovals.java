@@ -0,0 +1,134 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.common.CodeReviewIndex;
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.GitRequest;
+import com.capitalone.dashboard.model.QCommit;
+import com.capitalone.dashboard.model.QGitRequest;
+import com.capitalone.dashboard.repository.CommitRepository;
+import com.capitalone.dashboard.repository.GitRequestRepository;
+import org.apache.commons.collections.CollectionUtils;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Pull requests and commits of the other branches of a pushed repository, read with one query each for all branches
+ * when the first direct commit is checked. Direct commits are then checked for an approved pull request on another
+ * branch from memory, and the verdict for a pull request and commit is computed once.
+ *
+ * Holds the state of a single evaluation, it is not shared between threads.
+ */
+class SiblingBranchApprovals {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SiblingBranchApprovals.class);
+    private static final CodeReviewIndex EMPTY = CodeReviewIndex.of(null, null);
+
+    private final List<CollectorItem> siblings;
+    private final long beginDt;
+    private final long endDt;
+    private final CommitRepository commitRepository;
+    private final GitRequestRepository gitRequestRepository;
+    private final Map<List<Object>, Boolean> verdicts = new HashMap<>();
+    private final Map<GitRequest, Boolean> pullRequestAudits = new HashMap<>();
+    // null until the first branch lookup
+    private Map<ObjectId, CodeReviewIndex> indexes;
+    private int queries;
+    private int branchLookups;
+    private int verdictHits;
+
+    SiblingBranchApprovals(List<CollectorItem> siblings, long beginDt, long endDt,
+                           CommitRepository commitRepository, GitRequestRepository gitRequestRepository) {
+        this.siblings = (siblings == null) ? Collections.emptyList() : siblings;
+        this.beginDt = beginDt;
+        this.endDt = endDt;
+        this.commitRepository = commitRepository;
+        this.gitRequestRepository = gitRequestRepository;
+    }
+
+    /**
+     * Reads the pull requests merged and the commits made in the window on all the branches
+     */
+    private Map<ObjectId, CodeReviewIndex> load() {
+        Set<ObjectId> ids = siblings.stream().map(CollectorItem::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        if (ids.isEmpty()) { return Collections.emptyMap(); }
+
+        // same bounds as findByCollectorItemIdAndMergedAtIsBetween and findByCollectorItemIdAndScmCommitTimestampIsBetween
+        QGitRequest qGitRequest = QGitRequest.gitRequest;
+        Map<ObjectId, List<GitRequest>> pullRequests = new HashMap<>();
+        gitRequestRepository.findAll(qGitRequest.collectorItemId.in(ids)
+                        .and(qGitRequest.mergedAt.gt(beginDt - 1)).and(qGitRequest.mergedAt.lt(endDt + 1)))
+                .forEach(pr -> pullRequests.computeIfAbsent(pr.getCollectorItemId(), k -> new ArrayList<>()).add(pr));
+
+        QCommit qCommit = QCommit.commit;
+        Map<ObjectId, List<Commit>> commits = new HashMap<>();
+        commitRepository.findAll(qCommit.collectorItemId.in(ids)
+                        .and(qCommit.scmCommitTimestamp.gt(beginDt - 1)).and(qCommit.scmCommitTimestamp.lt(endDt + 1)))
+                .forEach(c -> commits.computeIfAbsent(c.getCollectorItemId(), k -> new ArrayList<>()).add(c));
+        queries = 2;
+
+        Map<ObjectId, CodeReviewIndex> loaded = new HashMap<>();
+        ids.forEach(id -> loaded.put(id, CodeReviewIndex.of(commits.get(id), pullRequests.get(id))));
+        return loaded;
+    }
+
+    List<CollectorItem> getSiblings() {
+        return siblings;
+    }
+
+    /**
+     * @return commits and merged pull requests of the branch in the window
+     */
+    CodeReviewIndex getIndex(CollectorItem sibling) {
+        if (indexes == null) { indexes = load(); }
+        branchLookups++;
+        return indexes.getOrDefault(sibling.getId(), EMPTY);
+    }
+
+    /**
+     * Approval of the commit by the pull request, evaluated on first use
+     */
+    boolean isApproved(GitRequest pr, Commit commit, BooleanSupplier verdict) {
+        List<Object> key = Arrays.asList(pr, commit.getScmRevisionNumber());
+        Boolean approved = verdicts.get(key);
+        if (approved == null) {
+            approved = verdict.getAsBoolean();
+            verdicts.put(key, approved);
+        } else {
+            verdictHits++;
+        }
+        return approved;
+    }
+
+    /**
+     * Outcome of the audit of the pull request, which does not depend on the commit being checked
+     */
+    boolean passesAudit(GitRequest pr, BooleanSupplier audit) {
+        Boolean passes = pullRequestAudits.get(pr);
+        if (passes == null) {
+            passes = audit.getAsBoolean();
+            pullRequestAudits.put(pr, passes);
+        }
+        return passes;
+    }
+
+    void logSummary(String url, String branch) {
+        if (!LOGGER.isDebugEnabled() || CollectionUtils.isEmpty(siblings)) { return; }
+        // each branch lookup used to query pull requests and commits of the branch
+        int saved = Math.max(0, 2 * branchLookups - queries);
+        LOGGER.debug(String.format("Approved PR on another branch check :: url=%s branch=%s branches=%d lookups=%d queries=%d queriesSaved=%d prAudits=%d verdictHits=%d",
+                url, branch, siblings.size(), branchLookups, queries, saved, pullRequestAudits.size(), verdictHits));
+    }
+}
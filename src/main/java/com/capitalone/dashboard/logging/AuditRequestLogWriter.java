@@ -0,0 +1,245 @@
+package com.capitalone.dashboard.logging;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.AuditRequestLog;
+import com.capitalone.dashboard.repository.AuditRequestLogRepository;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes {@link AuditRequestLog} documents off the request thread. Logs are queued and a background writer saves them
+ * in batches, once requestLogBatchSize logs are waiting or requestLogFlushIntervalMillis after the first one was
+ * queued. A full queue drops new logs, or with requestLogBlockWhenFull makes the request wait up to
+ * requestLogBlockTimeoutMillis for room first. Queued logs are written on shutdown.
+ *
+ * JSON request and response bodies arrive as text and are parsed here, so it happens off the request thread as well.
+ * A body that does not parse, such as one cut off at its log limit, is kept as text.
+ *
+ * With requestLogQueueCapacity=0, or when logRequest is off, logs are saved on the calling thread.
+ */
+@Component
+public class AuditRequestLogWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuditRequestLogWriter.class);
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    // a warning is logged for the first dropped log and then once per this many
+    private static final long DROP_WARNING_INTERVAL = 1000;
+    // longest wait of the writer before it checks for shutdown
+    private static final long POLL_MILLIS = 200;
+
+    private final AuditRequestLogRepository auditRequestLogRepository;
+    private final BlockingQueue<AuditRequestLog> queue;
+    private final ExecutorService writerExecutor;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final boolean blockWhenFull;
+    private final long blockTimeoutMillis;
+
+    private final AtomicLong queued = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile boolean running;
+
+    @Autowired
+    public AuditRequestLogWriter(AuditRequestLogRepository auditRequestLogRepository, ApiSettings settings) {
+        this.auditRequestLogRepository = auditRequestLogRepository;
+        this.batchSize = Math.max(1, settings.getRequestLogBatchSize());
+        this.flushIntervalMillis = Math.max(1, settings.getRequestLogFlushIntervalMillis());
+        this.blockWhenFull = settings.isRequestLogBlockWhenFull();
+        this.blockTimeoutMillis = Math.max(0, settings.getRequestLogBlockTimeoutMillis());
+
+        if (settings.isLogRequest() && settings.getRequestLogQueueCapacity() > 0) {
+            this.queue = new ArrayBlockingQueue<>(settings.getRequestLogQueueCapacity());
+            this.writerExecutor = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("audit-request-log-writer-%d").setDaemon(true).build());
+            this.running = true;
+            this.writerExecutor.execute(this::writeQueued);
+        } else {
+            this.queue = null;
+            this.writerExecutor = null;
+        }
+    }
+
+    /**
+     * Queues the log for the background writer, or saves it right away when there is none
+     */
+    public void write(AuditRequestLog requestLog) {
+        if (queue == null || !running) {
+            save(requestLog);
+            return;
+        }
+        boolean accepted;
+        try {
+            accepted = blockWhenFull ? queue.offer(requestLog, blockTimeoutMillis, TimeUnit.MILLISECONDS) : queue.offer(requestLog);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (accepted) {
+            queued.incrementAndGet();
+            // shutdown may have drained the queue after the running check, save the log here unless it was taken
+            if (!running && queue.remove(requestLog)) {
+                save(requestLog);
+            }
+            return;
+        }
+        long count = dropped.incrementAndGet();
+        if (count % DROP_WARNING_INTERVAL == 1) {
+            LOGGER.warn("Audit request log queue is full, dropped " + count + " request log(s) so far");
+        }
+    }
+
+    /**
+     * Stops the background writer and writes what is still queued
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (writerExecutor == null) { return; }
+        running = false;
+        writerExecutor.shutdown();
+        try {
+            if (!writerExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                writerExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            writerExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // anything queued after the writer stopped
+        List<AuditRequestLog> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            saveBatch(batch);
+            batch.clear();
+        }
+    }
+
+    public int getQueueDepth() {
+        return (queue == null) ? 0 : queue.size();
+    }
+
+    public long getQueued() {
+        return queued.get();
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getBatches() {
+        return batches.get();
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    private void writeQueued() {
+        List<AuditRequestLog> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                try {
+                    AuditRequestLog first = queue.poll(Math.min(flushIntervalMillis, POLL_MILLIS), TimeUnit.MILLISECONDS);
+                    if (first == null) { continue; }
+                    batch.add(first);
+                    fillBatch(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    queue.drainTo(batch, batchSize - batch.size());
+                    saveBatch(batch);
+                    return;
+                }
+                saveBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            if (running) {
+                // the writer died, save on the request threads rather than queue logs nobody writes
+                running = false;
+                LOGGER.error("Audit request log writer stopped, request logs are saved on the request threads");
+            }
+        }
+    }
+
+    // waits for a full batch until the flush interval since the first log has passed
+    private void fillBatch(List<AuditRequestLog> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0 || !running) { return; }
+            AuditRequestLog next = queue.poll(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS)), TimeUnit.NANOSECONDS);
+            if (next != null) {
+                batch.add(next);
+            }
+        }
+    }
+
+    private void saveBatch(List<AuditRequestLog> batch) {
+        if (batch.isEmpty()) { return; }
+        try {
+            JSONParser jsonParser = new JSONParser();
+            batch.forEach(requestLog -> parseBodies(requestLog, jsonParser));
+            // new documents are saved with a single insertMany
+            auditRequestLogRepository.saveAll(batch);
+            written.addAndGet(batch.size());
+        } catch (RuntimeException re) {
+            failed.addAndGet(batch.size());
+            LOGGER.error("Encountered exception while saving " + batch.size() + " request log(s)", re);
+        }
+        batches.incrementAndGet();
+        lastBatchSize = batch.size();
+        LOGGER.debug("Audit request logs :: batch=" + batch.size() + " queueDepth=" + getQueueDepth()
+                + " written=" + written.get() + " dropped=" + dropped.get());
+    }
+
+    private void save(AuditRequestLog requestLog) {
+        try {
+            parseBodies(requestLog, new JSONParser());
+            auditRequestLogRepository.save(requestLog);
+            written.incrementAndGet();
+        } catch (RuntimeException re) {
+            failed.incrementAndGet();
+            LOGGER.error("Encountered exception while saving request log - " + requestLog.toString(), re);
+        }
+    }
+
+    private static void parseBodies(AuditRequestLog requestLog, JSONParser jsonParser) {
+        requestLog.setRequestBody(parseBody(requestLog.getRequestBody(), jsonParser));
+        requestLog.setResponseBody(parseBody(requestLog.getResponseBody(), jsonParser));
+    }
+
+    private static Object parseBody(Object body, JSONParser jsonParser) {
+        if (!(body instanceof String)) { return body; }
+        try {
+            return jsonParser.parse((String) body);
+        } catch (ParseException e) {
+            return body;
+        }
+    }
+}
@@ -2,15 +2,11 @@ package com.capitalone.dashboard.logging;
 
 import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.model.AuditRequestLog;
-import com.capitalone.dashboard.repository.AuditRequestLogRepository;
 import com.capitalone.dashboard.util.CommonConstants;
 import com.capitalone.dashboard.util.ConversionUtils;
-import org.apache.commons.io.output.TeeOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.json.simple.parser.JSONParser;
-import org.json.simple.parser.ParseException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
@@ -27,24 +23,24 @@ import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.WriteListener;
-import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.util.Collection;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -60,11 +56,14 @@ public class LoggingFilter implements Filter {
     private static final String PING = "ping";
 
     @Autowired
-    private AuditRequestLogRepository auditRequestLogRepository;
+    private AuditRequestLogWriter auditRequestLogWriter;
 
     @Autowired
     private ApiSettings settings;
 
+    @Autowired
+    private RequestLogPolicy requestLogPolicy;
+
     @Override
     public void init(FilterConfig filterConfig) {
     }
@@ -92,7 +91,8 @@ public class LoggingFilter implements Filter {
         String parameters = ConversionUtils.flattenMap(request.getParameterMap());
 
         long startTime = System.currentTimeMillis();
-        if (settings.checkIgnoreEndPoint(httpServletRequest.getRequestURI()) || settings.checkIgnoreApiUser(apiUser) || !settings.isLogRequest()) {
+        RequestLogPolicy.Decision decision = requestLogPolicy.decide(httpServletRequest.getMethod(), httpServletRequest.getRequestURI(), apiUser);
+        if (decision == RequestLogPolicy.Decision.IGNORED) {
             chain.doFilter(httpServletRequest, httpServletResponse);
             int response_code = httpServletResponse.getStatus();
             boolean success = (response_code >=200 && response_code <=399) ;
@@ -110,9 +110,10 @@ public class LoggingFilter implements Filter {
             return;
         }
 
-        // Execute the below code only if logRequest is true
-        BufferedRequestWrapper bufferedRequest = new BufferedRequestWrapper(httpServletRequest);
-        BufferedResponseWrapper bufferedResponse = new BufferedResponseWrapper(httpServletResponse);
+        // Execute the below code only if the request may be written to the request log
+        CapturingRequestWrapper capturingRequest = new CapturingRequestWrapper(httpServletRequest, settings.getRequestBodyLogLimit());
+        CountingResponseWrapper countingResponse = new CountingResponseWrapper(httpServletResponse,
+                settings.isLogResponseBody() ? settings.getResponseBodyLogLimit() : 0);
 
         AuditRequestLog requestLog = new AuditRequestLog();
         requestLog.setClient(httpServletRequest.getRemoteAddr());
@@ -127,50 +128,44 @@ public class LoggingFilter implements Filter {
         requestLog.setRequestSize(httpServletRequest.getContentLengthLong());
         requestLog.setRequestContentType(httpServletRequest.getContentType());
 
-        chain.doFilter(bufferedRequest, bufferedResponse);
+        chain.doFilter(capturingRequest, countingResponse);
         requestLog.setResponseContentType(httpServletResponse.getContentType());
-        JSONParser jsonParser = new JSONParser();
+        // JSON bodies are logged as text here and parsed by the request log writer
         try {
-
-            if ((httpServletRequest.getContentType() != null) && (new MimeType(httpServletRequest.getContentType()).match(new MimeType(APPLICATION_JSON_VALUE)))) {
-                requestLog.setRequestBody(getRawDataForLog(bufferedRequest.getRequestBody(), jsonParser));
+            String requestBody = capturingRequest.getCapturedBody();
+            if ((requestBody != null) && (httpServletRequest.getContentType() != null) && (new MimeType(httpServletRequest.getContentType()).match(new MimeType(APPLICATION_JSON_VALUE)))) {
+                requestLog.setRequestBody(requestBody);
+            }
+            // response bodies are too big to log, apart from the capped capture of the logResponseBody debug mode
+            String responseBody = countingResponse.getCapturedBody();
+            if ((responseBody != null) && (countingResponse.getContentType() != null) && (new MimeType(countingResponse.getContentType()).match(new MimeType(APPLICATION_JSON_VALUE)))) {
+                requestLog.setResponseBody(responseBody);
             }
-            // removing the logging of responses as the collection size is way too big
         } catch (MimeTypeParseException e) {
-            LOGGER.error("Invalid MIME Type detected. Request MIME type=" + httpServletRequest.getContentType() + ". Response MIME Type=" + bufferedResponse.getContentType());
+            LOGGER.error("Invalid MIME Type detected. Request MIME type=" + httpServletRequest.getContentType() + ". Response MIME Type=" + countingResponse.getContentType());
         } finally {
 
-            int response_code = bufferedResponse.getStatus();
+            int response_code = countingResponse.getStatus();
             boolean success = (response_code >=200 && response_code <=399) ;
             LOGGER.info("correlation_id=" + correlation_id
                     + ", application=hygieia, service=api-audit"
-                    + ", uri=" + bufferedRequest.getRequestURI()
+                    + ", uri=" + capturingRequest.getRequestURI()
                     + ", requester=" + apiUser
-                    + ", request_method=" + bufferedRequest.getMethod()
+                    + ", request_method=" + capturingRequest.getMethod()
                     + ", duration=" + (System.currentTimeMillis() - startTime)
                     + ", response_status=" + (success ? "success" : "failed")
-                    + ", response_code=" + bufferedResponse.getStatus()
+                    + ", response_code=" + countingResponse.getStatus()
                     + ", client_ip=" + httpServletRequest.getRemoteAddr()
                     + (StringUtils.equalsIgnoreCase(httpServletRequest.getMethod(), "GET") ? ", " + parameters : StringUtils.EMPTY));
         }
-        requestLog.setResponseSize(bufferedResponse.getContent().length());
+        requestLog.setResponseSize(countingResponse.getByteCount());
 
-        requestLog.setResponseCode(bufferedResponse.getStatus());
+        requestLog.setResponseCode(countingResponse.getStatus());
         long endTime = System.currentTimeMillis();
         requestLog.setResponseTime(endTime - startTime);
         requestLog.setTimestamp(endTime);
-        try {
-            auditRequestLogRepository.save(requestLog);
-        } catch (RuntimeException re) {
-            LOGGER.error("Encountered exception while saving request log - " + requestLog.toString(), re);
-        }
-    }
-
-    private Object getRawDataForLog(String content, JSONParser parser) {
-        try {
-            return parser.parse(content);
-        } catch (ParseException e) {
-            return content;
+        if (requestLogPolicy.isWritten(decision, requestLog.getResponseCode(), requestLog.getResponseTime())) {
+            auditRequestLogWriter.write(requestLog);
         }
     }
 
@@ -193,348 +188,316 @@ public class LoggingFilter implements Filter {
     }
 
 
-    private static final class BufferedRequestWrapper extends HttpServletRequestWrapper {
+    /**
+     * Passes the request body through unchanged, keeping a copy of the first bytes the downstream handler reads for the
+     * request log. Nothing is read ahead of the handler.
+     */
+    private static final class CapturingRequestWrapper extends HttpServletRequestWrapper {
 
-        private ByteArrayInputStream bais = null;
-        private ByteArrayOutputStream baos;
-        private BufferedServletInputStream bsis = null;
-        private byte[] buffer;
+        private final int captureLimit;
+        private CapturingServletInputStream capturingStream;
+        private BufferedReader reader;
 
+        CapturingRequestWrapper(HttpServletRequest request, int captureLimit) {
+            super(request);
+            this.captureLimit = captureLimit;
+        }
 
-        BufferedRequestWrapper(HttpServletRequest req) throws IOException {
-            super(req);
-            // Read InputStream and store its content in a buffer.
-
-            this.baos = new ByteArrayOutputStream();
-            byte[] buf = new byte[1024];
-            int letti;
-            try (InputStream is = req.getInputStream()) {
-                while ((letti = is.read(buf)) > 0) {
-                    this.baos.write(buf, 0, letti);
-                }
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (this.capturingStream == null) {
+                this.capturingStream = new CapturingServletInputStream(super.getInputStream(), captureLimit);
             }
-            this.buffer = this.baos.toByteArray();
+            return this.capturingStream;
         }
 
-
         @Override
-        public ServletInputStream getInputStream() {
-            this.bais = new ByteArrayInputStream(this.buffer);
-            this.bsis = new BufferedServletInputStream(this.bais);
-            return this.bsis;
-        }
-
-        String getRequestBody() throws IOException {
-            String line;
-            StringBuilder inputBuffer = new StringBuilder();
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(this.getInputStream()))) {
-                do {
-                    line = reader.readLine();
-                    if (null != line) {
-                        inputBuffer.append(line);
-                    }
-                } while (line != null);
+        public BufferedReader getReader() throws IOException {
+            if (this.reader == null) {
+                this.reader = new BufferedReader(new InputStreamReader(getInputStream(), getBodyCharset()));
             }
-            return inputBuffer.toString();
+            return this.reader;
         }
 
+        String getCapturedBody() {
+            if ((capturingStream == null) || (capturingStream.getCapture().size() == 0)) { return null; }
+            return new String(capturingStream.getCapture().toByteArray(), getBodyCharset());
+        }
+
+        private Charset getBodyCharset() {
+            return (getCharacterEncoding() == null) ? StandardCharsets.UTF_8 : Charset.forName(getCharacterEncoding());
+        }
     }
 
 
-    private static final class BufferedServletInputStream extends ServletInputStream {
+    private static final class CapturingServletInputStream extends ServletInputStream {
 
-        private ByteArrayInputStream bais;
+        private final ServletInputStream source;
+        private final ByteArrayOutputStream capture;
+        private final int captureLimit;
 
-        BufferedServletInputStream(ByteArrayInputStream bais) {
-            this.bais = bais;
+        CapturingServletInputStream(ServletInputStream source, int captureLimit) {
+            this.source = source;
+            this.captureLimit = Math.max(0, captureLimit);
+            this.capture = new ByteArrayOutputStream(Math.min(this.captureLimit, 1024));
         }
 
         @Override
-        public int available() {
-            return this.bais.available();
+        public int read() throws IOException {
+            int b = this.source.read();
+            if ((b != -1) && (capture.size() < captureLimit)) {
+                capture.write(b);
+            }
+            return b;
         }
 
         @Override
-        public int read() {
-            return this.bais.read();
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = this.source.read(b, off, len);
+            if ((read > 0) && (capture.size() < captureLimit)) {
+                capture.write(b, off, Math.min(read, captureLimit - capture.size()));
+            }
+            return read;
         }
 
         @Override
-        public int read(byte[] buf, int off, int len) {
-            return this.bais.read(buf, off, len);
+        public int available() throws IOException {
+            return this.source.available();
         }
 
+        @Override
+        public void close() throws IOException {
+            this.source.close();
+        }
 
         @Override
         public boolean isFinished() {
-            return false;
+            return this.source.isFinished();
         }
 
         @Override
         public boolean isReady() {
-            return false;
+            return this.source.isReady();
         }
 
         @Override
         public void setReadListener(ReadListener readListener) {
-
+            this.source.setReadListener(readListener);
         }
-    }
-
-    public class TeeServletOutputStream extends ServletOutputStream {
-
-        private final TeeOutputStream targetStream;
-
-        TeeServletOutputStream(OutputStream one, OutputStream two) {
-            targetStream = new TeeOutputStream(one, two);
-        }
-
-        @Override
-        public void write(int arg0) throws IOException {
-            this.targetStream.write(arg0);
-        }
-
-        public void flush() throws IOException {
-            super.flush();
-            this.targetStream.flush();
-        }
-
-        public void close() throws IOException {
-            super.close();
-            this.targetStream.close();
-        }
-
-        @Override
-        public boolean isReady() {
-            return false;
-        }
-
-        @Override
-        public void setWriteListener(WriteListener writeListener) {
 
+        ByteArrayOutputStream getCapture() {
+            return capture;
         }
     }
 
 
-    public class BufferedResponseWrapper implements HttpServletResponse {
+    /**
+     * Passes the response through unchanged, counting the bytes written. With a capture limit the first bytes are also
+     * kept for the request log. As with the container response, either the output stream or the writer can be used.
+     */
+    private static final class CountingResponseWrapper extends HttpServletResponseWrapper {
 
-        private HttpServletResponse original;
-        private TeeServletOutputStream teeStream;
-        private ByteArrayOutputStream bos;
-        private PrintWriter teeWriter;
+        private final int captureLimit;
+        private CountingServletOutputStream countingStream;
+        private CountingWriter countingWriter;
+        private PrintWriter writer;
 
-        BufferedResponseWrapper(HttpServletResponse response) {
-            original = response;
-        }
-
-        public String getContent() {
-
-            return (bos == null) ? "" : bos.toString();
+        CountingResponseWrapper(HttpServletResponse response, int captureLimit) {
+            super(response);
+            this.captureLimit = captureLimit;
         }
 
         @Override
-        public PrintWriter getWriter() throws IOException {
-
-            if (this.teeWriter == null) {
-                this.teeWriter = new PrintWriter(new OutputStreamWriter(getOutputStream()));
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (this.writer != null) {
+                throw new IllegalStateException("getWriter() has already been called for this response");
+            }
+            if (this.countingStream == null) {
+                this.countingStream = new CountingServletOutputStream(super.getOutputStream(), captureLimit);
             }
-            return this.teeWriter;
+            return this.countingStream;
         }
 
+        /**
+         * The container writer, so its encoding and error handling apply, with the characters also encoded into the
+         * byte count
+         */
         @Override
-        public ServletOutputStream getOutputStream() throws IOException {
-
-            if (LoggingFilter.BufferedResponseWrapper.this.teeStream == null) {
-                bos = new ByteArrayOutputStream();
-                LoggingFilter.BufferedResponseWrapper.this.teeStream = new TeeServletOutputStream(original.getOutputStream(), bos);
+        public PrintWriter getWriter() throws IOException {
+            if (this.countingStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
             }
-            return LoggingFilter.BufferedResponseWrapper.this.teeStream;
+            if (this.writer == null) {
+                PrintWriter target = super.getWriter();
+                this.countingWriter = new CountingWriter(target, new ByteCount(captureLimit), Charset.forName(getCharacterEncoding()));
+                this.writer = new PrintWriter(this.countingWriter);
+            }
+            return this.writer;
         }
 
         @Override
-        public String getCharacterEncoding() {
-            return original.getCharacterEncoding();
+        public void flushBuffer() throws IOException {
+            if (this.writer != null) {
+                this.writer.flush();
+            }
+            super.flushBuffer();
         }
 
-        @Override
-        public String getContentType() {
-            return original.getContentType();
+        long getByteCount() {
+            return getBytes().map(ByteCount::getCount).orElse(0L);
         }
 
-        @Override
-        public void setCharacterEncoding(String charset) {
-            original.setCharacterEncoding(charset);
+        String getCapturedBody() {
+            ByteArrayOutputStream capture = getBytes().map(ByteCount::getCapture).orElse(null);
+            if (capture == null) { return null; }
+            return new String(capture.toByteArray(), Charset.forName(getCharacterEncoding()));
         }
 
-        @Override
-        public void setContentLength(int len) {
-            original.setContentLength(len);
+        private Optional<ByteCount> getBytes() {
+            if (this.writer != null) {
+                this.writer.flush();
+                return Optional.of(countingWriter.getBytes());
+            }
+            return Optional.ofNullable(countingStream).map(CountingServletOutputStream::getBytes);
         }
+    }
 
-        @Override
-        public void setContentLengthLong(long l) {
 
-        }
+    /**
+     * Number of bytes written, and the first of them up to the capture limit
+     */
+    private static final class ByteCount extends OutputStream {
 
-        @Override
-        public void setContentType(String type) {
-            original.setContentType(type);
-        }
+        private final ByteArrayOutputStream capture;
+        private final int captureLimit;
+        private long count;
 
-        @Override
-        public void setBufferSize(int size) {
-            original.setBufferSize(size);
+        ByteCount(int captureLimit) {
+            this.captureLimit = captureLimit;
+            this.capture = (captureLimit > 0) ? new ByteArrayOutputStream(Math.min(captureLimit, 1024)) : null;
         }
 
         @Override
-        public int getBufferSize() {
-            return original.getBufferSize();
-        }
-
-
-        @Override
-        public void flushBuffer() throws IOException {
-            if (teeStream != null) {
-                teeStream.flush();
-            }
-            if (this.teeWriter != null) {
-                this.teeWriter.flush();
+        public void write(int b) {
+            this.count++;
+            if ((capture != null) && (capture.size() < captureLimit)) {
+                capture.write(b);
             }
         }
 
         @Override
-        public void resetBuffer() {
-            original.resetBuffer();
-        }
-
-        @Override
-        public boolean isCommitted() {
-            return original.isCommitted();
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+            if ((capture != null) && (capture.size() < captureLimit)) {
+                capture.write(b, off, Math.min(len, captureLimit - capture.size()));
+            }
         }
 
-        @Override
-        public void reset() {
-            original.reset();
+        long getCount() {
+            return count;
         }
 
-        @Override
-        public void setLocale(Locale loc) {
-            original.setLocale(loc);
-        }
-
-        @Override
-        public Locale getLocale() {
-            return original.getLocale();
+        ByteArrayOutputStream getCapture() {
+            return capture;
         }
+    }
 
-        @Override
-        public void addCookie(Cookie cookie) {
-            original.addCookie(cookie);
-        }
 
-        @Override
-        public boolean containsHeader(String name) {
-            return original.containsHeader(name);
-        }
+    /**
+     * Writes through to the container writer, and encodes the characters with the response encoding to count them
+     */
+    private static final class CountingWriter extends Writer {
 
-        @Override
-        public String encodeURL(String url) {
-            return original.encodeURL(url);
-        }
+        private final Writer target;
+        private final ByteCount bytes;
+        private final Writer encoder;
 
-        @Override
-        public String encodeRedirectURL(String url) {
-            return original.encodeRedirectURL(url);
+        CountingWriter(Writer target, ByteCount bytes, Charset charset) {
+            this.target = target;
+            this.bytes = bytes;
+            this.encoder = new OutputStreamWriter(bytes, charset);
         }
 
-        @SuppressWarnings("deprecation")
         @Override
-        public String encodeUrl(String url) {
-            return original.encodeUrl(url);
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            this.target.write(cbuf, off, len);
+            this.encoder.write(cbuf, off, len);
         }
 
-        @SuppressWarnings("deprecation")
         @Override
-        public String encodeRedirectUrl(String url) {
-            return original.encodeRedirectUrl(url);
+        public void write(String str, int off, int len) throws IOException {
+            this.target.write(str, off, len);
+            this.encoder.write(str, off, len);
         }
 
         @Override
-        public void sendError(int sc, String msg) throws IOException {
-            original.sendError(sc, msg);
+        public void flush() throws IOException {
+            this.encoder.flush();
+            this.target.flush();
         }
 
         @Override
-        public void sendError(int sc) throws IOException {
-            original.sendError(sc);
+        public void close() throws IOException {
+            this.encoder.flush();
+            this.target.close();
         }
 
-        @Override
-        public void sendRedirect(String location) throws IOException {
-            original.sendRedirect(location);
+        ByteCount getBytes() {
+            return bytes;
         }
+    }
 
-        @Override
-        public void setDateHeader(String name, long date) {
-            original.setDateHeader(name, date);
-        }
 
-        @Override
-        public void addDateHeader(String name, long date) {
-            original.addDateHeader(name, date);
-        }
+    private static final class CountingServletOutputStream extends ServletOutputStream {
 
-        @Override
-        public void setHeader(String name, String value) {
-            original.setHeader(name, value);
-        }
+        private final ServletOutputStream target;
+        private final ByteCount bytes;
 
-        @Override
-        public void addHeader(String name, String value) {
-            original.addHeader(name, value);
+        CountingServletOutputStream(ServletOutputStream target, int captureLimit) {
+            this.target = target;
+            this.bytes = new ByteCount(captureLimit);
         }
 
         @Override
-        public void setIntHeader(String name, int value) {
-            original.setIntHeader(name, value);
+        public void write(int b) throws IOException {
+            this.target.write(b);
+            this.bytes.write(b);
         }
 
         @Override
-        public void addIntHeader(String name, int value) {
-            original.addIntHeader(name, value);
+        public void write(byte[] b) throws IOException {
+            write(b, 0, b.length);
         }
 
         @Override
-        public void setStatus(int sc) {
-            original.setStatus(sc);
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.target.write(b, off, len);
+            this.bytes.write(b, off, len);
         }
 
-        @SuppressWarnings("deprecation")
         @Override
-        public void setStatus(int sc, String sm) {
-            original.setStatus(sc, sm);
+        public void flush() throws IOException {
+            this.target.flush();
         }
 
         @Override
-        public int getStatus() {
-            return original.getStatus();
+        public void close() throws IOException {
+            this.target.close();
         }
 
         @Override
-        public String getHeader(String s) {
-            return null;
+        public boolean isReady() {
+            return this.target.isReady();
         }
 
         @Override
-        public Collection<String> getHeaders(String s) {
-            return null;
+        public void setWriteListener(WriteListener writeListener) {
+            this.target.setWriteListener(writeListener);
         }
 
-        @Override
-        public Collection<String> getHeaderNames() {
-            return null;
+        ByteCount getBytes() {
+            return bytes;
         }
-
     }
 
 }
@@ -0,0 +1,279 @@
+package com.capitalone.dashboard.logging;
+
+import com.capitalone.dashboard.ApiSettings;
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which requests are written to the request log.
+ *
+ * Ignored endpoints and api users are never written. Any other request is sampled at the rate configured for its
+ * api user in requestLogApiUserSampleRates, else at the rate of the first matching route in
+ * requestLogRouteSampleRates, else at requestLogSampleRate. A request that was not sampled is still written when it
+ * failed or took at least requestLogSlowThresholdMillis.
+ *
+ * The configuration is compiled once at startup. The ignored endpoints and the routes become one pattern over the
+ * method and URI, so a request costs a single match.
+ */
+@Component
+public class RequestLogPolicy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestLogPolicy.class);
+    private static final String ANY_METHOD = "*";
+    private static final String IGNORED_GROUP = "ignored";
+    private static final String ROUTE_GROUP = "route";
+
+    public enum Decision {
+        /** not written at all */
+        IGNORED,
+        /** written */
+        SAMPLED,
+        /** written only when the request failed or was slow */
+        NOT_SAMPLED
+    }
+
+    private final boolean logRequest;
+    private final Set<String> ignoreApiUsers;
+    private final Map<String, Double> apiUserSampleRates;
+    private final Pattern routes;
+    private final double[] routeRates;
+    private final double defaultSampleRate;
+    private final long slowThresholdMillis;
+
+    private final AtomicLong sampledOut = new AtomicLong();
+    private final AtomicLong keptFailed = new AtomicLong();
+    private final AtomicLong keptSlow = new AtomicLong();
+
+    @Autowired
+    public RequestLogPolicy(ApiSettings settings) {
+        this.logRequest = settings.isLogRequest();
+        this.ignoreApiUsers = CollectionUtils.isEmpty(settings.getIgnoreApiUsers()) ? Collections.emptySet()
+                : settings.getIgnoreApiUsers().stream().map(user -> user.toLowerCase(Locale.ENGLISH)).collect(Collectors.toSet());
+        this.apiUserSampleRates = parseApiUserRates(settings.getRequestLogApiUserSampleRates());
+        List<RouteRule> routeRules = parseRouteRules(settings.getRequestLogRouteSampleRates());
+        this.routes = compileRoutes(settings.getIgnoreEndPoints(), routeRules);
+        this.routeRates = routeRules.stream().mapToDouble(rule -> rule.rate).toArray();
+        this.defaultSampleRate = settings.getRequestLogSampleRate();
+        this.slowThresholdMillis = settings.getRequestLogSlowThresholdMillis();
+    }
+
+    /**
+     * Decides before the request is handled whether it is written to the request log
+     */
+    public Decision decide(String method, String uri, String apiUser) {
+        if (!logRequest) { return Decision.IGNORED; }
+        String user = StringUtils.lowerCase(apiUser, Locale.ENGLISH);
+        if ((user != null) && ignoreApiUsers.contains(user)) { return Decision.IGNORED; }
+
+        double rate = routeSampleRate(method, uri);
+        if (rate < 0) { return Decision.IGNORED; }
+        Double userRate = (user == null) ? null : apiUserSampleRates.get(user);
+        if (userRate != null) {
+            rate = userRate;
+        }
+        return (rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate) ? Decision.SAMPLED : Decision.NOT_SAMPLED;
+    }
+
+    /**
+     * @return true when the handled request is written to the request log
+     */
+    public boolean isWritten(Decision decision, int responseCode, long durationMillis) {
+        if (decision == Decision.SAMPLED) { return true; }
+        if (decision == Decision.IGNORED) { return false; }
+        if (responseCode < 200 || responseCode > 399) {
+            keptFailed.incrementAndGet();
+            return true;
+        }
+        if (slowThresholdMillis > 0 && durationMillis >= slowThresholdMillis) {
+            keptSlow.incrementAndGet();
+            return true;
+        }
+        sampledOut.incrementAndGet();
+        return false;
+    }
+
+    public long getSampledOut() {
+        return sampledOut.get();
+    }
+
+    public long getKeptFailed() {
+        return keptFailed.get();
+    }
+
+    public long getKeptSlow() {
+        return keptSlow.get();
+    }
+
+    // sample rate of the route, -1 for an ignored endpoint
+    private double routeSampleRate(String method, String uri) {
+        if (routes == null) { return defaultSampleRate; }
+        Matcher matcher = routes.matcher(method + ' ' + uri);
+        if (!matcher.matches()) { return defaultSampleRate; }
+        if (matcher.group(IGNORED_GROUP) != null) { return -1; }
+        for (int i = 0; i < routeRates.length; i++) {
+            if (matcher.group(ROUTE_GROUP + i) != null) { return routeRates[i]; }
+        }
+        return defaultSampleRate;
+    }
+
+    /**
+     * One pattern over "METHOD uri" with an alternative for the ignored endpoint fragments, found anywhere in the
+     * lower cased URI, followed by one per route rule in priority order. The first alternative that matches wins, and
+     * its named group tells which one it was.
+     */
+    private static Pattern compileRoutes(List<String> ignoreEndPoints, List<RouteRule> routeRules) {
+        // fragments with upper case letters never match a lower cased URI
+        String fragments = (ignoreEndPoints == null) ? "" : ignoreEndPoints.stream()
+                .filter(fragment -> StringUtils.isNotEmpty(fragment) && fragment.equals(fragment.toLowerCase(Locale.ENGLISH)))
+                .map(Pattern::quote).collect(Collectors.joining("|"));
+        if (fragments.isEmpty() && routeRules.isEmpty()) { return null; }
+
+        List<String> alternatives = new ArrayList<>();
+        // without ignored endpoints the group is kept, matching nothing
+        alternatives.add("(?<" + IGNORED_GROUP + ">" + (fragments.isEmpty() ? "(?!)" : "[^ ]* (?iu:.*(?:" + fragments + ").*)") + ")");
+        for (int i = 0; i < routeRules.size(); i++) {
+            RouteRule rule = routeRules.get(i);
+            String method = rule.method.equals(ANY_METHOD) ? "[^ ]*" : "(?i:" + Pattern.quote(rule.method) + ")";
+            alternatives.add("(?<" + ROUTE_GROUP + i + ">" + method + ' ' + antPathRegex(rule.pattern) + ")");
+        }
+        return Pattern.compile("(?s)" + String.join("|", alternatives));
+    }
+
+    // the regex of an Ant style path pattern, matching the paths AntPathMatcher does
+    private static String antPathRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        String[] segments = pattern.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].equals("**")) {
+                // any number of directories, none included
+                regex.append((i == 0) ? ".*" : "(?:/.*)?");
+            } else {
+                regex.append((i == 0) ? "" : "/").append(antSegmentRegex(segments[i]));
+            }
+        }
+        return regex.toString();
+    }
+
+    // *, ? and {name} match within the segment, {name:regex} matches the regex
+    private static String antSegmentRegex(String segment) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            int end = (c == '{') ? closingBrace(segment, i) : -1;
+            if (c != '*' && c != '?' && end < 0) {
+                literal.append(c);
+                continue;
+            }
+            if (literal.length() > 0) {
+                regex.append(Pattern.quote(literal.toString()));
+                literal.setLength(0);
+            }
+            if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else {
+                String variable = segment.substring(i + 1, end);
+                regex.append(variable.contains(":") ? "(?:" + StringUtils.substringAfter(variable, ":") + ")" : "[^/]*");
+                i = end;
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+
+    // index of the brace closing the one at start, -1 when it is not closed
+    private static int closingBrace(String segment, int start) {
+        int depth = 0;
+        for (int i = start; i < segment.length(); i++) {
+            if (segment.charAt(i) == '{') {
+                depth++;
+            } else if (segment.charAt(i) == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // entries of the form [METHOD ]/path/pattern/**=rate, in priority order
+    private static List<RouteRule> parseRouteRules(List<String> entries) {
+        List<RouteRule> rules = new ArrayList<>();
+        if (entries == null) { return rules; }
+        for (String entry : entries) {
+            String[] route = StringUtils.split(StringUtils.substringBeforeLast(entry, "="));
+            Double rate = parseRate(entry);
+            if (rate == null || route == null || route.length == 0 || route.length > 2) {
+                LOGGER.warn("Ignoring invalid requestLogRouteSampleRates entry '" + entry + "'");
+                continue;
+            }
+            String pattern = route[route.length - 1];
+            try {
+                Pattern.compile(antPathRegex(pattern));
+            } catch (PatternSyntaxException e) {
+                LOGGER.warn("Ignoring requestLogRouteSampleRates entry '" + entry + "' with an invalid path variable regex");
+                continue;
+            }
+            rules.add((route.length == 1) ? new RouteRule(ANY_METHOD, pattern, rate) : new RouteRule(route[0], pattern, rate));
+        }
+        return rules;
+    }
+
+    // entries of the form apiUser=rate
+    private static Map<String, Double> parseApiUserRates(List<String> entries) {
+        Map<String, Double> rates = new HashMap<>();
+        if (entries == null) { return rates; }
+        for (String entry : entries) {
+            String user = StringUtils.trim(StringUtils.substringBeforeLast(entry, "="));
+            Double rate = parseRate(entry);
+            if (rate == null || StringUtils.isEmpty(user)) {
+                LOGGER.warn("Ignoring invalid requestLogApiUserSampleRates entry '" + entry + "'");
+                continue;
+            }
+            rates.put(user.toLowerCase(Locale.ENGLISH), rate);
+        }
+        return rates;
+    }
+
+    private static Double parseRate(String entry) {
+        if (!StringUtils.contains(entry, '=')) { return null; }
+        try {
+            double rate = Double.parseDouble(StringUtils.substringAfterLast(entry, "=").trim());
+            return (rate >= 0 && rate <= 1) ? rate : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class RouteRule {
+        private final String method;
+        private final String pattern;
+        private final double rate;
+
+        RouteRule(String method, String pattern, double rate) {
+            this.method = method;
+            this.pattern = pattern;
+            this.rate = rate;
+        }
+    }
+}
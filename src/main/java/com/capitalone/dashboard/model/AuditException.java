@@ -9,6 +9,7 @@ public class AuditException extends Exception{
     public static final int NO_COLLECTOR_ITEM_CONFIGURED = -1;
     public static final int MISSING_DETAILS = -2;
     public static final int BAD_INPUT_DATA = -3;
+    public static final int EVALUATION_TIMEOUT = -4;
 
 
     private int errorCode = 0;
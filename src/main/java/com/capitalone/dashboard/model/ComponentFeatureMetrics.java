@@ -24,6 +24,8 @@ public class ComponentFeatureMetrics {
 
     private String message;
 
+    private Long rollupTimestamp;
+
     public String getId() {
         return id;
     }
@@ -66,4 +68,7 @@ public class ComponentFeatureMetrics {
 
     public void setMessage(String message) { this.message = message; }
 
+    public Long getRollupTimestamp() { return rollupTimestamp; }
+
+    public void setRollupTimestamp(Long rollupTimestamp) { this.rollupTimestamp = rollupTimestamp; }
 }
@@ -18,6 +18,10 @@ public class ExecutiveFeatureMetrics {
 
     private List<ProductFeatureMetrics> applications;
 
+    private String message;
+
+    private Long rollupTimestamp;
+
     public String getName() {
         return name;
     }
@@ -57,4 +61,20 @@ public class ExecutiveFeatureMetrics {
     public void setPercentage(String percentage) {
         this.percentage = percentage;
     }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Long getRollupTimestamp() {
+        return rollupTimestamp;
+    }
+
+    public void setRollupTimestamp(Long rollupTimestamp) {
+        this.rollupTimestamp = rollupTimestamp;
+    }
 }
@@ -0,0 +1,67 @@
+package com.capitalone.dashboard.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feature metrics of a component, materialized so the feature metrics endpoints can serve them without going back to
+ * the code quality, test, build and feature data. The id is the component (team dashboard) title.
+ */
+@Document(collection = "feature_metric_rollups")
+public class FeatureMetricRollup {
+
+    @Id
+    private String id;
+
+    private String name;
+
+    private List<Map<String, Object>> metrics = new ArrayList<>();
+
+    private String fingerprint;
+
+    private long timestamp;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<Map<String, Object>> getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(List<Map<String, Object>> metrics) {
+        this.metrics = metrics;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
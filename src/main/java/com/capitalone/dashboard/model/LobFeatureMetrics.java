@@ -21,6 +21,10 @@ public class LobFeatureMetrics {
 
     private List<ProductFeatureMetrics> applications;
 
+    private String message;
+
+    private Long rollupTimestamp;
+
     public String getName() {
         return name;
     }
@@ -40,4 +44,12 @@ public class LobFeatureMetrics {
     public List<ProductFeatureMetrics> getApplications() { return applications;}
 
     public void setApplications(List<ProductFeatureMetrics> applications) { this.applications = applications;}
+
+    public String getMessage() { return message; }
+
+    public void setMessage(String message) { this.message = message; }
+
+    public Long getRollupTimestamp() { return rollupTimestamp; }
+
+    public void setRollupTimestamp(Long rollupTimestamp) { this.rollupTimestamp = rollupTimestamp; }
 }
@@ -33,6 +33,10 @@ public class ProductFeatureMetrics {
     
     private List<ComponentFeatureMetrics> components;
 
+    private String message;
+
+    private Long rollupTimestamp;
+
     public String getName() {
         return name;
     }
@@ -95,6 +99,11 @@ public class ProductFeatureMetrics {
         this.components = components;
     }
 
+    public String getMessage() { return message; }
+
+    public void setMessage(String message) { this.message = message; }
 
+    public Long getRollupTimestamp() { return rollupTimestamp; }
 
+    public void setRollupTimestamp(Long rollupTimestamp) { this.rollupTimestamp = rollupTimestamp; }
 }
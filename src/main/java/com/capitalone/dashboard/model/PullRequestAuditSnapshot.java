@@ -0,0 +1,115 @@
+package com.capitalone.dashboard.model;
+
+import com.capitalone.dashboard.status.CodeReviewAuditStatus;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Peer review verdict of a merged pull request, stored so later code review audits can reuse it while the pull
+ * request, the settings and the other inputs it was computed with are unchanged
+ */
+@Document(collection = "pull_request_audit_snapshots")
+public class PullRequestAuditSnapshot {
+
+    @Id
+    private String id;
+
+    private ObjectId collectorItemId;
+
+    private ObjectId pullRequestId;
+
+    private long pullRequestUpdatedAt;
+
+    // digest of the settings and of the inputs of the review besides the pull request
+    private String fingerprint;
+
+    private boolean peerReviewed;
+
+    private Set<CodeReviewAuditStatus> auditStatuses = new HashSet<>();
+
+    // commits, reviews and merge of the pull request as the review listed them in the audit response
+    private List<CodeAction> codeActions;
+
+    private long timestamp;
+
+    public static String idOf(ObjectId collectorItemId, ObjectId pullRequestId) {
+        return collectorItemId + ":" + pullRequestId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public ObjectId getCollectorItemId() {
+        return collectorItemId;
+    }
+
+    public void setCollectorItemId(ObjectId collectorItemId) {
+        this.collectorItemId = collectorItemId;
+    }
+
+    public ObjectId getPullRequestId() {
+        return pullRequestId;
+    }
+
+    public void setPullRequestId(ObjectId pullRequestId) {
+        this.pullRequestId = pullRequestId;
+    }
+
+    public long getPullRequestUpdatedAt() {
+        return pullRequestUpdatedAt;
+    }
+
+    public void setPullRequestUpdatedAt(long pullRequestUpdatedAt) {
+        this.pullRequestUpdatedAt = pullRequestUpdatedAt;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+
+    public boolean isPeerReviewed() {
+        return peerReviewed;
+    }
+
+    public void setPeerReviewed(boolean peerReviewed) {
+        this.peerReviewed = peerReviewed;
+    }
+
+    public Set<CodeReviewAuditStatus> getAuditStatuses() {
+        return auditStatuses;
+    }
+
+    public void setAuditStatuses(Set<CodeReviewAuditStatus> auditStatuses) {
+        this.auditStatuses = auditStatuses;
+    }
+
+    public List<CodeAction> getCodeActions() {
+        return codeActions;
+    }
+
+    public void setCodeActions(List<CodeAction> codeActions) {
+        this.codeActions = codeActions;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+}
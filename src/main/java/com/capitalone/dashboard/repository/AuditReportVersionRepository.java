@@ -0,0 +1,25 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.AuditReport;
+import com.capitalone.dashboard.model.AuditType;
+import org.bson.types.ObjectId;
+import org.springframework.data.repository.Repository;
+
+/**
+ * Latest {@link AuditReport}s of the {@link AuditReportRepository} lookups, reading only their ids and timestamps
+ */
+public interface AuditReportVersionRepository extends Repository<AuditReport, ObjectId> {
+
+    AuditReportVersion findTop1ByBusinessApplicationAndBusinessServiceAndAuditTypeAndIdentifierNameAndIdentifierVersionAndIdentifierUrlOrderByTimestampDesc(
+            String businessApplication, String businessService, AuditType auditType, String identifierName, String identifierVersion, String identifierUrl);
+
+    AuditReportVersion findTop1ByAuditTypeAndIdentifierNameAndIdentifierVersionAndIdentifierUrlOrderByTimestampDesc(AuditType auditType, String identifierName,
+                                                                                                                   String identifierVersion, String identifierUrl);
+
+    interface AuditReportVersion {
+
+        ObjectId getId();
+
+        long getTimestamp();
+    }
+}
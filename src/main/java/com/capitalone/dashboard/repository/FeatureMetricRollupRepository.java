@@ -0,0 +1,10 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.FeatureMetricRollup;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository for {@link FeatureMetricRollup}, ids are component titles
+ */
+public interface FeatureMetricRollupRepository extends CrudRepository<FeatureMetricRollup, String> {
+}
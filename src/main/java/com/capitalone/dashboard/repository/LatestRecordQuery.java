@@ -0,0 +1,28 @@
+package com.capitalone.dashboard.repository;
+
+import org.bson.types.ObjectId;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Finds the latest record of many collector items at once, in place of one findTop1ByCollectorItemId query per item
+ */
+public interface LatestRecordQuery {
+
+    String TIMESTAMP = "timestamp";
+
+    /**
+     * Latest record of each collector item, ordered by the given timestamp field
+     *
+     * @param type             mapped type of the collection to search
+     * @param collectorItemIds collector items to search for
+     * @param timestampField   field the latest record is chosen by
+     * @return latest record by collector item id, collector items without records are absent
+     */
+    <T> Map<ObjectId, T> findLatest(Class<T> type, Collection<ObjectId> collectorItemIds, String timestampField);
+
+    default <T> Map<ObjectId, T> findLatest(Class<T> type, Collection<ObjectId> collectorItemIds) {
+        return findLatest(type, collectorItemIds, TIMESTAMP);
+    }
+}
@@ -0,0 +1,64 @@
+package com.capitalone.dashboard.repository;
+
+import com.google.common.collect.Lists;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Runs one aggregation per batch of collector items:
+ * $match collectorItemId $in, $sort collectorItemId and timestamp descending, $group by collectorItemId with $first.
+ *
+ * The sort leads with collectorItemId so an index on { collectorItemId: 1, timestamp: -1 } serves both the match and
+ * the sort, the same index the findTop1ByCollectorItemIdOrderByTimestampDesc queries rely on.
+ */
+@Component
+public class LatestRecordQueryImpl implements LatestRecordQuery {
+
+    static final String COLLECTOR_ITEM_ID = "collectorItemId";
+    // keeps the $in list and the grouped results of one aggregation small
+    static final int BATCH_SIZE = 500;
+    private static final String LATEST = "latest";
+
+    private final MongoTemplate template;
+
+    @Autowired
+    public LatestRecordQueryImpl(MongoTemplate template) {
+        this.template = template;
+    }
+
+    @Override
+    public <T> Map<ObjectId, T> findLatest(Class<T> type, Collection<ObjectId> collectorItemIds, String timestampField) {
+        Map<ObjectId, T> latest = new HashMap<>();
+        List<ObjectId> ids = new ArrayList<>(new LinkedHashSet<>(collectorItemIds));
+        ids.removeIf(Objects::isNull);
+        for (List<ObjectId> batch : Lists.partition(ids, BATCH_SIZE)) {
+            for (Document document : template.aggregate(latestAggregation(batch, timestampField), type, Document.class)) {
+                latest.put(document.getObjectId(COLLECTOR_ITEM_ID), template.getConverter().read(type, document));
+            }
+        }
+        return latest;
+    }
+
+    static Aggregation latestAggregation(Collection<ObjectId> collectorItemIds, String timestampField) {
+        return Aggregation.newAggregation(
+                Aggregation.match(Criteria.where(COLLECTOR_ITEM_ID).in(collectorItemIds)),
+                Aggregation.sort(Sort.by(Sort.Order.asc(COLLECTOR_ITEM_ID), Sort.Order.desc(timestampField))),
+                Aggregation.group(COLLECTOR_ITEM_ID).first(Aggregation.ROOT).as(LATEST),
+                Aggregation.replaceRoot(LATEST))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+    }
+}
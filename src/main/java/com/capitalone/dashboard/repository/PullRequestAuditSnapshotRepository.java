@@ -0,0 +1,10 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.PullRequestAuditSnapshot;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository for {@link PullRequestAuditSnapshot}, ids are built with {@link PullRequestAuditSnapshot#idOf}
+ */
+public interface PullRequestAuditSnapshotRepository extends CrudRepository<PullRequestAuditSnapshot, String> {
+}
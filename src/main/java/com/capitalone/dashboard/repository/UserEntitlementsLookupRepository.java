@@ -0,0 +1,17 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.AuthType;
+import com.capitalone.dashboard.model.UserEntitlements;
+import org.bson.types.ObjectId;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk reads of {@link UserEntitlements}, next to the single user queries of {@link UserEntitlementsRepository}
+ */
+public interface UserEntitlementsLookupRepository extends CrudRepository<UserEntitlements, ObjectId> {
+
+    List<UserEntitlements> findByAuthTypeAndEntitlementTypeAndUsernameIn(AuthType authType, String entitlementType, Collection<String> usernames);
+}
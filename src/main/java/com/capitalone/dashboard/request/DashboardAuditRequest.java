@@ -21,6 +21,8 @@ public class DashboardAuditRequest extends AuditReviewRequest {
     private String identifierVersion;
     private String identifierUrl;
     private String featureTestThreshold;
+    @ApiModelProperty(value = "Response view, status only returns the audit statuses per audit type", example = "status")
+    private String view;
 
     public String getTitle() {
         return title;
@@ -109,4 +111,12 @@ public class DashboardAuditRequest extends AuditReviewRequest {
     public String getFeatureTestThreshold() {
         return featureTestThreshold;
     }
+
+    public String getView() {
+        return view;
+    }
+
+    public void setView(String view) {
+        this.view = view;
+    }
 }
@@ -0,0 +1,29 @@
+package com.capitalone.dashboard.request;
+
+import io.swagger.annotations.ApiModelProperty;
+
+public class ProjectionRequest {
+
+    public static final String STATUS_VIEW = "status";
+
+    @ApiModelProperty(value = "Comma separated fields to return, all of them when empty", example="auditType,auditStatus")
+    private String fields;
+    @ApiModelProperty(value = "Response view, status only returns the audit statuses", example="status")
+    private String view;
+
+    public String getFields() {
+        return fields;
+    }
+
+    public void setFields(String fields) {
+        this.fields = fields;
+    }
+
+    public String getView() {
+        return view;
+    }
+
+    public void setView(String view) {
+        this.view = view;
+    }
+}
@@ -1,5 +1,7 @@
 package com.capitalone.dashboard.response;
 
+import com.fasterxml.jackson.annotation.JsonView;
+
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -22,10 +24,12 @@ public class AuditReviewResponse<T> {
 
     public void setAuditStatus(Set<T> statuses) {auditStatuses = statuses;}
 
+    @JsonView(AuditViews.Status.class)
     public Set<T> getAuditStatuses() {
         return auditStatuses;
     }
 
+    @JsonView(AuditViews.Status.class)
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -34,6 +38,7 @@ public class AuditReviewResponse<T> {
         this.errorMessage = errorMessage;
     }
 
+    @JsonView(AuditViews.Status.class)
     public long getLastUpdated() {
         return lastUpdated;
     }
@@ -50,6 +55,7 @@ public class AuditReviewResponse<T> {
         this.auditEntity = auditEntity;
     }
 
+    @JsonView(AuditViews.Status.class)
     public String getClientReference() { return clientReference; }
 
     public void setClientReference(String clientReference) { this.clientReference = clientReference; }
@@ -0,0 +1,14 @@
+package com.capitalone.dashboard.response;
+
+/**
+ * Serialization views of the audit responses, properties without a view are left out when one is selected
+ */
+public final class AuditViews {
+
+    /**
+     * Audit statuses per audit type, without the audited entities and their details
+     */
+    public interface Status {}
+
+    private AuditViews() {}
+}
@@ -2,6 +2,7 @@ package com.capitalone.dashboard.response;
 
 import com.capitalone.dashboard.model.AuditType;
 import com.capitalone.dashboard.status.DashboardAuditStatus;
+import com.fasterxml.jackson.annotation.JsonView;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -15,6 +16,7 @@ public class DashboardReviewResponse<T extends AuditReviewResponse> extends Audi
     private Map<AuditType, Collection<T>> review = new HashMap<>();
 
 
+	@JsonView(AuditViews.Status.class)
 	public String getBusinessService() {
 		return businessService;
 	}
@@ -23,6 +25,7 @@ public class DashboardReviewResponse<T extends AuditReviewResponse> extends Audi
 		this.businessService = businessService;
 	}
 
+	@JsonView(AuditViews.Status.class)
 	public String getBusinessApplication() {
 		return businessApplication;
 	}
@@ -31,6 +34,7 @@ public class DashboardReviewResponse<T extends AuditReviewResponse> extends Audi
 		this.businessApplication = businessApplication;
 	}
 
+	@JsonView(AuditViews.Status.class)
 	public String getDashboardTitle() {
         return dashboardTitle;
     }
@@ -39,6 +43,7 @@ public class DashboardReviewResponse<T extends AuditReviewResponse> extends Audi
         this.dashboardTitle = dashboardTitle;
     }
 
+	@JsonView(AuditViews.Status.class)
 	public Map<AuditType, Collection<T>> getReview() {
 		return review;
 	}
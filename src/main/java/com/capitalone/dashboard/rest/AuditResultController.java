@@ -1,91 +1,296 @@
 package com.capitalone.dashboard.rest;
 
+import com.capitalone.dashboard.config.WebMVCConfig;
+import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.AuditResult;
+import com.capitalone.dashboard.model.AuditResultSummary;
 import com.capitalone.dashboard.model.AuditType;
+import com.capitalone.dashboard.request.ProjectionRequest;
 import com.capitalone.dashboard.service.AuditResultService;
+import com.capitalone.dashboard.util.ConditionalResponseUtility;
+import com.capitalone.dashboard.util.PaginationHeaderUtility;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.collect.ImmutableSet;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+import static com.capitalone.dashboard.util.PaginationHeaderUtility.CONTINUATION_TOKEN;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 import static org.springframework.web.bind.annotation.RequestMethod.GET;
 
 @RestController
 public class AuditResultController {
 
+    private static final String DEFAULT_PAGE_SIZE = "20";
+    private static final ObjectWriter EXPORT_WRITER = WebMVCConfig.objectMapper().writerFor(AuditResult.class);
+
+    // all an ETag is derived from
+    private static final Set<String> VERSION_FIELDS = ImmutableSet.of("id", "timestamp");
+
+    private final HttpServletRequest httpServletRequest;
     private final AuditResultService auditResultService;
+    private final PaginationHeaderUtility paginationHeaderUtility;
+    private final ConditionalResponseUtility conditionalResponseUtility;
 
     @Autowired
-    public AuditResultController(AuditResultService auditResultService) {
+    public AuditResultController(HttpServletRequest httpServletRequest, AuditResultService auditResultService,
+                                 PaginationHeaderUtility paginationHeaderUtility, ConditionalResponseUtility conditionalResponseUtility) {
+        this.httpServletRequest = httpServletRequest;
         this.auditResultService = auditResultService;
+        this.paginationHeaderUtility = paginationHeaderUtility;
+        this.conditionalResponseUtility = conditionalResponseUtility;
     }
 
     @RequestMapping(value = "/auditresult/dashboard/all/pages", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsAll(Pageable pageable) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsAll(pageable);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsAll(Pageable pageable,
+                                                     ProjectionRequest projection) throws AuditException {
+        return respondPage(projection, fields -> auditResultService.getAuditResultsAll(pageable, fields));
     }
 
     @RequestMapping(value = "/auditresult/dashboard/audittype/{auditType}/pages", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsByAuditType(@Valid @PathVariable AuditType auditType, Pageable pageable) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsByAuditType(auditType, pageable);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsByAuditType(@Valid @PathVariable AuditType auditType, Pageable pageable,
+                                                             ProjectionRequest projection) throws AuditException {
+        return respondPage(projection, fields -> auditResultService.getAuditResultsByAuditType(auditType, pageable, fields));
     }
 
     @RequestMapping(value = "/auditresult/dashboard/title/{title}", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsByDBoardTitle(@Valid @PathVariable String title) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsByDBoardTitle(title);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsByDBoardTitle(@Valid @PathVariable String title,
+                                                               ProjectionRequest projection) throws AuditException {
+        return respond(projection, fields -> auditResultService.getAuditResultsByDBoardTitle(title, fields));
     }
 
     @RequestMapping(value = "/auditresult/dashboard/title/{title}/audittype/{auditType}", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsByDBoardTitleAndAuditType(@Valid @PathVariable String title,
-                                                                                          @Valid @PathVariable AuditType auditType) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsByDBoardTitleAndAuditType(title, auditType);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsByDBoardTitleAndAuditType(@Valid @PathVariable String title,
+                                                                           @Valid @PathVariable AuditType auditType,
+                                                                           ProjectionRequest projection) throws AuditException {
+        return respond(projection, fields -> auditResultService.getAuditResultsByDBoardTitleAndAuditType(title, auditType, fields));
     }
 
     @RequestMapping(value = "/auditresult/dashboard/product/{configItemBusServName}/component/{configItemBusAppName}",
             method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsByServAndAppNames(@Valid @PathVariable String configItemBusServName,
-                                                                                  @Valid @PathVariable String configItemBusAppName) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsByServAndAppNames(configItemBusServName,
-                configItemBusAppName);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsByServAndAppNames(@Valid @PathVariable String configItemBusServName,
+                                                                   @Valid @PathVariable String configItemBusAppName,
+                                                                   ProjectionRequest projection) throws AuditException {
+        return respond(projection,
+                fields -> auditResultService.getAuditResultsByServAndAppNames(configItemBusServName, configItemBusAppName, fields));
     }
 
     @RequestMapping(value = "/auditresult/dashboard/product/{configItemBusServName}/component/{configItemBusAppName}/audittype/{auditType}",
             method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsByServAndAppNamesAndAuditType(@Valid @PathVariable String configItemBusServName,
-                                                                                              @Valid @PathVariable String configItemBusAppName,
-                                                                                              @Valid @PathVariable AuditType auditType) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsByServAndAppNamesAndAuditType(configItemBusServName,
-                configItemBusAppName, auditType);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsByServAndAppNamesAndAuditType(@Valid @PathVariable String configItemBusServName,
+                                                                               @Valid @PathVariable String configItemBusAppName,
+                                                                               @Valid @PathVariable AuditType auditType,
+                                                                               ProjectionRequest projection) throws AuditException {
+        return respond(projection,
+                fields -> auditResultService.getAuditResultsByServAndAppNamesAndAuditType(configItemBusServName, configItemBusAppName, auditType, fields));
     }
 
     @RequestMapping(value = "/auditresult/lob/{lineOfBusiness}/audittype/{auditType}/pages", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsByLineOfBusAndAuditType(@Valid @PathVariable String lineOfBusiness,
-                                                                                        @Valid @PathVariable AuditType auditType, Pageable pageable) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsByLineOfBusAndAuditType(lineOfBusiness, auditType, pageable);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsByLineOfBusAndAuditType(@Valid @PathVariable String lineOfBusiness,
+                                                                         @Valid @PathVariable AuditType auditType, Pageable pageable,
+                                                                         ProjectionRequest projection) throws AuditException {
+        return respondPage(projection, fields -> auditResultService.getAuditResultsByLineOfBusAndAuditType(lineOfBusiness, auditType, pageable, fields));
     }
 
     @RequestMapping(value = "/auditresult/lob/{lineOfBusiness}/pages", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<Iterable<AuditResult>> getAuditResultsByLineOfBus(@Valid @PathVariable String lineOfBusiness, Pageable pageable) {
-        Iterable<AuditResult> auditResults = auditResultService.getAuditResultsByLineOfBus(lineOfBusiness, pageable);
-        return ResponseEntity.ok().body(auditResults);
+    public ResponseEntity<byte[]> getAuditResultsByLineOfBus(@Valid @PathVariable String lineOfBusiness, Pageable pageable,
+                                                             ProjectionRequest projection) throws AuditException {
+        return respondPage(projection, fields -> auditResultService.getAuditResultsByLineOfBus(lineOfBusiness, pageable, fields));
+    }
+
+    /*
+     * Keyset pages ordered by id. Pass the continuationToken header of a page to get the next one,
+     * there is no token on the last page.
+     */
+
+    @RequestMapping(value = "/auditresult/dashboard/all/cursor", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsAll(@RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                     @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                     ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection, fields -> auditResultService.getAuditResultsAll(after, size, fields));
+    }
+
+    @RequestMapping(value = "/auditresult/dashboard/audittype/{auditType}/cursor", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsByAuditType(@Valid @PathVariable AuditType auditType,
+                                                             @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                             @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                             ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection, fields -> auditResultService.getAuditResultsByAuditType(auditType, after, size, fields));
+    }
+
+    @RequestMapping(value = "/auditresult/dashboard/title/{title}/cursor", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsByDBoardTitle(@Valid @PathVariable String title,
+                                                               @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                               @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                               ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection, fields -> auditResultService.getAuditResultsByDBoardTitle(title, after, size, fields));
+    }
+
+    @RequestMapping(value = "/auditresult/dashboard/title/{title}/audittype/{auditType}/cursor", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsByDBoardTitleAndAuditType(@Valid @PathVariable String title,
+                                                                           @Valid @PathVariable AuditType auditType,
+                                                                           @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                                           @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                                           ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection, fields -> auditResultService.getAuditResultsByDBoardTitleAndAuditType(title, auditType, after, size, fields));
+    }
+
+    @RequestMapping(value = "/auditresult/dashboard/product/{configItemBusServName}/component/{configItemBusAppName}/cursor",
+            method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsByServAndAppNames(@Valid @PathVariable String configItemBusServName,
+                                                                   @Valid @PathVariable String configItemBusAppName,
+                                                                   @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                                   @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                                   ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection,
+                fields -> auditResultService.getAuditResultsByServAndAppNames(configItemBusServName, configItemBusAppName, after, size, fields));
+    }
+
+    @RequestMapping(value = "/auditresult/dashboard/product/{configItemBusServName}/component/{configItemBusAppName}/audittype/{auditType}/cursor",
+            method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsByServAndAppNamesAndAuditType(@Valid @PathVariable String configItemBusServName,
+                                                                               @Valid @PathVariable String configItemBusAppName,
+                                                                               @Valid @PathVariable AuditType auditType,
+                                                                               @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                                               @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                                               ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection,
+                fields -> auditResultService.getAuditResultsByServAndAppNamesAndAuditType(configItemBusServName, configItemBusAppName, auditType, after, size, fields));
+    }
+
+    @RequestMapping(value = "/auditresult/lob/{lineOfBusiness}/audittype/{auditType}/cursor", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsByLineOfBusAndAuditType(@Valid @PathVariable String lineOfBusiness,
+                                                                         @Valid @PathVariable AuditType auditType,
+                                                                         @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                                         @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                                         ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection,
+                fields -> auditResultService.getAuditResultsByLineOfBusAndAuditType(lineOfBusiness, auditType, after, size, fields));
+    }
+
+    @RequestMapping(value = "/auditresult/lob/{lineOfBusiness}/cursor", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getAuditResultsByLineOfBus(@Valid @PathVariable String lineOfBusiness,
+                                                             @RequestParam(value = CONTINUATION_TOKEN, required = false) String continuationToken,
+                                                             @RequestParam(value = "size", required = false, defaultValue = DEFAULT_PAGE_SIZE) int size,
+                                                             ProjectionRequest projection) throws AuditException {
+        ObjectId after = paginationHeaderUtility.getContinuationId(continuationToken);
+        return respondSlice(projection, fields -> auditResultService.getAuditResultsByLineOfBus(lineOfBusiness, after, size, fields));
+    }
+
+    /**
+     * Writes the matching audit results as newline delimited JSON while they are read, without paging or counting them.
+     * The audit results come in no particular order, so an export that was cut off cannot be resumed and is run again.
+     * Incremental exports pass the latest timestamp of the last complete export as timestampAfter.
+     */
+    @RequestMapping(value = "/auditresult/export", method = GET, produces = APPLICATION_NDJSON_VALUE)
+    public void exportAuditResults(@RequestParam(value = "auditType", required = false) AuditType auditType,
+                                   @RequestParam(value = "lineOfBusiness", required = false) String lineOfBusiness,
+                                   @RequestParam(value = "timestampAfter", required = false) Long timestampAfter,
+                                   ProjectionRequest projection, HttpServletResponse response) throws IOException, AuditException {
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OutputStream out = response.getOutputStream();
+        try (CloseableIterator<AuditResult> auditResults = auditResultService.streamAuditResults(auditType, lineOfBusiness, timestampAfter,
+                auditResultService.getFields(projection))) {
+            while (auditResults.hasNext()) {
+                out.write(EXPORT_WRITER.writeValueAsBytes(auditResults.next()));
+                out.write('\n');
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Number of audit results and their latest timestamp per line of business, audit type and audit status
+     */
+    @RequestMapping(value = "/auditresult/summary", method = GET, produces = APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AuditResultSummary>> getAuditResultSummary(@RequestParam(value = "lineOfBusiness", required = false) String lineOfBusiness,
+                                                                          @RequestParam(value = "auditType", required = false) AuditType auditType) {
+        return ResponseEntity.ok().body(auditResultService.getAuditResultSummary(lineOfBusiness, auditType));
     }
 
     @RequestMapping(value = "/auditresult/{id}", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<AuditResult> getAuditResult(@Valid @PathVariable ObjectId id) {
-        AuditResult auditResult = auditResultService.getAuditResult(id);
-        return ResponseEntity.ok().body(auditResult);
+    public ResponseEntity<byte[]> getAuditResult(@Valid @PathVariable ObjectId id,
+                                                 ProjectionRequest projection) throws AuditException {
+        Set<String> fields = auditResultService.getFields(projection);
+        AuditResult version = auditResultService.getAuditResult(id, VERSION_FIELDS);
+        return respond(Collections.singletonList(version), new HttpHeaders(), () -> auditResultService.getAuditResult(id, fields));
+    }
+
+    /**
+     * Reads the ids and timestamps of the audit results first, the audit results are only read and serialized when
+     * the client does not have them and they are not cached. They are then read by id, so the body has exactly the
+     * audit results the ETag was computed from.
+     */
+    private ResponseEntity<byte[]> respond(ProjectionRequest projection, Function<Set<String>, Iterable<AuditResult>> query) throws AuditException {
+        Set<String> fields = auditResultService.getFields(projection);
+        Iterable<AuditResult> versions = query.apply(VERSION_FIELDS);
+        return respond(versions, new HttpHeaders(), () -> auditResultService.getAuditResults(ids(versions), fields));
+    }
+
+    /**
+     * The page of ids and timestamps has the total, the body reads the audit results of that page by id instead of
+     * running the paged query and its count again
+     */
+    private ResponseEntity<byte[]> respondPage(ProjectionRequest projection, Function<Set<String>, Page<AuditResult>> query) throws AuditException {
+        Set<String> fields = auditResultService.getFields(projection);
+        Page<AuditResult> versions = query.apply(VERSION_FIELDS);
+        return respond(versions, new HttpHeaders(),
+                () -> new PageImpl<>(auditResultService.getAuditResults(ids(versions), fields), versions.getPageable(), versions.getTotalElements()));
+    }
+
+    private ResponseEntity<byte[]> respondSlice(ProjectionRequest projection, Function<Set<String>, Slice<AuditResult>> query) throws AuditException {
+        Set<String> fields = auditResultService.getFields(projection);
+        Slice<AuditResult> versions = query.apply(VERSION_FIELDS);
+        return respond(versions, paginationHeaderUtility.buildContinuationHeaders(versions),
+                () -> auditResultService.getAuditResults(ids(versions), fields));
+    }
+
+    private static List<ObjectId> ids(Iterable<AuditResult> versions) {
+        List<ObjectId> ids = new ArrayList<>();
+        versions.forEach(auditResult -> ids.add(auditResult.getId()));
+        return ids;
+    }
+
+    private ResponseEntity<byte[]> respond(Iterable<AuditResult> versions, HttpHeaders headers, Supplier<?> body) {
+        List<Object> eTagVersions = new ArrayList<>();
+        versions.forEach(auditResult -> eTagVersions.add(auditResult.getId() + ":" + auditResult.getTimestamp()));
+        if (versions instanceof Page) {
+            eTagVersions.add(((Page<?>) versions).getTotalElements());
+        }
+        String eTag = conditionalResponseUtility.getETag(httpServletRequest, eTagVersions);
+        return conditionalResponseUtility.respond(httpServletRequest, eTag, headers, body);
     }
 }
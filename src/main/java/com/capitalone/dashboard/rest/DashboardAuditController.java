@@ -5,10 +5,14 @@ import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.AutoDiscoverAuditType;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.repository.AuditReportVersionRepository.AuditReportVersion;
 import com.capitalone.dashboard.request.DashboardAuditRequest;
+import com.capitalone.dashboard.request.ProjectionRequest;
+import com.capitalone.dashboard.response.AuditViews;
 import com.capitalone.dashboard.response.DashboardReviewResponse;
 import com.capitalone.dashboard.service.DashboardAuditService;
 import com.capitalone.dashboard.util.CommonConstants;
+import com.capitalone.dashboard.util.ConditionalResponseUtility;
 import com.capitalone.dashboard.util.ConversionUtils;
 import io.swagger.annotations.ApiOperation;
 import org.apache.commons.collections.CollectionUtils;
@@ -17,14 +21,17 @@ import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -39,6 +46,7 @@ public class DashboardAuditController {
 
     private final HttpServletRequest httpServletRequest;
     private final DashboardAuditService dashboardAuditService;
+    private final ConditionalResponseUtility conditionalResponseUtility;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DashboardAuditController.class);
 
@@ -46,10 +54,12 @@ public class DashboardAuditController {
     protected ApiSettings settings;
 
     @Autowired
-    public DashboardAuditController(HttpServletRequest httpServletRequest, DashboardAuditService dashboardAuditService) {
+    public DashboardAuditController(HttpServletRequest httpServletRequest, DashboardAuditService dashboardAuditService,
+                                    ConditionalResponseUtility conditionalResponseUtility) {
 
 		this.httpServletRequest = httpServletRequest;
         this.dashboardAuditService = dashboardAuditService;
+        this.conditionalResponseUtility = conditionalResponseUtility;
 	}
 
     /**
@@ -62,7 +72,8 @@ public class DashboardAuditController {
      */
     @RequestMapping(value = "/dashboardReview", method = GET, produces = APPLICATION_JSON_VALUE)
 	@ApiOperation(value = "Dashboard Review", notes = "This endpoint validates that your artifact is meeting the quality gate threshold established in Sonar and returns an appropriate audit status based on whether the threshold has been met or not.", response = DashboardReviewResponse.class, responseContainer = "List")
-    public ResponseEntity<DashboardReviewResponse> dashboardReview(@Valid DashboardAuditRequest request) throws AuditException {
+    public ResponseEntity<MappingJacksonValue> dashboardReview(@Valid DashboardAuditRequest request) throws AuditException {
+        Class<?> view = getView(request.getView());
         request.setClientReference(httpServletRequest.getHeader(CommonConstants.HEADER_CLIENT_CORRELATION_ID));
         String requester = httpServletRequest.getHeader(CommonConstants.HEADER_API_USER);
         Map<String, String> data = new HashMap<>();
@@ -81,7 +92,9 @@ public class DashboardAuditController {
                 ", requester=" + requester + ", response_status=success, response_code=" + HttpStatus.OK.value()+", response_status_message="+response_message +", businessService="+request.getBusinessService()+
                 ", businessApplication=" + request.getBusinessApplication() + ", auditType=" + request_audit_types + ", " + ConversionUtils.flattenMap(httpServletRequest.getParameterMap()));
         dashboardReviewResponse.setClientReference(request.getClientReference());
-        return ResponseEntity.ok().body(dashboardReviewResponse);
+        MappingJacksonValue body = new MappingJacksonValue(dashboardReviewResponse);
+        body.setSerializationView(view);
+        return ResponseEntity.ok().body(body);
     }
 
     /**
@@ -118,10 +131,26 @@ public class DashboardAuditController {
      */
     @RequestMapping(value = "/lookUp", method = GET, produces = APPLICATION_JSON_VALUE)
     @ApiOperation(value = "Audit LookUp", notes = "Audit LookUp", response = JSONObject.class, responseContainer = "JSONObject")
-    public ResponseEntity<JSONObject> lookUp(@Valid DashboardAuditRequest request) throws AuditException {
+    public ResponseEntity<byte[]> lookUp(@Valid DashboardAuditRequest request) throws AuditException {
+        AuditReportVersion version = dashboardAuditService.getAuditReportVersion(request);
+        if (Objects.nonNull(version)) {
+            // only stored audit responses are tagged, responses built from cmdb when there is none are not
+            String eTag = conditionalResponseUtility.getETag(httpServletRequest, Arrays.asList(version.getId(), version.getTimestamp()));
+            ResponseEntity<byte[]> response = conditionalResponseUtility.respond(httpServletRequest, eTag, new HttpHeaders(),
+                    () -> dashboardAuditService.getAuditResponse(version.getId()));
+            if (Objects.nonNull(response)) { return response; }
+        }
         JSONObject auditResponse = dashboardAuditService.getAuditReport(request);
-        return ResponseEntity.ok().body(auditResponse);
+        return conditionalResponseUtility.respond(auditResponse);
     }
 
+    /**
+     * Serialization view of the dashboard review, null for the full response
+     */
+    private static Class<?> getView(String view) throws AuditException {
+        if (StringUtils.isEmpty(view)) { return null; }
+        if (ProjectionRequest.STATUS_VIEW.equalsIgnoreCase(view)) { return AuditViews.Status.class; }
+        throw new AuditException("Unknown view " + view, AuditException.BAD_INPUT_DATA);
+    }
 }
 
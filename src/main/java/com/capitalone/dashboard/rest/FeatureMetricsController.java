@@ -9,6 +9,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
@@ -27,62 +28,70 @@ public class FeatureMetricsController {
     }
 
     @RequestMapping(value = "/metrics/component/{componentName}", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<ComponentFeatureMetrics> getComponentMetrics(@Valid @PathVariable String componentName) {
-        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetrics(componentName);
+    public ResponseEntity<ComponentFeatureMetrics> getComponentMetrics(@Valid @PathVariable String componentName,
+                                                                       @RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
+        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetrics(componentName, live);
         return ResponseEntity.ok().body(featureMetrics);
     }
 
 
     @RequestMapping(value = "/metrics/component/{componentName}/metric/{metricName}", method = GET, produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<ComponentFeatureMetrics> getComponentMetricByType(@Valid @PathVariable String componentName,
-                                                                            @Valid @PathVariable String metricName){
-        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetricByType(componentName, metricName);
+                                                                            @Valid @PathVariable String metricName,
+                                                                            @RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
+        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetricByType(componentName, metricName, live);
 
         return ResponseEntity.ok().body(featureMetrics);
     }
 
     @RequestMapping(value = "metrics/application/{applicationName}", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<ProductFeatureMetrics> getProductMetrics(@Valid @PathVariable String applicationName){
+    public ResponseEntity<ProductFeatureMetrics> getProductMetrics(@Valid @PathVariable String applicationName,
+                                                                   @RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
 
-        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetrics(applicationName);
+        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetrics(applicationName, live);
         return ResponseEntity.ok(productFeatureMetrics);
     }
 
     @RequestMapping(value = "metrics/application/{applicationName}/metric/{metricName}", method = GET, produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<ProductFeatureMetrics> getProductMetricsByType(@Valid @PathVariable String applicationName
-                                                                         ,@Valid @PathVariable String metricName){
+                                                                         ,@Valid @PathVariable String metricName
+                                                                         ,@RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
 
-        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetricsByType(applicationName,metricName);
+        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetricsByType(applicationName,metricName, live);
         return ResponseEntity.ok(productFeatureMetrics);
     }
 
     @RequestMapping(value = "metrics/lob/{lobName}", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<LobFeatureMetrics> getLobMetrics(@Valid @PathVariable String lobName){
+    public ResponseEntity<LobFeatureMetrics> getLobMetrics(@Valid @PathVariable String lobName,
+                                                           @RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
 
-        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetrics(lobName);
+        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetrics(lobName, live);
         return ResponseEntity.ok(lobFeatureMetrics);
     }
 
     @RequestMapping(value = "metrics/lob/{lobName}/metric/{type}", method = GET, produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<LobFeatureMetrics> getLobMetricsByType(@Valid @PathVariable String lobName,
-                                                                 @Valid @PathVariable String type){
+                                                                 @Valid @PathVariable String type,
+                                                                 @RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
 
-        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetricsByType(lobName,type );
+        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetricsByType(lobName,type, live);
         return ResponseEntity.ok(lobFeatureMetrics);
     }
 
     @RequestMapping(value = "metrics/executive/{executiveName}", method = GET, produces = APPLICATION_JSON_VALUE)
-    public ResponseEntity<ExecutiveFeatureMetrics> getExecutiveMetrics(@Valid @PathVariable String executiveName){
+    public ResponseEntity<ExecutiveFeatureMetrics> getExecutiveMetrics(@Valid @PathVariable String executiveName,
+                                                                       @RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
 
-        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetrics(executiveName);
+        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetrics(executiveName, live);
         return ResponseEntity.ok(executiveFeatureMetrics);
     }
 
     @RequestMapping(value = "metrics/executive/{executiveName}/metric/{type}", method = GET, produces = APPLICATION_JSON_VALUE)
     public ResponseEntity<ExecutiveFeatureMetrics> getExecutiveMetricsByType(@Valid @PathVariable String executiveName,
-                                                                             @Valid @PathVariable String type){
+                                                                             @Valid @PathVariable String type,
+                                                                             @RequestParam(value = "live", required = false, defaultValue = "false") boolean live) {
 
-        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetricsByType(executiveName, type);
+        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetricsByType(executiveName, type, live);
         return ResponseEntity.ok(executiveFeatureMetrics);
     }
 }
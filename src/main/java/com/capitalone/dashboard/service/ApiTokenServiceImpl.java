@@ -1,5 +1,6 @@
 package com.capitalone.dashboard.service;
 
+import com.capitalone.dashboard.ApiSettings;
 import com.capitalone.dashboard.logging.LoggingFilter;
 import com.capitalone.dashboard.misc.HygieiaException;
 import com.capitalone.dashboard.model.ApiToken;
@@ -8,7 +9,11 @@ import com.capitalone.dashboard.repository.ApiTokenRepository;
 import com.capitalone.dashboard.util.Encryption;
 import com.capitalone.dashboard.util.EncryptionException;
 import com.capitalone.dashboard.util.UnsafeDeleteException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.bson.types.ObjectId;
@@ -19,25 +24,80 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class ApiTokenServiceImpl implements ApiTokenService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ApiTokenServiceImpl.class);
 
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
     private ApiTokenRepository apiTokenRepository;
 
+    /**
+     * Successful authentications by api user and a keyed digest of the api key, so the key itself is not kept.
+     * Entries are dropped after apiTokenCacheTtlSeconds, once the token expires, or when a token of the user is
+     * updated or deleted.
+     */
+    private final Cache<CredentialKey, Long> authenticated;
+    private final ThreadLocal<Mac> digests;
+    // bumped before cached authentications are dropped, so an authentication that read a token before the drop
+    // does not cache it after
+    private final AtomicLong evictions = new AtomicLong();
+    private final ScheduledExecutorService statsExecutor;
+
     @Autowired
-    public ApiTokenServiceImpl(ApiTokenRepository apiTokenRepository) {
+    public ApiTokenServiceImpl(ApiTokenRepository apiTokenRepository, ApiSettings settings) {
         this.apiTokenRepository = apiTokenRepository;
+        if (settings.getApiTokenCacheTtlSeconds() > 0 && settings.getApiTokenCacheMaxSize() > 0) {
+            this.authenticated = CacheBuilder.newBuilder()
+                    .maximumSize(settings.getApiTokenCacheMaxSize())
+                    .expireAfterWrite(settings.getApiTokenCacheTtlSeconds(), TimeUnit.SECONDS)
+                    .recordStats()
+                    .build();
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            SecretKeySpec digestKey = new SecretKeySpec(key, DIGEST_ALGORITHM);
+            this.digests = ThreadLocal.withInitial(() -> newDigest(digestKey));
+        } else {
+            this.authenticated = null;
+            this.digests = null;
+        }
+
+        long interval = settings.getApiTokenCacheStatsLogIntervalSeconds();
+        if (authenticated != null && interval > 0) {
+            this.statsExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("api-token-cache-stats-%d").setDaemon(true).build());
+            this.statsExecutor.scheduleWithFixedDelay(this::logAuthenticationCacheStats, interval, interval, TimeUnit.SECONDS);
+        } else {
+            this.statsExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (statsExecutor != null) {
+            statsExecutor.shutdownNow();
+        }
     }
 
 	public Collection<ApiToken> getApiTokens() {
@@ -63,19 +123,31 @@ public class ApiTokenServiceImpl implements ApiTokenService {
 
     @Override
     public org.springframework.security.core.Authentication authenticate(String username, String password) {
+        CredentialKey credentialKey = (authenticated == null) ? null : new CredentialKey(username, digest(password));
+        if (credentialKey != null) {
+            Long expirationDt = authenticated.getIfPresent(credentialKey);
+            if (expirationDt != null) {
+                if (isUnexpired(expirationDt)) {
+                    return createAuthentication(username, password);
+                }
+                authenticated.invalidate(credentialKey);
+            }
+        }
+
+        long evicted = evictions.get();
         List<ApiToken> apiTokens = apiTokenRepository.findByApiUser(username);
         for(ApiToken apiToken : apiTokens) {
             if (username.equalsIgnoreCase(apiToken.getApiUser())) {
                 if (apiToken.checkApiKey(password)) {
-                    Date sysdate = Calendar.getInstance().getTime();
-                    Date expDt = new Date(apiToken.getExpirationDt());
-                    if (compareDates(sysdate, expDt) <= 0) {
-
-                        Collection<UserRole> roles = new ArrayList<>();
-                        roles.add(UserRole.ROLE_API);
-
-                        return new UsernamePasswordAuthenticationToken(username,
-                            password, createAuthorities(roles));
+                    if (isUnexpired(apiToken.getExpirationDt())) {
+                        if (credentialKey != null) {
+                            authenticated.put(credentialKey, apiToken.getExpirationDt());
+                            // a token updated or deleted since it was read must not stay cached
+                            if (evictions.get() != evicted) {
+                                authenticated.invalidate(credentialKey);
+                            }
+                        }
+                        return createAuthentication(username, password);
                     }
                 }
             }
@@ -91,6 +163,7 @@ public class ApiTokenServiceImpl implements ApiTokenService {
             throw new UnsafeDeleteException("Cannot delete token " + Objects.requireNonNull(apiToken).getApiUser());
         }else{
             apiTokenRepository .delete(apiToken);
+            evict(apiToken.getApiUser());
         }
     }
     @Override
@@ -102,10 +175,54 @@ public class ApiTokenServiceImpl implements ApiTokenService {
 
             apiToken.setExpirationDt(expirationDt);
             apiTokenRepository.save(apiToken);
+            evict(apiToken.getApiUser());
         }
 
         return apiToken.getId().toString();
     }
+    /**
+     * @return hits, misses and evictions of the authentication cache, empty when the cache is disabled
+     */
+    public CacheStats getAuthenticationCacheStats() {
+        return (authenticated == null) ? new CacheStats(0, 0, 0, 0, 0, 0) : authenticated.stats();
+    }
+
+    void logAuthenticationCacheStats() {
+        CacheStats stats = getAuthenticationCacheStats();
+        LOGGER.info("Api token authentication cache :: size=" + authenticated.size() + " hitRate=" + stats.hitRate()
+                + " hits=" + stats.hitCount() + " misses=" + stats.missCount() + " evictions=" + stats.evictionCount());
+    }
+
+    // drops the cached authentications of the user, whichever api key they were made with
+    private void evict(String apiUser) {
+        if (authenticated == null) { return; }
+        evictions.incrementAndGet();
+        authenticated.asMap().keySet().removeIf(key -> key.apiUser.equalsIgnoreCase(apiUser));
+        LOGGER.debug("Evicted cached authentications of " + apiUser + " :: size=" + authenticated.size());
+    }
+
+    private String digest(String apiKey) {
+        return Base64.getEncoder().encodeToString(digests.get().doFinal(String.valueOf(apiKey).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Mac newDigest(SecretKeySpec digestKey) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(digestKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to create " + DIGEST_ALGORITHM + " digest", e);
+        }
+    }
+
+    private org.springframework.security.core.Authentication createAuthentication(String username, String password) {
+        Collection<UserRole> roles = new ArrayList<>();
+        roles.add(UserRole.ROLE_API);
+
+        return new UsernamePasswordAuthenticationToken(username,
+            password, createAuthorities(roles));
+    }
+
     private Collection<? extends GrantedAuthority> createAuthorities(Collection<UserRole> authorities) {
         Collection<GrantedAuthority> grantedAuthorities = new HashSet<>();
         authorities.forEach(authority -> grantedAuthorities.add(new SimpleGrantedAuthority(authority.name())));
@@ -113,6 +230,13 @@ public class ApiTokenServiceImpl implements ApiTokenService {
         return grantedAuthorities;
     }
 
+    // cached and stored tokens expire alike
+    private static boolean isUnexpired(long expirationDt) {
+        Date sysdate = Calendar.getInstance().getTime();
+        Date expDt = new Date(expirationDt);
+        return compareDates(sysdate, expDt) <= 0;
+    }
+
     /**
      *
      * @param argA firstDate
@@ -138,4 +262,27 @@ public class ApiTokenServiceImpl implements ApiTokenService {
 
         return retVal;
     }
+
+    private static final class CredentialKey {
+        private final String apiUser;
+        private final String apiKeyDigest;
+
+        CredentialKey(String apiUser, String apiKeyDigest) {
+            this.apiUser = apiUser;
+            this.apiKeyDigest = apiKeyDigest;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CredentialKey that = (CredentialKey) o;
+            return apiUser.equals(that.apiUser) && apiKeyDigest.equals(that.apiKeyDigest);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(apiUser, apiKeyDigest);
+        }
+    }
 }
\ No newline at end of file
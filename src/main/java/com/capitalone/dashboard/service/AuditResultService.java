@@ -1,28 +1,83 @@
 package com.capitalone.dashboard.service;
 
+import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.AuditResult;
+import com.capitalone.dashboard.model.AuditResultSummary;
 import com.capitalone.dashboard.model.AuditType;
+import com.capitalone.dashboard.request.ProjectionRequest;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.List;
+import java.util.Set;
 
 public interface AuditResultService {
 
-    AuditResult getAuditResult(ObjectId id);
+    /**
+     * Fields of the audit results to read, all of them when the set is empty
+     *
+     * @throws AuditException for an unknown view or field
+     */
+    Set<String> getFields(ProjectionRequest projection) throws AuditException;
+
+    AuditResult getAuditResult(ObjectId id, Set<String> fields);
+
+    /**
+     * Audit results with the given ids, in the order of the ids. Ids without an audit result are left out.
+     */
+    List<AuditResult> getAuditResults(List<ObjectId> ids, Set<String> fields);
+
+    Page<AuditResult> getAuditResultsAll(Pageable pageable, Set<String> fields);
+
+    Page<AuditResult> getAuditResultsByAuditType(AuditType auditType, Pageable pageable, Set<String> fields);
+
+    Iterable<AuditResult> getAuditResultsByDBoardTitle(String title, Set<String> fields);
+
+    Iterable<AuditResult> getAuditResultsByDBoardTitleAndAuditType(String title, AuditType auditType, Set<String> fields);
+
+    Iterable<AuditResult> getAuditResultsByServAndAppNames(String configItemBusServName, String configItemBusAppName, Set<String> fields);
+
+    Iterable<AuditResult> getAuditResultsByServAndAppNamesAndAuditType(String configItemBusServName, String configItemBusAppName, AuditType auditType, Set<String> fields);
+
+    Page<AuditResult> getAuditResultsByLineOfBusAndAuditType(String lineOfBusiness, AuditType auditType, Pageable pageable, Set<String> fields);
+
+    Page<AuditResult> getAuditResultsByLineOfBus(String lineOfBusiness, Pageable pageable, Set<String> fields);
+
+    /*
+     * Keyset pages ordered by id, each starting after the given id (null for the first page)
+     */
+
+    Slice<AuditResult> getAuditResultsAll(ObjectId after, int size, Set<String> fields);
+
+    Slice<AuditResult> getAuditResultsByAuditType(AuditType auditType, ObjectId after, int size, Set<String> fields);
 
-    Page<AuditResult> getAuditResultsAll(Pageable pageable);
+    Slice<AuditResult> getAuditResultsByDBoardTitle(String title, ObjectId after, int size, Set<String> fields);
 
-    Page<AuditResult> getAuditResultsByAuditType(AuditType auditType, Pageable pageable);
+    Slice<AuditResult> getAuditResultsByDBoardTitleAndAuditType(String title, AuditType auditType, ObjectId after, int size, Set<String> fields);
 
-    Iterable<AuditResult> getAuditResultsByDBoardTitle(String title);
+    Slice<AuditResult> getAuditResultsByServAndAppNames(String configItemBusServName, String configItemBusAppName, ObjectId after, int size, Set<String> fields);
 
-    Iterable<AuditResult> getAuditResultsByDBoardTitleAndAuditType(String title, AuditType auditType);
+    Slice<AuditResult> getAuditResultsByServAndAppNamesAndAuditType(String configItemBusServName, String configItemBusAppName, AuditType auditType,
+                                                                    ObjectId after, int size, Set<String> fields);
 
-    Iterable<AuditResult> getAuditResultsByServAndAppNames(String configItemBusServName, String configItemBusAppName);
+    Slice<AuditResult> getAuditResultsByLineOfBusAndAuditType(String lineOfBusiness, AuditType auditType, ObjectId after, int size, Set<String> fields);
 
-    Iterable<AuditResult> getAuditResultsByServAndAppNamesAndAuditType(String configItemBusServName, String configItemBusAppName, AuditType auditType);
+    Slice<AuditResult> getAuditResultsByLineOfBus(String lineOfBusiness, ObjectId after, int size, Set<String> fields);
 
-    Page<AuditResult> getAuditResultsByLineOfBusAndAuditType(String lineOfBusiness, AuditType auditType, Pageable pageable);
+    /**
+     * Reads the audit results matching the filters from a database cursor, in no particular order.
+     * Filters left null are not applied, the iterator has to be closed.
+     *
+     * @param timestampAfter only audit results with a later timestamp, the latest timestamp of the last complete export
+     */
+    CloseableIterator<AuditResult> streamAuditResults(AuditType auditType, String lineOfBusiness, Long timestampAfter, Set<String> fields);
 
-    Page<AuditResult> getAuditResultsByLineOfBus(String lineOfBusiness, Pageable pageable);
+    /**
+     * Counts and latest timestamps of the audit results per line of business, audit type and audit status.
+     * Filters left null are not applied, summaries are cached for auditResultSummaryCacheTtlSeconds.
+     */
+    List<AuditResultSummary> getAuditResultSummary(String lineOfBusiness, AuditType auditType);
 }
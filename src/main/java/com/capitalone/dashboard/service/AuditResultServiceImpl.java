@@ -1,67 +1,298 @@
 package com.capitalone.dashboard.service;
 
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.AuditException;
 import com.capitalone.dashboard.model.AuditResult;
+import com.capitalone.dashboard.model.AuditResultSummary;
 import com.capitalone.dashboard.model.AuditType;
-import com.capitalone.dashboard.repository.AuditResultRepository;
+import com.capitalone.dashboard.request.ProjectionRequest;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reads audit results with MongoTemplate queries, so the fields a client asks for are projected by the database
+ */
 @Component
 public class AuditResultServiceImpl implements AuditResultService{
 
-    @Autowired
-    private AuditResultRepository auditResultRepository;
+    // smallest id, the first keyset page starts after it
+    private static final ObjectId FIRST = new ObjectId(new byte[12]);
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private static final String ID = "id";
+    private static final String AUDIT_TYPE = "auditType";
+    private static final String DASHBOARD_TITLE = "dashboardTitle";
+    private static final String CONFIG_ITEM_BUS_SERV_NAME = "configItemBusServName";
+    private static final String CONFIG_ITEM_BUS_APP_NAME = "configItemBusAppName";
+    private static final String LINE_OF_BUSINESS = "lineOfBusiness";
+    private static final String TIMESTAMP = "timestamp";
+    private static final String AUDIT_STATUS = "auditStatus";
+    private static final String COUNT = "count";
+    private static final String LATEST_TIMESTAMP = "latestTimestamp";
+
+    // what status only clients need to tell the audit results apart
+    static final Set<String> STATUS_FIELDS = ImmutableSet.of(DASHBOARD_TITLE, LINE_OF_BUSINESS, CONFIG_ITEM_BUS_SERV_NAME, CONFIG_ITEM_BUS_APP_NAME,
+            AUDIT_TYPE, "auditTypeStatus", AUDIT_STATUS, TIMESTAMP);
+
+    private final MongoTemplate mongoTemplate;
+
+    private final ApiSettings apiSettings;
+
+    // summaries by line of business and audit type filter, null when auditResultSummaryCacheTtlSeconds or auditResultSummaryCacheMaxSize is 0
+    private final Cache<List<Object>, List<AuditResultSummary>> summaries;
 
     @Autowired
-    public AuditResultServiceImpl(AuditResultRepository auditResultRepository){
-        this.auditResultRepository = auditResultRepository;
+    public AuditResultServiceImpl(MongoTemplate mongoTemplate, ApiSettings apiSettings){
+        this.mongoTemplate = mongoTemplate;
+        this.apiSettings = apiSettings;
+        this.summaries = (apiSettings.getAuditResultSummaryCacheTtlSeconds() > 0 && apiSettings.getAuditResultSummaryCacheMaxSize() > 0)
+                ? CacheBuilder.newBuilder()
+                    .expireAfterWrite(apiSettings.getAuditResultSummaryCacheTtlSeconds(), TimeUnit.SECONDS)
+                    .maximumSize(apiSettings.getAuditResultSummaryCacheMaxSize())
+                    .build()
+                : null;
     }
 
     @Override
-    public AuditResult getAuditResult(ObjectId id){
-        return auditResultRepository.findById(id).get();
+    public Set<String> getFields(ProjectionRequest projection) throws AuditException {
+        Set<String> fields = new LinkedHashSet<>();
+        if (StringUtils.isNotEmpty(projection.getView())) {
+            if (!ProjectionRequest.STATUS_VIEW.equalsIgnoreCase(projection.getView())) {
+                throw new AuditException("Unknown view " + projection.getView(), AuditException.BAD_INPUT_DATA);
+            }
+            fields.addAll(STATUS_FIELDS);
+        }
+        if (StringUtils.isNotEmpty(projection.getFields())) {
+            List<String> requested = Arrays.stream(projection.getFields().split(",")).map(String::trim).filter(StringUtils::isNotEmpty).collect(Collectors.toList());
+            for (String field : requested) {
+                if (ReflectionUtils.findField(AuditResult.class, field) == null) {
+                    throw new AuditException("Unknown audit result field " + field, AuditException.BAD_INPUT_DATA);
+                }
+            }
+            fields.addAll(requested);
+        }
+        return fields;
     }
 
     @Override
-    public Page<AuditResult> getAuditResultsAll(Pageable pageable) {
-        return auditResultRepository.findAll(pageable);
+    public AuditResult getAuditResult(ObjectId id, Set<String> fields){
+        AuditResult auditResult = mongoTemplate.findOne(project(new Query(Criteria.where(ID).is(id)), fields), AuditResult.class);
+        if (auditResult == null) {
+            throw new NoSuchElementException("No audit result " + id);
+        }
+        return auditResult;
     }
 
     @Override
-    public Page<AuditResult> getAuditResultsByAuditType(AuditType auditType, Pageable pageable) {
-        return auditResultRepository.findByAuditType(auditType, pageable);
+    public List<AuditResult> getAuditResults(List<ObjectId> ids, Set<String> fields) {
+        if (ids.isEmpty()) { return Collections.emptyList(); }
+        Map<ObjectId, AuditResult> byId = new HashMap<>();
+        find(new Query(Criteria.where(ID).in(ids)), fields).forEach(auditResult -> byId.put(auditResult.getId(), auditResult));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
     }
 
     @Override
-    public Iterable<AuditResult> getAuditResultsByDBoardTitle(String dashboardTitle){
-        return auditResultRepository.findByDashboardTitle(dashboardTitle);
+    public Page<AuditResult> getAuditResultsAll(Pageable pageable, Set<String> fields) {
+        return findPage(new Query(), pageable, fields);
     }
 
     @Override
-    public Iterable<AuditResult> getAuditResultsByDBoardTitleAndAuditType(String title, AuditType auditType) {
-        return auditResultRepository.findByDashboardTitleAndAuditType(title, auditType);
+    public Page<AuditResult> getAuditResultsByAuditType(AuditType auditType, Pageable pageable, Set<String> fields) {
+        return findPage(new Query(Criteria.where(AUDIT_TYPE).is(auditType)), pageable, fields);
     }
 
     @Override
-    public Iterable<AuditResult> getAuditResultsByServAndAppNames(String configItemBusServName, String configItemBusAppName) {
-        return auditResultRepository.findByConfigItemBusServNameAndConfigItemBusAppName(configItemBusServName, configItemBusAppName);
+    public Iterable<AuditResult> getAuditResultsByDBoardTitle(String dashboardTitle, Set<String> fields){
+        return find(new Query(Criteria.where(DASHBOARD_TITLE).is(dashboardTitle)), fields);
     }
 
     @Override
-    public Iterable<AuditResult> getAuditResultsByServAndAppNamesAndAuditType(String configItemBusServName, String configItemBusAppName, AuditType auditType) {
-        return auditResultRepository.findByConfigItemBusServNameAndConfigItemBusAppNameAndAuditType(configItemBusServName, configItemBusAppName, auditType);
+    public Iterable<AuditResult> getAuditResultsByDBoardTitleAndAuditType(String title, AuditType auditType, Set<String> fields) {
+        return find(new Query(Criteria.where(DASHBOARD_TITLE).is(title).and(AUDIT_TYPE).is(auditType)), fields);
     }
 
     @Override
-    public Page<AuditResult> getAuditResultsByLineOfBusAndAuditType(String lineOfBus, AuditType auditType, Pageable pageable) {
-        return auditResultRepository.findByLineOfBusinessAndAuditType(lineOfBus, auditType, pageable);
+    public Iterable<AuditResult> getAuditResultsByServAndAppNames(String configItemBusServName, String configItemBusAppName, Set<String> fields) {
+        return find(new Query(byServAndAppNames(configItemBusServName, configItemBusAppName)), fields);
     }
 
     @Override
-    public Page<AuditResult> getAuditResultsByLineOfBus(String lineOfBus, Pageable pageable) {
-        return auditResultRepository.findByLineOfBusiness(lineOfBus, pageable);
+    public Iterable<AuditResult> getAuditResultsByServAndAppNamesAndAuditType(String configItemBusServName, String configItemBusAppName, AuditType auditType,
+                                                                              Set<String> fields) {
+        return find(new Query(byServAndAppNames(configItemBusServName, configItemBusAppName).and(AUDIT_TYPE).is(auditType)), fields);
+    }
+
+    @Override
+    public Page<AuditResult> getAuditResultsByLineOfBusAndAuditType(String lineOfBus, AuditType auditType, Pageable pageable, Set<String> fields) {
+        return findPage(new Query(Criteria.where(LINE_OF_BUSINESS).is(lineOfBus).and(AUDIT_TYPE).is(auditType)), pageable, fields);
+    }
+
+    @Override
+    public Page<AuditResult> getAuditResultsByLineOfBus(String lineOfBus, Pageable pageable, Set<String> fields) {
+        return findPage(new Query(Criteria.where(LINE_OF_BUSINESS).is(lineOfBus)), pageable, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsAll(ObjectId after, int size, Set<String> fields) {
+        return findSlice(new Query(), after, size, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsByAuditType(AuditType auditType, ObjectId after, int size, Set<String> fields) {
+        return findSlice(new Query(Criteria.where(AUDIT_TYPE).is(auditType)), after, size, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsByDBoardTitle(String title, ObjectId after, int size, Set<String> fields) {
+        return findSlice(new Query(Criteria.where(DASHBOARD_TITLE).is(title)), after, size, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsByDBoardTitleAndAuditType(String title, AuditType auditType, ObjectId after, int size, Set<String> fields) {
+        return findSlice(new Query(Criteria.where(DASHBOARD_TITLE).is(title).and(AUDIT_TYPE).is(auditType)), after, size, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsByServAndAppNames(String configItemBusServName, String configItemBusAppName, ObjectId after, int size,
+                                                               Set<String> fields) {
+        return findSlice(new Query(byServAndAppNames(configItemBusServName, configItemBusAppName)), after, size, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsByServAndAppNamesAndAuditType(String configItemBusServName, String configItemBusAppName, AuditType auditType,
+                                                                           ObjectId after, int size, Set<String> fields) {
+        return findSlice(new Query(byServAndAppNames(configItemBusServName, configItemBusAppName).and(AUDIT_TYPE).is(auditType)), after, size, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsByLineOfBusAndAuditType(String lineOfBus, AuditType auditType, ObjectId after, int size, Set<String> fields) {
+        return findSlice(new Query(Criteria.where(LINE_OF_BUSINESS).is(lineOfBus).and(AUDIT_TYPE).is(auditType)), after, size, fields);
+    }
+
+    @Override
+    public Slice<AuditResult> getAuditResultsByLineOfBus(String lineOfBus, ObjectId after, int size, Set<String> fields) {
+        return findSlice(new Query(Criteria.where(LINE_OF_BUSINESS).is(lineOfBus)), after, size, fields);
+    }
+
+    @Override
+    public CloseableIterator<AuditResult> streamAuditResults(AuditType auditType, String lineOfBusiness, Long timestampAfter, Set<String> fields) {
+        Query query = new Query();
+        if (auditType != null) {
+            query.addCriteria(Criteria.where(AUDIT_TYPE).is(auditType));
+        }
+        if (StringUtils.isNotEmpty(lineOfBusiness)) {
+            query.addCriteria(Criteria.where(LINE_OF_BUSINESS).is(lineOfBusiness));
+        }
+        if (timestampAfter != null) {
+            query.addCriteria(Criteria.where(TIMESTAMP).gt(timestampAfter));
+        }
+        // no sort, so the cursor neither sorts in memory nor needs an index beyond the filters
+        return mongoTemplate.stream(project(query, fields).cursorBatchSize(EXPORT_BATCH_SIZE), AuditResult.class);
+    }
+
+    @Override
+    public List<AuditResultSummary> getAuditResultSummary(String lineOfBusiness, AuditType auditType) {
+        if (summaries == null) {
+            return aggregateSummary(lineOfBusiness, auditType);
+        }
+        try {
+            // concurrent misses of a filter wait for the one aggregation
+            return summaries.get(Arrays.asList(lineOfBusiness, auditType), () -> aggregateSummary(lineOfBusiness, auditType));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private List<AuditResultSummary> aggregateSummary(String lineOfBusiness, AuditType auditType) {
+        return mongoTemplate.aggregate(summaryAggregation(lineOfBusiness, auditType), AuditResult.class, AuditResultSummary.class).getMappedResults();
+    }
+
+    /**
+     * Counts and latest timestamps of the audit results grouped by line of business, audit type and audit status
+     */
+    static Aggregation summaryAggregation(String lineOfBusiness, AuditType auditType) {
+        Criteria criteria = new Criteria();
+        if (StringUtils.isNotEmpty(lineOfBusiness)) {
+            criteria.and(LINE_OF_BUSINESS).is(lineOfBusiness);
+        }
+        if (auditType != null) {
+            criteria.and(AUDIT_TYPE).is(auditType);
+        }
+        return Aggregation.newAggregation(
+                Aggregation.match(criteria),
+                Aggregation.group(LINE_OF_BUSINESS, AUDIT_TYPE, AUDIT_STATUS).count().as(COUNT).max(TIMESTAMP).as(LATEST_TIMESTAMP),
+                Aggregation.project(LINE_OF_BUSINESS, AUDIT_TYPE, AUDIT_STATUS, COUNT, LATEST_TIMESTAMP).andExclude("_id"),
+                Aggregation.sort(Sort.by(LINE_OF_BUSINESS, AUDIT_TYPE, AUDIT_STATUS)))
+                .withOptions(Aggregation.newAggregationOptions().allowDiskUse(true).build());
+    }
+
+    private static Criteria byServAndAppNames(String configItemBusServName, String configItemBusAppName) {
+        return Criteria.where(CONFIG_ITEM_BUS_SERV_NAME).is(configItemBusServName).and(CONFIG_ITEM_BUS_APP_NAME).is(configItemBusAppName);
+    }
+
+    private List<AuditResult> find(Query query, Set<String> fields) {
+        return mongoTemplate.find(project(query, fields), AuditResult.class);
+    }
+
+    private Page<AuditResult> findPage(Query query, Pageable pageable, Set<String> fields) {
+        List<AuditResult> auditResults = mongoTemplate.find(project(Query.of(query).with(pageable), fields), AuditResult.class);
+        return PageableExecutionUtils.getPage(auditResults, pageable, () -> mongoTemplate.count(query, AuditResult.class));
+    }
+
+    /**
+     * Keyset page of the given size sorted by id, at most auditResultMaxPageSize. One more audit result than the size
+     * is read to tell whether there is a next page.
+     */
+    private Slice<AuditResult> findSlice(Query query, ObjectId after, int size, Set<String> fields) {
+        int maxPageSize = (apiSettings.getAuditResultMaxPageSize() > 0) ? apiSettings.getAuditResultMaxPageSize() : Integer.MAX_VALUE;
+        Pageable pageable = PageRequest.of(0, Math.max(1, Math.min(size, maxPageSize)), Sort.by(Sort.Direction.ASC, ID));
+        query.addCriteria(Criteria.where(ID).gt((after == null) ? FIRST : after)).with(pageable.getSort()).limit(pageable.getPageSize() + 1);
+        List<AuditResult> auditResults = mongoTemplate.find(project(query, fields), AuditResult.class);
+        boolean hasNext = auditResults.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? auditResults.subList(0, pageable.getPageSize()) : auditResults, pageable, hasNext);
+    }
+
+    private static Query project(Query query, Set<String> fields) {
+        if (CollectionUtils.isNotEmpty(fields)) {
+            query.fields().include(fields.toArray(new String[0]));
+        }
+        return query;
     }
 }
@@ -5,8 +5,10 @@ import com.capitalone.dashboard.model.AuditType;
 import com.capitalone.dashboard.model.AutoDiscoverAuditType;
 import com.capitalone.dashboard.model.CollectorItem;
 import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.repository.AuditReportVersionRepository.AuditReportVersion;
 import com.capitalone.dashboard.request.DashboardAuditRequest;
 import com.capitalone.dashboard.response.DashboardReviewResponse;
+import org.bson.types.ObjectId;
 import org.json.simple.JSONObject;
 
 import java.util.List;
@@ -22,4 +24,14 @@ public interface DashboardAuditService {
     List<CollectorItem> getSonarProjects(String name);
 
     JSONObject getAuditReport(DashboardAuditRequest dashboardAuditRequest) throws AuditException;
+
+    /**
+     * Id and timestamp of the audit report {@link #getAuditReport(DashboardAuditRequest)} looks up, null when there is none
+     */
+    AuditReportVersion getAuditReportVersion(DashboardAuditRequest dashboardAuditRequest);
+
+    /**
+     * Stored audit response of the audit report, null when it has none
+     */
+    JSONObject getAuditResponse(ObjectId auditReportId);
 }
@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.service;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.AuditQueryCache;
 import com.capitalone.dashboard.evaluator.Evaluator;
 import com.capitalone.dashboard.logging.LoggingFilter;
 import com.capitalone.dashboard.model.AuditException;
@@ -17,6 +18,8 @@ import com.capitalone.dashboard.repository.CmdbRepository;
 import com.capitalone.dashboard.repository.CollectorItemRepository;
 import com.capitalone.dashboard.repository.DashboardRepository;
 import com.capitalone.dashboard.repository.AuditReportRepository;
+import com.capitalone.dashboard.repository.AuditReportVersionRepository;
+import com.capitalone.dashboard.repository.AuditReportVersionRepository.AuditReportVersion;
 import com.capitalone.dashboard.request.ArtifactAuditRequest;
 import com.capitalone.dashboard.request.DashboardAuditRequest;
 import com.capitalone.dashboard.response.AuditReviewResponse;
@@ -26,17 +29,28 @@ import com.capitalone.dashboard.status.AutoDiscoverAuditStatus;
 import com.capitalone.dashboard.status.DashboardAuditStatus;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections4.IterableUtils;
 import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
 import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -51,12 +65,17 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
     private final ApiSettings apiSettings;
     private final CollectorItemRepository collectorItemRepository;
     private final AuditReportRepository auditReportRepository;
+    private final AuditReportVersionRepository auditReportVersionRepository;
+    private final ExecutorService evaluatorExecutor;
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DashboardAuditServiceImpl.class);
+    // how often a queued evaluation is checked for having started
+    private static final long QUEUED_POLL_MILLIS = 100;
 
     @Autowired
     public DashboardAuditServiceImpl(DashboardRepository dashboardRepository, CmdbRepository cmdbRepository, DashboardAuditModel auditModel,
-                                     CollectorItemRepository collectorItemRepository, AuditReportRepository auditReportRepository, ApiSettings apiSettings) {
+                                     CollectorItemRepository collectorItemRepository, AuditReportRepository auditReportRepository,
+                                     AuditReportVersionRepository auditReportVersionRepository, ApiSettings apiSettings) {
 
         this.dashboardRepository = dashboardRepository;
         this.cmdbRepository = cmdbRepository;
@@ -64,6 +83,14 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
         this.apiSettings = apiSettings;
         this.collectorItemRepository = collectorItemRepository;
         this.auditReportRepository = auditReportRepository;
+        this.auditReportVersionRepository = auditReportVersionRepository;
+        this.evaluatorExecutor = Executors.newFixedThreadPool(Math.max(1, apiSettings.getEvaluatorThreadPoolSize()),
+                new ThreadFactoryBuilder().setNameFormat("audit-evaluator-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evaluatorExecutor.shutdownNow();
     }
 
     /**
@@ -87,7 +114,8 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
 
         DashboardReviewResponse dashboardReviewResponse = new DashboardReviewResponse();
 
-        Dashboard dashboard = getDashboard(dashboardTitle, dashboardType, businessService, businessApp);
+        AuditQueryCache queryCache = new AuditQueryCache();
+        Dashboard dashboard = queryCache.call(() -> getDashboard(dashboardTitle, dashboardType, businessService, businessApp));
         if (dashboard == null) {
             dashboardReviewResponse.addAuditStatus(DashboardAuditStatus.DASHBOARD_NOT_REGISTERED);
             return dashboardReviewResponse;
@@ -103,32 +131,122 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
             auditTypes.remove(AuditType.ALL);
         }
 
+        Map<AuditType, Evaluation<Collection<?>>> evaluations = new EnumMap<>(AuditType.class);
         auditTypes.forEach(auditType -> {
-            Evaluator evaluator = auditModel.evaluatorMap().get(auditType);
-            try {
-                Map<String, String> evaluatorData = new HashMap<>();
-                if(auditType == AuditType.FEATURE_TEST){
-                    evaluatorData.put("identifierVersion", (String)data.get("identifierVersion"));
-                    evaluatorData.put("featureTestThreshold",(String)data.get("featureTestThreshold"));
-                }
-                Collection<AuditReviewResponse> auditResponse = evaluator.evaluate(dashboard, beginDate, endDate, evaluatorData, altIdentifier, identifierName);
-                if(auditType == AuditType.AUTO_DISCOVER){
-                    setAutoDiscoverAuditResponse(autoDiscoverAuditType, dashboardReviewResponse, auditType, auditResponse);
-                }else{
-                    dashboardReviewResponse.addReview(auditType, auditResponse);
-                    dashboardReviewResponse.addAuditStatus(auditModel.successStatusMap().get(auditType));
-                }
+            Evaluator<?> evaluator = auditModel.evaluatorMap().get(auditType);
+            Map<String, String> evaluatorData = new HashMap<>();
+            if(auditType == AuditType.FEATURE_TEST){
+                evaluatorData.put("identifierVersion", (String)data.get("identifierVersion"));
+                evaluatorData.put("featureTestThreshold",(String)data.get("featureTestThreshold"));
+            }
+            evaluations.put(auditType, submitEvaluation(() -> queryCache.call(() -> evaluator.evaluate(dashboard, beginDate, endDate, evaluatorData, altIdentifier, identifierName))));
+        });
 
-            } catch (AuditException e) {
-                if (e.getErrorCode() == AuditException.NO_COLLECTOR_ITEM_CONFIGURED) {
-                    dashboardReviewResponse.addAuditStatus(auditModel.errorStatusMap().get(auditType));
+        try {
+            for (Map.Entry<AuditType, Evaluation<Collection<?>>> evaluation : evaluations.entrySet()) {
+                AuditType auditType = evaluation.getKey();
+                try {
+                    Collection<?> auditResponse = awaitEvaluation(auditType, evaluation.getValue());
+                    if(auditType == AuditType.AUTO_DISCOVER){
+                        setAutoDiscoverAuditResponse(autoDiscoverAuditType, dashboardReviewResponse, auditType, auditResponse);
+                    }else{
+                        dashboardReviewResponse.addReview(auditType, auditResponse);
+                        dashboardReviewResponse.addAuditStatus(auditModel.successStatusMap().get(auditType));
+                    }
+
+                } catch (AuditException e) {
+                    handleEvaluationError(dashboardReviewResponse, auditType, e);
                 }
             }
-        });
+        } finally {
+            evaluations.values().forEach(evaluation -> evaluation.future.cancel(true));
+        }
+        queryCache.logStatistics(dashboard.getTitle());
         return dashboardReviewResponse;
     }
 
-    private void setAutoDiscoverAuditResponse(AutoDiscoverAuditType autoDiscoverAuditType, DashboardReviewResponse dashboardReviewResponse, AuditType auditType, Collection<AuditReviewResponse> auditResponse) {
+    /**
+     * Evaluator task on the evaluator pool, with the time it was submitted and the time it started running (0 while
+     * it waits in the queue)
+     */
+    private static final class Evaluation<T> {
+        private final long submittedAt = System.currentTimeMillis();
+        private final AtomicLong startedAt = new AtomicLong();
+        private Future<T> future;
+    }
+
+    private <T> Evaluation<T> submitEvaluation(Callable<T> evaluator) {
+        Evaluation<T> evaluation = new Evaluation<>();
+        evaluation.future = evaluatorExecutor.submit(() -> {
+            evaluation.startedAt.set(System.currentTimeMillis());
+            return evaluator.call();
+        });
+        return evaluation;
+    }
+
+    /**
+     * Waits for an evaluator submitted to the evaluator pool. An evaluator may wait evaluatorTimeoutSeconds in the
+     * queue behind the evaluators of concurrent reviews, it is cancelled when it has not started by then, and may run
+     * evaluatorTimeoutSeconds once started. Checked failures are unwrapped so callers can keep mapping them to audit
+     * statuses, unchecked failures are rethrown as if the evaluator had run inline.
+     *
+     * @param auditType the audit type being evaluated
+     * @param evaluation the pending evaluation
+     * @return the evaluator response
+     * @throws AuditException when the evaluator failed, did not start or did not finish within evaluatorTimeoutSeconds
+     */
+    private <T> T awaitEvaluation(AuditType auditType, Evaluation<T> evaluation) throws AuditException {
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(apiSettings.getEvaluatorTimeoutSeconds());
+        try {
+            if (timeoutMillis <= 0) {
+                return evaluation.future.get();
+            }
+            while (true) {
+                long startedAt = evaluation.startedAt.get();
+                long wait = (startedAt == 0)
+                        ? Math.min(QUEUED_POLL_MILLIS, evaluation.submittedAt + timeoutMillis - System.currentTimeMillis())
+                        : startedAt + timeoutMillis - System.currentTimeMillis();
+                try {
+                    return evaluation.future.get(Math.max(0, wait), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    if (startedAt != 0) { throw e; }
+                    if (evaluation.startedAt.get() == 0 && System.currentTimeMillis() - evaluation.submittedAt >= timeoutMillis) {
+                        evaluation.future.cancel(true);
+                        LOGGER.warn(auditType + " evaluation did not start within " + apiSettings.getEvaluatorTimeoutSeconds() + " seconds");
+                        throw new AuditException(auditType + " evaluation timed out waiting for an evaluator thread", AuditException.EVALUATION_TIMEOUT);
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof AuditException) {
+                throw (AuditException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (TimeoutException e) {
+            evaluation.future.cancel(true);
+            LOGGER.warn(auditType + " evaluation did not complete within " + apiSettings.getEvaluatorTimeoutSeconds() + " seconds");
+            throw new AuditException(auditType + " evaluation timed out", AuditException.EVALUATION_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            evaluation.future.cancel(true);
+            throw new AuditException(auditType + " evaluation interrupted", e, AuditException.EVALUATION_TIMEOUT);
+        }
+    }
+
+    private void handleEvaluationError(DashboardReviewResponse dashboardReviewResponse, AuditType auditType, AuditException e) {
+        if (e.getErrorCode() == AuditException.NO_COLLECTOR_ITEM_CONFIGURED) {
+            dashboardReviewResponse.addAuditStatus(auditModel.errorStatusMap().get(auditType));
+        } else if (e.getErrorCode() == AuditException.EVALUATION_TIMEOUT) {
+            dashboardReviewResponse.setErrorMessage(StringUtils.isEmpty(dashboardReviewResponse.getErrorMessage()) ? e.getMessage()
+                    : dashboardReviewResponse.getErrorMessage() + "; " + e.getMessage());
+        }
+    }
+
+    private void setAutoDiscoverAuditResponse(AutoDiscoverAuditType autoDiscoverAuditType, DashboardReviewResponse dashboardReviewResponse, AuditType auditType, Collection<?> auditResponse) {
         AutoDiscoverAuditResponse autoDiscoverAuditResponse = (AutoDiscoverAuditResponse) Iterables.get(auditResponse,0);
         AutoDiscoverAuditResponse modified = new AutoDiscoverAuditResponse();
         if(autoDiscoverAuditResponse.getAuditStatuses().contains(AutoDiscoverAuditStatus.AUTO_DISCOVER_EVIDENCES_NOT_FOUND)){
@@ -251,7 +369,8 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
         validateArtifactParameters(dashboardAuditRequest.getArtifactAuditRequest());
         // Get all artifacts configured to dashboard
         DashboardReviewResponse dashboardReviewResponse = new DashboardReviewResponse();
-        Dashboard dashboard = getDashboard(dashboardAuditRequest.getTitle(), DashboardType.Team, businessService, businessApp);
+        AuditQueryCache queryCache = new AuditQueryCache();
+        Dashboard dashboard = queryCache.call(() -> getDashboard(dashboardAuditRequest.getTitle(), DashboardType.Team, businessService, businessApp));
         if (dashboard == null) {
             dashboardReviewResponse.addAuditStatus(DashboardAuditStatus.DASHBOARD_NOT_REGISTERED);
             return dashboardReviewResponse;
@@ -266,18 +385,27 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
             auditTypes.remove(AuditType.ALL);
         }
 
+        Map<AuditType, Evaluation<Collection<?>>> evaluations = new EnumMap<>(AuditType.class);
         auditTypes.forEach(auditType -> {
-            Evaluator evaluator = auditModel.evaluatorMap().get(auditType);
-            try {
-                Collection<AuditReviewResponse> auditResponse = evaluator.evaluateNextGen(dashboardAuditRequest.getArtifactAuditRequest(), dashboard, beginDate, endDate, null);
-                dashboardReviewResponse.addReview(auditType, auditResponse);
-                dashboardReviewResponse.addAuditStatus(auditModel.successStatusMap().get(auditType));
-            } catch (AuditException e) {
-                if (e.getErrorCode() == AuditException.NO_COLLECTOR_ITEM_CONFIGURED) {
-                    dashboardReviewResponse.addAuditStatus(auditModel.errorStatusMap().get(auditType));
+            Evaluator<?> evaluator = auditModel.evaluatorMap().get(auditType);
+            evaluations.put(auditType, submitEvaluation(() -> queryCache.call(() -> evaluator.evaluateNextGen(dashboardAuditRequest.getArtifactAuditRequest(), dashboard, beginDate, endDate, null))));
+        });
+
+        try {
+            for (Map.Entry<AuditType, Evaluation<Collection<?>>> evaluation : evaluations.entrySet()) {
+                AuditType auditType = evaluation.getKey();
+                try {
+                    Collection<?> auditResponse = awaitEvaluation(auditType, evaluation.getValue());
+                    dashboardReviewResponse.addReview(auditType, auditResponse);
+                    dashboardReviewResponse.addAuditStatus(auditModel.successStatusMap().get(auditType));
+                } catch (AuditException e) {
+                    handleEvaluationError(dashboardReviewResponse, auditType, e);
                 }
             }
-        });
+        } finally {
+            evaluations.values().forEach(evaluation -> evaluation.future.cancel(true));
+        }
+        queryCache.logStatistics(dashboard.getTitle());
         return dashboardReviewResponse;
 
     }
@@ -326,6 +454,28 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
         }
     }
 
+    @Override
+    public AuditReportVersion getAuditReportVersion(DashboardAuditRequest dashboardAuditRequest) {
+        AuditType auditType = Objects.isNull(dashboardAuditRequest.getAuditType()) ? null : dashboardAuditRequest.getAuditType().iterator().next();
+        AuditReportVersion version = auditReportVersionRepository.findTop1ByBusinessApplicationAndBusinessServiceAndAuditTypeAndIdentifierNameAndIdentifierVersionAndIdentifierUrlOrderByTimestampDesc(
+                dashboardAuditRequest.getBusinessApplication(), dashboardAuditRequest.getBusinessService(), auditType, dashboardAuditRequest.getIdentifierName(),
+                dashboardAuditRequest.getIdentifierVersion(), dashboardAuditRequest.getIdentifierUrl());
+        if (Objects.isNull(version)) {
+            version = auditReportVersionRepository.findTop1ByAuditTypeAndIdentifierNameAndIdentifierVersionAndIdentifierUrlOrderByTimestampDesc(auditType,
+                    dashboardAuditRequest.getIdentifierName(), dashboardAuditRequest.getIdentifierVersion(), dashboardAuditRequest.getIdentifierUrl());
+        }
+        return version;
+    }
+
+    @Override
+    public JSONObject getAuditResponse(ObjectId auditReportId) {
+        return auditReportRepository.findById(auditReportId)
+                .map(AuditReport::getAuditResponse)
+                .filter(auditResponse -> !ObjectUtils.isEmpty(auditResponse))
+                .map(JSONObject.class::cast)
+                .orElse(null);
+    }
+
     private JSONObject createLookupResponseWhenEmpty(DashboardAuditStatus dashboardAuditStatus, String businessApplication, String businessService){
         JSONObject auditResponse = new JSONObject();
         auditResponse.put("businessApplication", businessApplication);
@@ -391,7 +541,7 @@ public class DashboardAuditServiceImpl implements DashboardAuditService {
     private Dashboard getDashboard(String title, DashboardType type, String busServ, String busApp) throws
             AuditException {
         if (!StringUtils.isEmpty(title) && (type != null)) {
-            return dashboardRepository.findByTitleAndType(title, type);
+            return AuditQueryCache.fetch("dashboardRepository.findByTitleAndType", () -> dashboardRepository.findByTitleAndType(title, type), title, type);
 
         } else if (!StringUtils.isEmpty(busServ) && !StringUtils.isEmpty(busApp)) {
             Cmdb busServItem = cmdbRepository.findByConfigurationItemAndItemType(busServ, "app");
@@ -0,0 +1,224 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.ComponentFeatureMetrics;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.FeatureMetricRollup;
+import com.capitalone.dashboard.model.Widget;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.ComponentRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.FeatureMetricRollupRepository;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the feature_metric_rollups collection up to date for every team dashboard.
+ *
+ * A refresh only recomputes the metrics of a component when its fingerprint changed, that is its widgets, the
+ * collector items behind them or the lastUpdated of those collector items, or when its rollup is older than
+ * featureMetricRollupMaxAgeSeconds. The age limit also picks up data the fingerprint does not cover, such as stories.
+ * Rollups of dashboards that no longer exist are removed.
+ */
+@Component
+public class FeatureMetricRollupRefresher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureMetricRollupRefresher.class);
+    // bump when the feature metrics computation changes so stored rollups are recomputed
+    private static final String VERSION = "1";
+    private static final List<CollectorType> COLLECTOR_TYPES = Arrays.asList(CollectorType.CodeQuality, CollectorType.Test, CollectorType.Build);
+
+    private final FeatureMetricsService featureMetricsService;
+    private final FeatureMetricRollupRepository featureMetricRollupRepository;
+    private final DashboardRepository dashboardRepository;
+    private final ComponentRepository componentRepository;
+    private final CollectorItemRepository collectorItemRepository;
+    private final ApiSettings settings;
+    private final ScheduledExecutorService refreshExecutor;
+
+    private final AtomicLong recomputed = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private volatile long lastRefreshed;
+    private volatile long lastRefreshDuration;
+
+    @Autowired
+    public FeatureMetricRollupRefresher(FeatureMetricsService featureMetricsService, FeatureMetricRollupRepository featureMetricRollupRepository,
+                                        DashboardRepository dashboardRepository, ComponentRepository componentRepository,
+                                        CollectorItemRepository collectorItemRepository, ApiSettings settings) {
+        this.featureMetricsService = featureMetricsService;
+        this.featureMetricRollupRepository = featureMetricRollupRepository;
+        this.dashboardRepository = dashboardRepository;
+        this.componentRepository = componentRepository;
+        this.collectorItemRepository = collectorItemRepository;
+        this.settings = settings;
+
+        long interval = settings.getFeatureMetricRollupRefreshIntervalSeconds();
+        if (interval > 0) {
+            this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("feature-metric-rollup-%d").setDaemon(true).build());
+            // components without a rollup are computed on request until the first refresh stored them
+            this.refreshExecutor.scheduleWithFixedDelay(this::pollRefresh, 0, interval, TimeUnit.SECONDS);
+        } else {
+            this.refreshExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Recomputes the rollups of the team dashboards that changed since the last refresh
+     */
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        Map<String, FeatureMetricRollup> stored = new HashMap<>();
+        featureMetricRollupRepository.findAll().forEach(rollup -> stored.put(rollup.getId(), rollup));
+
+        String settingsFingerprint = settingsFingerprint();
+        long maxAge = TimeUnit.SECONDS.toMillis(settings.getFeatureMetricRollupMaxAgeSeconds());
+        Set<String> titles = new HashSet<>();
+        List<FeatureMetricRollup> changed = new ArrayList<>();
+        int skipped = 0;
+        for (Dashboard dashboard : dashboardRepository.findAllByType(DashboardType.Team)) {
+            String title = dashboard.getTitle();
+            if (title == null || !titles.add(title)) { continue; }
+
+            String fingerprint = fingerprint(dashboard, settingsFingerprint);
+            FeatureMetricRollup rollup = stored.get(title);
+            if (rollup != null && fingerprint.equals(rollup.getFingerprint()) && (maxAge <= 0 || start - rollup.getTimestamp() < maxAge)) {
+                skipped++;
+                continue;
+            }
+            try {
+                ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetrics(title, true);
+                FeatureMetricRollup updated = new FeatureMetricRollup();
+                updated.setId(title);
+                updated.setName(featureMetrics.getName());
+                updated.setMetrics(rollupMetrics(featureMetrics.getMetrics()));
+                updated.setFingerprint(fingerprint);
+                updated.setTimestamp(System.currentTimeMillis());
+                changed.add(updated);
+            } catch (RuntimeException e) {
+                // keep serving the previous rollup, the next refresh retries
+                LOGGER.warn("Unable to compute feature metrics of " + title, e);
+            }
+        }
+        if (!changed.isEmpty()) {
+            featureMetricRollupRepository.saveAll(changed);
+        }
+        List<FeatureMetricRollup> removed = stored.values().stream().filter(rollup -> !titles.contains(rollup.getId())).collect(Collectors.toList());
+        if (!removed.isEmpty()) {
+            featureMetricRollupRepository.deleteAll(removed);
+        }
+
+        recomputed.addAndGet(changed.size());
+        unchanged.addAndGet(skipped);
+        lastRefreshed = start;
+        lastRefreshDuration = System.currentTimeMillis() - start;
+        LOGGER.debug("Refreshed feature metric rollups :: recomputed=" + changed.size() + " unchanged=" + skipped
+                + " removed=" + removed.size() + " duration=" + lastRefreshDuration + "ms");
+    }
+
+    public long getRecomputed() {
+        return recomputed.get();
+    }
+
+    public long getUnchanged() {
+        return unchanged.get();
+    }
+
+    public long getLastRefreshed() {
+        return lastRefreshed;
+    }
+
+    public long getLastRefreshDuration() {
+        return lastRefreshDuration;
+    }
+
+    /**
+     * Digest of what the feature metrics of a dashboard are computed from: its widgets, the collector items of their
+     * components and when those were last updated
+     */
+    private String fingerprint(Dashboard dashboard, String settingsFingerprint) {
+        List<String> values = new ArrayList<>();
+        values.add(settingsFingerprint);
+        values.add((dashboard.getApplication() == null) ? null : dashboard.getApplication().getName());
+
+        List<ObjectId> componentIds = new ArrayList<>();
+        for (Widget widget : Optional.ofNullable(dashboard.getWidgets()).orElseGet(Collections::emptyList)) {
+            values.add(widget.getName() + ':' + widget.getComponentId() + ':' + new TreeSet<>(Optional.ofNullable(widget.getOptions()).orElseGet(Collections::emptyMap).entrySet().stream()
+                    .map(String::valueOf).collect(Collectors.toList())));
+            if (widget.getComponentId() != null) {
+                componentIds.add(widget.getComponentId());
+            }
+        }
+
+        Set<ObjectId> collectorItemIds = new HashSet<>();
+        if (!componentIds.isEmpty()) {
+            componentRepository.findAllById(componentIds).forEach(component -> COLLECTOR_TYPES.forEach(type ->
+                    Optional.ofNullable(component.getCollectorItems().get(type)).orElseGet(Collections::emptyList).stream()
+                            .map(CollectorItem::getId).filter(Objects::nonNull).forEach(collectorItemIds::add)));
+        }
+        Set<String> collectorItems = new TreeSet<>();
+        if (!collectorItemIds.isEmpty()) {
+            collectorItemRepository.findAllById(collectorItemIds).forEach(item -> collectorItems.add(item.getId() + ":" + item.getLastUpdated()));
+        }
+        values.add(collectorItems.toString());
+        return DigestUtils.md5DigestAsHex(values.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // the metrics of a component are maps keyed by metric type
+    private static List<Map<String, Object>> rollupMetrics(List<?> metrics) {
+        if (metrics == null) return null;
+        List<Map<String, Object>> rollupMetrics = new ArrayList<>();
+        for (Object metric : metrics) {
+            Map<String, Object> rollupMetric = new HashMap<>();
+            ((Map<?, ?>) metric).forEach((key, value) -> rollupMetric.put(String.valueOf(key), value));
+            rollupMetrics.add(rollupMetric);
+        }
+        return rollupMetrics;
+    }
+
+    private String settingsFingerprint() {
+        return Arrays.asList(VERSION, settings.getBuildStageRegEx(), settings.getValidStoryStatus(), settings.getFeatureIDPattern()).toString();
+    }
+
+    private void pollRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Unable to refresh feature metric rollups", e);
+        }
+    }
+}
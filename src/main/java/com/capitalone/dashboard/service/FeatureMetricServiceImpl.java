@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.service;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
 import com.capitalone.dashboard.model.Build;
 import com.capitalone.dashboard.model.BuildStage;
 import com.capitalone.dashboard.model.Cmdb;
@@ -13,6 +14,7 @@ import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.model.DashboardType;
 import com.capitalone.dashboard.model.ExecutiveFeatureMetrics;
 import com.capitalone.dashboard.model.Feature;
+import com.capitalone.dashboard.model.FeatureMetricRollup;
 import com.capitalone.dashboard.model.LobFeatureMetrics;
 import com.capitalone.dashboard.model.ProductFeatureMetrics;
 import com.capitalone.dashboard.model.TestCapability;
@@ -21,19 +23,22 @@ import com.capitalone.dashboard.model.TestResult;
 import com.capitalone.dashboard.model.TestSuite;
 import com.capitalone.dashboard.model.TestSuiteType;
 import com.capitalone.dashboard.model.Widget;
-import com.capitalone.dashboard.repository.BuildRepository;
 import com.capitalone.dashboard.repository.CmdbRepository;
-import com.capitalone.dashboard.repository.CodeQualityRepository;
 import com.capitalone.dashboard.repository.ComponentRepository;
 import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.FeatureMetricRollupRepository;
 import com.capitalone.dashboard.repository.FeatureRepository;
-import com.capitalone.dashboard.repository.TestResultRepository;
+import com.capitalone.dashboard.repository.LatestRecordQuery;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.math.NumberUtils;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -42,14 +47,28 @@ import java.util.Comparator;
 import java.util.DoubleSummaryStatistics;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Component
 public class FeatureMetricServiceImpl implements FeatureMetricsService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeatureMetricServiceImpl.class);
+
     private static final String STR_COVERAGE = "CODE_COVERAGE";
 
     private static final String STR_ERRORRATE = "PERF_ERROR_RATE";
@@ -88,135 +107,137 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
 
     private static final String STR_EMPTY = "";
 
+    // time given to applications past the deadline to hand back the components they did evaluate
+    private static final long APPLICATION_GRACE_MILLIS = 500;
+
 
     private final DashboardRepository dashboardRepository;
 
     private final ComponentRepository componentRepository;
 
-    private final CodeQualityRepository codeQualityRepository;
-
-    private final TestResultRepository testResultRepository;
-
     private final CmdbRepository cmdbRepository;
 
     private final FeatureRepository featureRepository;
 
-    private final BuildRepository buildRepository;
+    private final FeatureMetricRollupRepository featureMetricRollupRepository;
+
+    private final LatestRecordQuery latestRecordQuery;
 
     private final ApiSettings apiSettings;
 
-    private static DecimalFormat df2 = new DecimalFormat("#.##");
+    private final PatternRegistry patternRegistry;
+
+    // DecimalFormat is not thread safe and components and applications are rolled up in parallel
+    private static final ThreadLocal<DecimalFormat> df2 = ThreadLocal.withInitial(() -> new DecimalFormat("#.##"));
+
+    private final ExecutorService metricsExecutor;
+
+    private final Semaphore applicationPermits;
 
 
     @Autowired
-    public FeatureMetricServiceImpl(DashboardRepository dashboardRepository, ComponentRepository componentRepository, CodeQualityRepository codeQualityRepository, TestResultRepository testResultRepository, CmdbRepository cmdbRepository, FeatureRepository featureRepository, BuildRepository buildRepository, ApiSettings apiSettings) {
+    public FeatureMetricServiceImpl(DashboardRepository dashboardRepository, ComponentRepository componentRepository, CmdbRepository cmdbRepository, FeatureRepository featureRepository, FeatureMetricRollupRepository featureMetricRollupRepository, LatestRecordQuery latestRecordQuery, ApiSettings apiSettings, PatternRegistry patternRegistry) {
         this.dashboardRepository = dashboardRepository;
         this.componentRepository = componentRepository;
-        this.codeQualityRepository = codeQualityRepository;
-        this.testResultRepository = testResultRepository;
         this.cmdbRepository = cmdbRepository;
         this.featureRepository = featureRepository;
-        this.buildRepository = buildRepository;
+        this.featureMetricRollupRepository = featureMetricRollupRepository;
+        this.latestRecordQuery = latestRecordQuery;
         this.apiSettings = apiSettings;
+        this.patternRegistry = patternRegistry;
+        int poolSize = apiSettings.getFeatureMetricsThreadPoolSize();
+        if (poolSize > 0) {
+            poolSize = Math.max(2, poolSize);
+            this.metricsExecutor = Executors.newFixedThreadPool(poolSize,
+                    new ThreadFactoryBuilder().setNameFormat("feature-metrics-%d").setDaemon(true).build());
+            // applications wait for their components on the same pool, so they never get all of its threads
+            this.applicationPermits = new Semaphore(Math.max(1, Math.min(apiSettings.getFeatureMetricsApplicationConcurrency(), poolSize - 1)));
+        } else {
+            this.metricsExecutor = null;
+            this.applicationPermits = new Semaphore(1);
+        }
     }
 
-
-    @Override
-    public ComponentFeatureMetrics getComponentFeatureMetrics(String name) {
-        ComponentFeatureMetrics featureMetrics = new ComponentFeatureMetrics();
-        Dashboard dashboard = dashboardRepository.findByTitleAndType(name, DashboardType.Team);
-        if(dashboard != null) {
-            List<HashMap> metrics = getMetrics(dashboard, null);
-
-            featureMetrics.setId(dashboard.getTitle());
-            featureMetrics.setType("Component");
-            featureMetrics.setName(dashboard.getApplication().getName());
-            featureMetrics.setMetrics(metrics);
-        }else{
-            featureMetrics.setName(name);
-            featureMetrics.setMessage("Component is not configured");
+    @PreDestroy
+    public void shutdown() {
+        if (metricsExecutor != null) {
+            metricsExecutor.shutdownNow();
         }
-        return featureMetrics;
     }
 
-    @Override
-    public ComponentFeatureMetrics getComponentFeatureMetricByType(String name, String type) {
 
-        ComponentFeatureMetrics featureMetrics = new ComponentFeatureMetrics();
-        Dashboard dashboard = dashboardRepository.findByTitleAndType(name, DashboardType.Team);
-        if(dashboard != null){
-            List<HashMap> metrics = getMetrics(dashboard, type);
-            featureMetrics.setId(dashboard.getTitle());
-            featureMetrics.setType("Component");
-            featureMetrics.setName(dashboard.getApplication().getName());
-            featureMetrics.setMetrics(metrics);
-        }else{
-            featureMetrics.setName(name);
-            featureMetrics.setMessage("Component is not configured");
-        }
+    @Override
+    public ComponentFeatureMetrics getComponentFeatureMetrics(String name, boolean live) {
+        return getComponentFeatureMetricByType(name, null, live);
+    }
 
-        return featureMetrics;
+    @Override
+    public ComponentFeatureMetrics getComponentFeatureMetricByType(String name, String type, boolean live) {
+        return getComponentMetricsSource(Collections.singletonList(name), type, live).apply(name);
     }
 
     @Override
-    public ProductFeatureMetrics getProductFeatureMetrics(String name) {
+    public ProductFeatureMetrics getProductFeatureMetrics(String name, boolean live) {
         ProductFeatureMetrics productFeatureMetrics = new ProductFeatureMetrics();
         Cmdb cmdb = cmdbRepository.findByConfigurationItemAndItemTypeAndValidConfigItem(name, "app", true);
-        List<String> components = cmdb.getComponents();
+        List<String> components = Optional.ofNullable(cmdb.getComponents()).orElseGet(Collections::emptyList);
+        Function<String, ComponentFeatureMetrics> componentMetrics = getComponentMetricsSource(components, null, live);
         List<ComponentFeatureMetrics> productComponent = new ArrayList<>();
-        Optional.ofNullable(components).orElseGet(Collections::emptyList)
-                .stream().forEach(component -> {productComponent.add(getComponentFeatureMetrics(component));});
+        components.stream().forEach(component -> {productComponent.add(componentMetrics.apply(component));});
 
         productFeatureMetrics.setId(name);
         productFeatureMetrics.setLob(cmdb.getOwnerDept());
         productFeatureMetrics.setName(cmdb.getCommonName());
         productFeatureMetrics.setType("application");
         productFeatureMetrics.setComponents(productComponent);
+        productFeatureMetrics.setRollupTimestamp(getOldestRollup(productComponent.stream().map(ComponentFeatureMetrics::getRollupTimestamp)));
 
 
         return productFeatureMetrics;
     }
 
     @Override
-    public ProductFeatureMetrics getProductFeatureMetricsByType(String name, String type) {
+    public ProductFeatureMetrics getProductFeatureMetricsByType(String name, String type, boolean live) {
         ProductFeatureMetrics productFeatureMetrics = new ProductFeatureMetrics();
         Cmdb cmdb = cmdbRepository.findByConfigurationItemAndItemTypeAndValidConfigItem(name,"app" ,true );
-        List<String> components = cmdb.getComponents();
+        List<String> components = Optional.ofNullable(cmdb.getComponents()).orElseGet(Collections::emptyList);
+        Function<String, ComponentFeatureMetrics> componentMetrics = getComponentMetricsSource(components, type, live);
         List<ComponentFeatureMetrics> productComponent = new ArrayList<>();
-        Optional.ofNullable(components).orElseGet(Collections::emptyList)
-                .stream().forEach(component -> {productComponent.add(getComponentFeatureMetricByType(component,type));});
+        components.stream().forEach(component -> {productComponent.add(componentMetrics.apply(component));});
         productFeatureMetrics.setId(name);
         productFeatureMetrics.setLob(cmdb.getOwnerDept());
         productFeatureMetrics.setName(cmdb.getCommonName());
         productFeatureMetrics.setType("application");
         productFeatureMetrics.setComponents(productComponent);
+        productFeatureMetrics.setRollupTimestamp(getOldestRollup(productComponent.stream().map(ComponentFeatureMetrics::getRollupTimestamp)));
 
 
         return productFeatureMetrics;
     }
 
     @Override
-    public LobFeatureMetrics getLobFeatureMetrics(String lob) {
+    public LobFeatureMetrics getLobFeatureMetrics(String lob, boolean live) {
         LobFeatureMetrics lobFeatureMetrics = new LobFeatureMetrics();
-        List<ProductFeatureMetrics> productFeatureMetrics = new ArrayList<>();
         List<Cmdb> cmdb = cmdbRepository.findByItemTypeAndOwnerDeptAndValidConfigItem("app", lob,true);
-        List<String> componentNames = new ArrayList<>();
-        cmdb.forEach(cmdb1 -> componentNames.add(cmdb1.getConfigurationItem()));
-        componentNames.forEach(componentName -> productFeatureMetrics.add(getProductFeatureMetrics(componentName)));
+        Function<String, ComponentFeatureMetrics> componentMetrics = getComponentMetricsSource(getComponents(cmdb), null, live);
+        long deadline = getMetricsDeadline();
+        List<ProductFeatureMetrics> productFeatureMetrics = fanOut(cmdb, cmdb1 -> newProductFeatureMetrics(cmdb1, getComponentMetrics(cmdb1, componentMetrics, deadline)),
+                applicationPermits, withGrace(deadline), this::timedOutProduct);
         lobFeatureMetrics.setName(lob);
         lobFeatureMetrics.setType("lob");
         lobFeatureMetrics.setApplications(productFeatureMetrics);
+        lobFeatureMetrics.setMessage(getIncompleteMessage(productFeatureMetrics));
+        lobFeatureMetrics.setRollupTimestamp(getOldestRollup(productFeatureMetrics.stream().map(ProductFeatureMetrics::getRollupTimestamp)));
 
 
         return lobFeatureMetrics;
     }
 
     @Override
-    public LobFeatureMetrics getLobFeatureMetricsByType(String lob, String type) {
+    public LobFeatureMetrics getLobFeatureMetricsByType(String lob, String type, boolean live) {
         LobFeatureMetrics lobFeatureMetrics = new LobFeatureMetrics();
-        List<ProductFeatureMetrics> productFeatureMetrics = new ArrayList<>();
         List<Cmdb> cmdb = cmdbRepository.findByItemTypeAndOwnerDeptAndValidConfigItem("app", lob,true);
-        cmdb.stream().forEach(cmdb1 -> productFeatureMetrics.add(getProductMetrics(cmdb1,type)));
+        List<ProductFeatureMetrics> productFeatureMetrics = getProductMetrics(cmdb, type, live);
         List<Double> percentages = productFeatureMetrics.stream().map(ProductFeatureMetrics::getPercentage).collect(Collectors.toList());
         List<Double> actualPercentage = new ArrayList<>();
         percentages.forEach(percentage -> {
@@ -227,31 +248,33 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         DoubleSummaryStatistics stats = actualPercentage.stream().mapToDouble((x) -> x).summaryStatistics();
         lobFeatureMetrics.setName(lob);
         lobFeatureMetrics.setType("lob");
-        lobFeatureMetrics.setPercentage(String.valueOf(df2.format(stats.getAverage())));
+        lobFeatureMetrics.setPercentage(String.valueOf(df2.get().format(stats.getAverage())));
         lobFeatureMetrics.setApplications(productFeatureMetrics);
+        lobFeatureMetrics.setMessage(getIncompleteMessage(productFeatureMetrics));
+        lobFeatureMetrics.setRollupTimestamp(getOldestRollup(productFeatureMetrics.stream().map(ProductFeatureMetrics::getRollupTimestamp)));
 
 
         return lobFeatureMetrics;
     }
 
     @Override
-    public ExecutiveFeatureMetrics getExecutiveFeatureMetrics(String name) {
+    public ExecutiveFeatureMetrics getExecutiveFeatureMetrics(String name, boolean live) {
         ExecutiveFeatureMetrics executiveFeatureMetrics = new ExecutiveFeatureMetrics();
         List<Cmdb> cmdb = cmdbRepository.findByBusinessOwnerAndItemTypeAndValidConfigItem(name, "app",true);
-        List<ProductFeatureMetrics> productFeatureMetrics = new ArrayList<>();
-        cmdb.stream().forEach(cmdb1 -> productFeatureMetrics.add(getProductMetrics(cmdb1,null)));
+        List<ProductFeatureMetrics> productFeatureMetrics = getProductMetrics(cmdb, null, live);
         executiveFeatureMetrics.setName(name);
         executiveFeatureMetrics.setType("executive");
         executiveFeatureMetrics.setApplications(productFeatureMetrics);
+        executiveFeatureMetrics.setMessage(getIncompleteMessage(productFeatureMetrics));
+        executiveFeatureMetrics.setRollupTimestamp(getOldestRollup(productFeatureMetrics.stream().map(ProductFeatureMetrics::getRollupTimestamp)));
         return executiveFeatureMetrics;
     }
 
     @Override
-    public ExecutiveFeatureMetrics getExecutiveFeatureMetricsByType(String name, String metricType) {
+    public ExecutiveFeatureMetrics getExecutiveFeatureMetricsByType(String name, String metricType, boolean live) {
         ExecutiveFeatureMetrics executiveFeatureMetrics = new ExecutiveFeatureMetrics();
         List<Cmdb> cmdb = cmdbRepository.findByBusinessOwnerAndItemTypeAndValidConfigItem(name, "app",true);
-        List<ProductFeatureMetrics> productFeatureMetrics = new ArrayList<>();
-        cmdb.stream().forEach(cmdb1 -> productFeatureMetrics.add(getProductMetrics(cmdb1,metricType)));
+        List<ProductFeatureMetrics> productFeatureMetrics = getProductMetrics(cmdb, metricType, live);
         List<Double> percentages = productFeatureMetrics.stream().map(ProductFeatureMetrics::getPercentage).collect(Collectors.toList());
         List<Double> actualPercentage = new ArrayList<>();
         percentages.forEach(percentage -> {
@@ -262,26 +285,38 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         DoubleSummaryStatistics stats = actualPercentage.stream().mapToDouble((x) -> x).summaryStatistics();
         executiveFeatureMetrics.setName(name);
         executiveFeatureMetrics.setType("executive");
-        executiveFeatureMetrics.setPercentage(df2.format(stats.getAverage()));
+        executiveFeatureMetrics.setPercentage(df2.get().format(stats.getAverage()));
         executiveFeatureMetrics.setApplications(productFeatureMetrics);
+        executiveFeatureMetrics.setMessage(getIncompleteMessage(productFeatureMetrics));
+        executiveFeatureMetrics.setRollupTimestamp(getOldestRollup(productFeatureMetrics.stream().map(ProductFeatureMetrics::getRollupTimestamp)));
         return executiveFeatureMetrics;
     }
 
+    /**
+     * Get product metrics of every application, within one feature metrics deadline
+     * @param cmdb
+     * @param type
+     * @param live
+     * @return product metrics in the order of the applications
+     */
+    private List<ProductFeatureMetrics> getProductMetrics(List<Cmdb> cmdb, String type, boolean live) {
+        Function<String, ComponentFeatureMetrics> componentMetrics = getComponentMetricsSource(getComponents(cmdb), type, live);
+        long deadline = getMetricsDeadline();
+        return fanOut(cmdb, cmdb1 -> getProductMetrics(cmdb1, type, componentMetrics, deadline), applicationPermits, withGrace(deadline), this::timedOutProduct);
+    }
+
     /**
      * Get product metrics
      * @param cmdb
      * @param type
+     * @param componentMetrics
+     * @param deadline
      * @return
      */
-    private ProductFeatureMetrics getProductMetrics(Cmdb cmdb,String type){
-        ProductFeatureMetrics productFeatureMetrics = new ProductFeatureMetrics();
+    private ProductFeatureMetrics getProductMetrics(Cmdb cmdb, String type, Function<String, ComponentFeatureMetrics> componentMetrics, long deadline){
         List<Double> percentages = new ArrayList<>();
-        List<String> components = cmdb.getComponents();
-        List<ComponentFeatureMetrics> productComponent = new ArrayList<>();
-        Optional.ofNullable(components).orElseGet(Collections::emptyList)
-                .stream().forEach(component -> {
-                    ComponentFeatureMetrics featureMetrics = getComponentFeatureMetricByType(component,type);
-                    productComponent.add(featureMetrics);
+        List<ComponentFeatureMetrics> productComponent = getComponentMetrics(cmdb, componentMetrics, deadline);
+        productComponent.forEach(featureMetrics ->
                     Optional.ofNullable(featureMetrics.getMetrics()).orElseGet(Collections ::emptyList).stream().forEach(metric-> {
                         if(metric.containsKey(type)){
                             Optional<HashMap<String,String>> percent = Optional.of((HashMap<String, String>) metric.get(type));
@@ -289,8 +324,7 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
                                 percentages.add(Double.parseDouble(percent.get().get(STR_PERCENTAGE)));
                             }
                         }
-                    });
-                });
+                    }));
         List<Double> actualPercentage = new ArrayList<>();
         percentages.forEach(percentage -> {
             if(!percentage.equals(Double.NaN)){
@@ -300,21 +334,217 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         });
         DoubleSummaryStatistics stats = actualPercentage.stream().mapToDouble((x) -> x).summaryStatistics();
 
-        productFeatureMetrics.setId(cmdb.getConfigurationItem());
-        productFeatureMetrics.setLob(cmdb.getOwnerDept());
-        productFeatureMetrics.setName(cmdb.getCommonName());
-        productFeatureMetrics.setType("application");
+        ProductFeatureMetrics productFeatureMetrics = newProductFeatureMetrics(cmdb, productComponent);
         if(actualPercentage.size() > 0){
-            productFeatureMetrics.setPercentage(Double.valueOf(df2.format(stats.getAverage())));
+            productFeatureMetrics.setPercentage(Double.valueOf(df2.get().format(stats.getAverage())));
         }else{
             productFeatureMetrics.setPercentage(Double.NaN);
         }
-        productFeatureMetrics.setComponents(productComponent);
 
 
         return productFeatureMetrics;
     }
 
+    /**
+     * Get component metrics of an application, at most featureMetricsComponentConcurrency components at a time
+     * @param cmdb
+     * @param componentMetrics
+     * @param deadline
+     * @return component metrics in the order of the application components
+     */
+    private List<ComponentFeatureMetrics> getComponentMetrics(Cmdb cmdb, Function<String, ComponentFeatureMetrics> componentMetrics, long deadline) {
+        List<String> components = Optional.ofNullable(cmdb.getComponents()).orElseGet(Collections::emptyList);
+        Semaphore componentPermits = new Semaphore(Math.max(1, apiSettings.getFeatureMetricsComponentConcurrency()));
+        return fanOut(components, componentMetrics, componentPermits, deadline, this::timedOutComponent);
+    }
+
+    /**
+     * Component metrics of the given components, served from their rollups unless live metrics are asked for or the
+     * rollups are disabled. The rollups are read with one query, components without a rollup are computed.
+     * @param components
+     * @param type
+     * @param live
+     * @return
+     */
+    private Function<String, ComponentFeatureMetrics> getComponentMetricsSource(Collection<String> components, String type, boolean live) {
+        if (live || apiSettings.getFeatureMetricRollupRefreshIntervalSeconds() <= 0) {
+            return component -> computeComponentFeatureMetrics(component, type);
+        }
+        Set<String> ids = components.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<String, FeatureMetricRollup> rollups = new HashMap<>();
+        if (!ids.isEmpty()) {
+            featureMetricRollupRepository.findAllById(ids).forEach(rollup -> rollups.put(rollup.getId(), rollup));
+        }
+        return component -> {
+            FeatureMetricRollup rollup = rollups.get(component);
+            return (rollup != null) ? fromRollup(rollup, type) : computeComponentFeatureMetrics(component, type);
+        };
+    }
+
+    private static ComponentFeatureMetrics fromRollup(FeatureMetricRollup rollup, String type) {
+        ComponentFeatureMetrics featureMetrics = new ComponentFeatureMetrics();
+        featureMetrics.setId(rollup.getId());
+        featureMetrics.setType("Component");
+        featureMetrics.setName(rollup.getName());
+        List<HashMap<String, Object>> metrics = Optional.ofNullable(rollup.getMetrics()).orElseGet(Collections::emptyList).stream()
+                .filter(metric -> (type == null) || metric.keySet().stream().anyMatch(type::equalsIgnoreCase))
+                .map(HashMap::new)
+                .collect(Collectors.toList());
+        featureMetrics.setMetrics(new ArrayList<>(metrics));
+        featureMetrics.setRollupTimestamp(rollup.getTimestamp());
+        return featureMetrics;
+    }
+
+    private ComponentFeatureMetrics computeComponentFeatureMetrics(String name, String type) {
+
+        ComponentFeatureMetrics featureMetrics = new ComponentFeatureMetrics();
+        Dashboard dashboard = dashboardRepository.findByTitleAndType(name, DashboardType.Team);
+        if(dashboard != null){
+            List<HashMap> metrics = getMetrics(dashboard, type);
+            featureMetrics.setId(dashboard.getTitle());
+            featureMetrics.setType("Component");
+            featureMetrics.setName(dashboard.getApplication().getName());
+            featureMetrics.setMetrics(metrics);
+        }else{
+            featureMetrics.setName(name);
+            featureMetrics.setMessage("Component is not configured");
+        }
+
+        return featureMetrics;
+    }
+
+    private static List<String> getComponents(List<Cmdb> cmdb) {
+        return cmdb.stream().map(Cmdb::getComponents).filter(Objects::nonNull).flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    // the oldest rollup a response was assembled from, null when it was computed live
+    private static Long getOldestRollup(Stream<Long> rollupTimestamps) {
+        return rollupTimestamps.filter(Objects::nonNull).min(Long::compare).orElse(null);
+    }
+
+    private ProductFeatureMetrics newProductFeatureMetrics(Cmdb cmdb, List<ComponentFeatureMetrics> productComponent) {
+        ProductFeatureMetrics productFeatureMetrics = new ProductFeatureMetrics();
+        productFeatureMetrics.setId(cmdb.getConfigurationItem());
+        productFeatureMetrics.setLob(cmdb.getOwnerDept());
+        productFeatureMetrics.setName(cmdb.getCommonName());
+        productFeatureMetrics.setType("application");
+        productFeatureMetrics.setComponents(productComponent);
+        productFeatureMetrics.setRollupTimestamp(getOldestRollup(productComponent.stream().map(ComponentFeatureMetrics::getRollupTimestamp)));
+        long incomplete = productComponent.stream().filter(component -> getTimeoutMessage().equals(component.getMessage())).count();
+        if (incomplete > 0) {
+            productFeatureMetrics.setMessage(incomplete + " of " + productComponent.size() + " components did not complete within "
+                    + apiSettings.getFeatureMetricsTimeoutSeconds() + " seconds");
+        }
+        return productFeatureMetrics;
+    }
+
+    private ProductFeatureMetrics timedOutProduct(Cmdb cmdb) {
+        ProductFeatureMetrics productFeatureMetrics = newProductFeatureMetrics(cmdb, new ArrayList<>());
+        productFeatureMetrics.setPercentage(Double.NaN);
+        productFeatureMetrics.setMessage(getTimeoutMessage());
+        return productFeatureMetrics;
+    }
+
+    private ComponentFeatureMetrics timedOutComponent(String name) {
+        ComponentFeatureMetrics featureMetrics = new ComponentFeatureMetrics();
+        featureMetrics.setName(name);
+        featureMetrics.setMessage(getTimeoutMessage());
+        return featureMetrics;
+    }
+
+    private String getTimeoutMessage() {
+        return "Feature metrics did not complete within " + apiSettings.getFeatureMetricsTimeoutSeconds() + " seconds";
+    }
+
+    private String getIncompleteMessage(List<ProductFeatureMetrics> applications) {
+        long incomplete = applications.stream().filter(application -> application.getMessage() != null).count();
+        if (incomplete == 0) {
+            return null;
+        }
+        String message = "Feature metrics of " + incomplete + " of " + applications.size() + " applications did not complete within "
+                + apiSettings.getFeatureMetricsTimeoutSeconds() + " seconds";
+        LOGGER.warn(message);
+        return message;
+    }
+
+    /**
+     * Evaluates every item, on the feature metrics pool when there is one, at most as many at a time as there are
+     * permits. Results are returned in the order of the items, items without a result by waitUntil are mapped with
+     * onTimeout.
+     */
+    private <T, R> List<R> fanOut(List<T> items, Function<T, R> evaluation, Semaphore permits, long waitUntil, Function<T, R> onTimeout) {
+        List<R> results = new ArrayList<>(items.size());
+        if (metricsExecutor == null) {
+            items.forEach(item -> results.add((System.currentTimeMillis() < waitUntil) ? evaluation.apply(item) : onTimeout.apply(item)));
+            return results;
+        }
+        List<Future<R>> evaluations = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                if (!permits.tryAcquire(remainingMillis(waitUntil), TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+                // done() also runs for a task cancelled before it started, so the permit is never lost
+                FutureTask<R> task = new FutureTask<R>(() -> evaluation.apply(item)) {
+                    @Override
+                    protected void done() {
+                        permits.release();
+                    }
+                };
+                evaluations.add(task);
+                metricsExecutor.execute(task);
+            }
+            for (int i = 0; i < items.size(); i++) {
+                R result = (i < evaluations.size()) ? awaitMetrics(evaluations.get(i), waitUntil) : null;
+                results.add((result != null) ? result : onTimeout.apply(items.get(i)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (int i = results.size(); i < items.size(); i++) {
+                results.add(onTimeout.apply(items.get(i)));
+            }
+        } finally {
+            evaluations.forEach(pending -> pending.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Waits for a pending evaluation until waitUntil. Unchecked failures are rethrown as if the evaluation had run
+     * inline.
+     *
+     * @return the result, or null when there is none by waitUntil
+     */
+    private static <R> R awaitMetrics(Future<R> evaluation, long waitUntil) throws InterruptedException {
+        try {
+            return evaluation.get(remainingMillis(waitUntil), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private long getMetricsDeadline() {
+        long timeoutSeconds = apiSettings.getFeatureMetricsTimeoutSeconds();
+        return (timeoutSeconds > 0) ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(timeoutSeconds) : Long.MAX_VALUE;
+    }
+
+    private static long withGrace(long deadline) {
+        return (deadline > Long.MAX_VALUE - APPLICATION_GRACE_MILLIS) ? deadline : deadline + APPLICATION_GRACE_MILLIS;
+    }
+
+    private static long remainingMillis(long waitUntil) {
+        return Math.max(0, waitUntil - System.currentTimeMillis());
+    }
+
 
     /**
      * Get metrics
@@ -379,9 +609,10 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         HashMap<String,String> deployScriptsPercentage = new HashMap<>();
 
         if(CollectionUtils.isNotEmpty(buildItems)){
+            Map<ObjectId, Build> latestBuilds = latestRecordQuery.findLatest(Build.class, buildItems);
             buildItems.forEach(collectorItemId -> {
 
-                Build build = buildRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(collectorItemId);
+                Build build = latestBuilds.get(collectorItemId);
                 if(build != null){
                     List<BuildStage> stages = build.getStages();
                     if (matchStage(stages, SUCCESS, apiSettings)) {
@@ -406,8 +637,8 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
     public boolean matchStage(List<BuildStage> stages, String status, ApiSettings settings) {
         boolean isMatch = false;
         if (CollectionUtils.isEmpty(settings.getBuildStageRegEx()) || CollectionUtils.isEmpty(stages)) return false;
-        for (String pattern : settings.getBuildStageRegEx()) {
-            if (stages.stream().filter(s -> Pattern.compile(pattern).matcher(s.getName()).find() && s.getStatus().equalsIgnoreCase(status)).findAny().isPresent()) {
+        for (Pattern pattern : patternRegistry.buildStage()) {
+            if (stages.stream().filter(s -> pattern.matcher(s.getName()).find() && s.getStatus().equalsIgnoreCase(status)).findAny().isPresent()) {
                 isMatch = true;
             }
         }
@@ -436,8 +667,9 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
                 featureList.stream().forEach(feature -> {
                     if(this.isValidStoryStatus(feature.getsStatus())){
                         totalCompletedList.add(feature.getsNumber());}});}
+                Map<ObjectId, TestResult> latestTestResults = latestRecordQuery.findLatest(TestResult.class, testItems);
                 testItems.forEach(collectorItemId -> {
-                    TestResult testResults = testResultRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(collectorItemId);
+                    TestResult testResults = latestTestResults.get(collectorItemId);
                     if((testResults != null) && (testResults.getType().equals(TestSuiteType.Functional))){
 
                          values.add((double) getTotalStoryIndicators(testResults).size());
@@ -445,7 +677,7 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
                 });
                 if(totalCompletedList.size()> NumberUtils.INTEGER_ZERO) {
                     double traceabilityPercentage = (values.size() * 100) / totalCompletedList.size();
-                    featureTestPercent.put(STR_PERCENTAGE, String.valueOf(df2.format(traceabilityPercentage)));
+                    featureTestPercent.put(STR_PERCENTAGE, String.valueOf(df2.get().format(traceabilityPercentage)));
                     traceability.put(STR_TRACEABILITY, featureTestPercent);
                 }else {
                     featureTestPercent.put("message", "Traceability Not Found");
@@ -465,7 +697,7 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
      */
     private  List<String> getTotalStoryIndicators(TestResult testResult) {
 
-        Pattern featureIdPattern = Pattern.compile(apiSettings.getFeatureIDPattern());
+        Pattern featureIdPattern = patternRegistry.featureId();
         List<String> totalStoryIndicatorList = new ArrayList<>();
         testResult.getTestCapabilities().stream()
                 .map(TestCapability::getTestSuites).flatMap(Collection::stream)
@@ -535,9 +767,10 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         HashMap<String,String> codeQualityPercent = new HashMap<>();
 
         if(CollectionUtils.isNotEmpty(codeQualityItemsIds)){
+            Map<ObjectId, CodeQuality> latestCodeQualities = latestRecordQuery.findLatest(CodeQuality.class, codeQualityItemsIds);
             codeQualityItemsIds.forEach(collectorItemId -> {
 
-                CodeQuality codeQualities = codeQualityRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(collectorItemId);
+                CodeQuality codeQualities = latestCodeQualities.get(collectorItemId);
                 if(codeQualities != null){
                     Set<CodeQualityMetric> javaCollection = codeQualities.getMetrics();
                     Optional.ofNullable(javaCollection)
@@ -573,8 +806,9 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         HashMap<String,HashMap<String,String>> perfErrorRate = new HashMap<>();
         HashMap<String,String> errorRatePercent = new HashMap<>();
         if(CollectionUtils.isNotEmpty(perfItems)){
+            Map<ObjectId, TestResult> latestTestResults = latestRecordQuery.findLatest(TestResult.class, perfItems);
             perfItems.forEach(collectorItemId -> {
-                TestResult perfTestResult = testResultRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(collectorItemId);
+                TestResult perfTestResult = latestTestResults.get(collectorItemId);
                 if((perfTestResult != null) && (perfTestResult.getType().equals(TestSuiteType.Performance))){
 
                     Collection<TestCapability> testCapabilities = perfTestResult.getTestCapabilities();
@@ -621,8 +855,9 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         HashMap<String,HashMap<String,String>> featureTestPass = new HashMap<>();
         HashMap<String,String> featureTestPercent = new HashMap<>();
         if(CollectionUtils.isNotEmpty(testItems)){
+            Map<ObjectId, TestResult> latestTestResults = latestRecordQuery.findLatest(TestResult.class, testItems);
             testItems.forEach(collectorItemId -> {
-                TestResult testResults = testResultRepository.findTop1ByCollectorItemIdOrderByTimestampDesc(collectorItemId);
+                TestResult testResults = latestTestResults.get(collectorItemId);
                 if((testResults != null) && (testResults.getType().equals(TestSuiteType.Functional))){
 
                     List<TestCapability> testCapabilities = testResults.getTestCapabilities().stream().collect(Collectors.toList());
@@ -667,7 +902,7 @@ public class FeatureMetricServiceImpl implements FeatureMetricsService {
         HashMap<String,String> featureTestPercent = new HashMap<>();
         if(values.size() > 0) {
             DoubleSummaryStatistics stats = values.stream().mapToDouble((x) -> x).summaryStatistics();
-            featureTestPercent.put(STR_PERCENTAGE, String.valueOf(df2.format(stats.getAverage())));
+            featureTestPercent.put(STR_PERCENTAGE, String.valueOf(df2.get().format(stats.getAverage())));
         }else {
             featureTestPercent.put("message", "NO DATA");
         }
@@ -8,21 +8,21 @@ import com.capitalone.dashboard.model.ProductFeatureMetrics;
 
 public interface FeatureMetricsService {
 
-    ComponentFeatureMetrics getComponentFeatureMetrics(String name);
+    ComponentFeatureMetrics getComponentFeatureMetrics(String name, boolean live);
 
-    ComponentFeatureMetrics getComponentFeatureMetricByType(String name, String type);
+    ComponentFeatureMetrics getComponentFeatureMetricByType(String name, String type, boolean live);
 
-    ProductFeatureMetrics getProductFeatureMetrics(String name);
+    ProductFeatureMetrics getProductFeatureMetrics(String name, boolean live);
 
-    ProductFeatureMetrics getProductFeatureMetricsByType(String name, String type);
+    ProductFeatureMetrics getProductFeatureMetricsByType(String name, String type, boolean live);
 
-    LobFeatureMetrics getLobFeatureMetrics(String lob);
+    LobFeatureMetrics getLobFeatureMetrics(String lob, boolean live);
 
-    LobFeatureMetrics getLobFeatureMetricsByType(String lob, String type);
+    LobFeatureMetrics getLobFeatureMetricsByType(String lob, String type, boolean live);
 
-    ExecutiveFeatureMetrics getExecutiveFeatureMetrics(String name);
+    ExecutiveFeatureMetrics getExecutiveFeatureMetrics(String name, boolean live);
 
-    ExecutiveFeatureMetrics getExecutiveFeatureMetricsByType(String name, String metricType);
+    ExecutiveFeatureMetrics getExecutiveFeatureMetricsByType(String name, String metricType, boolean live);
 
 
 }
@@ -1,6 +1,16 @@
 package com.capitalone.dashboard.service;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface LdapService {
 
     String getLdapDN(String userName);
+
+    /**
+     * Resolves the distinct logins together, with one UserEntitlements query and batched LDAP searches for the rest
+     *
+     * @return distinguished name by login, empty for logins without one
+     */
+    Map<String, String> getLdapDNs(Collection<String> userNames);
 }
@@ -1,127 +1,416 @@
 package com.capitalone.dashboard.service;
 
 import com.capitalone.dashboard.ApiSettings;
-import com.capitalone.dashboard.logging.LoggingFilter;
 import com.capitalone.dashboard.model.AuthType;
 import com.capitalone.dashboard.model.UserEntitlements;
+import com.capitalone.dashboard.repository.UserEntitlementsLookupRepository;
 import com.capitalone.dashboard.repository.UserEntitlementsRepository;
 import com.capitalone.dashboard.settings.AuthProperties;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.ldap.AuthenticationException;
+import org.springframework.ldap.NamingException;
+import org.springframework.ldap.core.AttributesMapper;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.support.LdapEncoder;
 import org.springframework.stereotype.Component;
 
-import javax.naming.AuthenticationException;
-import javax.naming.Context;
-import javax.naming.NamingEnumeration;
-import javax.naming.NamingException;
+import javax.annotation.PreDestroy;
 import javax.naming.directory.Attribute;
-import javax.naming.directory.InitialDirContext;
 import javax.naming.directory.SearchControls;
-import javax.naming.directory.SearchResult;
-import java.util.Properties;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
+/**
+ * Resolves the LDAP distinguished name of a login. Names are read from UserEntitlements, else searched in LDAP over
+ * the pooled connections of the {@link LdapTemplate} and saved to UserEntitlements.
+ *
+ * {@link #getLdapDNs} resolves many logins at once: one UserEntitlements query for all of them, then LDAP searches
+ * with an OR filter of up to ldapSearchBatchSize logins each, run on a pool of ldapSearchThreadPoolSize threads.
+ *
+ * Resolved names are kept in memory for ldapDnCacheTtlSeconds and logins LDAP does not know for
+ * ldapDnNegativeCacheTtlSeconds. Concurrent lookups of the same login share one search. Failed searches are not
+ * cached.
+ */
 @Component
 public class LdapServiceImpl implements LdapService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LdapServiceImpl.class);
 
     private final AuthProperties authProperties;
-    private final ApiSettings apiSettings;
     private final UserEntitlementsRepository userEntitlementsRepository;
+    private final UserEntitlementsLookupRepository userEntitlementsLookupRepository;
+    private final LdapTemplate ldapTemplate;
+    private final ExecutorService searchExecutor;
+    private final int searchBatchSize;
+    private final Cache<String, String> resolved;
+    private final Cache<String, Boolean> unknown;
+    // lookups in progress by login, shared by getLdapDN and getLdapDNs so a login is searched and saved once
+    private final ConcurrentMap<String, CompletableFuture<String>> lookups = new ConcurrentHashMap<>();
 
     private static final String ENTITLEMENT_TYPE = "distinguishedName";
+    private static final String USER_PRINCIPAL_NAME = "userPrincipalName";
+    private static final AttributesMapper<String> DN_MAPPER = attributes -> {
+        Attribute distNameAttr = attributes.get(ENTITLEMENT_TYPE);
+        return (distNameAttr == null || distNameAttr.get() == null) ? "" : distNameAttr.get().toString();
+    };
+    private static final AttributesMapper<String[]> PRINCIPAL_DN_MAPPER = attributes -> {
+        Attribute principalAttr = attributes.get(USER_PRINCIPAL_NAME);
+        String principal = (principalAttr == null || principalAttr.get() == null) ? "" : principalAttr.get().toString();
+        return new String[]{principal, DN_MAPPER.mapFromAttributes(attributes)};
+    };
 
     @Autowired
     public LdapServiceImpl(AuthProperties authProperties, ApiSettings apiSettings,
-                           UserEntitlementsRepository userEntitlementsRepository) {
+                           UserEntitlementsRepository userEntitlementsRepository,
+                           UserEntitlementsLookupRepository userEntitlementsLookupRepository, LdapTemplate ldapTemplate) {
         this.authProperties = authProperties;
-        this.apiSettings = apiSettings;
         this.userEntitlementsRepository = userEntitlementsRepository;
+        this.userEntitlementsLookupRepository = userEntitlementsLookupRepository;
+        this.ldapTemplate = ldapTemplate;
+        this.searchBatchSize = Math.max(1, apiSettings.getLdapSearchBatchSize());
+        this.searchExecutor = (apiSettings.getLdapSearchThreadPoolSize() > 0)
+                ? Executors.newFixedThreadPool(apiSettings.getLdapSearchThreadPoolSize(),
+                        new ThreadFactoryBuilder().setNameFormat("ldap-search-%d").setDaemon(true).build())
+                : null;
+        this.resolved = CacheBuilder.newBuilder()
+                .maximumSize(apiSettings.getLdapDnCacheMaxSize())
+                .expireAfterWrite(apiSettings.getLdapDnCacheTtlSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        this.unknown = CacheBuilder.newBuilder()
+                .maximumSize(apiSettings.getLdapDnCacheMaxSize())
+                .expireAfterWrite(apiSettings.getLdapDnNegativeCacheTtlSeconds(), TimeUnit.SECONDS)
+                .recordStats()
+                .build();
     }
 
     @Override
     public String getLdapDN(String userName) {
         String result = "";
         if(StringUtils.isEmpty(userName)) return result;
+        String cached = getCachedDN(userName);
+        if(cached != null) return cached;
+        try {
+            // concurrent callers for the same login wait for the first one's lookup
+            return resolved.get(userName, () -> lookup(userName));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof UnknownLoginException) {
+                unknown.put(userName, Boolean.TRUE);
+            }
+            return result;
+        }
+    }
+
+    @Override
+    public Map<String, String> getLdapDNs(Collection<String> userNames) {
+        Map<String, String> dns = new HashMap<>();
+        Set<String> pending = new LinkedHashSet<>();
+        for (String userName : userNames) {
+            if (StringUtils.isEmpty(userName) || dns.containsKey(userName)) continue;
+            String cached = getCachedDN(userName);
+            if (cached != null) {
+                dns.put(userName, cached);
+            } else {
+                pending.add(userName);
+            }
+        }
+        if (pending.isEmpty()) return dns;
+
+        // logins another caller is already looking up are waited for, the others are looked up here
+        Map<String, CompletableFuture<String>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<String>> running = new HashMap<>();
+        for (String userName : pending) {
+            CompletableFuture<String> lookup = new CompletableFuture<>();
+            CompletableFuture<String> other = lookups.putIfAbsent(userName, lookup);
+            if (other == null) {
+                owned.put(userName, lookup);
+            } else {
+                running.put(userName, other);
+            }
+        }
+        try {
+            lookupAll(owned, dns);
+        } finally {
+            owned.forEach((userName, lookup) -> {
+                lookup.completeExceptionally(new LookupFailedException());
+                lookups.remove(userName, lookup);
+            });
+        }
+        running.forEach((userName, lookup) -> {
+            try {
+                dns.put(userName, awaitLookup(lookup));
+            } catch (UnknownLoginException | LookupFailedException e) {
+                dns.put(userName, "");
+            }
+        });
+        return dns;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return hits and misses of resolved names
+     */
+    public CacheStats getResolvedCacheStats() {
+        return resolved.stats();
+    }
+
+    /**
+     * @return hits and misses of logins unknown to LDAP
+     */
+    public CacheStats getUnknownCacheStats() {
+        return unknown.stats();
+    }
+
+    // resolved DN, "" for a login LDAP does not know, null when the login is not cached
+    private String getCachedDN(String userName) {
+        String cached = resolved.getIfPresent(userName);
+        if (cached != null) return cached;
+        return (unknown.getIfPresent(userName) != null) ? "" : null;
+    }
+
+    // a stored record without entitlements marks a login LDAP does not know
+    private static boolean isKnownMiss(UserEntitlements entitlements) {
+        return StringUtils.isEmpty(entitlements.getEntitlements());
+    }
+
+    private String lookup(String userName) throws UnknownLoginException, LookupFailedException {
+        CompletableFuture<String> lookup = new CompletableFuture<>();
+        CompletableFuture<String> other = lookups.putIfAbsent(userName, lookup);
+        if (other != null) {
+            return awaitLookup(other);
+        }
+        try {
+            String entitlementValue = lookupStoredOrSearch(userName);
+            lookup.complete(entitlementValue);
+            return entitlementValue;
+        } catch (UnknownLoginException e) {
+            lookup.complete("");
+            throw e;
+        } finally {
+            lookup.completeExceptionally(new LookupFailedException());
+            lookups.remove(userName, lookup);
+        }
+    }
+
+    private String lookupStoredOrSearch(String userName) throws UnknownLoginException, LookupFailedException {
         UserEntitlements entitlements = userEntitlementsRepository.findTopByAuthTypeAndEntitlementTypeAndUsername(AuthType.LDAP, ENTITLEMENT_TYPE, userName);
-        if(entitlements != null) return entitlements.getEntitlements();
+        if(entitlements != null) {
+            if(isKnownMiss(entitlements)) throw new UnknownLoginException();
+            return entitlements.getEntitlements();
+        }
         try {
-            InitialDirContext context = createContext(setProperties());
-            String entitlementValue = getLdapDNValue(userName, context);
-            if(StringUtils.isEmpty(entitlementValue)) return entitlementValue; // avoid empty entitlements in DB
-            UserEntitlements newEntitlement = new UserEntitlements();
-            newEntitlement.setUsername(userName);
-            newEntitlement.setEntitlements(entitlementValue);
-            newEntitlement.setEntitlementType(ENTITLEMENT_TYPE);
-            newEntitlement.setAuthType(AuthType.LDAP);
-            userEntitlementsRepository.save(newEntitlement);
+            String entitlementValue = getLdapDNValue(userName);
+            if(StringUtils.isEmpty(entitlementValue)) throw new UnknownLoginException(); // avoid empty entitlements in DB
+            userEntitlementsRepository.save(newEntitlement(userName, entitlementValue));
             return entitlementValue;
 
         } catch (AuthenticationException ae) {
             LOGGER.error("LDAP bind credentials are incorrect", ae);
-            return result;
+            throw new LookupFailedException();
         } catch (NamingException ne) {
             LOGGER.error("Failed to query ldap for " + userName, ne);
-            return result;
+            throw new LookupFailedException();
         }
     }
 
-    private String getLdapDNValue(String searchId, InitialDirContext context) throws NamingException {
-
+    // the DN another caller's lookup resolved, as if it had been looked up here
+    private static String awaitLookup(CompletableFuture<String> lookup) throws UnknownLoginException, LookupFailedException {
+        String entitlementValue;
         try {
-            SearchControls ctrls = new SearchControls();
-            ctrls.setSearchScope(SearchControls.SUBTREE_SCOPE);
-
-            String searchBase = "";
-            String searchFilter = "";
-            searchBase = authProperties.getAdSvcRootDn();
-            searchFilter = "(&(objectClass=user)(userPrincipalName=" + searchId + "@" + authProperties.getAdDomain() + "))";
-
-            NamingEnumeration<SearchResult> results = context.search(searchBase, searchFilter, ctrls);
-            LOGGER.info(String.format("Searching LDAP searchBase=%s searchFilter=%s userKey=%s", searchBase, searchFilter, searchId));
-            // if searchId cannot be found in service accounts, then search in users
-            if(!results.hasMore()) {
-                results = context.search(authProperties.getAdUserRootDn(), searchFilter, ctrls);
-                LOGGER.info(String.format("retrying LDAP searchBase=%s searchFilter=%s userKey=%s", authProperties.getAdUserRootDn(), searchFilter, searchId));
-                if (!results.hasMore()) {
-                    LOGGER.warn(String.format("no result found LDAP searchBase=%s searchFilter=%s userKey=%s", authProperties.getAdUserRootDn(), searchFilter, searchId));
-                    return "";
+            entitlementValue = lookup.get();
+        } catch (ExecutionException e) {
+            throw new LookupFailedException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LookupFailedException();
+        }
+        if (StringUtils.isEmpty(entitlementValue)) throw new UnknownLoginException();
+        return entitlementValue;
+    }
+
+    /**
+     * Looks up the logins this caller owns: stored records first, then batched LDAP searches. Each lookup is completed
+     * with the DN, or "" for a login LDAP does not know, and failed searches complete nothing.
+     */
+    private void lookupAll(Map<String, CompletableFuture<String>> owned, Map<String, String> dns) {
+        if (owned.isEmpty()) return;
+        Set<String> pending = new LinkedHashSet<>(owned.keySet());
+        Set<String> knownMisses = new HashSet<>();
+        for (UserEntitlements entitlements : userEntitlementsLookupRepository.findByAuthTypeAndEntitlementTypeAndUsernameIn(AuthType.LDAP, ENTITLEMENT_TYPE, pending)) {
+            if (isKnownMiss(entitlements)) {
+                knownMisses.add(entitlements.getUsername());
+            } else if (pending.remove(entitlements.getUsername())) {
+                resolve(entitlements.getUsername(), entitlements.getEntitlements(), owned, dns);
+            }
+        }
+        for (String userName : knownMisses) {
+            if (pending.remove(userName)) {
+                resolve(userName, "", owned, dns);
+            }
+        }
+        if (pending.isEmpty()) return;
+
+        List<List<String>> batches = Lists.partition(new ArrayList<>(pending), searchBatchSize);
+        List<Future<Map<String, String>>> searches = batches.stream().map(this::submitSearch).collect(Collectors.toList());
+        List<UserEntitlements> newEntitlements = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            Map<String, String> found = awaitSearch(searches.get(i), batches.get(i));
+            for (String userName : batches.get(i)) {
+                if (found == null) {
+                    // failed searches are not cached
+                    dns.put(userName, "");
+                    continue;
+                }
+                String entitlementValue = found.getOrDefault(StringUtils.lowerCase(userName), "");
+                resolve(userName, entitlementValue, owned, dns);
+                if (StringUtils.isNotEmpty(entitlementValue)) {
+                    newEntitlements.add(newEntitlement(userName, entitlementValue));
                 }
             }
+        }
+        if (!newEntitlements.isEmpty()) {
+            userEntitlementsRepository.saveAll(newEntitlements);
+        }
+    }
 
-            SearchResult result = results.next();
-            Attribute distNameAttr = result.getAttributes().get("distinguishedName");
-            if (distNameAttr == null) return "";
-            return StringUtils.replace(distNameAttr.toString(), "distinguishedName: ", "");
-        } catch (Exception e) {
-            LOGGER.error("error occurred searching user=" + searchId + ", error_message=" + e.getMessage());
-        } finally {
-            context.close();
+    private void resolve(String userName, String entitlementValue, Map<String, CompletableFuture<String>> owned, Map<String, String> dns) {
+        if (StringUtils.isEmpty(entitlementValue)) {
+            unknown.put(userName, Boolean.TRUE);
+        } else {
+            resolved.put(userName, entitlementValue);
         }
-        return "";
+        dns.put(userName, entitlementValue);
+        owned.get(userName).complete(entitlementValue);
+    }
+
+    private static UserEntitlements newEntitlement(String userName, String entitlementValue) {
+        UserEntitlements newEntitlement = new UserEntitlements();
+        newEntitlement.setUsername(userName);
+        newEntitlement.setEntitlements(entitlementValue);
+        newEntitlement.setEntitlementType(ENTITLEMENT_TYPE);
+        newEntitlement.setAuthType(AuthType.LDAP);
+        return newEntitlement;
     }
 
+    private String getLdapDNValue(String searchId) {
+        SearchControls ctrls = new SearchControls();
+        ctrls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        ctrls.setCountLimit(1);
+        ctrls.setReturningAttributes(new String[]{ENTITLEMENT_TYPE});
+
+        String searchBase = authProperties.getAdSvcRootDn();
+        String searchFilter = "(&(objectClass=user)(userPrincipalName=" + LdapEncoder.filterEncode(searchId) + "@" + authProperties.getAdDomain() + "))";
 
-    private Properties setProperties() {
-        Properties props = new Properties();
+        LOGGER.info(String.format("Searching LDAP searchBase=%s searchFilter=%s userKey=%s", searchBase, searchFilter, searchId));
+        List<String> results = ldapTemplate.search(searchBase, searchFilter, ctrls, DN_MAPPER);
+        // if searchId cannot be found in service accounts, then search in users
+        if (results.isEmpty()) {
+            LOGGER.info(String.format("retrying LDAP searchBase=%s searchFilter=%s userKey=%s", authProperties.getAdUserRootDn(), searchFilter, searchId));
+            results = ldapTemplate.search(authProperties.getAdUserRootDn(), searchFilter, ctrls, DN_MAPPER);
+            if (results.isEmpty()) {
+                LOGGER.warn(String.format("no result found LDAP searchBase=%s searchFilter=%s userKey=%s", authProperties.getAdUserRootDn(), searchFilter, searchId));
+                return "";
+            }
+        }
+        return results.get(0);
+    }
+
+    private Future<Map<String, String>> submitSearch(List<String> userNames) {
+        FutureTask<Map<String, String>> search = new FutureTask<>(() -> searchBatch(userNames));
+        if (searchExecutor == null) {
+            search.run();
+        } else {
+            searchExecutor.execute(search);
+        }
+        return search;
+    }
+
+    // null when the search failed
+    private Map<String, String> awaitSearch(Future<Map<String, String>> search, List<String> userNames) {
         try {
-            props.put(Context.INITIAL_CONTEXT_FACTORY, apiSettings.getContextFactory());
-            props.put("java.naming.security.protocol", apiSettings.getContextProtocol());
-            props.put(Context.SECURITY_AUTHENTICATION, apiSettings.getContextSecurityAuthentication());
-            props.put("com.sun.jndi.ldap.connect.timeout", apiSettings.getContextConnectTimeout());
-            props.put(Context.PROVIDER_URL, authProperties.getAdUrl());
-            props.put(Context.SECURITY_PRINCIPAL, authProperties.getLdapBindUser() + "@" + authProperties.getAdDomain());
-            props.put(Context.SECURITY_CREDENTIALS, authProperties.getLdapBindPass());
-        } catch (Exception e) {
-            LOGGER.error("Failed to retrieve properties for InitialDirContext", e);
+            return search.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof AuthenticationException) {
+                LOGGER.error("LDAP bind credentials are incorrect", e.getCause());
+            } else {
+                LOGGER.error("Failed to query ldap for " + userNames, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            search.cancel(true);
+        }
+        return null;
+    }
+
+    // DNs found for the logins, by lower cased login, service accounts first and then users
+    private Map<String, String> searchBatch(List<String> userNames) {
+        Map<String, String> found = new HashMap<>();
+        searchBatch(authProperties.getAdSvcRootDn(), userNames, found);
+        List<String> rest = userNames.stream().filter(userName -> !found.containsKey(StringUtils.lowerCase(userName))).collect(Collectors.toList());
+        if (!rest.isEmpty()) {
+            searchBatch(authProperties.getAdUserRootDn(), rest, found);
         }
-        return props;
+        return found;
     }
 
-    private InitialDirContext createContext(Properties props) throws NamingException {
-        return new InitialDirContext(props);
+    private void searchBatch(String searchBase, List<String> userNames, Map<String, String> found) {
+        SearchControls ctrls = new SearchControls();
+        ctrls.setSearchScope(SearchControls.SUBTREE_SCOPE);
+        ctrls.setReturningAttributes(new String[]{ENTITLEMENT_TYPE, USER_PRINCIPAL_NAME});
+
+        String domain = "@" + authProperties.getAdDomain();
+        StringBuilder searchFilter = new StringBuilder("(&(objectClass=user)(|");
+        userNames.forEach(userName -> searchFilter.append('(').append(USER_PRINCIPAL_NAME).append('=')
+                .append(LdapEncoder.filterEncode(userName)).append(domain).append(')'));
+        searchFilter.append("))");
+
+        LOGGER.info(String.format("Searching LDAP searchBase=%s logins=%d", searchBase, userNames.size()));
+        for (String[] principalAndDn : ldapTemplate.search(searchBase, searchFilter.toString(), ctrls, PRINCIPAL_DN_MAPPER)) {
+            if (StringUtils.isNotEmpty(principalAndDn[1])) {
+                found.putIfAbsent(StringUtils.lowerCase(StringUtils.substringBeforeLast(principalAndDn[0], "@")), principalAndDn[1]);
+            }
+        }
+    }
+
+    // LDAP has no entry for the login
+    private static final class UnknownLoginException extends Exception {
+        private static final long serialVersionUID = 1L;
     }
 
+    // LDAP could not be searched; the login is looked up again next time
+    private static final class LookupFailedException extends Exception {
+        private static final long serialVersionUID = 1L;
+    }
 }
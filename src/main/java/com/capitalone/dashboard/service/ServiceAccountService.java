@@ -0,0 +1,16 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.common.ServiceAccountSnapshot;
+
+public interface ServiceAccountService {
+
+    /**
+     * Returns the cached service accounts, reloading them once the snapshot is older than serviceAccountCacheTtlSeconds
+     */
+    ServiceAccountSnapshot getServiceAccounts();
+
+    /**
+     * Reloads the service accounts from the database
+     */
+    ServiceAccountSnapshot refresh();
+}
@@ -0,0 +1,105 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.ServiceAccountSnapshot;
+import com.capitalone.dashboard.repository.ServiceAccountRepository;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class ServiceAccountServiceImpl implements ServiceAccountService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServiceAccountServiceImpl.class);
+
+    private final ServiceAccountRepository serviceAccountRepository;
+    private final ApiSettings settings;
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final ScheduledExecutorService refreshExecutor;
+    private volatile ServiceAccountSnapshot snapshot;
+
+    @Autowired
+    public ServiceAccountServiceImpl(ServiceAccountRepository serviceAccountRepository, ApiSettings settings) {
+        this.serviceAccountRepository = serviceAccountRepository;
+        this.settings = settings;
+
+        long interval = settings.getServiceAccountRefreshIntervalSeconds();
+        if (interval > 0) {
+            this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("service-account-refresh-%d").setDaemon(true).build());
+            this.refreshExecutor.scheduleWithFixedDelay(this::pollRefresh, interval, interval, TimeUnit.SECONDS);
+        } else {
+            this.refreshExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public ServiceAccountSnapshot getServiceAccounts() {
+        ServiceAccountSnapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        synchronized (this) {
+            // another caller may have reloaded while we waited
+            current = snapshot;
+            return isFresh(current) ? current : refresh();
+        }
+    }
+
+    @Override
+    public synchronized ServiceAccountSnapshot refresh() {
+        ServiceAccountSnapshot loaded = ServiceAccountSnapshot.load(serviceAccountRepository);
+        snapshot = loaded;
+        refreshCount.incrementAndGet();
+        LOGGER.debug("Refreshed service accounts :: size=" + loaded.size() + " duration=" + loaded.getLoadDuration() + "ms");
+        return loaded;
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    public int getSize() {
+        ServiceAccountSnapshot current = snapshot;
+        return (current == null) ? 0 : current.size();
+    }
+
+    public long getLastRefreshDuration() {
+        ServiceAccountSnapshot current = snapshot;
+        return (current == null) ? 0 : current.getLoadDuration();
+    }
+
+    public long getLastRefreshed() {
+        ServiceAccountSnapshot current = snapshot;
+        return (current == null) ? 0 : current.getLoadedAt();
+    }
+
+    private boolean isFresh(ServiceAccountSnapshot current) {
+        long ttl = TimeUnit.SECONDS.toMillis(settings.getServiceAccountCacheTtlSeconds());
+        return current != null && ttl > 0 && System.currentTimeMillis() - current.getLoadedAt() < ttl;
+    }
+
+    private void pollRefresh() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            // keep serving the previous snapshot, the next poll or an expired ttl retries
+            LOGGER.warn("Unable to refresh service accounts", e);
+        }
+    }
+}
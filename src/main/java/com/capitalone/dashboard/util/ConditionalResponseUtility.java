@@ -0,0 +1,107 @@
+package com.capitalone.dashboard.util;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.config.WebMVCConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GETs of audit reads. Clients get a strong ETag derived from the ids and timestamps of the documents
+ * a response is built from, a matching If-None-Match is answered with 304 before the documents are read. The
+ * serialized responses are cached by ETag, so the same representation is serialized once for all clients.
+ */
+@Component
+public class ConditionalResponseUtility {
+
+    private static final ObjectWriter WRITER = WebMVCConfig.objectMapper().writer();
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    // null when auditResponseCacheMaxBytes is 0
+    private final Cache<String, byte[]> responses;
+
+    @Autowired
+    public ConditionalResponseUtility(ApiSettings settings) {
+        this.responses = (settings.getAuditResponseCacheMaxBytes() > 0)
+                ? CacheBuilder.newBuilder()
+                    .maximumWeight(settings.getAuditResponseCacheMaxBytes())
+                    .<String, byte[]>weigher((eTag, bytes) -> bytes.length)
+                    .build()
+                : null;
+    }
+
+    /**
+     * Strong ETag of the response to the request: the path and query of the request, and the versions (ids,
+     * timestamps, counts) of the documents the response is built from
+     */
+    public String getETag(HttpServletRequest request, Collection<?> versions) {
+        Hasher hasher = Hashing.sha256().newHasher()
+                .putString(request.getRequestURI(), StandardCharsets.UTF_8)
+                .putChar('?')
+                .putString(StringUtils.defaultString(request.getQueryString()), StandardCharsets.UTF_8);
+        versions.forEach(version -> hasher.putChar(',').putString(String.valueOf(version), StandardCharsets.UTF_8));
+        return '"' + hasher.hash().toString() + '"';
+    }
+
+    /**
+     * 304 when the client has the ETag, else the cached or freshly serialized body.
+     *
+     * @param body response body, only read when the ETag is neither the client's nor cached. It returns null when
+     *             there is no representation to tag, null is returned then
+     */
+    public ResponseEntity<byte[]> respond(HttpServletRequest request, String eTag, HttpHeaders headers, Supplier<?> body) {
+        if (isNotModified(request, eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).eTag(eTag).build();
+        }
+        byte[] bytes = (responses == null) ? null : responses.getIfPresent(eTag);
+        if (bytes == null) {
+            Object value = body.get();
+            if (value == null) { return null; }
+            bytes = serialize(value);
+            if (responses != null) { responses.put(eTag, bytes); }
+        }
+        return ResponseEntity.ok().headers(headers).eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(bytes);
+    }
+
+    /**
+     * Body of a response without ETag
+     */
+    public ResponseEntity<byte[]> respond(Object body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(serialize(body));
+    }
+
+    static boolean isNotModified(HttpServletRequest request, String eTag) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (StringUtils.isEmpty(ifNoneMatch)) { return false; }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> StringUtils.removeStart(tag, WEAK_PREFIX))
+                .anyMatch(tag -> ANY.equals(tag) || eTag.equals(tag));
+    }
+
+    private static byte[] serialize(Object body) {
+        try {
+            return WRITER.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
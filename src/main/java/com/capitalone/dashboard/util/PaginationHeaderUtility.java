@@ -1,12 +1,23 @@
 package com.capitalone.dashboard.util;
 
+import com.capitalone.dashboard.model.AuditException;
+import com.capitalone.dashboard.model.BaseModel;
+import org.apache.commons.lang3.StringUtils;
+import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 
+import java.util.Base64;
+import java.util.List;
+
 @Component
 public class PaginationHeaderUtility {
 
+	public static final String CONTINUATION_TOKEN = "continuationToken";
+	private static final int OBJECT_ID_LENGTH = 12;
+
 	public <T> HttpHeaders buildPaginationHeaders(Page<T> page) {
 		HttpHeaders headers = new HttpHeaders();
 		headers.add("totalEntities", String.valueOf(page.getTotalElements()));
@@ -19,4 +30,37 @@ public class PaginationHeaderUtility {
 
 		return headers;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Headers of a keyset page, the continuation token is only set when there is a next page
+	 */
+	public <T extends BaseModel> HttpHeaders buildContinuationHeaders(Slice<T> slice) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add("pageSize", String.valueOf(slice.getSize()));
+		headers.add("nextPage", String.valueOf(slice.hasNext()));
+		if (slice.hasNext()) {
+			List<T> content = slice.getContent();
+			headers.add(CONTINUATION_TOKEN, getContinuationToken(content.get(content.size() - 1).getId()));
+		}
+		return headers;
+	}
+
+	public String getContinuationToken(ObjectId lastId) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(lastId.toByteArray());
+	}
+
+	/**
+	 * @return id the next page starts after, null for the first page
+	 * @throws AuditException when the token was not handed out by {@link #buildContinuationHeaders(Slice)}
+	 */
+	public ObjectId getContinuationId(String continuationToken) throws AuditException {
+		if (StringUtils.isEmpty(continuationToken)) { return null; }
+		try {
+			byte[] id = Base64.getUrlDecoder().decode(continuationToken);
+			if (id.length == OBJECT_ID_LENGTH) { return new ObjectId(id); }
+		} catch (IllegalArgumentException e) {
+			// reported below
+		}
+		throw new AuditException("Invalid continuation token " + continuationToken, AuditException.BAD_INPUT_DATA);
+	}
+}
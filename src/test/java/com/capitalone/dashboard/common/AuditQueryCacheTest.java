@@ -0,0 +1,91 @@
+package com.capitalone.dashboard.common;
+
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AuditQueryCacheTest {
+
+    @Test
+    public void fetchWithoutBoundCacheAlwaysLoads() {
+        AtomicInteger loads = new AtomicInteger();
+        AuditQueryCache.fetch("query", loads::incrementAndGet, "a");
+        AuditQueryCache.fetch("query", loads::incrementAndGet, "a");
+        Assert.assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void sameQueryAndArgumentsLoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AuditQueryCache cache = new AuditQueryCache();
+        ObjectId id = ObjectId.get();
+
+        cache.call(() -> {
+            AuditQueryCache.fetch("commits", loads::incrementAndGet, id, 1L, 2L);
+            AuditQueryCache.fetch("commits", loads::incrementAndGet, id, 1L, 2L);
+            AuditQueryCache.fetch("commits", loads::incrementAndGet, id, 1L, 3L);
+            AuditQueryCache.fetch("builds", loads::incrementAndGet, id, 1L, 2L);
+            return null;
+        });
+
+        Assert.assertEquals(3, loads.get());
+        Assert.assertEquals(1, cache.getHits());
+        Assert.assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    public void concurrentCallersShareOneLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AuditQueryCache cache = new AuditQueryCache();
+        List<Callable<Integer>> callers = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            callers.add(() -> cache.call(() -> AuditQueryCache.fetch("component", () -> {
+                sleep();
+                return loads.incrementAndGet();
+            }, "component-id")));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Integer> result : executor.invokeAll(callers)) {
+                Assert.assertEquals(Integer.valueOf(1), result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(15, cache.getHits());
+    }
+
+    @Test
+    public void failedLoadIsRetried() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        AuditQueryCache cache = new AuditQueryCache();
+        try {
+            cache.get("query", () -> {
+                loads.incrementAndGet();
+                throw new IllegalStateException("mongo unavailable");
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("mongo unavailable", e.getMessage());
+        }
+        Assert.assertEquals(Integer.valueOf(2), cache.get("query", loads::incrementAndGet));
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.GitRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CodeReviewIndexTest {
+
+    @Test
+    public void firstCommitWithRevisionNumberIsReturned() {
+        Commit first = makeCommit("sha1", 2L);
+        Commit second = makeCommit("sha1", 1L);
+        CodeReviewIndex index = CodeReviewIndex.of(Arrays.asList(first, second, makeCommit("sha2", 3L)), null);
+
+        Assert.assertSame(first, index.getCommit("sha1"));
+        Assert.assertEquals(Arrays.asList(first, second), index.getCommits("sha1"));
+        Assert.assertNull(index.getCommit("sha3"));
+        Assert.assertTrue(index.getCommits("sha3").isEmpty());
+    }
+
+    @Test
+    public void pullRequestsAreFoundByNumberAndCommit() {
+        GitRequest pr1 = makePullRequest("1", makeCommit("ABC123", 1L), makeCommit("def456", 2L));
+        GitRequest pr2 = makePullRequest("2", makeCommit("abc123", 1L), makeCommit("abc123", 1L));
+        CodeReviewIndex index = CodeReviewIndex.of(Collections.emptyList(), Arrays.asList(pr1, pr2));
+
+        Assert.assertEquals(Arrays.asList(pr1, pr2), index.getPullRequestsContaining("Abc123"));
+        Assert.assertEquals(Collections.singletonList(pr1), index.getPullRequestsContaining("DEF456"));
+        Assert.assertTrue(index.getPullRequestsContaining(null).isEmpty());
+        Assert.assertEquals(Collections.singletonList(pr2), index.getPullRequests("2"));
+        Assert.assertTrue(index.getPullRequests("3").isEmpty());
+    }
+
+    private static Commit makeCommit(String sha, long timestamp) {
+        Commit commit = new Commit();
+        commit.setScmRevisionNumber(sha);
+        commit.setScmCommitTimestamp(timestamp);
+        return commit;
+    }
+
+    private static GitRequest makePullRequest(String number, Commit... commits) {
+        GitRequest pr = new GitRequest();
+        pr.setNumber(number);
+        pr.setCommits(Arrays.asList(commits));
+        return pr;
+    }
+}
@@ -56,7 +56,7 @@ public class CommonCodeReviewTest {
                 new AbstractMap.SimpleEntry<>("allowedUser1", "pom.xml,test.json"),
                 new AbstractMap.SimpleEntry<>("allowedUser2", "test.java"))
                 .collect(Collectors.toMap((e) -> e.getKey(), (e) -> e.getValue())));
-        Assert.assertEquals(true, CommonCodeReview.checkForServiceAccount("CN=hygieiaUser,OU=Developers,OU=All Users,DC=basic,DC=ds,DC=industry,DC=com", apiSettings,allowedUsers,"allowedUser1",Stream.of("test.json").collect(Collectors.toList()), true,new AuditReviewResponse()));
+        Assert.assertEquals(true, CommonCodeReview.checkForServiceAccount("CN=hygieiaUser,OU=Developers,OU=All Users,DC=basic,DC=ds,DC=industry,DC=com", apiSettings,ServiceAccountSnapshot.of(allowedUsers),"allowedUser1",Stream.of("test.json").collect(Collectors.toList()), true,new AuditReviewResponse()));
     }
 
     @Test
@@ -67,7 +67,7 @@ public class CommonCodeReviewTest {
                 new AbstractMap.SimpleEntry<>("allowedUser1", "pom.xml,test.json"),
                 new AbstractMap.SimpleEntry<>("allowedUser2", "*.java"))
                 .collect(Collectors.toMap((e) -> e.getKey(), (e) -> e.getValue())));
-        Assert.assertEquals(true, CommonCodeReview.checkForServiceAccount("CN=hygieiaUser,OU=Developers,OU=All Users,DC=basic,DC=ds,DC=industry,DC=com", apiSettings,allowedUsers,"allowedUser2",Stream.of("test.java").collect(Collectors.toList()), true,auditStatusAuditReviewResponse));
+        Assert.assertEquals(true, CommonCodeReview.checkForServiceAccount("CN=hygieiaUser,OU=Developers,OU=All Users,DC=basic,DC=ds,DC=industry,DC=com", apiSettings,ServiceAccountSnapshot.of(allowedUsers),"allowedUser2",Stream.of("test.java").collect(Collectors.toList()), true,auditStatusAuditReviewResponse));
         Assert.assertEquals(true, auditStatusAuditReviewResponse.getAuditStatuses().toString().contains("DIRECT_COMMIT_CHANGE_WHITELISTED_ACCOUNT"));
     }
 
@@ -80,7 +80,7 @@ public class CommonCodeReviewTest {
                 new AbstractMap.SimpleEntry<>("allowedUser2", "*.java"))
                 .collect(Collectors.toMap((e) -> e.getKey(), (e) -> e.getValue())));
         Assert.assertEquals(false, auditStatusAuditReviewResponse.getAuditStatuses().toString().contains("DIRECT_COMMIT_CHANGE_WHITELISTED_ACCOUNT"));
-        Assert.assertEquals(false, CommonCodeReview.checkForServiceAccount("CN=hygieiaUser,OU=Developers,OU=All Users,DC=basic,DC=ds,DC=industry,DC=com", apiSettings,allowedUsers,"allowedUser2",Stream.of("test.md").collect(Collectors.toList()), true,auditStatusAuditReviewResponse));
+        Assert.assertEquals(false, CommonCodeReview.checkForServiceAccount("CN=hygieiaUser,OU=Developers,OU=All Users,DC=basic,DC=ds,DC=industry,DC=com", apiSettings,ServiceAccountSnapshot.of(allowedUsers),"allowedUser2",Stream.of("test.md").collect(Collectors.toList()), true,auditStatusAuditReviewResponse));
     }
 
 
@@ -91,7 +91,7 @@ public class CommonCodeReviewTest {
         apiSettings.setPeerReviewApprovalText("approved by");
         Mockito.when(serviceAccountRepository.findAll()).thenReturn(Stream.of(makeServiceAccount()).collect(Collectors.toList()));
         AuditReviewResponse<CodeReviewAuditStatus> codeReviewAuditRequestAuditReviewResponse = new AuditReviewResponse<>();
-        Assert.assertEquals(true, CommonCodeReview.computePeerReviewStatus(makeGitRequest("Service Accounts", makeCommitList()), apiSettings, codeReviewAuditRequestAuditReviewResponse, makeCommitList(), commitRepository,serviceAccountRepository));
+        Assert.assertEquals(true, CommonCodeReview.computePeerReviewStatus(makeGitRequest("Service Accounts", makeCommitList()), apiSettings, codeReviewAuditRequestAuditReviewResponse, makeCommitList(), commitRepository,ServiceAccountSnapshot.load(serviceAccountRepository)));
         Assert.assertEquals(true, codeReviewAuditRequestAuditReviewResponse.getAuditStatuses().toString().contains("PEER_REVIEW_BY_SERVICEACCOUNT"));
     }
 
@@ -102,7 +102,7 @@ public class CommonCodeReviewTest {
         apiSettings.setPeerReviewApprovalText("approved by");
         Mockito.when(serviceAccountRepository.findAll()).thenReturn(Stream.of(makeServiceAccount()).collect(Collectors.toList()));
         AuditReviewResponse<CodeReviewAuditStatus> codeReviewAuditRequestAuditReviewResponse = new AuditReviewResponse<>();
-        Assert.assertEquals(false, CommonCodeReview.computePeerReviewStatus(makeGitRequest("All Users", makeCommitListSelfReviewed()), apiSettings, codeReviewAuditRequestAuditReviewResponse, makeCommitListSelfReviewed(), commitRepository,serviceAccountRepository));
+        Assert.assertEquals(false, CommonCodeReview.computePeerReviewStatus(makeGitRequest("All Users", makeCommitListSelfReviewed()), apiSettings, codeReviewAuditRequestAuditReviewResponse, makeCommitListSelfReviewed(), commitRepository,ServiceAccountSnapshot.load(serviceAccountRepository)));
         Assert.assertEquals(Boolean.TRUE,codeReviewAuditRequestAuditReviewResponse.getAuditStatuses().contains(CodeReviewAuditStatus.PEER_REVIEW_GHR));
         Assert.assertEquals(Boolean.TRUE,codeReviewAuditRequestAuditReviewResponse.getAuditStatuses().contains(CodeReviewAuditStatus.PEER_REVIEW_BY_SERVICEACCOUNT));
         Assert.assertEquals(Boolean.TRUE,codeReviewAuditRequestAuditReviewResponse.getAuditStatuses().contains(CodeReviewAuditStatus.PEER_REVIEW_GHR_SELF_APPROVAL));
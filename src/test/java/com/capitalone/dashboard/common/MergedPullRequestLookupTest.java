@@ -0,0 +1,118 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.GitRequest;
+import com.capitalone.dashboard.repository.CommitRepository;
+import com.capitalone.dashboard.repository.GitRequestRepository;
+import com.querydsl.core.types.Predicate;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class MergedPullRequestLookupTest {
+
+    private static final ObjectId REPO_ID = ObjectId.get();
+    private static final ObjectId OTHER_REPO_ID = ObjectId.get();
+
+    @Mock
+    private CommitRepository commitRepository;
+    @Mock
+    private GitRequestRepository gitRequestRepository;
+
+    @Test
+    public void resolvesAllCommitsWithOneQueryPerCollection() {
+        List<Commit> directCommits = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            directCommits.add(makeCommit(REPO_ID, "sha" + i, "Author", null));
+        }
+        // sha1 merged through PR 11 on another repo, sha2 belongs to PR 12 which was closed
+        when(commitRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(
+                makeCommit(OTHER_REPO_ID, "sha1", "author", "11"),
+                makeCommit(OTHER_REPO_ID, "sha2", "Author", "12")));
+        when(gitRequestRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(
+                makePullRequest(OTHER_REPO_ID, "11", "merged", 2L),
+                makePullRequest(OTHER_REPO_ID, "12", "closed", 2L)));
+
+        MergedPullRequestLookup lookup = MergedPullRequestLookup.resolve(directCommits, commitRepository, gitRequestRepository);
+        long merged = directCommits.stream().filter(lookup::hasMergedPullRequest).count();
+
+        Assert.assertEquals(1, merged);
+        Assert.assertTrue(lookup.hasMergedPullRequest(directCommits.get(1)));
+        Assert.assertFalse(lookup.hasMergedPullRequest(directCommits.get(2)));
+        verify(commitRepository, times(1)).findAll(any(Predicate.class));
+        verify(gitRequestRepository, times(1)).findAll(any(Predicate.class));
+    }
+
+    @Test
+    public void latestPullRequestWins() {
+        Commit commit = makeCommit(REPO_ID, "sha1", "Author", null);
+        when(commitRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(
+                makeCommit(REPO_ID, "sha1", "Author", "11")));
+        when(gitRequestRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(
+                makePullRequest(REPO_ID, "11", "merged", 1L),
+                makePullRequest(REPO_ID, "11", "open", 5L)));
+
+        MergedPullRequestLookup lookup = MergedPullRequestLookup.resolve(Arrays.asList(commit), commitRepository, gitRequestRepository);
+
+        Assert.assertFalse(lookup.hasMergedPullRequest(commit));
+    }
+
+    @Test
+    public void commitsMustMatchOnLogAndTimestamp() {
+        Commit commit = makeCommit(REPO_ID, "sha1", "Author", null);
+        Commit rewritten = makeCommit(REPO_ID, "sha1", "Author", "11");
+        rewritten.setScmCommitLog("amended");
+        when(commitRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(rewritten));
+
+        MergedPullRequestLookup lookup = MergedPullRequestLookup.resolve(Arrays.asList(commit), commitRepository, gitRequestRepository);
+
+        Assert.assertFalse(lookup.hasMergedPullRequest(commit));
+        verify(gitRequestRepository, never()).findAll(any(Predicate.class));
+    }
+
+    @Test
+    public void unknownCommitIsResolvedOnFirstUse() {
+        MergedPullRequestLookup lookup = MergedPullRequestLookup.resolve(new ArrayList<>(), commitRepository, gitRequestRepository);
+        verify(commitRepository, never()).findAll(any(Predicate.class));
+
+        Commit commit = makeCommit(REPO_ID, "sha1", "Author", null);
+        Assert.assertFalse(lookup.hasMergedPullRequest(commit));
+        Assert.assertFalse(lookup.hasMergedPullRequest(commit));
+        verify(commitRepository, times(1)).findAll(any(Predicate.class));
+    }
+
+    private Commit makeCommit(ObjectId collectorItemId, String scmRevisionNumber, String author, String pullNumber) {
+        Commit commit = new Commit();
+        commit.setCollectorItemId(collectorItemId);
+        commit.setScmRevisionNumber(scmRevisionNumber);
+        commit.setScmAuthor(author);
+        commit.setScmCommitLog("commit " + scmRevisionNumber);
+        commit.setScmCommitTimestamp(12345678L);
+        commit.setPullNumber(pullNumber);
+        commit.setNumberOfChanges(1);
+        return commit;
+    }
+
+    private GitRequest makePullRequest(ObjectId collectorItemId, String number, String state, long timestamp) {
+        GitRequest pr = new GitRequest();
+        pr.setCollectorItemId(collectorItemId);
+        pr.setNumber(number);
+        pr.setState(state);
+        pr.setTimestamp(timestamp);
+        return pr;
+    }
+}
@@ -0,0 +1,64 @@
+package com.capitalone.dashboard.common;
+
+import com.capitalone.dashboard.ApiSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+public class PatternRegistryTest {
+
+    private final ApiSettings settings = new ApiSettings();
+    private final PatternRegistry patternRegistry = new PatternRegistry(settings);
+
+    @Test
+    public void patternIsCompiledOnceForSameSetting() {
+        settings.setCommitLogIgnoreAuditRegEx("(.)*(increment version tag)(.)*");
+
+        Pattern first = patternRegistry.commitLogIgnoreAudit();
+        Assert.assertSame(first, patternRegistry.commitLogIgnoreAudit());
+        Assert.assertTrue(CommonCodeReview.matchIncrementVersionTag("chore: increment version tag to 1.2", patternRegistry));
+    }
+
+    @Test
+    public void patternIsRecompiledWhenSettingChanges() {
+        settings.setThirdPartyRegex("thirdparty-.*");
+        Pattern first = patternRegistry.thirdParty();
+
+        settings.setThirdPartyRegex("vendor-.*");
+        Pattern second = patternRegistry.thirdParty();
+
+        Assert.assertNotSame(first, second);
+        Assert.assertTrue(second.matcher("vendor-libs").matches());
+        Assert.assertNull(new PatternRegistry(new ApiSettings()).thirdParty());
+    }
+
+    @Test
+    public void listChangedInPlaceIsRecompiled() {
+        List<String> stages = new ArrayList<>(Arrays.asList("(?i:.*deploy.*)"));
+        settings.setBuildStageRegEx(stages);
+        Assert.assertEquals(1, patternRegistry.buildStage().size());
+
+        stages.add("(?i:.*release.*)");
+        List<Pattern> compiled = patternRegistry.buildStage();
+
+        Assert.assertEquals(2, compiled.size());
+        Assert.assertTrue(compiled.get(1).matcher("Release to prod").find());
+    }
+
+    @Test
+    public void mergeCommitPatternsAreCaseInsensitive() {
+        settings.setMergeCommitFromTargetBranchRegEx(Arrays.asList("(.*merge branch.*')(.*)('.*into.*)"));
+
+        Assert.assertTrue(patternRegistry.mergeCommitFromTargetBranch().get(0).matcher("Merge branch 'master' into feature").matches());
+        Assert.assertTrue(new PatternRegistry(new ApiSettings()).mergeCommitFromTargetBranch().isEmpty());
+    }
+
+    @Test
+    public void unsetIncrementVersionTagMatchesNothing() {
+        Assert.assertFalse(CommonCodeReview.matchIncrementVersionTag("chore: increment version tag to 1.2", patternRegistry));
+    }
+}
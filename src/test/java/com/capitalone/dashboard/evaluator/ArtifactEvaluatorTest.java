@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
 import com.capitalone.dashboard.model.BinaryArtifact;
 import com.capitalone.dashboard.model.Build;
 import com.capitalone.dashboard.model.BuildStatus;
@@ -10,6 +11,7 @@ import com.capitalone.dashboard.repository.BinaryArtifactRepository;
 import com.capitalone.dashboard.response.ArtifactAuditResponse;
 import org.bson.types.ObjectId;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -17,6 +19,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.stream.Collectors;
@@ -38,6 +41,11 @@ public class ArtifactEvaluatorTest {
 
     private ArtifactAuditResponse response;
 
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(artifactEvaluator, "patternRegistry", new PatternRegistry(apiSettings));
+    }
+
     @Test
     public void testEvaluate_ArtifactNotConfigured() {
         CollectorItem c = null;
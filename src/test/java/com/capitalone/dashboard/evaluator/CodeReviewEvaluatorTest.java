@@ -1,6 +1,9 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.common.CodeReviewIndex;
+import com.capitalone.dashboard.common.MergedPullRequestLookup;
 import com.capitalone.dashboard.common.TestConstants;
 import com.capitalone.dashboard.model.CollectionError;
 import com.capitalone.dashboard.model.CollectorItem;
@@ -13,10 +16,13 @@ import com.capitalone.dashboard.repository.CommitRepository;
 import com.capitalone.dashboard.repository.GitRequestRepository;
 import com.capitalone.dashboard.repository.ServiceAccountRepository;
 import com.capitalone.dashboard.response.CodeReviewAuditResponseV2;
+import com.capitalone.dashboard.service.ServiceAccountServiceImpl;
 import com.capitalone.dashboard.status.CodeReviewAuditStatus;
+import com.querydsl.core.types.Predicate;
 import org.apache.commons.lang3.StringUtils;
 import org.bson.types.ObjectId;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -24,6 +30,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,8 +41,6 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyString;
-import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -55,6 +60,11 @@ public class CodeReviewEvaluatorTest {
     @Mock
     private ApiSettings apiSettings;
 
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(codeReviewEvaluator, "patternRegistry", new PatternRegistry(apiSettings));
+    }
+
     @Test
     public void evaluate_REPO_NOT_CONFIGURED() {
         CollectorItem c = null;
@@ -290,7 +300,7 @@ public class CodeReviewEvaluatorTest {
         when(commitRepository.findByCollectorItemIdAndScmCommitTimestampIsBetween(any(ObjectId.class),any(Long.class), any(Long.class))).thenReturn(commitsList);
         when(serviceAccountRepository.findAll()).thenReturn(Stream.of(makeServiceAccount()).collect(Collectors.toList()));
 
-        CodeReviewEvaluatorLegacy codeReviewEvaluatorLegacyInstance = new CodeReviewEvaluatorLegacy(commitRepository, gitRequestRepository, serviceAccountRepository, apiSettings);
+        CodeReviewEvaluatorLegacy codeReviewEvaluatorLegacyInstance = new CodeReviewEvaluatorLegacy(commitRepository, gitRequestRepository, new ServiceAccountServiceImpl(serviceAccountRepository, apiSettings), apiSettings, new PatternRegistry(apiSettings));
 
         pullRequestList.get(0).setUserId("NotAuthor1");
         boolean result = codeReviewEvaluatorLegacyInstance.existsApprovedPRForCollectorItem(collectorItem, commit, collectorItem, 12345678L, 12345679L);
@@ -328,7 +338,7 @@ public class CodeReviewEvaluatorTest {
 
         commit = makeCommit("Commit 3", "CommitOid3", "Author3", "Author3",12345678L);
         List<Commit> commitList = makeCommits();
-        matchingCommit = codeReviewEvaluator.findAMatchingCommit(pullRequestList.get(0), commit, commitList);
+        matchingCommit = codeReviewEvaluator.findAMatchingCommit(pullRequestList.get(0), commit, CodeReviewIndex.of(commitList, pullRequestList));
         Assert.assertNotNull(matchingCommit);
     }
 
@@ -387,12 +397,13 @@ public class CodeReviewEvaluatorTest {
         CodeReviewEvaluator codeReviewEvaluator = Mockito.spy(this.codeReviewEvaluator);
         Commit commit = makeCommit("Commit 21", "CommitOid21", "Author12", "Committer12",12345678L);
         CodeReviewAuditResponseV2 reviewAuditResponseV2 = new CodeReviewAuditResponseV2();
+        MergedPullRequestLookup mergedPullRequests = MergedPullRequestLookup.resolve(new ArrayList<>(), commitRepository, gitRequestRepository);
         commit.setScmAuthorLDAPDN(null);
 
         when(serviceAccountRepository.findAll()).thenReturn(Stream.of(makeServiceAccount()).collect(Collectors.toList()));
 
-        codeReviewEvaluator.auditDirectCommits(reviewAuditResponseV2, commit);
-        verify(codeReviewEvaluator).auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE);
+        codeReviewEvaluator.auditDirectCommits(reviewAuditResponseV2, commit, mergedPullRequests);
+        verify(codeReviewEvaluator).auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE, mergedPullRequests);
 
         commit = makeCommit("Commit 21", "CommitOid21", "Author12", "Committer12",12345678L);
         List<String> serviceAccountOU = new ArrayList<>();
@@ -400,14 +411,14 @@ public class CodeReviewEvaluatorTest {
         when(apiSettings.getServiceAccountOU()).thenReturn(serviceAccountOU);
         when(serviceAccountRepository.findAll()).thenReturn(Stream.of(makeServiceAccount()).collect(Collectors.toList()));
 
-        codeReviewEvaluator.auditDirectCommits(reviewAuditResponseV2, commit);
-        verify(codeReviewEvaluator).auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_SERVICE_ACCOUNT);
+        codeReviewEvaluator.auditDirectCommits(reviewAuditResponseV2, commit, mergedPullRequests);
+        verify(codeReviewEvaluator).auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_SERVICE_ACCOUNT, mergedPullRequests);
 
         serviceAccountOU = new ArrayList<>();
         serviceAccountOU.add("some value");
         when(apiSettings.getServiceAccountOU()).thenReturn(serviceAccountOU);
-        codeReviewEvaluator.auditDirectCommits(reviewAuditResponseV2, commit);
-        verify(codeReviewEvaluator).auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_USER_ACCOUNT);
+        codeReviewEvaluator.auditDirectCommits(reviewAuditResponseV2, commit, mergedPullRequests);
+        verify(codeReviewEvaluator).auditIncrementVersionTag(reviewAuditResponseV2, commit, CodeReviewAuditStatus.DIRECT_COMMIT_NONCODE_CHANGE_USER_ACCOUNT, mergedPullRequests);
     }
 
     @Test
@@ -495,15 +506,17 @@ public class CodeReviewEvaluatorTest {
         Commit commit3 = makeCommit("commit msg 3", "scmrev3333", "aaa333", "ccc333", 12345678L);
         Commit commit4 = makeCommit("commit msg 2", "scmrev2222", "aaa222", "ccc222", 12345222L);
 
-        when(commitRepository.findAllByScmRevisionNumberAndScmAuthorIgnoreCaseAndScmCommitLogAndScmCommitTimestamp(anyString(), anyString(), anyString(), anyLong())).thenReturn(Arrays.asList(commit2, commit4));
-        when(gitRequestRepository.findByCollectorItemIdAndNumber(any(), anyString())).thenReturn(pr);
+        pr.setCollectorItemId(commit4.getCollectorItemId());
+        when(commitRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(commit2, commit4));
+        when(gitRequestRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(pr));
         commit1.setPullNumber("11");
         commit2.setPullNumber(null);
         commit3.setPullNumber("33");
         commit3.setNumberOfChanges(0);
         commit4.setPullNumber("22");
         commits.addAll(Arrays.asList(commit1, commit2, commit3, commit4));
-        List<Commit> filteredCommits = commits.stream().filter(commit -> codeReviewEvaluator.isNeitherEmptyNorAutoMerged(commit)).collect(Collectors.toList());
+        MergedPullRequestLookup mergedPullRequests = MergedPullRequestLookup.resolve(commits, commitRepository, gitRequestRepository);
+        List<Commit> filteredCommits = commits.stream().filter(commit -> codeReviewEvaluator.isNeitherEmptyNorAutoMerged(commit, mergedPullRequests)).collect(Collectors.toList());
         Assert.assertTrue(filteredCommits.size() == 2);
         Assert.assertTrue(filteredCommits.get(0).getScmRevisionNumber().equalsIgnoreCase("scmrev1111"));
         Assert.assertTrue(filteredCommits.get(1).getScmRevisionNumber().equalsIgnoreCase("scmrev2222")
@@ -1,6 +1,7 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
 import com.capitalone.dashboard.model.Build;
 import com.capitalone.dashboard.model.BuildStage;
 import com.capitalone.dashboard.model.BuildStatus;
@@ -14,12 +15,14 @@ import com.capitalone.dashboard.repository.CollectorRepository;
 import com.capitalone.dashboard.response.DeployAuditResponse;
 import org.bson.types.ObjectId;
 import org.junit.Assert;
+import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -50,6 +53,11 @@ public class DeployEvaluatorTest {
     private DeployAuditResponse response;
 
 
+    @Before
+    public void setup() {
+        ReflectionTestUtils.setField(deployEvaluator, "patternRegistry", new PatternRegistry(apiSettings));
+    }
+
     @Test
     public void test_MatchStage_Match() {
         List<String> patterns = new ArrayList<>();
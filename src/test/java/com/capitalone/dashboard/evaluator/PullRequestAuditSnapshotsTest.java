@@ -0,0 +1,167 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.CodeAction;
+import com.capitalone.dashboard.model.CodeActionType;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.GitRequest;
+import com.capitalone.dashboard.model.PullRequestAuditSnapshot;
+import com.capitalone.dashboard.repository.PullRequestAuditSnapshotRepository;
+import com.capitalone.dashboard.response.CodeReviewAuditResponseV2;
+import com.capitalone.dashboard.status.CodeReviewAuditStatus;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PullRequestAuditSnapshotsTest {
+
+    private static final List<Object> INPUTS = Collections.singletonList(Arrays.asList("sha1", null, "CN=author"));
+
+    @Mock
+    private PullRequestAuditSnapshotRepository repository;
+
+    private final ApiSettings settings = new ApiSettings();
+    private final CollectorItem repoItem = new CollectorItem();
+    private final GitRequest pr = new GitRequest();
+    private final AtomicInteger reviews = new AtomicInteger();
+
+    @Before
+    public void setup() {
+        settings.setPeerReviewContexts("approvals/lgtmeow");
+        repoItem.setId(ObjectId.get());
+        pr.setId(ObjectId.get());
+        pr.setUpdatedAt(100L);
+    }
+
+    @Test
+    public void currentSnapshotIsReused() {
+        PullRequestAuditSnapshots snapshots = PullRequestAuditSnapshots.load(repoItem, Collections.singletonList(pr), settings, repository);
+        CodeReviewAuditResponseV2.PullRequestAudit fresh = new CodeReviewAuditResponseV2.PullRequestAudit();
+        Assert.assertTrue(snapshots.peerReview(repoItem, pr, INPUTS, fresh, () -> review(fresh)));
+        snapshots.save();
+        List<PullRequestAuditSnapshot> saved = savedSnapshots();
+        when(repository.findAllById(anyListOf(String.class))).thenReturn(saved);
+
+        snapshots = PullRequestAuditSnapshots.load(repoItem, Collections.singletonList(pr), settings, repository);
+        CodeReviewAuditResponseV2.PullRequestAudit audit = new CodeReviewAuditResponseV2.PullRequestAudit();
+
+        Assert.assertTrue(snapshots.peerReview(repoItem, pr, INPUTS, audit, () -> review(audit)));
+        Assert.assertEquals(1, reviews.get());
+        Assert.assertEquals(1, snapshots.getReused());
+        Assert.assertEquals(fresh.getAuditStatuses(), audit.getAuditStatuses());
+        Assert.assertEquals(fresh.getErrorMessage(), audit.getErrorMessage());
+        Assert.assertEquals(fresh.getCodeActions().size(), audit.getCodeActions().size());
+        for (int i = 0; i < fresh.getCodeActions().size(); i++) {
+            CodeAction expected = fresh.getCodeActions().get(i);
+            CodeAction actual = audit.getCodeActions().get(i);
+            Assert.assertNotSame(expected, actual);
+            Assert.assertEquals(expected.getType(), actual.getType());
+            Assert.assertEquals(expected.getTimestamp(), actual.getTimestamp());
+            Assert.assertEquals(expected.getActor(), actual.getActor());
+            Assert.assertEquals(expected.getActorLDAPDN(), actual.getActorLDAPDN());
+            Assert.assertEquals(expected.getMessage(), actual.getMessage());
+        }
+        snapshots.save();
+        // only the first evaluation saved
+        verify(repository).saveAll(any());
+    }
+
+    @Test
+    public void updatedPullRequestIsReviewedAndSaved() {
+        storeSnapshot(50L, PullRequestAuditSnapshots.fingerprint(settings, INPUTS));
+
+        PullRequestAuditSnapshots snapshots = PullRequestAuditSnapshots.load(repoItem, Collections.singletonList(pr), settings, repository);
+        CodeReviewAuditResponseV2.PullRequestAudit audit = new CodeReviewAuditResponseV2.PullRequestAudit();
+        audit.addAuditStatus(CodeReviewAuditStatus.COMMITAUTHOR_NE_MERGECOMMITER);
+
+        Assert.assertTrue(snapshots.peerReview(repoItem, pr, INPUTS, audit, () -> review(audit)));
+        snapshots.save();
+
+        Assert.assertEquals(1, reviews.get());
+        PullRequestAuditSnapshot saved = savedSnapshots().get(0);
+        Assert.assertEquals(100L, saved.getPullRequestUpdatedAt());
+        // only the statuses added by the review are kept
+        Assert.assertEquals(EnumSet.of(CodeReviewAuditStatus.PEER_REVIEW_LGTM_SUCCESS), saved.getAuditStatuses());
+    }
+
+    @Test
+    public void changedSettingsInvalidateSnapshot() {
+        storeSnapshot(100L, PullRequestAuditSnapshots.fingerprint(settings, INPUTS));
+        settings.setPeerReviewContexts("approvals/other");
+
+        PullRequestAuditSnapshots snapshots = PullRequestAuditSnapshots.load(repoItem, Collections.singletonList(pr), settings, repository);
+        snapshots.peerReview(repoItem, pr, INPUTS, new CodeReviewAuditResponseV2.PullRequestAudit(), () -> review(null));
+
+        Assert.assertEquals(1, reviews.get());
+        Assert.assertEquals(1, snapshots.getReviewed());
+    }
+
+    @Test
+    public void changedInputsInvalidateSnapshot() {
+        storeSnapshot(100L, PullRequestAuditSnapshots.fingerprint(settings, INPUTS));
+
+        PullRequestAuditSnapshots snapshots = PullRequestAuditSnapshots.load(repoItem, Collections.singletonList(pr), settings, repository);
+        // the commit author was enriched with another LDAP DN, the pull request is unchanged
+        snapshots.peerReview(repoItem, pr, Collections.singletonList(Arrays.asList("sha1", null, "CN=other")),
+                new CodeReviewAuditResponseV2.PullRequestAudit(), () -> review(null));
+
+        Assert.assertEquals(1, reviews.get());
+        Assert.assertEquals(1, snapshots.getReviewed());
+    }
+
+    @Test
+    public void disabledSnapshotsAlwaysReview() {
+        PullRequestAuditSnapshots snapshots = PullRequestAuditSnapshots.disabled();
+        snapshots.peerReview(repoItem, pr, INPUTS, new CodeReviewAuditResponseV2.PullRequestAudit(), () -> review(null));
+        snapshots.peerReview(repoItem, pr, INPUTS, new CodeReviewAuditResponseV2.PullRequestAudit(), () -> review(null));
+        snapshots.save();
+
+        Assert.assertEquals(2, reviews.get());
+        verifyNoInteractions(repository);
+    }
+
+    private boolean review(CodeReviewAuditResponseV2.PullRequestAudit audit) {
+        reviews.incrementAndGet();
+        if (audit != null) {
+            audit.addAuditStatus(CodeReviewAuditStatus.PEER_REVIEW_LGTM_SUCCESS);
+            audit.setCodeActions(Arrays.asList(new CodeAction(CodeActionType.Commit, 10L, "author", "CN=author", "change"),
+                    new CodeAction(CodeActionType.Review, 20L, "reviewer", "unknown", "lgtm")));
+        }
+        return true;
+    }
+
+    private void storeSnapshot(long updatedAt, String fingerprint) {
+        PullRequestAuditSnapshot snapshot = new PullRequestAuditSnapshot();
+        snapshot.setId(PullRequestAuditSnapshot.idOf(repoItem.getId(), pr.getId()));
+        snapshot.setPullRequestUpdatedAt(updatedAt);
+        snapshot.setFingerprint(fingerprint);
+        snapshot.setPeerReviewed(true);
+        snapshot.setAuditStatuses(EnumSet.of(CodeReviewAuditStatus.PEER_REVIEW_LGTM_SUCCESS));
+        when(repository.findAllById(anyListOf(String.class))).thenReturn(Collections.singletonList(snapshot));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<PullRequestAuditSnapshot> savedSnapshots() {
+        ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository).saveAll(captor.capture());
+        return captor.getValue();
+    }
+}
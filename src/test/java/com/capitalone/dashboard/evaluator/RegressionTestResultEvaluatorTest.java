@@ -1,7 +1,10 @@
 package com.capitalone.dashboard.evaluator;
 
 import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
 import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
 import com.capitalone.dashboard.model.Dashboard;
 import com.capitalone.dashboard.model.DashboardType;
 import com.capitalone.dashboard.model.TestResult;
@@ -11,6 +14,9 @@ import com.capitalone.dashboard.model.TestSuite;
 import com.capitalone.dashboard.model.Widget;
 import com.capitalone.dashboard.model.Feature;
 
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.ComponentRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
 import com.capitalone.dashboard.repository.FeatureRepository;
 import com.capitalone.dashboard.repository.TestResultRepository;
 import com.capitalone.dashboard.response.TestResultsAuditResponse;
@@ -27,11 +33,22 @@ import static org.mockito.Mockito.when;
 
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RegressionTestResultEvaluatorTest {
@@ -45,9 +62,24 @@ public class RegressionTestResultEvaluatorTest {
     @Mock
     private FeatureRepository featureRepository;
 
+    @Mock
+    private DashboardRepository dashboardRepository;
+
+    @Mock
+    private ComponentRepository componentRepository;
+
+    @Mock
+    private CollectorItemRepository collectorItemRepository;
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final long WINDOW_START = 1577836800000L;
+
     @Before
     public void setup(){
         regressionTestResultEvaluator.setSettings(getSettings());
+        ReflectionTestUtils.setField(regressionTestResultEvaluator, "dashboardRepository", dashboardRepository);
+        ReflectionTestUtils.setField(regressionTestResultEvaluator, "componentRepository", componentRepository);
+        ReflectionTestUtils.setField(regressionTestResultEvaluator, "collectorItemRepository", collectorItemRepository);
     }
 
     @Test
@@ -58,7 +90,7 @@ public class RegressionTestResultEvaluatorTest {
         List<TestResult> emptyTestResults = new ArrayList<>();
         when(testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(collectorItem.getId(),
                 123456789, 123456989)).thenReturn(emptyTestResults);
-        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getDashboard(), collectorItem);
+        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getContext(), collectorItem);
         Assert.assertTrue(testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_MISSING));
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_OK));
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_FAIL));
@@ -73,7 +105,7 @@ public class RegressionTestResultEvaluatorTest {
         when(testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(any(ObjectId.class),
                 any(Long.class), any(Long.class))).thenReturn(testResults);
         when(featureRepository.getStoryByTeamID("TEST-1234")).thenReturn(Arrays.asList(new Feature()));
-        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getDashboard(), collectorItem);
+        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getContext(), collectorItem);
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_MISSING));
         Assert.assertTrue(testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_OK));
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_FAIL));
@@ -88,7 +120,7 @@ public class RegressionTestResultEvaluatorTest {
         when(testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(any(ObjectId.class),
                 any(Long.class), any(Long.class))).thenReturn(testResults);
         when(featureRepository.getStoryByTeamID("TEST-1234")).thenReturn(Arrays.asList(new Feature()));
-        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getDashboard(), collectorItem);
+        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getContext(), collectorItem);
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_MISSING));
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_OK));
         Assert.assertTrue(testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_FAIL));
@@ -103,7 +135,7 @@ public class RegressionTestResultEvaluatorTest {
         when(testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(any(ObjectId.class),
                 any(Long.class), any(Long.class))).thenReturn(testResults);
         when(featureRepository.getStoryByTeamID("TEST-1234")).thenReturn(Arrays.asList(new Feature()));
-        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getDashboard(), collectorItem);
+        TestResultsAuditResponse testResultsAuditResponse = regressionTestResultEvaluator.getRegressionTestResultAudit(getContext(), collectorItem);
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_MISSING));
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_OK));
         Assert.assertTrue(!testResultsAuditResponse.getAuditStatuses().contains(TestResultAuditStatus.TEST_RESULT_AUDIT_FAIL));
@@ -135,6 +167,82 @@ public class RegressionTestResultEvaluatorTest {
         Assert.assertEquals(featureWidget.getName(), "feature");
     }
 
+    @Test
+    public void evaluate_concurrentRequestsKeepTheirOwnDateWindow() throws Exception {
+        ApiSettings settings = getSettings();
+        settings.setValidStoryStatus(Arrays.asList("DONE"));
+        settings.setFeatureIDPattern("[A-Z]+-\\d+");
+        regressionTestResultEvaluator.setSettings(settings);
+        ReflectionTestUtils.setField(regressionTestResultEvaluator, "patternRegistry", new PatternRegistry(settings));
+
+        Dashboard dashboard = getDashboardWithTestItem();
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
+        List<Feature> features = new ArrayList<>();
+        for (int i = 0; i < 48; i++) {
+            Feature feature = new Feature();
+            feature.setsNumber("STORY-" + i);
+            feature.setsStatus("Done");
+            feature.setChangeDate(sdf.format(new Date(WINDOW_START + i * HOUR)));
+            features.add(feature);
+        }
+        when(featureRepository.getStoryByTeamID("TEST-1234")).thenReturn(features);
+        when(testResultRepository.findByCollectorItemIdAndTimestampIsBetweenOrderByTimestampDesc(any(ObjectId.class),
+                any(Long.class), any(Long.class))).thenAnswer(invocation -> Arrays.asList(getAuditOKTestResult()));
+
+        Random random = new Random(42);
+        List<Callable<Boolean>> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            long beginDate = WINDOW_START + random.nextInt(24) * HOUR;
+            long endDate = beginDate + (1 + random.nextInt(24)) * HOUR;
+            requests.add(() -> {
+                Collection<TestResultsAuditResponse> responses = regressionTestResultEvaluator.evaluate(dashboard, beginDate, endDate, null, null, null);
+                List<String> expected = features.stream()
+                        .filter(f -> isWithin(sdf, f, beginDate - 1, endDate + 1))
+                        .map(Feature::getsNumber).collect(Collectors.toList());
+                return responses.stream().allMatch(r -> expected.equals(r.getTraceability().getTotalCompletedStories()));
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Boolean> result : executor.invokeAll(requests)) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean isWithin(SimpleDateFormat sdf, Feature feature, long beginDate, long endDate) {
+        try {
+            long changeDate = ((SimpleDateFormat) sdf.clone()).parse(feature.getChangeDate()).getTime();
+            return changeDate >= beginDate && changeDate <= endDate;
+        } catch (java.text.ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Dashboard getDashboardWithTestItem() {
+        CollectorItem testItem = new CollectorItem();
+        testItem.setId(ObjectId.get());
+        testItem.getOptions().put(Evaluator.TEST_TYPE, RegressionTestResultEvaluator.FUNCTIONAL);
+        Component component = new Component("Component1");
+        component.setId(ObjectId.get());
+        component.addCollectorItem(CollectorType.Test, testItem);
+
+        Widget featureWidget = new Widget();
+        featureWidget.setName("feature");
+        featureWidget.setComponentId(component.getId());
+        featureWidget.getOptions().put("teamId", "TEST-1234");
+        Dashboard dashboard = getDashboard();
+        dashboard.getWidgets().add(featureWidget);
+
+        when(dashboardRepository.findByTitleAndType(dashboard.getTitle(), DashboardType.Team)).thenReturn(dashboard);
+        when(componentRepository.findById(component.getId())).thenReturn(Optional.of(component));
+        when(collectorItemRepository.findAllById(any())).thenReturn(Arrays.asList(testItem));
+        return dashboard;
+    }
+
     private TestResult getTestResult() {
         TestResult testResult = new TestResult();
         testResult.setType(TestSuiteType.Functional);
@@ -203,6 +311,10 @@ public class RegressionTestResultEvaluatorTest {
         return dashboard;
     }
 
+    private RegressionTestResultEvaluator.EvaluationContext getContext() {
+        return new RegressionTestResultEvaluator.EvaluationContext(getDashboard(), 123456789, 123456989);
+    }
+
     private ApiSettings getSettings(){
         ApiSettings settings = new ApiSettings();
         settings.setTestResultSuccessPriority("Low");
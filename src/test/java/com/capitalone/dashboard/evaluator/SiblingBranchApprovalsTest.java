@@ -0,0 +1,107 @@
+package com.capitalone.dashboard.evaluator;
+
+import com.capitalone.dashboard.common.CodeReviewIndex;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.Commit;
+import com.capitalone.dashboard.model.GitRequest;
+import com.capitalone.dashboard.repository.CommitRepository;
+import com.capitalone.dashboard.repository.GitRequestRepository;
+import com.querydsl.core.types.Predicate;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SiblingBranchApprovalsTest {
+
+    @Mock
+    private CommitRepository commitRepository;
+    @Mock
+    private GitRequestRepository gitRequestRepository;
+
+    @Test
+    public void allBranchesAreReadWithOneQueryEach() {
+        CollectorItem develop = makeCollectorItem();
+        CollectorItem release = makeCollectorItem();
+        when(gitRequestRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(
+                makePullRequest(develop.getId(), "1"), makePullRequest(release.getId(), "2")));
+        when(commitRepository.findAll(any(Predicate.class))).thenReturn(Arrays.asList(
+                makeCommit(develop.getId(), "sha1"), makeCommit(release.getId(), "sha2")));
+
+        SiblingBranchApprovals approvals = new SiblingBranchApprovals(Arrays.asList(develop, release), 1L, 2L,
+                commitRepository, gitRequestRepository);
+        verifyNoInteractions(commitRepository, gitRequestRepository);
+        CodeReviewIndex developIndex = approvals.getIndex(develop);
+        CodeReviewIndex releaseIndex = approvals.getIndex(release);
+
+        Assert.assertEquals(1, developIndex.getPullRequests("1").size());
+        Assert.assertTrue(developIndex.getPullRequests("2").isEmpty());
+        Assert.assertNotNull(developIndex.getCommit("sha1"));
+        Assert.assertNull(developIndex.getCommit("sha2"));
+        Assert.assertNotNull(releaseIndex.getCommit("sha2"));
+        Assert.assertTrue(approvals.getIndex(makeCollectorItem()).getPullRequests().isEmpty());
+        verify(gitRequestRepository, times(1)).findAll(any(Predicate.class));
+        verify(commitRepository, times(1)).findAll(any(Predicate.class));
+    }
+
+    @Test
+    public void noBranchesMeansNoQueries() {
+        SiblingBranchApprovals approvals = new SiblingBranchApprovals(Collections.emptyList(), 1L, 2L,
+                commitRepository, gitRequestRepository);
+
+        Assert.assertTrue(approvals.getSiblings().isEmpty());
+        Assert.assertTrue(approvals.getIndex(makeCollectorItem()).getPullRequests().isEmpty());
+        verifyNoInteractions(commitRepository, gitRequestRepository);
+    }
+
+    @Test
+    public void verdictIsComputedOncePerPullRequestAndCommit() {
+        SiblingBranchApprovals approvals = new SiblingBranchApprovals(null, 1L, 2L, commitRepository, gitRequestRepository);
+        GitRequest pr = makePullRequest(ObjectId.get(), "1");
+        AtomicInteger verdicts = new AtomicInteger();
+        AtomicInteger audits = new AtomicInteger();
+
+        for (String sha : Arrays.asList("sha1", "sha1", "sha2")) {
+            Assert.assertTrue(approvals.isApproved(pr, makeCommit(pr.getCollectorItemId(), sha), () -> {
+                verdicts.incrementAndGet();
+                return approvals.passesAudit(pr, () -> audits.incrementAndGet() > 0);
+            }));
+        }
+
+        Assert.assertEquals(2, verdicts.get());
+        Assert.assertEquals(1, audits.get());
+    }
+
+    private static CollectorItem makeCollectorItem() {
+        CollectorItem item = new CollectorItem();
+        item.setId(ObjectId.get());
+        return item;
+    }
+
+    private static GitRequest makePullRequest(ObjectId collectorItemId, String number) {
+        GitRequest pr = new GitRequest();
+        pr.setCollectorItemId(collectorItemId);
+        pr.setNumber(number);
+        return pr;
+    }
+
+    private static Commit makeCommit(ObjectId collectorItemId, String sha) {
+        Commit commit = new Commit();
+        commit.setCollectorItemId(collectorItemId);
+        commit.setScmRevisionNumber(sha);
+        return commit;
+    }
+}
@@ -0,0 +1,166 @@
+package com.capitalone.dashboard.logging;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.AuditRequestLog;
+import com.capitalone.dashboard.repository.AuditRequestLogRepository;
+import org.json.simple.JSONObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditRequestLogWriterTest {
+
+    @Mock
+    private AuditRequestLogRepository repository;
+
+    private final ApiSettings settings = new ApiSettings();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private AuditRequestLogWriter writer;
+
+    @Before
+    public void setup() {
+        settings.setLogRequest(true);
+        settings.setRequestLogQueueCapacity(100);
+        settings.setRequestLogBatchSize(10);
+        settings.setRequestLogFlushIntervalMillis(60000);
+    }
+
+    @After
+    public void tearDown() {
+        if (writer != null) {
+            writer.shutdown();
+        }
+    }
+
+    @Test
+    public void fullBatchIsWrittenWithOneCall() throws Exception {
+        CountDownLatch saved = recordBatches(1);
+        writer = new AuditRequestLogWriter(repository, settings);
+
+        for (int i = 0; i < 10; i++) {
+            writer.write(new AuditRequestLog());
+        }
+
+        Assert.assertTrue(saved.await(5, TimeUnit.SECONDS));
+        writer.shutdown();
+        Assert.assertEquals(10, (int) batchSizes.get(0));
+        Assert.assertEquals(10, writer.getWritten());
+        verify(repository, never()).save(any(AuditRequestLog.class));
+    }
+
+    @Test
+    public void partialBatchIsWrittenAfterFlushInterval() throws Exception {
+        settings.setRequestLogFlushIntervalMillis(50);
+        CountDownLatch saved = recordBatches(1);
+        writer = new AuditRequestLogWriter(repository, settings);
+
+        writer.write(new AuditRequestLog());
+        writer.write(new AuditRequestLog());
+
+        Assert.assertTrue(saved.await(5, TimeUnit.SECONDS));
+        writer.shutdown();
+        Assert.assertEquals(2, (int) batchSizes.get(0));
+        Assert.assertEquals(2, writer.getLastBatchSize());
+    }
+
+    @Test
+    public void fullQueueDropsAndShutdownWritesTheRest() throws Exception {
+        settings.setRequestLogQueueCapacity(5);
+        settings.setRequestLogBatchSize(1);
+        CountDownLatch writerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.saveAll(anyListOf(AuditRequestLog.class))).thenAnswer(invocation -> {
+            batchSizes.add(invocation.<List<AuditRequestLog>>getArgument(0).size());
+            writerBusy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        writer = new AuditRequestLogWriter(repository, settings);
+
+        writer.write(new AuditRequestLog());
+        Assert.assertTrue(writerBusy.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 8; i++) {
+            writer.write(new AuditRequestLog());
+        }
+
+        Assert.assertEquals(5, writer.getQueueDepth());
+        Assert.assertEquals(3, writer.getDropped());
+
+        release.countDown();
+        writer.shutdown();
+        Assert.assertEquals(0, writer.getQueueDepth());
+        Assert.assertEquals(6, writer.getWritten());
+    }
+
+    @Test
+    public void failingBatchDoesNotStopTheWriter() throws Exception {
+        settings.setRequestLogBatchSize(1);
+        CountDownLatch saved = recordBatches(1);
+        writer = new AuditRequestLogWriter(repository, settings);
+        AuditRequestLog unreadable = mock(AuditRequestLog.class);
+        when(unreadable.getRequestBody()).thenThrow(new IllegalStateException("unreadable body"));
+
+        writer.write(unreadable);
+        writer.write(new AuditRequestLog());
+
+        Assert.assertTrue(saved.await(5, TimeUnit.SECONDS));
+        writer.shutdown();
+        Assert.assertEquals(1, writer.getFailed());
+        Assert.assertEquals(1, writer.getWritten());
+        verify(repository, never()).save(any(AuditRequestLog.class));
+    }
+
+    @Test
+    public void noQueueSavesOnTheCallingThread() {
+        settings.setRequestLogQueueCapacity(0);
+        writer = new AuditRequestLogWriter(repository, settings);
+
+        AuditRequestLog requestLog = new AuditRequestLog();
+        writer.write(requestLog);
+
+        verify(repository).save(requestLog);
+        Assert.assertEquals(1, writer.getWritten());
+    }
+
+    @Test
+    public void jsonBodiesAreParsedBeforeSaving() {
+        settings.setRequestLogQueueCapacity(0);
+        writer = new AuditRequestLogWriter(repository, settings);
+
+        AuditRequestLog requestLog = new AuditRequestLog();
+        requestLog.setRequestBody("{\"title\":\"dashboard\"}");
+        requestLog.setResponseBody("{\"status\":");
+        writer.write(requestLog);
+
+        Assert.assertTrue(requestLog.getRequestBody() instanceof JSONObject);
+        Assert.assertEquals("dashboard", ((JSONObject) requestLog.getRequestBody()).get("title"));
+        Assert.assertEquals("{\"status\":", requestLog.getResponseBody());
+    }
+
+    private CountDownLatch recordBatches(int count) {
+        CountDownLatch saved = new CountDownLatch(count);
+        when(repository.saveAll(anyListOf(AuditRequestLog.class))).thenAnswer(invocation -> {
+            batchSizes.add(invocation.<List<AuditRequestLog>>getArgument(0).size());
+            saved.countDown();
+            return invocation.getArgument(0);
+        });
+        return saved;
+    }
+}
@@ -0,0 +1,181 @@
+package com.capitalone.dashboard.logging;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.AuditRequestLog;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LoggingFilterTest {
+
+    private static final String BODY = "{\"result\":\"" + new String(new char[5000]).replace('\0', 'x') + "\"}";
+
+    @Mock
+    private AuditRequestLogWriter auditRequestLogWriter;
+
+    @Spy
+    private ApiSettings settings = new ApiSettings();
+
+    @InjectMocks
+    private LoggingFilter loggingFilter;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Before
+    public void setup() {
+        settings.setLogRequest(true);
+        settings.setRequestLogSampleRate(1.0);
+        ReflectionTestUtils.setField(loggingFilter, "requestLogPolicy", new RequestLogPolicy(settings));
+        request = new MockHttpServletRequest("GET", "/dashboardReview");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    public void responseSizeIsCountedFromStreamWrites() throws Exception {
+        FilterChain chain = (req, res) -> {
+            res.setContentType("application/json");
+            byte[] bytes = BODY.getBytes(StandardCharsets.UTF_8);
+            res.getOutputStream().write(bytes, 0, 10);
+            res.getOutputStream().write(bytes[10]);
+            res.getOutputStream().write(bytes, 11, bytes.length - 11);
+        };
+
+        loggingFilter.doFilter(request, response, chain);
+
+        AuditRequestLog requestLog = loggedRequest();
+        Assert.assertEquals(BODY.length(), requestLog.getResponseSize());
+        Assert.assertNull(requestLog.getResponseBody());
+        Assert.assertEquals(BODY, response.getContentAsString());
+    }
+
+    @Test
+    public void responseSizeIncludesUnflushedWriterOutput() throws Exception {
+        response.setCharacterEncoding("UTF-8");
+        FilterChain chain = (req, res) -> res.getWriter().write("café");
+
+        loggingFilter.doFilter(request, response, chain);
+
+        Assert.assertEquals(5, loggedRequest().getResponseSize());
+        Assert.assertEquals("café", response.getContentAsString());
+    }
+
+    @Test
+    public void writerOutputIsCapturedUpToTheLimit() throws Exception {
+        settings.setLogResponseBody(true);
+        settings.setResponseBodyLogLimit(100);
+        FilterChain chain = (req, res) -> {
+            res.setContentType("application/json;charset=UTF-8");
+            res.getWriter().print(BODY);
+        };
+
+        loggingFilter.doFilter(request, response, chain);
+
+        AuditRequestLog requestLog = loggedRequest();
+        Assert.assertEquals(BODY.length(), requestLog.getResponseSize());
+        Assert.assertEquals(BODY.substring(0, 100), requestLog.getResponseBody());
+        Assert.assertEquals(BODY, response.getContentAsString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void outputStreamAfterWriterIsRejected() throws Exception {
+        loggingFilter.doFilter(request, response, (req, res) -> {
+            res.getWriter();
+            res.getOutputStream();
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void writerAfterOutputStreamIsRejected() throws Exception {
+        loggingFilter.doFilter(request, response, (req, res) -> {
+            res.getOutputStream();
+            res.getWriter();
+        });
+    }
+
+    @Test
+    public void responseBodyIsCapturedUpToTheLimit() throws Exception {
+        settings.setLogResponseBody(true);
+        settings.setResponseBodyLogLimit(100);
+        FilterChain chain = (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(BODY.getBytes(StandardCharsets.UTF_8));
+        };
+
+        loggingFilter.doFilter(request, response, chain);
+
+        AuditRequestLog requestLog = loggedRequest();
+        Assert.assertEquals(BODY.length(), requestLog.getResponseSize());
+        Assert.assertEquals(BODY.substring(0, 100), requestLog.getResponseBody());
+        Assert.assertEquals(BODY, response.getContentAsString());
+    }
+
+    @Test
+    public void requestBodyIsCapturedAsTheHandlerReadsIt() throws Exception {
+        settings.setRequestBodyLogLimit(100);
+        request.setMethod("POST");
+        request.setContentType("application/json");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+        StringBuilder handlerBody = new StringBuilder();
+        FilterChain chain = (req, res) -> {
+            int c;
+            while ((c = req.getReader().read()) != -1) {
+                handlerBody.append((char) c);
+            }
+        };
+
+        loggingFilter.doFilter(request, response, chain);
+
+        Assert.assertEquals(BODY, handlerBody.toString());
+        Assert.assertEquals(BODY.substring(0, 100), loggedRequest().getRequestBody());
+    }
+
+    @Test
+    public void unreadRequestBodyIsNotLogged() throws Exception {
+        settings.setRequestBodyLogLimit(100);
+        request.setMethod("POST");
+        request.setContentType("application/json");
+        request.setContent(BODY.getBytes(StandardCharsets.UTF_8));
+
+        loggingFilter.doFilter(request, response, (req, res) -> { });
+
+        Assert.assertNull(loggedRequest().getRequestBody());
+    }
+
+    @Test
+    public void sampledOutRequestIsWrittenOnlyWhenItFails() throws Exception {
+        settings.setRequestLogRouteSampleRates(Collections.singletonList("GET /dashboardReview=0"));
+        ReflectionTestUtils.setField(loggingFilter, "requestLogPolicy", new RequestLogPolicy(settings));
+
+        loggingFilter.doFilter(request, response, (req, res) -> { });
+        verify(auditRequestLogWriter, never()).write(any(AuditRequestLog.class));
+
+        loggingFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> ((HttpServletResponse) res).setStatus(500));
+        Assert.assertEquals(500, loggedRequest().getResponseCode());
+    }
+
+    private AuditRequestLog loggedRequest() {
+        ArgumentCaptor<AuditRequestLog> captor = ArgumentCaptor.forClass(AuditRequestLog.class);
+        verify(auditRequestLogWriter).write(captor.capture());
+        return captor.getValue();
+    }
+}
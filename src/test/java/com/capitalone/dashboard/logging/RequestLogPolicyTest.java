@@ -0,0 +1,107 @@
+package com.capitalone.dashboard.logging;
+
+import com.capitalone.dashboard.ApiSettings;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.capitalone.dashboard.logging.RequestLogPolicy.Decision.IGNORED;
+import static com.capitalone.dashboard.logging.RequestLogPolicy.Decision.NOT_SAMPLED;
+import static com.capitalone.dashboard.logging.RequestLogPolicy.Decision.SAMPLED;
+
+public class RequestLogPolicyTest {
+
+    private final ApiSettings settings = new ApiSettings();
+
+    @Before
+    public void setup() {
+        settings.setLogRequest(true);
+        settings.setRequestLogSampleRate(1.0);
+        settings.setRequestLogSlowThresholdMillis(5000);
+    }
+
+    @Test
+    public void nothingIsWrittenWithoutLogRequest() {
+        settings.setLogRequest(false);
+        Assert.assertEquals(IGNORED, new RequestLogPolicy(settings).decide("POST", "/dashboardReview", "user"));
+    }
+
+    @Test
+    public void ignoredEndPointsAndApiUsers() {
+        settings.setIgnoreEndPoints(Arrays.asList("ping", "/lookup"));
+        settings.setIgnoreApiUsers(Collections.singletonList("Monitor"));
+        RequestLogPolicy policy = new RequestLogPolicy(settings);
+
+        Assert.assertEquals(IGNORED, policy.decide("GET", "/api/LookUp/title", "user"));
+        Assert.assertEquals(IGNORED, policy.decide("GET", "/dashboardReview", "monitor"));
+        Assert.assertEquals(SAMPLED, policy.decide("GET", "/dashboardReview", "user"));
+        Assert.assertFalse(policy.isWritten(IGNORED, 500, 10000));
+    }
+
+    @Test
+    public void firstMatchingRouteSetsTheRate() {
+        settings.setRequestLogSampleRate(0);
+        settings.setRequestLogRouteSampleRates(Arrays.asList("GET /auditresult/**=0", "/auditresult/**=1", "invalid", "/x=2"));
+        RequestLogPolicy policy = new RequestLogPolicy(settings);
+
+        Assert.assertEquals(NOT_SAMPLED, policy.decide("GET", "/auditresult/dashboard/title", "user"));
+        Assert.assertEquals(SAMPLED, policy.decide("POST", "/auditresult/dashboard/title", "user"));
+        Assert.assertEquals(NOT_SAMPLED, policy.decide("POST", "/dashboardReview", "user"));
+        Assert.assertEquals(NOT_SAMPLED, policy.decide("GET", "/x", "user"));
+    }
+
+    @Test
+    public void routesMatchLikeAntPaths() {
+        AntPathMatcher pathMatcher = new AntPathMatcher();
+        List<String> patterns = Arrays.asList("/auditresult/**", "/auditresult/*", "/auditresult/*/title", "/**", "/a/**/b",
+                "/dashboard/{title}", "/dashboard/{id:[0-9]+}/review", "/look?p", "/api/", "/api/v*.json");
+        List<String> paths = Arrays.asList("/auditresult", "/auditresult/", "/auditresult/dashboard", "/auditresult/dashboard/title",
+                "/a/b", "/a/x/y/b", "/a/bc", "/dashboard/team", "/dashboard/12/review", "/dashboard/x1/review",
+                "/lookup", "/lookUp", "/api", "/api/", "/api/v2.json", "/api/v2xjson", "/");
+        for (String pattern : patterns) {
+            settings.setRequestLogRouteSampleRates(Collections.singletonList(pattern + "=0"));
+            RequestLogPolicy policy = new RequestLogPolicy(settings);
+            for (String path : paths) {
+                Assert.assertEquals(pattern + " " + path, pathMatcher.match(pattern, path) ? NOT_SAMPLED : SAMPLED,
+                        policy.decide("GET", path, "user"));
+            }
+        }
+    }
+
+    @Test
+    public void invalidPathVariableRegexIsIgnored() {
+        settings.setRequestLogRouteSampleRates(Arrays.asList("/dashboard/{id:[0-9}=0", "/dashboard/**=0"));
+        RequestLogPolicy policy = new RequestLogPolicy(settings);
+
+        Assert.assertEquals(NOT_SAMPLED, policy.decide("GET", "/dashboard/12", "user"));
+        Assert.assertEquals(SAMPLED, policy.decide("GET", "/auditresult", "user"));
+    }
+
+    @Test
+    public void apiUserRateOverridesTheRoute() {
+        settings.setRequestLogRouteSampleRates(Collections.singletonList("GET /auditresult/**=0"));
+        settings.setRequestLogApiUserSampleRates(Collections.singletonList("Auditor=1"));
+        RequestLogPolicy policy = new RequestLogPolicy(settings);
+
+        Assert.assertEquals(SAMPLED, policy.decide("GET", "/auditresult/dashboard/title", "auditor"));
+        Assert.assertEquals(NOT_SAMPLED, policy.decide("GET", "/auditresult/dashboard/title", "other"));
+    }
+
+    @Test
+    public void notSampledRequestsAreWrittenWhenFailedOrSlow() {
+        RequestLogPolicy policy = new RequestLogPolicy(settings);
+
+        Assert.assertTrue(policy.isWritten(SAMPLED, 200, 10));
+        Assert.assertFalse(policy.isWritten(NOT_SAMPLED, 200, 10));
+        Assert.assertTrue(policy.isWritten(NOT_SAMPLED, 404, 10));
+        Assert.assertTrue(policy.isWritten(NOT_SAMPLED, 200, 5000));
+        Assert.assertEquals(1, policy.getSampledOut());
+        Assert.assertEquals(1, policy.getKeptFailed());
+        Assert.assertEquals(1, policy.getKeptSlow());
+    }
+}
@@ -0,0 +1,97 @@
+package com.capitalone.dashboard.repository;
+
+import com.capitalone.dashboard.model.Build;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LatestRecordQueryImplTest {
+
+    @Mock
+    private MongoTemplate template;
+
+    private LatestRecordQueryImpl latestRecordQuery;
+
+    @Before
+    public void setup() {
+        when(template.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+        latestRecordQuery = new LatestRecordQueryImpl(template);
+    }
+
+    @Test
+    public void latestRecordIsGroupedByCollectorItem() {
+        List<Document> stages = LatestRecordQueryImpl.latestAggregation(Collections.singletonList(ObjectId.get()), "evaluationTimestamp")
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        Assert.assertEquals(4, stages.size());
+        Assert.assertTrue(stages.get(0).get("$match", Document.class).containsKey("collectorItemId"));
+        Assert.assertEquals(new Document("collectorItemId", 1).append("evaluationTimestamp", -1), stages.get(1).get("$sort"));
+        Assert.assertEquals(new Document("_id", "$collectorItemId").append("latest", new Document("$first", "$$ROOT")), stages.get(2).get("$group"));
+        Assert.assertEquals(new Document("newRoot", "$latest"), stages.get(3).get("$replaceRoot"));
+    }
+
+    @Test
+    public void latestRecordsAreMappedByCollectorItem() {
+        ObjectId withBuild = ObjectId.get();
+        ObjectId withoutBuild = ObjectId.get();
+        when(template.aggregate(any(Aggregation.class), eq(Build.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(Collections.singletonList(new Document("_id", ObjectId.get())
+                        .append("collectorItemId", withBuild).append("number", "42").append("timestamp", 1000L)), new Document()));
+
+        Map<ObjectId, Build> latest = latestRecordQuery.findLatest(Build.class, Arrays.asList(withBuild, withoutBuild, withBuild, null));
+
+        Assert.assertEquals(1, latest.size());
+        Assert.assertEquals("42", latest.get(withBuild).getNumber());
+        Assert.assertEquals(1000L, latest.get(withBuild).getTimestamp());
+        verify(template, times(1)).aggregate(any(Aggregation.class), eq(Build.class), eq(Document.class));
+    }
+
+    @Test
+    public void largeBatchesAreSplit() {
+        when(template.aggregate(any(Aggregation.class), eq(Build.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(Collections.emptyList(), new Document()));
+        List<ObjectId> ids = new ArrayList<>();
+        for (int i = 0; i <= LatestRecordQueryImpl.BATCH_SIZE; i++) {
+            ids.add(ObjectId.get());
+        }
+
+        latestRecordQuery.findLatest(Build.class, ids);
+
+        ArgumentCaptor<Aggregation> aggregations = ArgumentCaptor.forClass(Aggregation.class);
+        verify(template, times(2)).aggregate(aggregations.capture(), eq(Build.class), eq(Document.class));
+        Assert.assertTrue(aggregations.getAllValues().stream().allMatch(aggregation -> aggregation.getOptions().isAllowDiskUse()));
+    }
+
+    @Test
+    public void noCollectorItemsRunNoAggregation() {
+        Assert.assertTrue(latestRecordQuery.findLatest(Build.class, Collections.emptyList()).isEmpty());
+
+        verify(template, never()).aggregate(any(Aggregation.class), eq(Build.class), eq(Document.class));
+    }
+}
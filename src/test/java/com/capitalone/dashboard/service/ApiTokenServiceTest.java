@@ -0,0 +1,138 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.ApiToken;
+import com.capitalone.dashboard.repository.ApiTokenRepository;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ApiTokenServiceTest {
+
+    private static final String API_USER = "automation";
+    private static final String API_KEY = "secret";
+
+    @Mock
+    private ApiTokenRepository apiTokenRepository;
+
+    private final ApiSettings settings = new ApiSettings();
+    private ApiToken apiToken;
+
+    @Before
+    public void setup() {
+        settings.setApiTokenCacheTtlSeconds(60);
+        settings.setApiTokenCacheMaxSize(100);
+        apiToken = new ApiToken(API_USER, API_KEY, System.currentTimeMillis() + 60000);
+        apiToken.setId(ObjectId.get());
+        when(apiTokenRepository.findByApiUser(API_USER)).thenReturn(Collections.singletonList(apiToken));
+    }
+
+    @Test
+    public void repeatedAuthenticationIsServedFromTheCache() {
+        ApiTokenServiceImpl service = new ApiTokenServiceImpl(apiTokenRepository, settings);
+
+        Authentication first = service.authenticate(API_USER, API_KEY);
+        Authentication second = service.authenticate(API_USER, API_KEY);
+
+        Assert.assertTrue(first.isAuthenticated());
+        Assert.assertEquals(API_USER, second.getName());
+        Assert.assertEquals(first.getAuthorities(), second.getAuthorities());
+        Assert.assertEquals(1, service.getAuthenticationCacheStats().hitCount());
+        verify(apiTokenRepository, times(1)).findByApiUser(API_USER);
+    }
+
+    @Test(expected = BadCredentialsException.class)
+    public void wrongKeyIsNotServedFromTheCache() {
+        ApiTokenServiceImpl service = new ApiTokenServiceImpl(apiTokenRepository, settings);
+        service.authenticate(API_USER, API_KEY);
+
+        service.authenticate(API_USER, "guess");
+    }
+
+    @Test
+    public void expiredTokenIsCheckedAgain() throws Exception {
+        // the first key check of the JVM is slow, the token has to outlive it
+        new ApiTokenServiceImpl(apiTokenRepository, settings).authenticate(API_USER, API_KEY);
+        apiToken.setExpirationDt(System.currentTimeMillis() + 500);
+        ApiTokenServiceImpl service = new ApiTokenServiceImpl(apiTokenRepository, settings);
+        service.authenticate(API_USER, API_KEY);
+
+        Thread.sleep(600);
+        try {
+            service.authenticate(API_USER, API_KEY);
+            Assert.fail("expired token authenticated");
+        } catch (BadCredentialsException expected) {
+            verify(apiTokenRepository, times(3)).findByApiUser(API_USER);
+        }
+    }
+
+    @Test
+    public void updatingTheTokenEvictsItsCredentials() throws Exception {
+        when(apiTokenRepository.findById(apiToken.getId())).thenReturn(Optional.of(apiToken));
+        ApiTokenServiceImpl service = new ApiTokenServiceImpl(apiTokenRepository, settings);
+        service.authenticate(API_USER, API_KEY);
+
+        service.updateToken(System.currentTimeMillis() - 1000, apiToken.getId());
+
+        try {
+            service.authenticate(API_USER, API_KEY);
+            Assert.fail("token expired by update authenticated");
+        } catch (BadCredentialsException expected) {
+            verify(apiTokenRepository, times(2)).findByApiUser(API_USER);
+        }
+    }
+
+    @Test
+    public void deletingTheTokenEvictsItsCredentials() {
+        when(apiTokenRepository.findById(apiToken.getId())).thenReturn(Optional.of(apiToken));
+        ApiTokenServiceImpl service = new ApiTokenServiceImpl(apiTokenRepository, settings);
+        service.authenticate(API_USER, API_KEY);
+
+        service.deleteToken(apiToken.getId());
+        service.authenticate(API_USER, API_KEY);
+
+        verify(apiTokenRepository, times(2)).findByApiUser(API_USER);
+    }
+
+    @Test
+    public void tokenDeletedWhileAuthenticatingIsNotCached() {
+        when(apiTokenRepository.findById(apiToken.getId())).thenReturn(Optional.of(apiToken));
+        ApiTokenServiceImpl service = new ApiTokenServiceImpl(apiTokenRepository, settings);
+        // the token is deleted after the authentication read it
+        when(apiTokenRepository.findByApiUser(API_USER)).thenAnswer(invocation -> {
+            service.deleteToken(apiToken.getId());
+            return Collections.singletonList(apiToken);
+        });
+
+        service.authenticate(API_USER, API_KEY);
+        service.authenticate(API_USER, API_KEY);
+
+        verify(apiTokenRepository, times(2)).findByApiUser(API_USER);
+    }
+
+    @Test
+    public void zeroTtlChecksEveryRequest() {
+        settings.setApiTokenCacheTtlSeconds(0);
+        ApiTokenServiceImpl service = new ApiTokenServiceImpl(apiTokenRepository, settings);
+
+        service.authenticate(API_USER, API_KEY);
+        service.authenticate(API_USER, API_KEY);
+
+        verify(apiTokenRepository, times(2)).findByApiUser(API_USER);
+        Assert.assertEquals(0, service.getAuthenticationCacheStats().requestCount());
+    }
+}
@@ -0,0 +1,281 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.AuditException;
+import com.capitalone.dashboard.model.AuditResult;
+import com.capitalone.dashboard.model.AuditResultSummary;
+import com.capitalone.dashboard.model.AuditType;
+import com.capitalone.dashboard.request.ProjectionRequest;
+import com.capitalone.dashboard.util.PaginationHeaderUtility;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpHeaders;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditResultServiceTest {
+
+    private static final String LOB = "Tech";
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private final ApiSettings settings = new ApiSettings();
+    private final PaginationHeaderUtility paginationHeaderUtility = new PaginationHeaderUtility();
+    private AuditResultServiceImpl auditResultService;
+
+    @Before
+    public void setup() {
+        settings.setAuditResultMaxPageSize(100);
+        settings.setAuditResultSummaryCacheTtlSeconds(60);
+        settings.setAuditResultSummaryCacheMaxSize(1000);
+        auditResultService = new AuditResultServiceImpl(mongoTemplate, settings);
+    }
+
+    @Test
+    public void firstPageStartsAfterTheSmallestId() {
+        auditResultService.getAuditResultsByLineOfBus(LOB, null, 10, Collections.emptySet());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(AuditResult.class));
+        Assert.assertEquals(new Document("lineOfBusiness", LOB).append("id", new Document("$gt", new ObjectId(new byte[12]))),
+                query.getValue().getQueryObject());
+        Assert.assertEquals(new Document("id", 1), query.getValue().getSortObject());
+        Assert.assertEquals(11, query.getValue().getLimit());
+    }
+
+    @Test
+    public void pageSizeIsLimited() {
+        ObjectId after = ObjectId.get();
+        Assert.assertEquals(100, auditResultService.getAuditResultsAll(after, 5000, Collections.emptySet()).getSize());
+        Assert.assertEquals(1, auditResultService.getAuditResultsAll(after, 0, Collections.emptySet()).getSize());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(query.capture(), eq(AuditResult.class));
+        Assert.assertEquals(101, query.getAllValues().get(0).getLimit());
+        Assert.assertEquals(2, query.getAllValues().get(1).getLimit());
+        Assert.assertEquals(new Document("id", new Document("$gt", after)), query.getAllValues().get(0).getQueryObject());
+    }
+
+    @Test
+    public void continuationTokenLeadsToTheNextPage() throws AuditException {
+        AuditResult first = auditResult();
+        AuditResult last = auditResult();
+        when(mongoTemplate.find(any(Query.class), eq(AuditResult.class))).thenReturn(Arrays.asList(first, last, auditResult()));
+
+        Slice<AuditResult> page = auditResultService.getAuditResultsByLineOfBus(LOB, null, 2, Collections.emptySet());
+        HttpHeaders headers = paginationHeaderUtility.buildContinuationHeaders(page);
+        String continuationToken = headers.getFirst(PaginationHeaderUtility.CONTINUATION_TOKEN);
+
+        Assert.assertEquals(Arrays.asList(first, last), page.getContent());
+        Assert.assertEquals("true", headers.getFirst("nextPage"));
+        Assert.assertEquals(last.getId(), paginationHeaderUtility.getContinuationId(continuationToken));
+    }
+
+    @Test
+    public void lastPageHasNoContinuationToken() {
+        Slice<AuditResult> page = new SliceImpl<>(Collections.singletonList(auditResult()), PageRequest.of(0, 2), false);
+
+        HttpHeaders headers = paginationHeaderUtility.buildContinuationHeaders(page);
+
+        Assert.assertEquals("false", headers.getFirst("nextPage"));
+        Assert.assertNull(headers.getFirst(PaginationHeaderUtility.CONTINUATION_TOKEN));
+    }
+
+    @Test
+    public void invalidContinuationTokenIsABadRequest() {
+        try {
+            paginationHeaderUtility.getContinuationId("not-a-token");
+            Assert.fail("invalid continuation token accepted");
+        } catch (AuditException e) {
+            Assert.assertEquals(AuditException.BAD_INPUT_DATA, e.getErrorCode());
+        }
+    }
+
+    @Test
+    public void auditResultsByIdKeepTheOrderOfTheIds() {
+        AuditResult first = auditResult();
+        AuditResult second = auditResult();
+        ObjectId deleted = ObjectId.get();
+        when(mongoTemplate.find(any(Query.class), eq(AuditResult.class))).thenReturn(Arrays.asList(second, first));
+
+        List<AuditResult> auditResults = auditResultService.getAuditResults(Arrays.asList(first.getId(), deleted, second.getId()),
+                Collections.singleton("auditStatus"));
+
+        Assert.assertEquals(Arrays.asList(first, second), auditResults);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(AuditResult.class));
+        Assert.assertEquals(new Document("id", new Document("$in", Arrays.asList(first.getId(), deleted, second.getId()))),
+                query.getValue().getQueryObject());
+        Assert.assertEquals(new Document("auditStatus", 1), query.getValue().getFieldsObject());
+        verify(mongoTemplate, times(0)).count(any(Query.class), eq(AuditResult.class));
+    }
+
+    @Test
+    public void exportAppliesTheGivenFilters() {
+        auditResultService.streamAuditResults(AuditType.CODE_REVIEW, LOB, 1000L, Collections.emptySet());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(AuditResult.class));
+        Assert.assertEquals(new Document("auditType", AuditType.CODE_REVIEW).append("lineOfBusiness", LOB)
+                .append("timestamp", new Document("$gt", 1000L)), query.getValue().getQueryObject());
+        Assert.assertTrue(query.getValue().getSortObject().isEmpty());
+        Assert.assertTrue(query.getValue().getFieldsObject().isEmpty());
+    }
+
+    @Test
+    public void exportWithoutFiltersReadsEverything() {
+        auditResultService.streamAuditResults(null, null, null, Collections.emptySet());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(query.capture(), eq(AuditResult.class));
+        Assert.assertTrue(query.getValue().getQueryObject().isEmpty());
+    }
+
+    @Test
+    public void requestedFieldsAreProjected() throws AuditException {
+        Set<String> fields = auditResultService.getFields(projection("auditStatus, timestamp", null));
+        auditResultService.getAuditResultsByDBoardTitle("dashboard", fields);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(query.capture(), eq(AuditResult.class));
+        Assert.assertEquals(new Document("auditStatus", 1).append("timestamp", 1), query.getValue().getFieldsObject());
+    }
+
+    @Test
+    public void statusViewSelectsTheStatusFields() throws AuditException {
+        Assert.assertEquals(AuditResultServiceImpl.STATUS_FIELDS, auditResultService.getFields(projection(null, "status")));
+        Assert.assertTrue(auditResultService.getFields(projection(null, null)).isEmpty());
+    }
+
+    @Test
+    public void unknownFieldOrViewIsABadRequest() {
+        for (ProjectionRequest projection : Arrays.asList(projection("auditStatus,password", null), projection(null, "everything"))) {
+            try {
+                auditResultService.getFields(projection);
+                Assert.fail("invalid projection accepted");
+            } catch (AuditException e) {
+                Assert.assertEquals(AuditException.BAD_INPUT_DATA, e.getErrorCode());
+            }
+        }
+    }
+
+    @Test
+    public void summaryIsGroupedByLineOfBusinessAuditTypeAndStatus() {
+        List<Document> stages = AuditResultServiceImpl.summaryAggregation(LOB, AuditType.CODE_REVIEW).toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        Assert.assertEquals(new Document("lineOfBusiness", LOB).append("auditType", AuditType.CODE_REVIEW), stages.get(0).get("$match"));
+        Assert.assertEquals(new Document("_id", new Document("lineOfBusiness", "$lineOfBusiness").append("auditType", "$auditType")
+                        .append("auditStatus", "$auditStatus"))
+                        .append("count", new Document("$sum", 1)).append("latestTimestamp", new Document("$max", "$timestamp")),
+                stages.get(1).get("$group"));
+        Assert.assertEquals("$_id.auditStatus", stages.get(2).get("$project", Document.class).get("auditStatus"));
+    }
+
+    @Test
+    public void summaryIsCachedPerFilter() {
+        AuditResultSummary summary = new AuditResultSummary();
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class)))
+                .thenReturn(new AggregationResults<>(Collections.singletonList(summary), new Document()));
+
+        Assert.assertEquals(Collections.singletonList(summary), auditResultService.getAuditResultSummary(LOB, null));
+        auditResultService.getAuditResultSummary(LOB, null);
+        auditResultService.getAuditResultSummary(null, null);
+
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class));
+    }
+
+    @Test
+    public void concurrentSummaryMissesShareOneAggregation() throws Exception {
+        CountDownLatch aggregating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class))).thenAnswer(invocation -> {
+            aggregating.countDown();
+            release.await();
+            return new AggregationResults<>(Collections.emptyList(), new Document());
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<AuditResultSummary>> first = executor.submit(() -> auditResultService.getAuditResultSummary(LOB, null));
+            Assert.assertTrue(aggregating.await(5, TimeUnit.SECONDS));
+            Future<List<AuditResultSummary>> second = executor.submit(() -> auditResultService.getAuditResultSummary(LOB, null));
+            Thread.sleep(100);
+            release.countDown();
+
+            Assert.assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(mongoTemplate, times(1)).aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class));
+    }
+
+    @Test
+    public void summaryCacheIsBounded() {
+        settings.setAuditResultSummaryCacheMaxSize(1);
+        auditResultService = new AuditResultServiceImpl(mongoTemplate, settings);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class)))
+                .thenReturn(new AggregationResults<>(Collections.emptyList(), new Document()));
+
+        auditResultService.getAuditResultSummary(LOB, null);
+        auditResultService.getAuditResultSummary("Retail", null);
+        auditResultService.getAuditResultSummary(LOB, null);
+
+        verify(mongoTemplate, times(3)).aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class));
+    }
+
+    @Test
+    public void summaryIsAggregatedOnEveryRequestWithoutCache() {
+        settings.setAuditResultSummaryCacheTtlSeconds(0);
+        auditResultService = new AuditResultServiceImpl(mongoTemplate, settings);
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class)))
+                .thenReturn(new AggregationResults<>(Collections.emptyList(), new Document()));
+
+        auditResultService.getAuditResultSummary(LOB, null);
+        auditResultService.getAuditResultSummary(LOB, null);
+
+        verify(mongoTemplate, times(2)).aggregate(any(Aggregation.class), eq(AuditResult.class), eq(AuditResultSummary.class));
+    }
+
+    private static ProjectionRequest projection(String fields, String view) {
+        ProjectionRequest projection = new ProjectionRequest();
+        projection.setFields(fields);
+        projection.setView(view);
+        return projection;
+    }
+
+    private static AuditResult auditResult() {
+        AuditResult auditResult = new AuditResult();
+        auditResult.setId(ObjectId.get());
+        auditResult.setLineOfBusiness(LOB);
+        return auditResult;
+    }
+}
@@ -0,0 +1,204 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.evaluator.Evaluator;
+import com.capitalone.dashboard.model.AuditException;
+import com.capitalone.dashboard.model.AuditType;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.model.DashboardAuditModel;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.repository.AuditReportRepository;
+import com.capitalone.dashboard.repository.AuditReportVersionRepository;
+import com.capitalone.dashboard.repository.CmdbRepository;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.response.AuditReviewResponse;
+import com.capitalone.dashboard.response.DashboardReviewResponse;
+import com.capitalone.dashboard.status.DashboardAuditStatus;
+import com.google.common.collect.Sets;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DashboardAuditServiceConcurrencyTest {
+
+    private static final long BEGIN_DATE = 1000L;
+    private static final long END_DATE = 2000L;
+
+    @Mock
+    private DashboardRepository dashboardRepository;
+    @Mock
+    private CmdbRepository cmdbRepository;
+    @Mock
+    private DashboardAuditModel auditModel;
+    @Mock
+    private CollectorItemRepository collectorItemRepository;
+    @Mock
+    private AuditReportRepository auditReportRepository;
+    @Mock
+    private AuditReportVersionRepository auditReportVersionRepository;
+
+    private final Map<AuditType, Evaluator> evaluators = new EnumMap<>(AuditType.class);
+    private DashboardAuditServiceImpl dashboardAuditService;
+
+    @Before
+    public void setup() {
+        ApiSettings settings = new ApiSettings();
+        settings.setMaxDaysRangeForQuery(60);
+        settings.setEvaluatorThreadPoolSize(4);
+        settings.setEvaluatorTimeoutSeconds(1);
+        dashboardAuditService = new DashboardAuditServiceImpl(dashboardRepository, cmdbRepository, auditModel,
+                collectorItemRepository, auditReportRepository, auditReportVersionRepository, settings);
+
+        when(dashboardRepository.findByTitleAndType("Title1", DashboardType.Team)).thenReturn(getDashboard());
+        when(auditModel.evaluatorMap()).thenReturn(evaluators);
+        when(auditModel.successStatusMap()).thenCallRealMethod();
+        when(auditModel.errorStatusMap()).thenCallRealMethod();
+    }
+
+    @After
+    public void tearDown() {
+        dashboardAuditService.shutdown();
+    }
+
+    @Test
+    public void evaluatorsRunConcurrently() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        evaluators.put(AuditType.CODE_REVIEW, evaluatorAwaiting(bothStarted));
+        evaluators.put(AuditType.BUILD_REVIEW, evaluatorAwaiting(bothStarted));
+
+        DashboardReviewResponse response = review(AuditType.CODE_REVIEW, AuditType.BUILD_REVIEW);
+
+        Assert.assertTrue(response.getReview().containsKey(AuditType.CODE_REVIEW));
+        Assert.assertTrue(response.getReview().containsKey(AuditType.BUILD_REVIEW));
+        Assert.assertTrue(response.getAuditStatuses().contains(DashboardAuditStatus.DASHBOARD_REPO_CONFIGURED));
+        Assert.assertTrue(response.getAuditStatuses().contains(DashboardAuditStatus.DASHBOARD_BUILD_CONFIGURED));
+    }
+
+    @Test
+    public void noCollectorItemMapsToErrorStatus() throws Exception {
+        Evaluator failing = mock(Evaluator.class);
+        when(failing.evaluate(any(Dashboard.class), anyLong(), anyLong(), anyMap(), any(), any()))
+                .thenThrow(new AuditException("No code repository configured", AuditException.NO_COLLECTOR_ITEM_CONFIGURED));
+        evaluators.put(AuditType.CODE_REVIEW, failing);
+        evaluators.put(AuditType.BUILD_REVIEW, evaluatorAwaiting(new CountDownLatch(0)));
+
+        DashboardReviewResponse response = review(AuditType.CODE_REVIEW, AuditType.BUILD_REVIEW);
+
+        Assert.assertTrue(response.getAuditStatuses().contains(DashboardAuditStatus.DASHBOARD_REPO_NOT_CONFIGURED));
+        Assert.assertTrue(response.getAuditStatuses().contains(DashboardAuditStatus.DASHBOARD_BUILD_CONFIGURED));
+        Assert.assertFalse(response.getReview().containsKey(AuditType.CODE_REVIEW));
+    }
+
+    @Test
+    public void slowEvaluatorTimesOut() throws Exception {
+        evaluators.put(AuditType.CODE_REVIEW, evaluatorAwaiting(new CountDownLatch(2)));
+        evaluators.put(AuditType.BUILD_REVIEW, evaluatorAwaiting(new CountDownLatch(0)));
+
+        DashboardReviewResponse response = review(AuditType.CODE_REVIEW, AuditType.BUILD_REVIEW);
+
+        Assert.assertFalse(response.getReview().containsKey(AuditType.CODE_REVIEW));
+        Assert.assertTrue(response.getReview().containsKey(AuditType.BUILD_REVIEW));
+        Assert.assertTrue(response.getErrorMessage().contains("CODE_REVIEW evaluation timed out"));
+    }
+
+    @Test
+    public void timeQueuedForThePoolDoesNotTimeOut() throws Exception {
+        ApiSettings settings = new ApiSettings();
+        settings.setMaxDaysRangeForQuery(60);
+        settings.setEvaluatorThreadPoolSize(1);
+        settings.setEvaluatorTimeoutSeconds(1);
+        dashboardAuditService.shutdown();
+        dashboardAuditService = new DashboardAuditServiceImpl(dashboardRepository, cmdbRepository, auditModel,
+                collectorItemRepository, auditReportRepository, auditReportVersionRepository, settings);
+        evaluators.put(AuditType.CODE_REVIEW, evaluatorTaking(700));
+        evaluators.put(AuditType.BUILD_REVIEW, evaluatorTaking(700));
+
+        DashboardReviewResponse response = review(AuditType.CODE_REVIEW, AuditType.BUILD_REVIEW);
+
+        Assert.assertTrue(response.getReview().containsKey(AuditType.CODE_REVIEW));
+        Assert.assertTrue(response.getReview().containsKey(AuditType.BUILD_REVIEW));
+        Assert.assertNull(response.getErrorMessage());
+    }
+
+    @Test
+    public void evaluatorQueuedPastTheTimeoutIsCancelled() throws Exception {
+        ApiSettings settings = new ApiSettings();
+        settings.setMaxDaysRangeForQuery(60);
+        settings.setEvaluatorThreadPoolSize(1);
+        settings.setEvaluatorTimeoutSeconds(1);
+        dashboardAuditService.shutdown();
+        dashboardAuditService = new DashboardAuditServiceImpl(dashboardRepository, cmdbRepository, auditModel,
+                collectorItemRepository, auditReportRepository, auditReportVersionRepository, settings);
+        AtomicInteger started = new AtomicInteger();
+        evaluators.put(AuditType.CODE_REVIEW, evaluatorTaking(0, started));
+        // the evaluators of concurrent reviews hold the only evaluator thread
+        ExecutorService evaluatorExecutor = (ExecutorService) ReflectionTestUtils.getField(dashboardAuditService, "evaluatorExecutor");
+        CountDownLatch release = new CountDownLatch(1);
+        evaluatorExecutor.submit(() -> release.await(10, TimeUnit.SECONDS));
+
+        DashboardReviewResponse response = review(AuditType.CODE_REVIEW);
+        release.countDown();
+        evaluatorExecutor.submit(() -> { }).get(5, TimeUnit.SECONDS);
+
+        Assert.assertFalse(response.getReview().containsKey(AuditType.CODE_REVIEW));
+        Assert.assertTrue(response.getErrorMessage().contains("CODE_REVIEW evaluation timed out waiting for an evaluator thread"));
+        Assert.assertEquals(0, started.get());
+    }
+
+    private DashboardReviewResponse review(AuditType... auditTypes) throws AuditException {
+        return dashboardAuditService.getDashboardReviewResponse("Title1", DashboardType.Team, null, null,
+                BEGIN_DATE, END_DATE, Sets.newHashSet(auditTypes), null, null, null, Collections.emptyMap());
+    }
+
+    private Evaluator evaluatorAwaiting(CountDownLatch latch) throws AuditException {
+        Evaluator evaluator = mock(Evaluator.class);
+        when(evaluator.evaluate(any(Dashboard.class), anyLong(), anyLong(), anyMap(), any(), any())).thenAnswer(invocation -> {
+            latch.countDown();
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("evaluators did not run concurrently");
+            }
+            return Collections.singletonList(new AuditReviewResponse());
+        });
+        return evaluator;
+    }
+
+    private Evaluator evaluatorTaking(long millis) throws AuditException {
+        return evaluatorTaking(millis, new AtomicInteger());
+    }
+
+    private Evaluator evaluatorTaking(long millis, AtomicInteger started) throws AuditException {
+        Evaluator evaluator = mock(Evaluator.class);
+        when(evaluator.evaluate(any(Dashboard.class), anyLong(), anyLong(), anyMap(), any(), any())).thenAnswer(invocation -> {
+            started.incrementAndGet();
+            Thread.sleep(millis);
+            return Collections.singletonList(new AuditReviewResponse());
+        });
+        return evaluator;
+    }
+
+    private Dashboard getDashboard() {
+        return new Dashboard("Template1", "Title1", null, null, DashboardType.Team,
+                "ASV1", "BAP1", null, false, null);
+    }
+}
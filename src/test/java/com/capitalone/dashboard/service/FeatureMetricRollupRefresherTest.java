@@ -0,0 +1,246 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.model.Cmdb;
+import com.capitalone.dashboard.model.CollectorItem;
+import com.capitalone.dashboard.model.CollectorType;
+import com.capitalone.dashboard.model.Component;
+import com.capitalone.dashboard.model.ComponentFeatureMetrics;
+import com.capitalone.dashboard.model.Dashboard;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.FeatureMetricRollup;
+import com.capitalone.dashboard.model.LobFeatureMetrics;
+import com.capitalone.dashboard.model.Widget;
+import com.capitalone.dashboard.repository.CmdbRepository;
+import com.capitalone.dashboard.repository.CollectorItemRepository;
+import com.capitalone.dashboard.repository.ComponentRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.FeatureMetricRollupRepository;
+import com.capitalone.dashboard.repository.FeatureRepository;
+import com.capitalone.dashboard.repository.LatestRecordQuery;
+import org.bson.types.ObjectId;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeatureMetricRollupRefresherTest {
+
+    private static final String TITLE = "TestSSA";
+
+    @Mock
+    private FeatureMetricsService featureMetricsService;
+    @Mock
+    private FeatureMetricRollupRepository featureMetricRollupRepository;
+    @Mock
+    private DashboardRepository dashboardRepository;
+    @Mock
+    private ComponentRepository componentRepository;
+    @Mock
+    private CollectorItemRepository collectorItemRepository;
+    @Mock
+    private CmdbRepository cmdbRepository;
+    @Mock
+    private FeatureRepository featureRepository;
+    @Mock
+    private LatestRecordQuery latestRecordQuery;
+
+    private final ApiSettings settings = new ApiSettings();
+    private final List<FeatureMetricRollup> stored = new ArrayList<>();
+    private CollectorItem codeQualityItem;
+    private FeatureMetricRollupRefresher refresher;
+
+    @Before
+    public void setup() {
+        settings.setFeatureMetricRollupMaxAgeSeconds(3600);
+
+        codeQualityItem = new CollectorItem();
+        codeQualityItem.setId(ObjectId.get());
+        codeQualityItem.setLastUpdated(1000);
+        Component component = new Component("component");
+        component.setId(ObjectId.get());
+        component.addCollectorItem(CollectorType.CodeQuality, codeQualityItem);
+        Widget widget = new Widget();
+        widget.setName("codeanalysis");
+        widget.setComponentId(component.getId());
+        Dashboard dashboard = new Dashboard();
+        dashboard.setTitle(TITLE);
+        dashboard.getWidgets().add(widget);
+
+        when(dashboardRepository.findAllByType(DashboardType.Team)).thenReturn(Collections.singletonList(dashboard));
+        when(componentRepository.findAllById(anyCollectionOf(ObjectId.class))).thenReturn(Collections.singletonList(component));
+        when(collectorItemRepository.findAllById(anyCollectionOf(ObjectId.class))).thenReturn(Collections.singletonList(codeQualityItem));
+        when(featureMetricRollupRepository.findAll()).thenReturn(stored);
+        when(featureMetricsService.getComponentFeatureMetrics(TITLE, true)).thenReturn(componentMetrics());
+
+        refresher = new FeatureMetricRollupRefresher(featureMetricsService, featureMetricRollupRepository, dashboardRepository,
+                componentRepository, collectorItemRepository, settings);
+    }
+
+    @After
+    public void tearDown() {
+        refresher.shutdown();
+    }
+
+    @Test
+    public void firstRefreshStoresTheComponentMetrics() {
+        refresher.refresh();
+
+        FeatureMetricRollup rollup = savedRollup();
+        Assert.assertEquals(TITLE, rollup.getId());
+        Assert.assertEquals("TestAudit", rollup.getName());
+        Assert.assertEquals(componentMetrics().getMetrics(), rollup.getMetrics());
+        Assert.assertNotNull(rollup.getFingerprint());
+        Assert.assertEquals(1, refresher.getRecomputed());
+    }
+
+    @Test
+    public void unchangedComponentIsNotRecomputed() {
+        refresher.refresh();
+        stored.add(savedRollup());
+        reset(featureMetricRollupRepository);
+        when(featureMetricRollupRepository.findAll()).thenReturn(stored);
+
+        refresher.refresh();
+
+        verify(featureMetricsService, times(1)).getComponentFeatureMetrics(TITLE, true);
+        verify(featureMetricRollupRepository, never()).saveAll(any(Iterable.class));
+        Assert.assertEquals(1, refresher.getUnchanged());
+    }
+
+    @Test
+    public void updatedCollectorItemRecomputesTheComponent() {
+        refresher.refresh();
+        stored.add(savedRollup());
+
+        codeQualityItem.setLastUpdated(2000);
+        refresher.refresh();
+
+        verify(featureMetricsService, times(2)).getComponentFeatureMetrics(TITLE, true);
+    }
+
+    @Test
+    public void expiredRollupIsRecomputed() {
+        refresher.refresh();
+        FeatureMetricRollup rollup = savedRollup();
+        rollup.setTimestamp(System.currentTimeMillis() - 7200 * 1000L);
+        stored.add(rollup);
+
+        refresher.refresh();
+
+        verify(featureMetricsService, times(2)).getComponentFeatureMetrics(TITLE, true);
+    }
+
+    @Test
+    public void rollupOfARemovedDashboardIsDeleted() {
+        FeatureMetricRollup removed = new FeatureMetricRollup();
+        removed.setId("removed");
+        stored.add(removed);
+
+        refresher.refresh();
+
+        ArgumentCaptor<Iterable> deleted = ArgumentCaptor.forClass(Iterable.class);
+        verify(featureMetricRollupRepository).deleteAll(deleted.capture());
+        Assert.assertEquals(Collections.singletonList(removed), deleted.getValue());
+    }
+
+    @Test
+    public void metricsAreServedFromTheRollups() {
+        settings.setFeatureMetricRollupRefreshIntervalSeconds(300);
+        FeatureMetricRollup rollup = new FeatureMetricRollup();
+        rollup.setId(TITLE);
+        rollup.setName("TestAudit");
+        rollup.setMetrics(new ArrayList<>(metrics()));
+        rollup.setTimestamp(1234L);
+        when(featureMetricRollupRepository.findAllById(anyCollectionOf(String.class))).thenReturn(Collections.singletonList(rollup));
+        Cmdb cmdb = new Cmdb();
+        cmdb.setConfigurationItem("product1");
+        cmdb.setComponents(Arrays.asList(TITLE, "unknown"));
+        when(cmdbRepository.findByItemTypeAndOwnerDeptAndValidConfigItem("app", "Tech", true)).thenReturn(Collections.singletonList(cmdb));
+        FeatureMetricServiceImpl service = newService();
+        try {
+            LobFeatureMetrics lobFeatureMetrics = service.getLobFeatureMetricsByType("Tech", "CODE_COVERAGE", false);
+
+            Assert.assertEquals(Long.valueOf(1234L), lobFeatureMetrics.getRollupTimestamp());
+            Assert.assertEquals("80", lobFeatureMetrics.getPercentage());
+            ComponentFeatureMetrics fromRollup = lobFeatureMetrics.getApplications().get(0).getComponents().get(0);
+            Assert.assertEquals(1, fromRollup.getMetrics().size());
+            Assert.assertEquals(Long.valueOf(1234L), fromRollup.getRollupTimestamp());
+            // without a rollup the component is computed
+            Assert.assertEquals("Component is not configured", lobFeatureMetrics.getApplications().get(0).getComponents().get(1).getMessage());
+            verify(dashboardRepository, never()).findByTitleAndType(TITLE, DashboardType.Team);
+            verify(dashboardRepository).findByTitleAndType("unknown", DashboardType.Team);
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    public void liveMetricsBypassTheRollups() {
+        settings.setFeatureMetricRollupRefreshIntervalSeconds(300);
+        FeatureMetricServiceImpl service = newService();
+        try {
+            ComponentFeatureMetrics featureMetrics = service.getComponentFeatureMetrics(TITLE, true);
+
+            Assert.assertNull(featureMetrics.getRollupTimestamp());
+            verify(featureMetricRollupRepository, never()).findAllById(anyCollectionOf(String.class));
+            verify(dashboardRepository).findByTitleAndType(anyString(), any(DashboardType.class));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private FeatureMetricServiceImpl newService() {
+        return new FeatureMetricServiceImpl(dashboardRepository, componentRepository, cmdbRepository, featureRepository,
+                featureMetricRollupRepository, latestRecordQuery, settings, new PatternRegistry(settings));
+    }
+
+    private FeatureMetricRollup savedRollup() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<FeatureMetricRollup>> saved = ArgumentCaptor.forClass((Class) List.class);
+        verify(featureMetricRollupRepository).saveAll(saved.capture());
+        return saved.getValue().get(0);
+    }
+
+    private static ComponentFeatureMetrics componentMetrics() {
+        ComponentFeatureMetrics featureMetrics = new ComponentFeatureMetrics();
+        featureMetrics.setId(TITLE);
+        featureMetrics.setType("Component");
+        featureMetrics.setName("TestAudit");
+        featureMetrics.setMetrics(new ArrayList<>(metrics()));
+        return featureMetrics;
+    }
+
+    private static List<HashMap<String, Object>> metrics() {
+        HashMap<String, String> coverage = new HashMap<>();
+        coverage.put("percentage", "80");
+        HashMap<String, Object> codeCoverage = new HashMap<>();
+        codeCoverage.put("CODE_COVERAGE", coverage);
+        HashMap<String, String> noBuilds = new HashMap<>();
+        noBuilds.put("message", "BuildItems not configured");
+        HashMap<String, Object> deployScripts = new HashMap<>();
+        deployScripts.put("DEPLOY_SCRIPTS", noBuilds);
+        return Arrays.asList(codeCoverage, deployScripts);
+    }
+}
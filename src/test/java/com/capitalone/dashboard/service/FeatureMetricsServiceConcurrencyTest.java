@@ -0,0 +1,169 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.PatternRegistry;
+import com.capitalone.dashboard.model.Cmdb;
+import com.capitalone.dashboard.model.ComponentFeatureMetrics;
+import com.capitalone.dashboard.model.DashboardType;
+import com.capitalone.dashboard.model.LobFeatureMetrics;
+import com.capitalone.dashboard.model.ProductFeatureMetrics;
+import com.capitalone.dashboard.repository.CmdbRepository;
+import com.capitalone.dashboard.repository.ComponentRepository;
+import com.capitalone.dashboard.repository.DashboardRepository;
+import com.capitalone.dashboard.repository.FeatureMetricRollupRepository;
+import com.capitalone.dashboard.repository.FeatureRepository;
+import com.capitalone.dashboard.repository.LatestRecordQuery;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class FeatureMetricsServiceConcurrencyTest {
+
+    private static final String LOB = "Tech";
+
+    @Mock
+    private DashboardRepository dashboardRepository;
+    @Mock
+    private ComponentRepository componentRepository;
+    @Mock
+    private CmdbRepository cmdbRepository;
+    @Mock
+    private FeatureRepository featureRepository;
+    @Mock
+    private LatestRecordQuery latestRecordQuery;
+    @Mock
+    private FeatureMetricRollupRepository featureMetricRollupRepository;
+
+    private final ApiSettings settings = new ApiSettings();
+    private FeatureMetricServiceImpl service;
+
+    @Before
+    public void setup() {
+        settings.setFeatureMetricsThreadPoolSize(4);
+        settings.setFeatureMetricsApplicationConcurrency(2);
+        settings.setFeatureMetricsComponentConcurrency(2);
+        settings.setFeatureMetricsTimeoutSeconds(10);
+        when(cmdbRepository.findByItemTypeAndOwnerDeptAndValidConfigItem("app", LOB, true)).thenReturn(Arrays.asList(
+                cmdb("app1", "app1-a", "app1-b", "app1-c"), cmdb("app2", "app2-a"), cmdb("app3", "app3-a", "app3-b")));
+    }
+
+    @After
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void resultsKeepTheCmdbOrder() {
+        // later components finish first
+        when(dashboardRepository.findByTitleAndType(anyString(), eq(DashboardType.Team))).thenAnswer(invocation -> {
+            String name = (String) invocation.getArguments()[0];
+            Thread.sleep(name.endsWith("a") ? 150 : 10);
+            return null;
+        });
+        service = newService();
+
+        LobFeatureMetrics lobFeatureMetrics = service.getLobFeatureMetricsByType(LOB, "CODE_COVERAGE", true);
+
+        Assert.assertEquals(Arrays.asList("app1", "app2", "app3"), lobFeatureMetrics.getApplications().stream()
+                .map(ProductFeatureMetrics::getId).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("app1-a", "app1-b", "app1-c"), componentNames(lobFeatureMetrics.getApplications().get(0)));
+        Assert.assertEquals(Arrays.asList("app3-a", "app3-b"), componentNames(lobFeatureMetrics.getApplications().get(2)));
+        Assert.assertEquals("Component is not configured", lobFeatureMetrics.getApplications().get(0).getComponents().get(0).getMessage());
+        Assert.assertNull(lobFeatureMetrics.getMessage());
+    }
+
+    @Test
+    public void componentsPerApplicationAreLimited() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(dashboardRepository.findByTitleAndType(anyString(), any(DashboardType.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            running.decrementAndGet();
+            return null;
+        });
+        // a single application leaves the other threads of the pool to its components
+        settings.setFeatureMetricsApplicationConcurrency(1);
+        service = newService();
+
+        service.getLobFeatureMetrics(LOB, true);
+
+        Assert.assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void deadlineReturnsPartialResults() {
+        when(dashboardRepository.findByTitleAndType(anyString(), any(DashboardType.class))).thenAnswer(invocation -> {
+            if ("app1-b".equals(invocation.getArguments()[0])) {
+                Thread.sleep(5000);
+            }
+            return null;
+        });
+        settings.setFeatureMetricsTimeoutSeconds(1);
+        service = newService();
+
+        long start = System.currentTimeMillis();
+        LobFeatureMetrics lobFeatureMetrics = service.getLobFeatureMetrics(LOB, true);
+
+        Assert.assertTrue(System.currentTimeMillis() - start < 3000);
+        Assert.assertEquals("Feature metrics of 1 of 3 applications did not complete within 1 seconds", lobFeatureMetrics.getMessage());
+        ProductFeatureMetrics app1 = lobFeatureMetrics.getApplications().get(0);
+        Assert.assertEquals("1 of 3 components did not complete within 1 seconds", app1.getMessage());
+        Assert.assertEquals(Arrays.asList("app1-a", "app1-b", "app1-c"), componentNames(app1));
+        Assert.assertEquals("Component is not configured", app1.getComponents().get(0).getMessage());
+        Assert.assertEquals("Feature metrics did not complete within 1 seconds", app1.getComponents().get(1).getMessage());
+        Assert.assertNull(lobFeatureMetrics.getApplications().get(1).getMessage());
+        Assert.assertNull(lobFeatureMetrics.getApplications().get(2).getMessage());
+    }
+
+    @Test
+    public void zeroPoolSizeEvaluatesInline() {
+        settings.setFeatureMetricsThreadPoolSize(0);
+        List<String> threads = new ArrayList<>();
+        when(dashboardRepository.findByTitleAndType(anyString(), any(DashboardType.class))).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return null;
+        });
+        service = newService();
+
+        LobFeatureMetrics lobFeatureMetrics = service.getLobFeatureMetrics(LOB, true);
+
+        Assert.assertEquals(3, lobFeatureMetrics.getApplications().size());
+        Assert.assertEquals(6, threads.size());
+        Assert.assertTrue(threads.stream().allMatch(Thread.currentThread().getName()::equals));
+    }
+
+    private FeatureMetricServiceImpl newService() {
+        return new FeatureMetricServiceImpl(dashboardRepository, componentRepository, cmdbRepository, featureRepository,
+                featureMetricRollupRepository, latestRecordQuery, settings, new PatternRegistry(settings));
+    }
+
+    private static List<String> componentNames(ProductFeatureMetrics productFeatureMetrics) {
+        return productFeatureMetrics.getComponents().stream().map(ComponentFeatureMetrics::getName).collect(Collectors.toList());
+    }
+
+    private static Cmdb cmdb(String configurationItem, String... components) {
+        Cmdb cmdb = new Cmdb();
+        cmdb.setConfigurationItem(configurationItem);
+        cmdb.setCommonName(configurationItem);
+        cmdb.setOwnerDept(LOB);
+        cmdb.setComponents(Arrays.asList(components));
+        return cmdb;
+    }
+}
@@ -78,7 +78,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getFeatureMetrics(){
-        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetrics("TestSSA");
+        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetrics("TestSSA", true);
 
         Assert.assertEquals("TestSSA", featureMetrics.getId());
         Assert.assertEquals("Component", featureMetrics.getType());
@@ -89,7 +89,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getFetatureMetricsByType(){
-        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetricByType("TestSSA","FEATURE_TEST_PASS");
+        ComponentFeatureMetrics featureMetrics = featureMetricsService.getComponentFeatureMetricByType("TestSSA","FEATURE_TEST_PASS", true);
         Assert.assertEquals("TestSSA", featureMetrics.getId());
         Assert.assertEquals("Component", featureMetrics.getType());
         Assert.assertEquals("TestAudit", featureMetrics.getName());
@@ -99,7 +99,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getProductFeatureMetrics(){
-        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetrics("product1");
+        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetrics("product1", true);
         Assert.assertEquals("product1", productFeatureMetrics.getId());
         Assert.assertEquals("TestAudit", productFeatureMetrics.getName());
         Assert.assertEquals("application", productFeatureMetrics.getType());
@@ -112,7 +112,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getProductFeatureMetricsByType(){
-        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetricsByType("product1","FEATURE_TEST_PASS");
+        ProductFeatureMetrics productFeatureMetrics = featureMetricsService.getProductFeatureMetricsByType("product1","FEATURE_TEST_PASS", true);
         Assert.assertEquals("product1", productFeatureMetrics.getId());
         Assert.assertEquals("TestAudit", productFeatureMetrics.getName());
         Assert.assertEquals("application", productFeatureMetrics.getType());
@@ -125,7 +125,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getLobFeatureMetrics(){
-        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetrics("Tech");
+        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetrics("Tech", true);
         Assert.assertEquals("Tech", lobFeatureMetrics.getName());
         Assert.assertEquals("lob", lobFeatureMetrics.getType());
         Assert.assertEquals("product1", lobFeatureMetrics.getApplications().get(0).getId());
@@ -139,7 +139,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getLobFeatureMetricsByType(){
-        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetricsByType("Tech","FEATURE_TEST_PASS");
+        LobFeatureMetrics lobFeatureMetrics = featureMetricsService.getLobFeatureMetricsByType("Tech","FEATURE_TEST_PASS", true);
         Assert.assertEquals("Tech", lobFeatureMetrics.getName());
         Assert.assertEquals("lob", lobFeatureMetrics.getType());
         Assert.assertEquals("product1", lobFeatureMetrics.getApplications().get(0).getId());
@@ -154,7 +154,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getExecutiveFeatureMetrics(){
-        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetrics("chow");
+        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetrics("chow", true);
         Assert.assertEquals("chow", executiveFeatureMetrics.getName());
         Assert.assertEquals("executive", executiveFeatureMetrics.getType());
         Assert.assertEquals("product1", executiveFeatureMetrics.getApplications().get(0).getId());
@@ -169,7 +169,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getExecutiveFeatureMetricsByType(){
-        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetricsByType("chow","FEATURE_TEST_PASS");
+        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetricsByType("chow","FEATURE_TEST_PASS", true);
         Assert.assertEquals("chow", executiveFeatureMetrics.getName());
         Assert.assertEquals("executive", executiveFeatureMetrics.getType());
         Assert.assertEquals("100", executiveFeatureMetrics.getPercentage());
@@ -185,7 +185,7 @@ public class FeatureMetricsServiceTest {
 
     @Test
     public void getExecutiveTraceabilityByType(){
-        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetricsByType("chow","TRACEABILITY");
+        ExecutiveFeatureMetrics executiveFeatureMetrics = featureMetricsService.getExecutiveFeatureMetricsByType("chow","TRACEABILITY", true);
         Assert.assertEquals("chow", executiveFeatureMetrics.getName());
         Assert.assertEquals("executive", executiveFeatureMetrics.getType());
         Assert.assertEquals("50", executiveFeatureMetrics.getPercentage());
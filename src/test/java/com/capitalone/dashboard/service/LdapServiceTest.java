@@ -0,0 +1,272 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.model.AuthType;
+import com.capitalone.dashboard.model.UserEntitlements;
+import com.capitalone.dashboard.repository.UserEntitlementsLookupRepository;
+import com.capitalone.dashboard.repository.UserEntitlementsRepository;
+import com.capitalone.dashboard.settings.AuthProperties;
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.ldap.core.LdapTemplate;
+import org.springframework.ldap.core.support.LdapContextSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the DN lookups against an in-memory LDAP server
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LdapServiceTest {
+
+    private static final String BASE_DN = "dc=example,dc=com";
+    private static final String BIND_DN = "cn=bind," + BASE_DN;
+    private static final String BIND_PASSWORD = "secret";
+    private static final String SERVICE_ACCOUNT_DN = "cn=svc-build,ou=service," + BASE_DN;
+    private static final String USER_DN = "cn=jdoe,ou=people," + BASE_DN;
+
+    @Mock
+    private UserEntitlementsRepository userEntitlementsRepository;
+    @Mock
+    private UserEntitlementsLookupRepository userEntitlementsLookupRepository;
+
+    private InMemoryDirectoryServer server;
+    private LdapServiceImpl ldapService;
+
+    @Before
+    public void setup() throws Exception {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE_DN);
+        config.addAdditionalBindCredentials(BIND_DN, BIND_PASSWORD);
+        config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("ldap", 0));
+        // Active Directory attributes such as userPrincipalName are not in the default schema
+        config.setSchema(null);
+        server = new InMemoryDirectoryServer(config);
+        server.add("dn: " + BASE_DN, "objectClass: domain", "dc: example");
+        server.add("dn: ou=service," + BASE_DN, "objectClass: organizationalUnit", "ou: service");
+        server.add("dn: ou=people," + BASE_DN, "objectClass: organizationalUnit", "ou: people");
+        server.add("dn: " + SERVICE_ACCOUNT_DN, "objectClass: user", "cn: svc-build",
+                "userPrincipalName: svc-build@example.com", "distinguishedName: " + SERVICE_ACCOUNT_DN);
+        server.add("dn: " + USER_DN, "objectClass: user", "cn: jdoe",
+                "userPrincipalName: jdoe@example.com", "distinguishedName: " + USER_DN);
+        server.startListening();
+
+        AuthProperties authProperties = new AuthProperties();
+        authProperties.setAdDomain("example.com");
+        authProperties.setAdSvcRootDn("ou=service," + BASE_DN);
+        authProperties.setAdUserRootDn("ou=people," + BASE_DN);
+
+        LdapContextSource contextSource = new LdapContextSource();
+        contextSource.setUrl("ldap://localhost:" + server.getListenPort());
+        contextSource.setUserDn(BIND_DN);
+        contextSource.setPassword(BIND_PASSWORD);
+        contextSource.setPooled(true);
+        contextSource.afterPropertiesSet();
+
+        ApiSettings settings = new ApiSettings();
+        settings.setLdapDnCacheTtlSeconds(3600);
+        settings.setLdapDnNegativeCacheTtlSeconds(300);
+        settings.setLdapDnCacheMaxSize(100);
+        settings.setLdapSearchBatchSize(2);
+        settings.setLdapSearchThreadPoolSize(2);
+        ldapService = new LdapServiceImpl(authProperties, settings, userEntitlementsRepository, userEntitlementsLookupRepository,
+                new LdapTemplate(contextSource));
+    }
+
+    @After
+    public void tearDown() {
+        ldapService.shutdown();
+        server.shutDown(true);
+    }
+
+    @Test
+    public void serviceAccountIsFoundAndSaved() {
+        Assert.assertEquals(SERVICE_ACCOUNT_DN, ldapService.getLdapDN("svc-build"));
+
+        ArgumentCaptor<UserEntitlements> saved = ArgumentCaptor.forClass(UserEntitlements.class);
+        verify(userEntitlementsRepository).save(saved.capture());
+        Assert.assertEquals("svc-build", saved.getValue().getUsername());
+        Assert.assertEquals(SERVICE_ACCOUNT_DN, saved.getValue().getEntitlements());
+    }
+
+    @Test
+    public void userIsFoundUnderTheUserRoot() {
+        Assert.assertEquals(USER_DN, ldapService.getLdapDN("jdoe"));
+    }
+
+    @Test
+    public void resolvedNameIsCached() {
+        ldapService.getLdapDN("jdoe");
+        Assert.assertEquals(USER_DN, ldapService.getLdapDN("jdoe"));
+
+        verify(userEntitlementsRepository, times(1)).findTopByAuthTypeAndEntitlementTypeAndUsername(AuthType.LDAP, "distinguishedName", "jdoe");
+        Assert.assertEquals(1, ldapService.getResolvedCacheStats().hitCount());
+    }
+
+    @Test
+    public void unknownLoginIsCachedAsUnknown() {
+        Assert.assertEquals("", ldapService.getLdapDN("dependabot"));
+        Assert.assertEquals("", ldapService.getLdapDN("dependabot"));
+
+        verify(userEntitlementsRepository, times(1)).findTopByAuthTypeAndEntitlementTypeAndUsername(AuthType.LDAP, "distinguishedName", "dependabot");
+        verify(userEntitlementsRepository, never()).save(any(UserEntitlements.class));
+        Assert.assertEquals(1, ldapService.getUnknownCacheStats().hitCount());
+    }
+
+    @Test
+    public void failedSearchIsNotCached() {
+        server.shutDown(true);
+
+        Assert.assertEquals("", ldapService.getLdapDN("jdoe"));
+        Assert.assertEquals("", ldapService.getLdapDN("jdoe"));
+
+        verify(userEntitlementsRepository, times(2)).findTopByAuthTypeAndEntitlementTypeAndUsername(AuthType.LDAP, "distinguishedName", "jdoe");
+    }
+
+    @Test
+    public void concurrentLookupsShareOneSearch() throws Exception {
+        when(userEntitlementsRepository.findTopByAuthTypeAndEntitlementTypeAndUsername(eq(AuthType.LDAP), anyString(), eq("jdoe")))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return null;
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(() -> ldapService.getLdapDN("jdoe"));
+            }
+            for (Future<String> dn : executor.invokeAll(lookups)) {
+                Assert.assertEquals(USER_DN, dn.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(userEntitlementsRepository, times(1)).findTopByAuthTypeAndEntitlementTypeAndUsername(eq(AuthType.LDAP), anyString(), eq("jdoe"));
+        verify(userEntitlementsRepository, times(1)).save(any(UserEntitlements.class));
+    }
+
+    @Test
+    public void distinctLoginsAreResolvedTogether() {
+        UserEntitlements saved = new UserEntitlements();
+        saved.setUsername("saved");
+        saved.setEntitlements("cn=saved," + BASE_DN);
+        when(userEntitlementsLookupRepository.findByAuthTypeAndEntitlementTypeAndUsernameIn(eq(AuthType.LDAP), eq("distinguishedName"), anyCollectionOf(String.class)))
+                .thenReturn(Collections.singletonList(saved));
+
+        Map<String, String> dns = ldapService.getLdapDNs(Arrays.asList("jdoe", "svc-build", "saved", "dependabot", "jdoe", null));
+
+        Assert.assertEquals(4, dns.size());
+        Assert.assertEquals(USER_DN, dns.get("jdoe"));
+        Assert.assertEquals(SERVICE_ACCOUNT_DN, dns.get("svc-build"));
+        Assert.assertEquals("cn=saved," + BASE_DN, dns.get("saved"));
+        Assert.assertEquals("", dns.get("dependabot"));
+        verify(userEntitlementsLookupRepository, times(1)).findByAuthTypeAndEntitlementTypeAndUsernameIn(eq(AuthType.LDAP), eq("distinguishedName"), anyCollectionOf(String.class));
+        verify(userEntitlementsRepository, never()).findTopByAuthTypeAndEntitlementTypeAndUsername(any(AuthType.class), anyString(), anyString());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserEntitlements>> newEntitlements = ArgumentCaptor.forClass((Class) List.class);
+        verify(userEntitlementsRepository).saveAll(newEntitlements.capture());
+        Assert.assertEquals(2, newEntitlements.getValue().size());
+
+        // all of them are cached now, unknown ones included
+        Assert.assertEquals(USER_DN, ldapService.getLdapDN("jdoe"));
+        Assert.assertEquals("", ldapService.getLdapDN("dependabot"));
+        Assert.assertEquals(dns, ldapService.getLdapDNs(Arrays.asList("jdoe", "svc-build", "saved", "dependabot")));
+        verify(userEntitlementsLookupRepository, times(1)).findByAuthTypeAndEntitlementTypeAndUsernameIn(eq(AuthType.LDAP), eq("distinguishedName"), anyCollectionOf(String.class));
+        verify(userEntitlementsRepository, never()).findTopByAuthTypeAndEntitlementTypeAndUsername(any(AuthType.class), anyString(), anyString());
+    }
+
+    @Test
+    public void storedUnknownLoginIsNotSearchedInBulk() {
+        UserEntitlements stored = new UserEntitlements();
+        stored.setUsername("jdoe");
+        stored.setEntitlements("");
+        when(userEntitlementsLookupRepository.findByAuthTypeAndEntitlementTypeAndUsernameIn(eq(AuthType.LDAP), eq("distinguishedName"), anyCollectionOf(String.class)))
+                .thenReturn(Collections.singletonList(stored));
+
+        // jdoe is in the directory, but the stored record marks it unknown just as getLdapDN does
+        Assert.assertEquals("", ldapService.getLdapDNs(Collections.singletonList("jdoe")).get("jdoe"));
+        Assert.assertEquals("", ldapService.getLdapDN("jdoe"));
+
+        verify(userEntitlementsRepository, never()).saveAll(anyCollectionOf(UserEntitlements.class));
+        verify(userEntitlementsRepository, never()).findTopByAuthTypeAndEntitlementTypeAndUsername(any(AuthType.class), anyString(), anyString());
+        Assert.assertEquals(1, ldapService.getUnknownCacheStats().hitCount());
+    }
+
+    @Test
+    public void concurrentBulkLookupsSaveEachLoginOnce() throws Exception {
+        when(userEntitlementsLookupRepository.findByAuthTypeAndEntitlementTypeAndUsernameIn(eq(AuthType.LDAP), eq("distinguishedName"), anyCollectionOf(String.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return Collections.emptyList();
+                });
+        when(userEntitlementsRepository.findTopByAuthTypeAndEntitlementTypeAndUsername(eq(AuthType.LDAP), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(200);
+                    return null;
+                });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<String>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add((i % 2 == 0)
+                        ? () -> ldapService.getLdapDNs(Arrays.asList("jdoe", "svc-build")).get("jdoe")
+                        : () -> ldapService.getLdapDN("jdoe"));
+            }
+            for (Future<String> dn : executor.invokeAll(lookups)) {
+                Assert.assertEquals(USER_DN, dn.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<UserEntitlements>> bulkSaves = ArgumentCaptor.forClass((Class) List.class);
+        verify(userEntitlementsRepository, atLeast(0)).saveAll(bulkSaves.capture());
+        ArgumentCaptor<UserEntitlements> singleSaves = ArgumentCaptor.forClass(UserEntitlements.class);
+        verify(userEntitlementsRepository, atLeast(0)).save(singleSaves.capture());
+        List<String> savedLogins = new ArrayList<>();
+        bulkSaves.getAllValues().forEach(saved -> saved.forEach(entitlements -> savedLogins.add(entitlements.getUsername())));
+        singleSaves.getAllValues().forEach(entitlements -> savedLogins.add(entitlements.getUsername()));
+        Collections.sort(savedLogins);
+        Assert.assertEquals(Arrays.asList("jdoe", "svc-build"), savedLogins);
+    }
+
+    @Test
+    public void failedBatchSearchIsNotCached() {
+        server.shutDown(true);
+
+        Assert.assertEquals("", ldapService.getLdapDNs(Collections.singletonList("jdoe")).get("jdoe"));
+        Assert.assertEquals("", ldapService.getLdapDNs(Collections.singletonList("jdoe")).get("jdoe"));
+
+        verify(userEntitlementsLookupRepository, times(2)).findByAuthTypeAndEntitlementTypeAndUsernameIn(eq(AuthType.LDAP), eq("distinguishedName"), anyCollectionOf(String.class));
+    }
+}
@@ -0,0 +1,71 @@
+package com.capitalone.dashboard.service;
+
+import com.capitalone.dashboard.ApiSettings;
+import com.capitalone.dashboard.common.ServiceAccountSnapshot;
+import com.capitalone.dashboard.model.ServiceAccount;
+import com.capitalone.dashboard.repository.ServiceAccountRepository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import java.util.Arrays;
+
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ServiceAccountServiceTest {
+
+    @Mock
+    private ServiceAccountRepository serviceAccountRepository;
+
+    private final ApiSettings settings = new ApiSettings();
+
+    @Before
+    public void setup() {
+        when(serviceAccountRepository.findAll()).thenReturn(Arrays.asList(
+                new ServiceAccount("releaseBot", "pom.xml,*.json"),
+                new ServiceAccount("docsBot", "README.md")));
+    }
+
+    @Test
+    public void snapshotIsReusedWithinTtl() {
+        settings.setServiceAccountCacheTtlSeconds(300);
+        ServiceAccountServiceImpl service = new ServiceAccountServiceImpl(serviceAccountRepository, settings);
+
+        ServiceAccountSnapshot first = service.getServiceAccounts();
+        ServiceAccountSnapshot second = service.getServiceAccounts();
+
+        Assert.assertSame(first, second);
+        Assert.assertEquals(2, service.getSize());
+        Assert.assertEquals(1, service.getRefreshCount());
+        verify(serviceAccountRepository, times(1)).findAll();
+    }
+
+    @Test
+    public void zeroTtlReloadsEveryTime() {
+        settings.setServiceAccountCacheTtlSeconds(0);
+        ServiceAccountServiceImpl service = new ServiceAccountServiceImpl(serviceAccountRepository, settings);
+
+        service.getServiceAccounts();
+        service.getServiceAccounts();
+
+        verify(serviceAccountRepository, times(2)).findAll();
+    }
+
+    @Test
+    public void snapshotMatchesAccountAndFiles() {
+        settings.setServiceAccountCacheTtlSeconds(300);
+        ServiceAccountSnapshot accounts = new ServiceAccountServiceImpl(serviceAccountRepository, settings).getServiceAccounts();
+
+        Assert.assertTrue(accounts.isAllowed("ReleaseBot", Arrays.asList("config/settings.JSON")));
+        Assert.assertTrue(accounts.isAllowed("releasebot", Arrays.asList("module/pom.xml")));
+        Assert.assertFalse(accounts.isAllowed("releaseBot", Arrays.asList("src/Main.java")));
+        Assert.assertFalse(accounts.isAllowed("docsBot", Arrays.asList("pom.xml")));
+        Assert.assertFalse(accounts.isAllowed("someone", Arrays.asList("README.md")));
+    }
+}
@@ -0,0 +1,93 @@
+package com.capitalone.dashboard.util;
+
+import com.capitalone.dashboard.ApiSettings;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class ConditionalResponseUtilityTest {
+
+    private final ApiSettings settings = new ApiSettings();
+    private final AtomicInteger reads = new AtomicInteger();
+    private final Supplier<Object> body = () -> {
+        reads.incrementAndGet();
+        return Collections.singletonMap("auditStatus", "OK");
+    };
+
+    private ConditionalResponseUtility conditionalResponseUtility;
+    private MockHttpServletRequest request;
+
+    @Before
+    public void setup() {
+        settings.setAuditResponseCacheMaxBytes(1024);
+        conditionalResponseUtility = new ConditionalResponseUtility(settings);
+        request = new MockHttpServletRequest("GET", "/auditresult/dashboard/title/dashboard");
+    }
+
+    @Test
+    public void eTagChangesWithTheDocumentsAndTheRequest() {
+        String eTag = conditionalResponseUtility.getETag(request, Arrays.asList("id:1000", 1L));
+
+        Assert.assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+        Assert.assertEquals(eTag, conditionalResponseUtility.getETag(request, Arrays.asList("id:1000", 1L)));
+        Assert.assertNotEquals(eTag, conditionalResponseUtility.getETag(request, Arrays.asList("id:2000", 1L)));
+        request.setQueryString("fields=auditStatus");
+        Assert.assertNotEquals(eTag, conditionalResponseUtility.getETag(request, Arrays.asList("id:1000", 1L)));
+    }
+
+    @Test
+    public void matchingIfNoneMatchIsNotModified() {
+        String eTag = conditionalResponseUtility.getETag(request, Collections.singletonList("id:1000"));
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + eTag);
+
+        ResponseEntity<byte[]> response = conditionalResponseUtility.respond(request, eTag, new HttpHeaders(), body);
+
+        Assert.assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        Assert.assertEquals(eTag, response.getHeaders().getETag());
+        Assert.assertNull(response.getBody());
+        Assert.assertEquals(0, reads.get());
+    }
+
+    @Test
+    public void serializedResponsesAreCachedByETag() {
+        String eTag = conditionalResponseUtility.getETag(request, Collections.singletonList("id:1000"));
+
+        ResponseEntity<byte[]> first = conditionalResponseUtility.respond(request, eTag, new HttpHeaders(), body);
+        ResponseEntity<byte[]> second = conditionalResponseUtility.respond(request, eTag, new HttpHeaders(), body);
+
+        Assert.assertEquals(HttpStatus.OK, second.getStatusCode());
+        Assert.assertEquals(eTag, second.getHeaders().getETag());
+        Assert.assertEquals("{\"auditStatus\":\"OK\"}", new String(second.getBody(), StandardCharsets.UTF_8));
+        Assert.assertSame(first.getBody(), second.getBody());
+        Assert.assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void disabledCacheSerializesEveryResponse() {
+        settings.setAuditResponseCacheMaxBytes(0);
+        conditionalResponseUtility = new ConditionalResponseUtility(settings);
+        String eTag = conditionalResponseUtility.getETag(request, Collections.singletonList("id:1000"));
+
+        conditionalResponseUtility.respond(request, eTag, new HttpHeaders(), body);
+        conditionalResponseUtility.respond(request, eTag, new HttpHeaders(), body);
+
+        Assert.assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void missingRepresentationIsNotTagged() {
+        String eTag = conditionalResponseUtility.getETag(request, Collections.singletonList("id:1000"));
+
+        Assert.assertNull(conditionalResponseUtility.respond(request, eTag, new HttpHeaders(), () -> null));
+    }
+}